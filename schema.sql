@@ -29,6 +29,7 @@ CREATE TABLE IF NOT EXISTS raw_orders (
     channel_order_no VARCHAR(100) NOT NULL,
     raw_data JSONB NOT NULL,
     collected_at TIMESTAMP DEFAULT NOW(),
+    batch_id UUID,
     processed BOOLEAN DEFAULT false,
     processed_at TIMESTAMP,
     error_message TEXT,
@@ -39,10 +40,12 @@ CREATE TABLE IF NOT EXISTS raw_orders (
 COMMENT ON TABLE raw_orders IS '수집된 원본 주문 데이터';
 COMMENT ON COLUMN raw_orders.raw_data IS '판매처에서 수집한 원본 JSON 데이터';
 COMMENT ON COLUMN raw_orders.processed IS '정규화 처리 완료 여부';
+COMMENT ON COLUMN raw_orders.batch_id IS '수집 배치 ID (collection_batches 원본 응답 참조)';
 
 CREATE INDEX idx_raw_orders_channel ON raw_orders(channel_id);
 CREATE INDEX idx_raw_orders_processed ON raw_orders(processed, collected_at);
 CREATE INDEX idx_raw_orders_collected_at ON raw_orders(collected_at DESC);
+CREATE INDEX idx_raw_orders_batch_id ON raw_orders(batch_id);
 
 -- 3. 정규화된 주문 (Orders)
 CREATE TABLE IF NOT EXISTS orders (
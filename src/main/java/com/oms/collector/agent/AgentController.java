@@ -5,9 +5,10 @@ import com.oms.collector.agent.dto.AgentExecuteResponse;
 import com.oms.collector.agent.dto.AgentExportRequest;
 import com.oms.collector.agent.dto.AgentChatRequest;
 import com.oms.collector.agent.dto.AgentChatResponse;
+import com.oms.collector.service.job.JobResult;
+import com.oms.collector.service.job.JobService;
+import com.oms.collector.service.job.JobView;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -15,6 +16,11 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/agent")
 @RequiredArgsConstructor
@@ -24,6 +30,10 @@ public class AgentController {
     private final OmsAgentService omsAgentService;
     private final AgentActionService agentActionService;
     private final AgentExportService agentExportService;
+    private final JobService jobService;
+
+    private static final String EXPORT_FILE_NAME = "oms-agent-export.xlsx";
+    private static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
 
     @PostMapping("/chat")
     public ResponseEntity<AgentChatResponse> chat(@RequestBody AgentChatRequest request) {
@@ -35,12 +45,20 @@ public class AgentController {
         return ResponseEntity.ok(agentActionService.execute(request.confirmationToken()));
     }
 
+    /**
+     * 조회 결과 엑셀 내보내기 — 백그라운드 작업 (202 + jobId, 파일은 /api/jobs/{jobId}/result)
+     */
     @PostMapping("/export")
-    public ResponseEntity<byte[]> export(@RequestBody AgentExportRequest request) throws Exception {
-        byte[] file = agentExportService.export(request);
-        return ResponseEntity.ok()
-            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"oms-agent-export.xlsx\"")
-            .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-            .body(file);
+    public ResponseEntity<Map<String, Object>> export(@RequestBody AgentExportRequest request) {
+        JobView job = jobService.submit("AGENT_EXPORT", context -> {
+            Path target = context.resultFile(EXPORT_FILE_NAME);
+            try (OutputStream out = Files.newOutputStream(target)) {
+                agentExportService.export(request, out, context);
+            }
+            int toolCalls = request.toolCalls() != null ? request.toolCalls().size() : 0;
+            return JobResult.file(target, EXPORT_FILE_NAME, XLSX_CONTENT_TYPE,
+                Map.of("success", true, "toolCalls", toolCalls));
+        });
+        return ResponseEntity.accepted().body(job.acceptedBody("엑셀 내보내기를 시작했습니다"));
     }
 }
@@ -1,6 +1,7 @@
 package com.oms.collector.agent;
 
 import com.oms.collector.agent.dto.AgentExportRequest;
+import com.oms.collector.service.job.JobContext;
 import lombok.RequiredArgsConstructor;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
@@ -8,8 +9,8 @@ import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -25,9 +26,11 @@ public class AgentExportService {
 
     private final OmsAgentToolService toolService;
 
-    public byte[] export(AgentExportRequest request) throws IOException {
-        try (XSSFWorkbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+    /**
+     * 조회 도구 호출 결과를 엑셀로 기록 — 도구 호출마다 진행률·취소 확인 (백그라운드 작업에서 호출)
+     */
+    public void export(AgentExportRequest request, OutputStream output, JobContext job) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
 
             List<Map<String, Object>> toolCalls = request.toolCalls() != null ? request.toolCalls() : List.of();
             XSSFSheet summarySheet = workbook.createSheet("요약");
@@ -39,6 +42,8 @@ public class AgentExportService {
 
             int index = 1;
             for (Map<String, Object> toolCall : toolCalls) {
+                job.checkCancelled();
+                job.progress(index - 1, toolCalls.size());
                 String name = String.valueOf(toolCall.getOrDefault("name", "unknown"));
                 Map<String, Object> args = asMap(toolCall.get("arguments"));
                 Map<String, Object> result = toolService.executeTool(name, args);
@@ -55,7 +60,7 @@ public class AgentExportService {
 
             autosize(summarySheet, 6);
             workbook.write(output);
-            return output.toByteArray();
+            job.progress(toolCalls.size(), toolCalls.size());
         }
     }
 
@@ -271,7 +271,7 @@ public class OmsAgentService {
         ));
         tools.add(functionTool(
             "search_orders",
-            "주문번호, 송장번호, 수취인, 고객명, 판매처명으로 주문을 조회한다. 결과에는 송장번호(trackingNo)와 택배사(carrierName)가 포함된다. status는 ALL 또는 PENDING, CONFIRMED, SHIPPED, CANCELLED를 사용한다.",
+            "주문번호, 송장번호, 수취인, 고객명, 연락처, 주소, 상품명으로 주문을 조회한다(일치도 순). 결과에는 송장번호(trackingNo)와 택배사(carrierName)가 포함된다. status는 ALL 또는 PENDING, CONFIRMED, SHIPPED, CANCELLED를 사용한다.",
             """
                 {
                   "type": "object",
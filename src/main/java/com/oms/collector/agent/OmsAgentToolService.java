@@ -1,6 +1,7 @@
 package com.oms.collector.agent;
 
 import com.oms.collector.entity.Order;
+import com.oms.collector.entity.OrderInvoice;
 import com.oms.collector.entity.OrderItem;
 import com.oms.collector.entity.PrintType;
 import com.oms.collector.entity.Product;
@@ -9,10 +10,10 @@ import com.oms.collector.repository.OrderRepository;
 import com.oms.collector.repository.PrintTypeRepository;
 import com.oms.collector.repository.ProductRepository;
 import com.oms.collector.repository.ProductReturnRepository;
+import com.oms.collector.service.KeywordSearchService;
+import com.oms.collector.service.OrderInvoiceService;
 import com.oms.collector.service.ProductSearchService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +25,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,13 +34,14 @@ import java.util.stream.Collectors;
 public class OmsAgentToolService {
 
     private static final ZoneId OMS_ZONE = ZoneId.of("Asia/Seoul");
-    private static final String INVOICE_PREFIX = "INVOICE:";
 
     private final OrderRepository orderRepository;
     private final PrintTypeRepository printTypeRepository;
     private final ProductRepository productRepository;
     private final ProductReturnRepository productReturnRepository;
     private final ProductSearchService productSearchService;
+    private final OrderInvoiceService orderInvoiceService;
+    private final KeywordSearchService keywordSearchService;
 
     public Map<String, Object> getOrderOverview(String period) {
         LocalDate today = LocalDate.now(OMS_ZONE);
@@ -107,11 +110,14 @@ public class OmsAgentToolService {
     public Map<String, Object> searchOrders(String keyword, String status, Integer limit) {
         int safeLimit = Math.min(Math.max(limit == null ? 10 : limit, 1), 20);
         Order.OrderStatus orderStatus = parseStatus(status);
-        List<Order> orders = orderRepository.searchForAgent(keyword, orderStatus, PageRequest.of(0, safeLimit, Sort.by(Sort.Direction.DESC, "orderedAt")));
+        List<Order> orders = keywordSearchService.searchOrders(new KeywordSearchService.OrderCriteria(
+            keyword, KeywordSearchService.Field.ALL, orderStatus != null ? List.of(orderStatus) : null,
+            KeywordSearchService.DateBasis.ORDERED, null, null, safeLimit));
 
+        Map<UUID, OrderInvoice> invoices = orderInvoiceService.findByOrders(orders);
         List<Map<String, Object>> items = orders.stream()
             .map(o -> {
-                InvoiceInfo invoice = extractInvoiceInfo(o.getDeliveryMemo());
+                OrderInvoice invoice = invoices.get(o.getOrderId());
                 Map<String, Object> row = new LinkedHashMap<>();
                 row.put("orderNo", o.getOrderNo());
                 row.put("status", o.getOrderStatus().name());
@@ -121,9 +127,9 @@ public class OmsAgentToolService {
                 row.put("orderedAt", o.getOrderedAt() != null ? o.getOrderedAt().toString() : "");
                 row.put("productSummary", summarizeItems(o));
                 row.put("invoiceEntered", invoice != null);
-                row.put("carrierCode", invoice != null ? nullable(invoice.carrierCode()) : "");
-                row.put("carrierName", invoice != null ? nullable(invoice.carrierName()) : "");
-                row.put("trackingNo", invoice != null ? nullable(invoice.trackingNo()) : "");
+                row.put("carrierCode", invoice != null ? nullable(invoice.getCarrierCode()) : "");
+                row.put("carrierName", invoice != null ? nullable(invoice.getCarrierName()) : "");
+                row.put("trackingNo", invoice != null ? nullable(invoice.getTrackingNo()) : "");
                 return row;
             })
             .toList();
@@ -535,50 +541,6 @@ public class OmsAgentToolService {
         return value != null ? value : "";
     }
 
-    private InvoiceInfo extractInvoiceInfo(String memo) {
-        if (memo == null || memo.isBlank()) {
-            return null;
-        }
-        String carrierCode = findMemoValue(memo, "CARRIER");
-        String carrierName = findMemoValue(memo, "CARRIER_NAME");
-        String trackingNo = findMemoValue(memo, "TRACKING");
-        if (carrierCode.isBlank() && carrierName.isBlank() && trackingNo.isBlank()) {
-            return null;
-        }
-        return new InvoiceInfo(carrierCode, carrierName, trackingNo);
-    }
-
-    private String findMemoValue(String memo, String key) {
-        String upperKey = key.toUpperCase(Locale.ROOT);
-        for (String part : memo.split("\\|")) {
-            String trimmed = part.trim();
-            int invoiceIdx = trimmed.indexOf(INVOICE_PREFIX);
-            if (invoiceIdx >= 0) {
-                trimmed = trimmed.substring(invoiceIdx + INVOICE_PREFIX.length()).trim();
-            }
-            int equalsIdx = trimmed.indexOf('=');
-            int colonIdx = trimmed.indexOf(':');
-            int sepIdx;
-            if (equalsIdx < 0) {
-                sepIdx = colonIdx;
-            } else if (colonIdx < 0) {
-                sepIdx = equalsIdx;
-            } else {
-                sepIdx = Math.min(equalsIdx, colonIdx);
-            }
-            if (sepIdx < 0) {
-                continue;
-            }
-            String foundKey = trimmed.substring(0, sepIdx).trim().toUpperCase(Locale.ROOT);
-            if (upperKey.equals(foundKey)) {
-                return trimmed.substring(sepIdx + 1).trim();
-            }
-        }
-        return "";
-    }
-
-    private record InvoiceInfo(String carrierCode, String carrierName, String trackingNo) {}
-
     private static class ProductSummary {
         private int quantity;
         private final LinkedHashSet<String> orderNos = new LinkedHashSet<>();
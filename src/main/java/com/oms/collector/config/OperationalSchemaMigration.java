@@ -1,17 +1,23 @@
 package com.oms.collector.config;
 
+import com.oms.collector.service.KeywordSearchService;
+import com.oms.collector.service.TablePartitionService;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 @Slf4j
 @Component("operationalSchemaMigration")
 @RequiredArgsConstructor
 public class OperationalSchemaMigration {
 
     private final JdbcTemplate jdbcTemplate;
+    private final TablePartitionService tablePartitionService;
 
     @PostConstruct
     public void migrate() {
@@ -19,12 +25,24 @@ public class OperationalSchemaMigration {
         migrateOrders();
         migrateOrderItems();
         migrateProducts();
+        migrateProductCodes();
         migratePrintTypes();
         migrateSabangnetIntegrations();
         migrateInvoiceApiLogs();
         migrateRecordingVideos();
         migrateCarrierContracts();
         migrateWorkLocks();
+        migrateCollectionBatches();
+        migrateRawOrders();
+        migrateOrderSequences();
+        migrateWarehouseStockLedger();
+        migrateInventoryLedger();
+        migrateStockMatchingChanges();
+        migrateMarketSyncOutbox();
+        migrateOrderInvoices();
+        migrateSearchIndexes();
+        migrateInvoiceIssueItems();
+        migrateJobs();
         log.info("운영 스키마 보정 완료");
     }
 
@@ -81,6 +99,9 @@ public class OperationalSchemaMigration {
         execute("ALTER TABLE orders ALTER COLUMN inspection_completed SET NOT NULL");
 
         execute("ALTER TABLE orders ADD COLUMN IF NOT EXISTS invoice_assigned_at TIMESTAMP");
+
+        // 상태 + 변경일 기간 조회 (출고/취소 내역 등) — orders 는 FK 로 참조되어 파티션 대신 복합 인덱스
+        execute("CREATE INDEX IF NOT EXISTS idx_orders_status_updated_at ON orders(order_status, updated_at)");
     }
 
     private void migrateOrderItems() {
@@ -98,13 +119,7 @@ public class OperationalSchemaMigration {
     }
 
     private void migrateProducts() {
-        migrateProductsForSchema("public");
-        jdbcTemplate.queryForList(
-            "SELECT schema_name FROM information_schema.schemata " +
-            "WHERE schema_name NOT IN ('public','information_schema','pg_catalog','pg_toast') " +
-            "  AND schema_name NOT LIKE 'pg_%'",
-            String.class
-        ).forEach(this::migrateProductsForSchema);
+        forEachTenantSchema(this::migrateProductsForSchema);
     }
 
     private void migrateProductsForSchema(String schema) {
@@ -122,6 +137,77 @@ public class OperationalSchemaMigration {
         execute("ALTER TABLE %sproducts ALTER COLUMN color TYPE VARCHAR(100) USING color::VARCHAR".formatted(prefix));
     }
 
+    private void migrateProductCodes() {
+        forEachTenantSchema(this::migrateProductCodesForSchema);
+    }
+
+    /**
+     * product_codes — 상품 코드(sku / barcode / barcode2 / option_code) 소문자 정규화 조회 테이블
+     * 주문 아이템 코드 ↔ 상품 매칭을 LOWER(...) OR LOWER(...) 대신 인덱스 등가 조인으로 처리하기 위함.
+     * products 트리거로 유지하고, 기존 상품은 기동 시 보정합니다.
+     * 매칭 쿼리 실행계획 테스트도 같은 DDL 을 쓰도록 공개합니다.
+     */
+    public void migrateProductCodesForSchema(String schema) {
+        if (schema == null || !schema.matches("[a-zA-Z_][a-zA-Z0-9_]{0,62}")) return;
+        String prefix = "\"%s\".".formatted(schema);
+        Boolean hasProducts = jdbcTemplate.queryForObject(
+            "SELECT to_regclass(?) IS NOT NULL", Boolean.class, prefix + "products");
+        if (!Boolean.TRUE.equals(hasProducts)) return;
+
+        execute("""
+            CREATE TABLE IF NOT EXISTS %sproduct_codes (
+                code_normalized VARCHAR(255) NOT NULL,
+                code_type       VARCHAR(20)  NOT NULL,
+                product_id      UUID         NOT NULL REFERENCES %sproducts(product_id) ON DELETE CASCADE,
+                PRIMARY KEY (code_normalized, code_type, product_id)
+            )
+            """.formatted(prefix, prefix));
+        execute("CREATE INDEX IF NOT EXISTS idx_product_codes_product ON %sproduct_codes(product_id)".formatted(prefix));
+
+        execute("""
+            CREATE OR REPLACE FUNCTION %ssync_product_codes() RETURNS trigger AS $$
+            BEGIN
+                IF TG_OP = 'UPDATE' THEN
+                    DELETE FROM %sproduct_codes WHERE product_id = OLD.product_id;
+                END IF;
+                INSERT INTO %sproduct_codes (code_normalized, code_type, product_id)
+                SELECT LOWER(c.code), c.code_type, NEW.product_id
+                FROM (VALUES (NEW.sku, 'SKU'), (NEW.barcode, 'BARCODE'),
+                             (NEW.barcode2, 'BARCODE2'), (NEW.option_code, 'OPTION_CODE')) AS c(code, code_type)
+                WHERE c.code IS NOT NULL AND c.code <> ''
+                ON CONFLICT DO NOTHING;
+                RETURN NULL;
+            END
+            $$ LANGUAGE plpgsql
+            """.formatted(prefix, prefix, prefix));
+        execute("DROP TRIGGER IF EXISTS trg_products_codes_insert ON %sproducts".formatted(prefix));
+        execute("""
+            CREATE TRIGGER trg_products_codes_insert AFTER INSERT ON %sproducts
+            FOR EACH ROW EXECUTE FUNCTION %ssync_product_codes()
+            """.formatted(prefix, prefix));
+        // 재고 변경 등 코드와 무관한 UPDATE 에서는 실행되지 않도록 코드 컬럼 변경 시에만
+        execute("DROP TRIGGER IF EXISTS trg_products_codes_update ON %sproducts".formatted(prefix));
+        execute("""
+            CREATE TRIGGER trg_products_codes_update AFTER UPDATE ON %sproducts
+            FOR EACH ROW WHEN (OLD.sku IS DISTINCT FROM NEW.sku
+                            OR OLD.barcode IS DISTINCT FROM NEW.barcode
+                            OR OLD.barcode2 IS DISTINCT FROM NEW.barcode2
+                            OR OLD.option_code IS DISTINCT FROM NEW.option_code)
+            EXECUTE FUNCTION %ssync_product_codes()
+            """.formatted(prefix, prefix));
+
+        // 기존 상품 보정 (트리거 도입 이전 데이터)
+        execute("""
+            INSERT INTO %sproduct_codes (code_normalized, code_type, product_id)
+            SELECT LOWER(c.code), c.code_type, p.product_id
+            FROM %sproducts p
+            CROSS JOIN LATERAL (VALUES (p.sku, 'SKU'), (p.barcode, 'BARCODE'),
+                                       (p.barcode2, 'BARCODE2'), (p.option_code, 'OPTION_CODE')) AS c(code, code_type)
+            WHERE c.code IS NOT NULL AND c.code <> ''
+            ON CONFLICT DO NOTHING
+            """.formatted(prefix, prefix));
+    }
+
     private void migratePrintTypes() {
         execute("""
             CREATE TABLE IF NOT EXISTS print_types (
@@ -138,13 +224,7 @@ public class OperationalSchemaMigration {
     }
 
     private void migrateSabangnetIntegrations() {
-        migrateSabangnetIntegrationsForSchema("public");
-        jdbcTemplate.queryForList(
-            "SELECT schema_name FROM information_schema.schemata " +
-            "WHERE schema_name NOT IN ('public','information_schema','pg_catalog','pg_toast') " +
-            "  AND schema_name NOT LIKE 'pg_%'",
-            String.class
-        ).forEach(this::migrateSabangnetIntegrationsForSchema);
+        forEachTenantSchema(this::migrateSabangnetIntegrationsForSchema);
     }
 
     private void migrateSabangnetIntegrationsForSchema(String schema) {
@@ -180,13 +260,7 @@ public class OperationalSchemaMigration {
     }
 
     private void migrateInvoiceApiLogs() {
-        migrateInvoiceApiLogsForSchema("public");
-        jdbcTemplate.queryForList(
-            "SELECT schema_name FROM information_schema.schemata " +
-            "WHERE schema_name NOT IN ('public','information_schema','pg_catalog','pg_toast') " +
-            "  AND schema_name NOT LIKE 'pg_%'",
-            String.class
-        ).forEach(this::migrateInvoiceApiLogsForSchema);
+        forEachTenantSchema(this::migrateInvoiceApiLogsForSchema);
     }
 
     private void migrateInvoiceApiLogsForSchema(String schema) {
@@ -210,19 +284,15 @@ public class OperationalSchemaMigration {
                 created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
             )
             """.formatted(prefix));
+        // created_at 월별 파티션 (인덱스는 변환 후 부모 테이블에 생성)
+        tablePartitionService.ensurePartitioned(schema, "invoice_api_logs");
         execute("CREATE INDEX IF NOT EXISTS idx_invoice_api_logs_order_no ON %sinvoice_api_logs(order_no)".formatted(prefix));
         execute("CREATE INDEX IF NOT EXISTS idx_invoice_api_logs_tracking_no ON %sinvoice_api_logs(tracking_no)".formatted(prefix));
         execute("CREATE INDEX IF NOT EXISTS idx_invoice_api_logs_created_at ON %sinvoice_api_logs(created_at)".formatted(prefix));
     }
 
     private void migrateRecordingVideos() {
-        migrateRecordingVideosForSchema("public");
-        jdbcTemplate.queryForList(
-            "SELECT schema_name FROM information_schema.schemata " +
-            "WHERE schema_name NOT IN ('public','information_schema','pg_catalog','pg_toast') " +
-            "  AND schema_name NOT LIKE 'pg_%'",
-            String.class
-        ).forEach(this::migrateRecordingVideosForSchema);
+        forEachTenantSchema(this::migrateRecordingVideosForSchema);
     }
 
     private void migrateRecordingVideosForSchema(String schema) {
@@ -275,13 +345,7 @@ public class OperationalSchemaMigration {
     }
 
     private void migrateCarrierContracts() {
-        migrateCarrierContractsForSchema("public");
-        jdbcTemplate.queryForList(
-            "SELECT schema_name FROM information_schema.schemata " +
-            "WHERE schema_name NOT IN ('public','information_schema','pg_catalog','pg_toast') " +
-            "  AND schema_name NOT LIKE 'pg_%'",
-            String.class
-        ).forEach(this::migrateCarrierContractsForSchema);
+        forEachTenantSchema(this::migrateCarrierContractsForSchema);
     }
 
     private void migrateCarrierContractsForSchema(String schema) {
@@ -319,13 +383,7 @@ public class OperationalSchemaMigration {
     }
 
     private void migrateWorkLocks() {
-        migrateWorkLocksForSchema("public");
-        jdbcTemplate.queryForList(
-            "SELECT schema_name FROM information_schema.schemata " +
-            "WHERE schema_name NOT IN ('public','information_schema','pg_catalog','pg_toast') " +
-            "  AND schema_name NOT LIKE 'pg_%'",
-            String.class
-        ).forEach(this::migrateWorkLocksForSchema);
+        forEachTenantSchema(this::migrateWorkLocksForSchema);
     }
 
     private void migrateWorkLocksForSchema(String schema) {
@@ -342,6 +400,650 @@ public class OperationalSchemaMigration {
         execute("CREATE INDEX IF NOT EXISTS idx_work_locks_expires_at ON %swork_locks(expires_at)".formatted(prefix));
     }
 
+    private void migrateCollectionBatches() {
+        forEachTenantSchema(this::migrateCollectionBatchesForSchema);
+    }
+
+    private void migrateCollectionBatchesForSchema(String schema) {
+        if (schema == null || !schema.matches("[a-zA-Z_][a-zA-Z0-9_]{0,62}")) return;
+        String prefix = "\"%s\".".formatted(schema);
+        execute("""
+            CREATE TABLE IF NOT EXISTS %scollection_batches (
+                batch_id         UUID PRIMARY KEY,
+                channel_code     VARCHAR(100) NOT NULL,
+                window_start     TIMESTAMP,
+                window_end       TIMESTAMP,
+                response_charset VARCHAR(50),
+                response_bytes   BIGINT       NOT NULL DEFAULT 0,
+                response_gzip    BYTEA,
+                order_count      INTEGER      NOT NULL DEFAULT 0,
+                saved_count      INTEGER      NOT NULL DEFAULT 0,
+                created_at       TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+            )
+            """.formatted(prefix));
+        execute("CREATE INDEX IF NOT EXISTS idx_collection_batches_channel_created ON %scollection_batches(channel_code, created_at)".formatted(prefix));
+
+        Boolean hasRawOrders = jdbcTemplate.queryForObject(
+            "SELECT to_regclass(?) IS NOT NULL", Boolean.class, prefix + "raw_orders");
+        if (Boolean.TRUE.equals(hasRawOrders)) {
+            execute("ALTER TABLE %sraw_orders ADD COLUMN IF NOT EXISTS batch_id UUID".formatted(prefix));
+            execute("CREATE INDEX IF NOT EXISTS idx_raw_orders_batch_id ON %sraw_orders(batch_id)".formatted(prefix));
+            // 배치 삭제(보관 기간 정리) 시 참조만 끊음 — FK 를 걸기 전 이미 없는 배치를 가리키는 참조 정리
+            execute("""
+                DO $$
+                BEGIN
+                    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                                    WHERE conrelid = '%1$sraw_orders'::regclass AND contype = 'f'
+                                      AND confrelid = '%1$scollection_batches'::regclass) THEN
+                        UPDATE %1$sraw_orders r SET batch_id = NULL
+                         WHERE r.batch_id IS NOT NULL
+                           AND NOT EXISTS (SELECT 1 FROM %1$scollection_batches b WHERE b.batch_id = r.batch_id);
+                        ALTER TABLE %1$sraw_orders
+                            ADD CONSTRAINT fk_raw_orders_batch FOREIGN KEY (batch_id)
+                            REFERENCES %1$scollection_batches(batch_id) ON DELETE SET NULL;
+                    END IF;
+                END $$
+                """.formatted(prefix));
+        }
+    }
+
+    private void migrateRawOrders() {
+        forEachTenantSchema(this::migrateRawOrdersForSchema);
+    }
+
+    private void migrateRawOrdersForSchema(String schema) {
+        if (schema == null || !schema.matches("[a-zA-Z_][a-zA-Z0-9_]{0,62}")) return;
+        String prefix = "\"%s\".".formatted(schema);
+        Boolean hasRawOrders = jdbcTemplate.queryForObject(
+            "SELECT to_regclass(?) IS NOT NULL", Boolean.class, prefix + "raw_orders");
+        if (!Boolean.TRUE.equals(hasRawOrders)) return;
+        // 정규화 백로그 키셋 페이지 (collected_at, raw_order_id) 용 부분 인덱스
+        execute("CREATE INDEX IF NOT EXISTS idx_raw_orders_unprocessed_keyset ON %sraw_orders(collected_at, raw_order_id) WHERE processed = FALSE".formatted(prefix));
+    }
+
+    private void migrateOrderSequences() {
+        forEachTenantSchema(this::migrateOrderSequencesForSchema);
+    }
+
+    private void migrateOrderSequencesForSchema(String schema) {
+        if (schema == null || !schema.matches("[a-zA-Z_][a-zA-Z0-9_]{0,62}")) return;
+        String prefix = "\"%s\".".formatted(schema);
+        execute("""
+            CREATE TABLE IF NOT EXISTS %sorder_sequences (
+                seq_date   DATE      PRIMARY KEY,
+                last_value BIGINT    NOT NULL,
+                updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+            )
+            """.formatted(prefix));
+    }
+
+    private void migrateStockMatchingChanges() {
+        forEachTenantSchema(this::migrateStockMatchingChangesForSchema);
+    }
+
+    /**
+     * stock_matching_version — 재고 매칭 결과에 영향을 주는 변경 카운터 (1행 테이블)
+     * orders / order_items / products / product_warehouse_stock 변경 시 커밋 시점(DEFERRED)에 트랜잭션당 1회 증가하며,
+     * 재고 매칭 스냅샷은 이 값이 바뀐 경우에만 다시 계산합니다.
+     * 시퀀스와 달리 행 값은 커밋된 뒤에만 보이므로, 커밋 직전 데이터로 계산한 스냅샷에 새 버전이 붙지 않습니다.
+     */
+    private void migrateStockMatchingChangesForSchema(String schema) {
+        if (schema == null || !schema.matches("[a-zA-Z_][a-zA-Z0-9_]{0,62}")) return;
+        String prefix = "\"%s\".".formatted(schema);
+        execute("""
+            CREATE TABLE IF NOT EXISTS %sstock_matching_version (
+                id      SMALLINT PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+                version BIGINT   NOT NULL DEFAULT 0
+            )
+            """.formatted(prefix));
+        execute("INSERT INTO %sstock_matching_version (id, version) VALUES (1, 0) ON CONFLICT (id) DO NOTHING".formatted(prefix));
+        execute("""
+            CREATE OR REPLACE FUNCTION %1$sbump_stock_matching_changes() RETURNS trigger AS $$
+            BEGIN
+                IF current_setting('oms_matching_bumped.' || TG_TABLE_SCHEMA, true) IS DISTINCT FROM 'on' THEN
+                    UPDATE %1$sstock_matching_version SET version = version + 1 WHERE id = 1;
+                    PERFORM set_config('oms_matching_bumped.' || TG_TABLE_SCHEMA, 'on', true);
+                END IF;
+                RETURN NULL;
+            END
+            $$ LANGUAGE plpgsql
+            """.formatted(prefix));
+
+        for (String table : List.of("order_items", "products", "product_warehouse_stock")) {
+            Boolean exists = jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, prefix + table);
+            if (!Boolean.TRUE.equals(exists)) continue;
+            execute("DROP TRIGGER IF EXISTS trg_%s_matching_changes ON %s%s".formatted(table, prefix, table));
+            execute("""
+                CREATE CONSTRAINT TRIGGER trg_%s_matching_changes
+                AFTER INSERT OR UPDATE OR DELETE ON %s%s
+                DEFERRABLE INITIALLY DEFERRED
+                FOR EACH ROW EXECUTE FUNCTION %sbump_stock_matching_changes()
+                """.formatted(table, prefix, table, prefix));
+        }
+
+        Boolean hasOrders = jdbcTemplate.queryForObject(
+            "SELECT to_regclass(?) IS NOT NULL", Boolean.class, prefix + "orders");
+        if (!Boolean.TRUE.equals(hasOrders)) return;
+        // 주문은 송장/마켓 동기화 등 매칭과 무관한 UPDATE 가 많으므로 매칭 화면에 쓰이는 컬럼 변경만 반영
+        execute("DROP TRIGGER IF EXISTS trg_orders_matching_changes ON %sorders".formatted(prefix));
+        execute("""
+            CREATE CONSTRAINT TRIGGER trg_orders_matching_changes
+            AFTER INSERT OR DELETE ON %sorders
+            DEFERRABLE INITIALLY DEFERRED
+            FOR EACH ROW EXECUTE FUNCTION %sbump_stock_matching_changes()
+            """.formatted(prefix, prefix));
+        execute("DROP TRIGGER IF EXISTS trg_orders_matching_changes_update ON %sorders".formatted(prefix));
+        execute("""
+            CREATE CONSTRAINT TRIGGER trg_orders_matching_changes_update
+            AFTER UPDATE ON %sorders
+            DEFERRABLE INITIALLY DEFERRED
+            FOR EACH ROW
+            WHEN (OLD.order_status IS DISTINCT FROM NEW.order_status
+               OR OLD.allocation_excluded IS DISTINCT FROM NEW.allocation_excluded
+               OR OLD.priority_allocation IS DISTINCT FROM NEW.priority_allocation
+               OR OLD.recipient_name IS DISTINCT FROM NEW.recipient_name
+               OR OLD.address IS DISTINCT FROM NEW.address
+               OR OLD.channel_id IS DISTINCT FROM NEW.channel_id
+               OR OLD.ordered_at IS DISTINCT FROM NEW.ordered_at)
+            EXECUTE FUNCTION %sbump_stock_matching_changes()
+            """.formatted(prefix, prefix));
+    }
+
+    private void migrateWarehouseStockLedger() {
+        forEachTenantSchema(this::migrateWarehouseStockLedgerForSchema);
+    }
+
+    /**
+     * product_warehouse_stock — 창고 재고 단일 원장
+     * products 의 레거시 창고 컬럼(안양/이천/부천)을 창고 행으로 옮긴 뒤 컬럼명을 바꿔 다시 읽히지 않게 합니다.
+     * 같은 창고 행이 이미 있으면 기존 재고 동기화 규칙과 같이 레거시 컬럼 값이 우선합니다.
+     */
+    private void migrateWarehouseStockLedgerForSchema(String schema) {
+        if (schema == null || !schema.matches("[a-zA-Z_][a-zA-Z0-9_]{0,62}")) return;
+        String prefix = "\"%s\".".formatted(schema);
+        Boolean exists = jdbcTemplate.queryForObject(
+            "SELECT to_regclass(?) IS NOT NULL", Boolean.class, prefix + "product_warehouse_stock");
+        if (!Boolean.TRUE.equals(exists)) return;
+
+        // (product_id, warehouse_code) → stock 은 인덱스만으로 조회, 창고별 전체 조회는 역방향 인덱스
+        execute("""
+            CREATE UNIQUE INDEX IF NOT EXISTS ux_product_warehouse_stock_lookup
+                ON %sproduct_warehouse_stock (product_id, warehouse_code) INCLUDE (stock)
+            """.formatted(prefix));
+        execute("""
+            CREATE INDEX IF NOT EXISTS ix_product_warehouse_stock_warehouse
+                ON %sproduct_warehouse_stock (warehouse_code, product_id) INCLUDE (stock)
+            """.formatted(prefix));
+
+        Boolean hasLegacy = jdbcTemplate.queryForObject("""
+            SELECT EXISTS (SELECT 1 FROM information_schema.columns
+                            WHERE table_schema = ? AND table_name = 'products'
+                              AND column_name = 'warehouse_stock_anyang')
+            """, Boolean.class, schema);
+        if (!Boolean.TRUE.equals(hasLegacy)) return;
+
+        Boolean hasWarehouses = jdbcTemplate.queryForObject(
+            "SELECT to_regclass(?) IS NOT NULL", Boolean.class, prefix + "warehouses");
+        String warehouseName = Boolean.TRUE.equals(hasWarehouses)
+            ? "COALESCE((SELECT w.name FROM %swarehouses w WHERE w.code = l.code), l.code)".formatted(prefix)
+            : "l.code";
+        // 복사 → ICHEON_PCS 정리 → 컬럼명 변경을 DO 블록 한 문장(한 트랜잭션)으로 실행하고,
+        // 복사 전에 products 를 잠가 이관 도중 레거시 컬럼 변경이 유실되거나 여러 노드가 동시에 이관하지 않게 함
+        execute("""
+            DO $$
+            BEGIN
+                LOCK TABLE %1$sproducts IN ACCESS EXCLUSIVE MODE;
+                IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                                WHERE table_schema = '%3$s' AND table_name = 'products'
+                                  AND column_name = 'warehouse_stock_anyang') THEN
+                    RETURN;
+                END IF;
+                INSERT INTO %1$sproduct_warehouse_stock AS ws
+                       (id, product_id, warehouse_code, warehouse_name, stock, updated_at)
+                SELECT gen_random_uuid(), p.product_id, l.code, %2$s, l.stock, NOW()
+                  FROM %1$sproducts p
+                 CROSS JOIN LATERAL (VALUES ('ANYANG',     COALESCE(p.warehouse_stock_anyang, 0)),
+                                            ('ICHEON_BOX', COALESCE(p.warehouse_stock_icheon, 0)),
+                                            ('BUCHEON',    COALESCE(p.warehouse_stock_bucheon, 0))) AS l(code, stock)
+                 WHERE l.stock <> 0
+                    OR EXISTS (SELECT 1 FROM %1$sproduct_warehouse_stock e
+                                WHERE e.product_id = p.product_id AND e.warehouse_code = l.code)
+                ON CONFLICT (product_id, warehouse_code) DO UPDATE
+                   SET stock = EXCLUDED.stock, updated_at = NOW();
+                -- ICHEON_PCS 는 기존 이천 컬럼처럼 ICHEON_BOX 행을 공유 (ProductWarehouseStock.stockCode)
+                DELETE FROM %1$sproduct_warehouse_stock WHERE warehouse_code = 'ICHEON_PCS';
+                ALTER TABLE %1$sproducts RENAME COLUMN warehouse_stock_anyang  TO migrated_warehouse_stock_anyang;
+                ALTER TABLE %1$sproducts RENAME COLUMN warehouse_stock_icheon  TO migrated_warehouse_stock_icheon;
+                ALTER TABLE %1$sproducts RENAME COLUMN warehouse_stock_bucheon TO migrated_warehouse_stock_bucheon;
+            END
+            $$
+            """.formatted(prefix, warehouseName, schema));
+        log.info("📦 레거시 창고 재고 컬럼 이관 완료: {}", schema);
+    }
+
+    private void migrateInventoryLedger() {
+        forEachTenantSchema(this::migrateInventoryLedgerForSchema);
+    }
+
+    /**
+     * inventory_transactions — 추가만 가능한 재고 원장
+     * ledger_seq(시퀀스) 로 순서를 매기고 UPDATE/DELETE 는 트리거로 막습니다.
+     * inventory_ledger_snapshots 는 InventoryLedgerService.compact 가 inventory_ledger_watermark 의
+     * 커밋 기준점까지 채우며, 처음 만들 때 현재 재고(총재고 + 창고별)를 기준 스냅샷으로 남깁니다.
+     */
+    private void migrateInventoryLedgerForSchema(String schema) {
+        if (schema == null || !schema.matches("[a-zA-Z_][a-zA-Z0-9_]{0,62}")) return;
+        String prefix = "\"%s\".".formatted(schema);
+        Boolean exists = jdbcTemplate.queryForObject(
+            "SELECT to_regclass(?) IS NOT NULL", Boolean.class, prefix + "inventory_transactions");
+        if (!Boolean.TRUE.equals(exists)) return;
+
+        execute("CREATE SEQUENCE IF NOT EXISTS %sinventory_ledger_seq".formatted(prefix));
+        execute("ALTER TABLE %sinventory_transactions ADD COLUMN IF NOT EXISTS ledger_seq BIGINT".formatted(prefix));
+        execute("ALTER TABLE %sinventory_transactions ADD COLUMN IF NOT EXISTS warehouse_code VARCHAR(100)".formatted(prefix));
+        execute("ALTER TABLE %sinventory_transactions ADD COLUMN IF NOT EXISTS warehouse_delta INTEGER".formatted(prefix));
+
+        // 기존 행은 created_at 순으로 순번 부여 (트리거가 UPDATE 를 막기 전에)
+        Boolean unnumbered = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM %sinventory_transactions WHERE ledger_seq IS NULL)".formatted(prefix),
+            Boolean.class);
+        if (Boolean.TRUE.equals(unnumbered)) {
+            execute("DROP TRIGGER IF EXISTS trg_inventory_ledger_append_only ON %sinventory_transactions".formatted(prefix));
+            execute("""
+                UPDATE %1$sinventory_transactions t
+                   SET ledger_seq = o.seq
+                  FROM (SELECT transaction_id,
+                               (SELECT COALESCE(MAX(ledger_seq), 0) FROM %1$sinventory_transactions)
+                               + ROW_NUMBER() OVER (ORDER BY created_at, transaction_id) AS seq
+                          FROM %1$sinventory_transactions
+                         WHERE ledger_seq IS NULL) o
+                 WHERE t.transaction_id = o.transaction_id
+                """.formatted(prefix));
+            execute("""
+                SELECT setval('%1$sinventory_ledger_seq',
+                              COALESCE((SELECT MAX(ledger_seq) FROM %1$sinventory_transactions), 0) + 1, false)
+                """.formatted(prefix));
+        }
+        execute("ALTER TABLE %1$sinventory_transactions ALTER COLUMN ledger_seq SET DEFAULT nextval('%1$sinventory_ledger_seq')"
+            .formatted(prefix));
+        execute("ALTER TABLE %sinventory_transactions ALTER COLUMN ledger_seq SET NOT NULL".formatted(prefix));
+
+        // created_at 월별 파티션 — 변환 시 트리거가 빠지므로 아래에서 부모 테이블에 다시 생성
+        boolean partitioned = tablePartitionService.ensurePartitioned(schema, "inventory_transactions");
+
+        // 최근 내역 / 상품별 내역·꼬리 / 창고별 꼬리 / 기간 조회
+        // 파티션 테이블의 UNIQUE 에는 파티션 컬럼이 필요하므로 순번 유일성은 시퀀스에 맡김
+        if (partitioned) {
+            execute("CREATE INDEX IF NOT EXISTS ix_inventory_transactions_ledger_seq ON %sinventory_transactions (ledger_seq)"
+                .formatted(prefix));
+        } else {
+            execute("CREATE UNIQUE INDEX IF NOT EXISTS ux_inventory_transactions_ledger_seq ON %sinventory_transactions (ledger_seq)"
+                .formatted(prefix));
+        }
+        execute("CREATE INDEX IF NOT EXISTS ix_inventory_transactions_product_seq ON %sinventory_transactions (product_id, ledger_seq)"
+            .formatted(prefix));
+        execute("""
+            CREATE INDEX IF NOT EXISTS ix_inventory_transactions_product_warehouse_seq
+                ON %sinventory_transactions (product_id, warehouse_code, ledger_seq) WHERE warehouse_code IS NOT NULL
+            """.formatted(prefix));
+        execute("CREATE INDEX IF NOT EXISTS ix_inventory_transactions_product_created ON %sinventory_transactions (product_id, created_at)"
+            .formatted(prefix));
+
+        execute("""
+            CREATE OR REPLACE FUNCTION %sinventory_ledger_append_only() RETURNS trigger AS $$
+            BEGIN
+                RAISE EXCEPTION 'inventory_transactions 는 추가만 가능합니다 (%%)', TG_OP;
+            END
+            $$ LANGUAGE plpgsql
+            """.formatted(prefix));
+        execute("DROP TRIGGER IF EXISTS trg_inventory_ledger_append_only ON %sinventory_transactions".formatted(prefix));
+        execute("""
+            CREATE TRIGGER trg_inventory_ledger_append_only
+            BEFORE UPDATE OR DELETE ON %1$sinventory_transactions
+            FOR EACH ROW EXECUTE FUNCTION %1$sinventory_ledger_append_only()
+            """.formatted(prefix));
+
+        // 압축 커밋 기준점 (대기 순번 + 기록 당시 xmax) — InventoryLedgerService.compact 참고
+        execute("""
+            CREATE TABLE IF NOT EXISTS %sinventory_ledger_watermark (
+                id            SMALLINT PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+                pending_seq   BIGINT   NOT NULL,
+                pending_xid   xid8     NOT NULL,
+                compacted_seq BIGINT   NOT NULL DEFAULT 0
+            )
+            """.formatted(prefix));
+        // 압축이 끝난 순번 — 원장 행이 없는 구간도 건너뛸 수 있도록 스냅샷과 별도로 기록
+        execute("ALTER TABLE %sinventory_ledger_watermark ADD COLUMN IF NOT EXISTS compacted_seq BIGINT NOT NULL DEFAULT 0"
+            .formatted(prefix));
+
+        Boolean hasSnapshots = jdbcTemplate.queryForObject(
+            "SELECT to_regclass(?) IS NOT NULL", Boolean.class, prefix + "inventory_ledger_snapshots");
+        if (Boolean.TRUE.equals(hasSnapshots)) return;
+        execute("""
+            CREATE TABLE %sinventory_ledger_snapshots (
+                product_id     UUID         NOT NULL,
+                warehouse_code VARCHAR(100) NOT NULL,
+                ledger_seq     BIGINT       NOT NULL,
+                snapshot_at    TIMESTAMP    NOT NULL,
+                stock          INTEGER      NOT NULL,
+                PRIMARY KEY (product_id, warehouse_code, ledger_seq)
+            )
+            """.formatted(prefix));
+        execute("CREATE INDEX IF NOT EXISTS ix_inventory_ledger_snapshots_seq ON %sinventory_ledger_snapshots (ledger_seq)"
+            .formatted(prefix));
+
+        // 기준 스냅샷: 현재 총재고('*') + 창고별 재고 (이전 이벤트에는 창고 정보가 없으므로)
+        Boolean hasWarehouseStock = jdbcTemplate.queryForObject(
+            "SELECT to_regclass(?) IS NOT NULL", Boolean.class, prefix + "product_warehouse_stock");
+        String warehouseRows = Boolean.TRUE.equals(hasWarehouseStock)
+            ? "UNION ALL SELECT ws.product_id, ws.warehouse_code, h.seq, h.at, ws.stock FROM %sproduct_warehouse_stock ws CROSS JOIN h"
+                .formatted(prefix)
+            : "";
+        execute("""
+            INSERT INTO %1$sinventory_ledger_snapshots (product_id, warehouse_code, ledger_seq, snapshot_at, stock)
+            WITH h AS (
+                SELECT COALESCE(MAX(ledger_seq), 0) AS seq, COALESCE(MAX(created_at), NOW()) AS at
+                  FROM %1$sinventory_transactions
+            )
+            SELECT p.product_id, '*', h.seq, h.at, COALESCE(p.total_stock, 0) FROM %1$sproducts p CROSS JOIN h
+            %2$s
+            """.formatted(prefix, warehouseRows));
+        log.info("📒 재고 원장 기준 스냅샷 생성: {}", schema);
+    }
+
+    private void migrateMarketSyncOutbox() {
+        forEachTenantSchema(this::migrateMarketSyncOutboxForSchema);
+    }
+
+    /**
+     * market_sync_outbox — 판매처 발송완료 전송 대기열 (검수발송 트랜잭션에서 기록, MarketSyncDispatcher 가 전송)
+     * 주문당 대기/처리 중인 행은 하나만 둡니다.
+     */
+    private void migrateMarketSyncOutboxForSchema(String schema) {
+        if (schema == null || !schema.matches("[a-zA-Z_][a-zA-Z0-9_]{0,62}")) return;
+        String prefix = "\"%s\".".formatted(schema);
+        execute("""
+            CREATE TABLE IF NOT EXISTS %smarket_sync_outbox (
+                outbox_id       UUID         PRIMARY KEY,
+                order_id        UUID         NOT NULL,
+                order_no        VARCHAR(100) NOT NULL,
+                channel_code    VARCHAR(100),
+                carrier_code    VARCHAR(50),
+                carrier_name    VARCHAR(100),
+                tracking_no     VARCHAR(100),
+                status          VARCHAR(20)  NOT NULL DEFAULT 'PENDING',
+                attempts        INTEGER      NOT NULL DEFAULT 0,
+                next_attempt_at TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                locked_until    TIMESTAMP,
+                last_error      TEXT,
+                created_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                updated_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+            )
+            """.formatted(prefix));
+        execute("""
+            CREATE UNIQUE INDEX IF NOT EXISTS ux_market_sync_outbox_active_order
+                ON %smarket_sync_outbox (order_id) WHERE status IN ('PENDING', 'PROCESSING')
+            """.formatted(prefix));
+        execute("CREATE INDEX IF NOT EXISTS ix_market_sync_outbox_pending ON %smarket_sync_outbox (next_attempt_at) WHERE status = 'PENDING'"
+            .formatted(prefix));
+        execute("CREATE INDEX IF NOT EXISTS ix_market_sync_outbox_processing ON %smarket_sync_outbox (locked_until) WHERE status = 'PROCESSING'"
+            .formatted(prefix));
+        execute("CREATE INDEX IF NOT EXISTS ix_market_sync_outbox_done ON %smarket_sync_outbox (updated_at) WHERE status = 'DONE'"
+            .formatted(prefix));
+    }
+
+    private void migrateOrderInvoices() {
+        forEachTenantSchema(this::migrateOrderInvoicesForSchema);
+    }
+
+    /**
+     * order_invoices — 주문당 송장 1건 (tracking_no 유니크)
+     * 처음 만들 때 deliveryMemo 의 INVOICE: 구간(CARRIER/CARRIER_NAME/TRACKING)을 한 번 옮깁니다.
+     * 같은 송장번호가 여러 주문 메모에 남아 있으면 먼저 들어간 한 건만 옮기고 건너뜁니다.
+     */
+    private void migrateOrderInvoicesForSchema(String schema) {
+        if (schema == null || !schema.matches("[a-zA-Z_][a-zA-Z0-9_]{0,62}")) return;
+        String prefix = "\"%s\".".formatted(schema);
+        Boolean hasOrders = jdbcTemplate.queryForObject(
+            "SELECT to_regclass(?) IS NOT NULL", Boolean.class, prefix + "orders");
+        if (!Boolean.TRUE.equals(hasOrders)) return;
+
+        execute("""
+            CREATE TABLE IF NOT EXISTS %1$sorder_invoices (
+                order_id     UUID         PRIMARY KEY REFERENCES %1$sorders(order_id) ON DELETE CASCADE,
+                carrier_code VARCHAR(50),
+                carrier_name VARCHAR(100),
+                tracking_no  VARCHAR(100) NOT NULL,
+                issued_at    TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                printed_at   TIMESTAMP,
+                status       VARCHAR(20)  NOT NULL DEFAULT 'ISSUED',
+                updated_at   TIMESTAMP
+            )
+            """.formatted(prefix));
+        // Hibernate(ddl-auto)가 먼저 만든 테이블에는 FK 가 없으므로 보강 (주문 삭제 시 함께 삭제)
+        execute("""
+            DO $$
+            BEGIN
+                IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                                WHERE conrelid = '%1$sorder_invoices'::regclass AND contype = 'f') THEN
+                    ALTER TABLE %1$sorder_invoices
+                        ADD CONSTRAINT fk_order_invoices_order FOREIGN KEY (order_id)
+                        REFERENCES %1$sorders(order_id) ON DELETE CASCADE;
+                END IF;
+            END $$
+            """.formatted(prefix));
+        execute("CREATE UNIQUE INDEX IF NOT EXISTS ux_order_invoices_tracking_no ON %sorder_invoices (tracking_no)"
+            .formatted(prefix));
+        // 송장번호 앞자리 검색 (LIKE 'kw%') 용
+        execute("CREATE INDEX IF NOT EXISTS ix_order_invoices_tracking_no_pattern ON %sorder_invoices (tracking_no text_pattern_ops)"
+            .formatted(prefix));
+
+        Boolean backfilled = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM %sorder_invoices)".formatted(prefix), Boolean.class);
+        if (Boolean.TRUE.equals(backfilled)) return;
+
+        int moved = jdbcTemplate.update("""
+            INSERT INTO %1$sorder_invoices (order_id, carrier_code, carrier_name, tracking_no, issued_at, status, updated_at)
+            SELECT order_id, NULLIF(carrier_code, ''), NULLIF(carrier_name, ''), tracking_no,
+                   COALESCE(invoice_assigned_at, updated_at, CURRENT_TIMESTAMP),
+                   CASE WHEN order_status = 'SHIPPED' THEN 'SHIPPED' ELSE 'ISSUED' END,
+                   CURRENT_TIMESTAMP
+              FROM (SELECT o.order_id, o.order_status, o.invoice_assigned_at, o.updated_at,
+                           substring(m.seg FROM '^CARRIER:([^|]*)')            AS carrier_code,
+                           substring(m.seg FROM '(?:^|\\|)CARRIER_NAME:([^|]*)') AS carrier_name,
+                           btrim(substring(m.seg FROM '(?:^|\\|)TRACKING:([^|]*)')) AS tracking_no
+                      FROM %1$sorders o
+                     CROSS JOIN LATERAL (SELECT substring(o.delivery_memo FROM 'INVOICE:(.*)$') AS seg) m
+                     WHERE o.delivery_memo LIKE '%%INVOICE:%%') src
+             WHERE tracking_no IS NOT NULL AND tracking_no <> ''
+             ORDER BY updated_at DESC NULLS LAST
+            ON CONFLICT DO NOTHING
+            """.formatted(prefix));
+        if (moved > 0) {
+            log.info("🧾 송장 메모 → order_invoices 이관: {} {}건", schema, moved);
+        }
+    }
+
+    private void migrateSearchIndexes() {
+        boolean trigram = ensureTrigramExtension();
+        forEachTenantSchema(schema -> migrateSearchIndexesForSchema(schema, trigram));
+    }
+
+    /**
+     * pg_trgm 은 DB 단위 확장 — 권한이 없어 만들지 못하면 트라이그램 인덱스 없이 진행 (검색은 순차 스캔)
+     */
+    private boolean ensureTrigramExtension() {
+        try {
+            execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        } catch (Exception e) {
+            log.warn("pg_trgm 확장 생성 실패 — 키워드 검색 인덱스를 건너뜁니다: {}", e.getMessage());
+        }
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm')", Boolean.class));
+    }
+
+    /**
+     * 키워드 검색용 트라이그램 GIN 인덱스 (KeywordSearchService)
+     * orders / product_returns 는 여러 컬럼을 합친 검색식에 대한 식 인덱스, 상품명·송장번호는 컬럼 그대로 색인합니다.
+     *
+     * 큰 테이블에서도 기동 중 쓰기를 막지 않도록 모두 CREATE INDEX CONCURRENTLY 로 만듭니다
+     * (처음 배포할 때만 빌드 시간만큼 기동이 늦어짐). 예전 STORED 생성 컬럼(search_text)은 추가 시 테이블 전체를
+     * ACCESS EXCLUSIVE 로 재작성해야 해서 식 인덱스로 바꿨고, 남아 있으면 삭제합니다 (카탈로그만 변경).
+     */
+    private void migrateSearchIndexesForSchema(String schema, boolean trigram) {
+        if (schema == null || !schema.matches("[a-zA-Z_][a-zA-Z0-9_]{0,62}")) return;
+        String prefix = "\"%s\".".formatted(schema);
+
+        if (tableExists(prefix + "orders")) {
+            dropLegacySearchText(schema, "orders");
+            if (trigram) {
+                createIndexConcurrently(schema, "ix_orders_search_trgm",
+                    "orders USING gin ((%s) gin_trgm_ops)".formatted(KeywordSearchService.ORDER_SEARCH_TEXT_SQL));
+            }
+        }
+        if (trigram && tableExists(prefix + "order_items")) {
+            createIndexConcurrently(schema, "ix_order_items_product_name_trgm",
+                "order_items USING gin (product_name gin_trgm_ops)");
+        }
+        if (trigram && tableExists(prefix + "order_invoices")) {
+            createIndexConcurrently(schema, "ix_order_invoices_tracking_no_trgm",
+                "order_invoices USING gin (tracking_no gin_trgm_ops)");
+        }
+        if (tableExists(prefix + "product_returns")) {
+            dropLegacySearchText(schema, "product_returns");
+            if (trigram) {
+                createIndexConcurrently(schema, "ix_product_returns_search_trgm",
+                    "product_returns USING gin ((%s) gin_trgm_ops)".formatted(KeywordSearchService.RETURN_SEARCH_TEXT_SQL));
+            }
+        }
+    }
+
+    /** 예전 search_text 생성 컬럼 삭제 (의존 인덱스도 함께) — 있을 때만 잠금을 잡음 */
+    private void dropLegacySearchText(String schema, String table) {
+        Boolean exists = jdbcTemplate.queryForObject("""
+            SELECT EXISTS (SELECT 1 FROM information_schema.columns
+                            WHERE table_schema = ? AND table_name = ? AND column_name = 'search_text')
+            """, Boolean.class, schema, table);
+        if (Boolean.TRUE.equals(exists)) {
+            execute("ALTER TABLE \"%s\".%s DROP COLUMN search_text".formatted(schema, table));
+        }
+    }
+
+    /**
+     * CREATE INDEX CONCURRENTLY — 이전 실행이 중단되어 INVALID 로 남은 인덱스는 지우고 다시 만듦
+     * (IF NOT EXISTS 는 INVALID 인덱스도 있는 것으로 보고 건너뛰므로)
+     */
+    private void createIndexConcurrently(String schema, String indexName, String definition) {
+        Boolean invalid = jdbcTemplate.queryForObject("""
+            SELECT EXISTS (SELECT 1 FROM pg_index i
+                             JOIN pg_class c ON c.oid = i.indexrelid
+                             JOIN pg_namespace n ON n.oid = c.relnamespace
+                            WHERE n.nspname = ? AND c.relname = ? AND NOT i.indisvalid)
+            """, Boolean.class, schema, indexName);
+        if (Boolean.TRUE.equals(invalid)) {
+            execute("DROP INDEX CONCURRENTLY IF EXISTS \"%s\".%s".formatted(schema, indexName));
+        }
+        execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS %s ON \"%s\".%s".formatted(indexName, schema, definition));
+    }
+
+    private void migrateInvoiceIssueItems() {
+        forEachTenantSchema(this::migrateInvoiceIssueItemsForSchema);
+    }
+
+    /**
+     * invoice_issue_items — 송장 일괄 발급 진행 기록 (주문당 1행, InvoiceIssueProgressService)
+     * ISSUED: 택배사 발급 완료·주문 반영 전 / ASSIGNED: 반영 완료 / FAILED: 실패
+     */
+    private void migrateInvoiceIssueItemsForSchema(String schema) {
+        if (schema == null || !schema.matches("[a-zA-Z_][a-zA-Z0-9_]{0,62}")) return;
+        String prefix = "\"%s\".".formatted(schema);
+        if (!tableExists(prefix + "orders")) return;
+
+        execute("""
+            CREATE TABLE IF NOT EXISTS %sinvoice_issue_items (
+                order_id                  UUID         PRIMARY KEY,
+                run_id                    UUID         NOT NULL,
+                order_no                  VARCHAR(100) NOT NULL,
+                carrier_code              VARCHAR(50),
+                carrier_name              VARCHAR(100),
+                status                    VARCHAR(20)  NOT NULL,
+                tracking_no               VARCHAR(100),
+                po_req_no                 VARCHAR(50),
+                reservation_no            VARCHAR(50),
+                req_ymd                   VARCHAR(8),
+                delivery_area_code        VARCHAR(50),
+                arrival_center_name       VARCHAR(100),
+                delivery_post_office_name VARCHAR(100),
+                delivery_course_no        VARCHAR(50),
+                message                   TEXT,
+                updated_at                TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+            )
+            """.formatted(prefix));
+        execute("CREATE INDEX IF NOT EXISTS ix_invoice_issue_items_run ON %sinvoice_issue_items (run_id)".formatted(prefix));
+        execute("CREATE INDEX IF NOT EXISTS ix_invoice_issue_items_issued ON %sinvoice_issue_items (order_id) WHERE status = 'ISSUED'"
+            .formatted(prefix));
+    }
+
+    private void migrateJobs() {
+        forEachTenantSchema(this::migrateJobsForSchema);
+    }
+
+    /**
+     * jobs — 백그라운드 작업 상태·진행률·결과 (JobService)
+     * QUEUED → RUNNING → SUCCEEDED / FAILED / CANCELLED
+     */
+    private void migrateJobsForSchema(String schema) {
+        if (schema == null || !schema.matches("[a-zA-Z_][a-zA-Z0-9_]{0,62}")) return;
+        String prefix = "\"%s\".".formatted(schema);
+        if (!tableExists(prefix + "orders")) return;
+
+        execute("""
+            CREATE TABLE IF NOT EXISTS %sjobs (
+                job_id              UUID         PRIMARY KEY,
+                job_type            VARCHAR(50)  NOT NULL,
+                status              VARCHAR(20)  NOT NULL,
+                requested_by        VARCHAR(100),
+                progress_done       BIGINT       NOT NULL DEFAULT 0,
+                progress_total      BIGINT       NOT NULL DEFAULT 0,
+                message             TEXT,
+                cancel_requested    BOOLEAN      NOT NULL DEFAULT FALSE,
+                result_json         TEXT,
+                result_path         TEXT,
+                result_file_name    VARCHAR(255),
+                result_content_type VARCHAR(100),
+                error               TEXT,
+                created_at          TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                started_at          TIMESTAMP,
+                finished_at         TIMESTAMP,
+                updated_at          TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+            )
+            """.formatted(prefix));
+        // 결과 파일을 만든 노드 (노드별 로컬 result-dir 일 때 다른 노드 요청을 구분)
+        execute("ALTER TABLE %sjobs ADD COLUMN IF NOT EXISTS result_node VARCHAR(100)".formatted(prefix));
+        execute("CREATE INDEX IF NOT EXISTS ix_jobs_created ON %sjobs (created_at DESC)".formatted(prefix));
+        execute("CREATE INDEX IF NOT EXISTS ix_jobs_active ON %sjobs (updated_at) WHERE status IN ('QUEUED', 'RUNNING')"
+            .formatted(prefix));
+    }
+
+    private boolean tableExists(String qualifiedName) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT to_regclass(?) IS NOT NULL", Boolean.class, qualifiedName));
+    }
+
+    /**
+     * public 스키마부터 모든 테넌트 스키마에 대해 실행
+     */
+    private void forEachTenantSchema(Consumer<String> migration) {
+        migration.accept("public");
+        jdbcTemplate.queryForList(
+            "SELECT schema_name FROM information_schema.schemata " +
+            "WHERE schema_name NOT IN ('public','information_schema','pg_catalog','pg_toast') " +
+            "  AND schema_name NOT LIKE 'pg_%'",
+            String.class
+        ).forEach(migration);
+    }
+
     private void execute(String sql) {
         jdbcTemplate.execute(sql);
     }
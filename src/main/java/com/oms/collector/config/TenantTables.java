@@ -0,0 +1,24 @@
+package com.oms.collector.config;
+
+/**
+ * JdbcTemplate 쿼리용 테넌트 테이블명
+ *
+ * JdbcTemplate 은 Hibernate 의 테넌트 search_path 전환을 거치지 않으므로
+ * 테이블명을 현재 테넌트 스키마로 직접 한정해야 합니다. (테넌트가 없으면 public)
+ */
+public final class TenantTables {
+
+    private TenantTables() {
+    }
+
+    /** 현재 테넌트 스키마명 */
+    public static String currentSchema() {
+        String schema = TenantContext.getCurrentTenant();
+        return schema == null || schema.isBlank() ? "public" : schema;
+    }
+
+    /** "스키마".테이블 형태의 완전 한정 테이블명 */
+    public static String qualify(String table) {
+        return "\"" + currentSchema() + "\"." + table;
+    }
+}
@@ -2,13 +2,16 @@ package com.oms.collector.controller;
 
 import com.oms.collector.config.TenantContext;
 import com.oms.collector.entity.Order;
+import com.oms.collector.entity.OrderInvoice;
 import com.oms.collector.entity.OrderItem;
 import com.oms.collector.entity.Product;
 import com.oms.collector.repository.OrderRepository;
 import com.oms.collector.repository.ProductRepository;
 import com.oms.collector.service.InventoryService;
+import com.oms.collector.service.OrderInvoiceService;
 import com.oms.collector.service.WorkLockService;
 import com.oms.collector.service.market.MarketShipmentSyncService;
+import com.oms.collector.service.market.MarketSyncOutboxService;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -41,20 +44,18 @@ import java.util.*;
 @CrossOrigin(origins = "*")
 @DependsOn("operationalSchemaMigration")
 public class AllocationController {
-    private static final String INVOICE_PREFIX = "INVOICE:";
     private static final String SETTING_WAREHOUSE_CODE = "allocation.warehouseCode";
     private static final String SETTING_WAREHOUSE_NAME = "allocation.warehouseName";
 
-    private record InvoiceInfo(String carrierCode, String carrierName, String trackingNo) {}
-
     private static final int SCAN_LOCK_TTL = 15; // 초
 
     private final OrderRepository   orderRepository;
     private final ProductRepository productRepository;
     private final InventoryService  inventoryService;
-    private final MarketShipmentSyncService marketShipmentSyncService;
+    private final MarketSyncOutboxService marketSyncOutboxService;
     private final JdbcTemplate jdbcTemplate;
     private final WorkLockService workLockService;
+    private final OrderInvoiceService orderInvoiceService;
 
     // ─── 인메모리 창고 설정 저장 (간단한 구현) ────────────────
     // 실제 운영 시 DB 테이블로 관리 권장
@@ -176,8 +177,8 @@ public class AllocationController {
             ));
         }
 
-        InvoiceInfo invoiceInfo = extractInvoiceInfo(order.getDeliveryMemo());
-        if (invoiceInfo == null || invoiceInfo.trackingNo() == null || invoiceInfo.trackingNo().isBlank()) {
+        OrderInvoice invoice = orderInvoiceService.find(order.getOrderId()).orElse(null);
+        if (invoice == null) {
             return ResponseEntity.badRequest().body(Map.of(
                 "success", false,
                 "message", "송장출력 페이지에서 송장번호를 먼저 발급한 뒤 검수출고할 수 있습니다"
@@ -185,18 +186,21 @@ public class AllocationController {
         }
 
         // 같은 송장번호 단위로만 짧은 락 (서로 다른 송장은 동시 처리 가능)
-        String scanLockKey = "INVOICE_SCAN:" + invoiceInfo.trackingNo();
+        String scanLockKey = "INVOICE_SCAN:" + invoice.getTrackingNo();
         workLockService.acquire(scanLockKey, TenantContext.getCurrentUser(), SCAN_LOCK_TTL);
         try {
 
         order.getItems().size();
 
         List<String> missingProductItems = new ArrayList<>();
+        Map<OrderItem, Product> itemProducts = new LinkedHashMap<>();
         for (OrderItem item : order.getItems()) {
             int qty = item.getActiveQuantity();
             if (qty <= 0) continue;
             Product product = findProduct(item);
-            if (product == null) {
+            if (product != null) {
+                itemProducts.put(item, product);
+            } else {
                 String productName = item.getProductName() != null && !item.getProductName().isBlank()
                     ? item.getProductName()
                     : "(상품명없음)";
@@ -216,11 +220,12 @@ public class AllocationController {
             ));
         }
 
-        for (OrderItem item : order.getItems()) {
-            Product product = findProduct(item);
-            if (product == null) continue;
+        // 아이템 순서대로 잠그면 다른 출고와 잠금 순서가 엇갈리므로 상품 잠금을 먼저 정렬된 순서로 확보
+        inventoryService.lockProducts(itemProducts.values().stream().map(Product::getProductId).toList());
+        for (Map.Entry<OrderItem, Product> entry : itemProducts.entrySet()) {
+            OrderItem item = entry.getKey();
+            Product product = entry.getValue();
             int qty = item.getActiveQuantity();
-            if (qty <= 0) continue;
             try {
                 inventoryService.processOutboundWithWarehouse(
                     product.getProductId(), qty, warehouseCode,
@@ -236,12 +241,14 @@ public class AllocationController {
         order.setOrderStatus(Order.OrderStatus.SHIPPED);
         order.setInspectionCompleted(true);
         orderRepository.save(order);
+        invoice.setStatus(OrderInvoice.Status.SHIPPED);
 
-        MarketShipmentSyncService.MarketShipmentSyncResult syncResult = marketShipmentSyncService.syncShipment(
+        // 판매처 발송완료는 같은 트랜잭션에 아웃박스로만 남기고, 전송은 MarketSyncDispatcher 가 처리
+        MarketShipmentSyncService.MarketShipmentSyncResult syncResult = marketSyncOutboxService.enqueue(
             order,
-            invoiceInfo.carrierCode(),
-            invoiceInfo.carrierName(),
-            invoiceInfo.trackingNo()
+            invoice.getCarrierCode(),
+            invoice.getCarrierName(),
+            invoice.getTrackingNo()
         );
 
         return ResponseEntity.ok(Map.of(
@@ -252,6 +259,7 @@ public class AllocationController {
             "inspectionCompleted", order.getInspectionCompleted(),
             "workType", workType,
             "marketSyncSuccess", syncResult.success(),
+            "marketSyncStatus", order.getMarketSyncStatus().name(),
             "marketSyncMessage", syncResult.message()
         ));
         } finally {
@@ -330,29 +338,4 @@ public class AllocationController {
                           updated_at = CURRENT_TIMESTAMP
             """, key, value);
     }
-
-    private static InvoiceInfo extractInvoiceInfo(String memo) {
-        if (memo == null || memo.isBlank()) {
-            return null;
-        }
-        int invoiceIndex = memo.indexOf(INVOICE_PREFIX);
-        if (invoiceIndex < 0) {
-            return null;
-        }
-
-        String carrierCode = null;
-        String carrierName = null;
-        String trackingNo = null;
-        String invoiceSegment = memo.substring(invoiceIndex + INVOICE_PREFIX.length());
-        for (String part : invoiceSegment.split("\\|")) {
-            String[] kv = part.split(":", 2);
-            if (kv.length != 2) {
-                continue;
-            }
-            if ("CARRIER".equals(kv[0])) carrierCode = kv[1];
-            if ("CARRIER_NAME".equals(kv[0])) carrierName = kv[1];
-            if ("TRACKING".equals(kv[0])) trackingNo = kv[1];
-        }
-        return new InvoiceInfo(carrierCode, carrierName, trackingNo);
-    }
 }
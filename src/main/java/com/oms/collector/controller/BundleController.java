@@ -5,6 +5,10 @@ import com.oms.collector.entity.Order;
 import com.oms.collector.entity.OrderItem;
 import com.oms.collector.repository.BundleGroupRepository;
 import com.oms.collector.repository.OrderRepository;
+import com.oms.collector.service.job.JobContext;
+import com.oms.collector.service.job.JobResult;
+import com.oms.collector.service.job.JobService;
+import com.oms.collector.service.job.JobView;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -20,7 +24,7 @@ import java.util.stream.Collectors;
  *
  * GET  /api/bundle/detect          - 묶음 가능 그룹 탐지
  * POST /api/bundle/confirm         - 묶음 확정 (DB 저장)
- * POST /api/bundle/confirm-all     - 전체 묶음 일괄 확정
+ * POST /api/bundle/confirm-all     - 전체 묶음 일괄 확정 (백그라운드 작업)
  * GET  /api/bundle/list            - 확정된 묶음 목록 조회
  * POST /api/bundle/release/{id}    - 묶음 해제
  */
@@ -33,6 +37,7 @@ public class BundleController {
 
     private final OrderRepository      orderRepository;
     private final BundleGroupRepository bundleGroupRepository;
+    private final JobService           jobService;
 
     // ─── DTO ─────────────────────────────────────────────────────
 
@@ -251,81 +256,95 @@ public class BundleController {
     }
 
     /**
-     * 전체 묶음 일괄 확정
+     * 전체 묶음 일괄 확정 — 백그라운드 작업 (202 + jobId, 결과는 /api/jobs/{jobId})
      * POST /api/bundle/confirm-all
+     *
+     * 묶음 100그룹마다 커밋하므로 취소·실패해도 이미 끝난 청크의 확정은 유지됩니다 (CSV 업로드와 같음).
      */
     @PostMapping("/confirm-all")
-    @Transactional
     public ResponseEntity<Map<String, Object>> confirmAll() {
-        log.info("전체 묶음 일괄 확정 시작");
+        JobView job = jobService.submit("BUNDLE_CONFIRM_ALL", context -> JobResult.of(runConfirmAll(context)));
+        return ResponseEntity.accepted().body(job.acceptedBody("묶음 일괄 확정을 시작했습니다"));
+    }
 
-        List<Order> orders = orderRepository.findAll().stream()
-            .filter(o -> o.getOrderStatus() != Order.OrderStatus.CANCELLED)
-            .collect(Collectors.toList());
+    private static final int CONFIRM_ALL_CHUNK = 100;
 
-        orders.forEach(o -> {
-            o.getItems().size();
-            if (o.getChannel() != null) o.getChannel().getChannelName();
-        });
+    private Map<String, Object> runConfirmAll(JobContext job) {
+        log.info("전체 묶음 일괄 확정 시작");
 
-        Map<String, List<Order>> grouped = new LinkedHashMap<>();
-        for (Order o : orders) {
+        Map<String, List<UUID>> grouped = new LinkedHashMap<>();
+        for (Order o : orderRepository.findAll()) {
+            if (o.getOrderStatus() == Order.OrderStatus.CANCELLED) continue;
             String key = buildBundleKey(o);
             if (key.isBlank()) continue;
-            grouped.computeIfAbsent(key, k -> new ArrayList<>()).add(o);
+            grouped.computeIfAbsent(key, k -> new ArrayList<>()).add(o.getOrderId());
         }
 
-        int confirmed = 0;
-        for (Map.Entry<String, List<Order>> entry : grouped.entrySet()) {
-            if (entry.getValue().size() < 2) continue;
+        List<Map.Entry<String, List<UUID>>> groups = new ArrayList<>(grouped.entrySet());
+        int[] confirmed = new int[1];
+        for (int from = 0; from < groups.size(); from += CONFIRM_ALL_CHUNK) {
+            job.checkCancelled();
+            job.progress(from, groups.size());
+            List<Map.Entry<String, List<UUID>>> chunk =
+                groups.subList(from, Math.min(from + CONFIRM_ALL_CHUNK, groups.size()));
+            job.inChunk(() -> {
+                for (Map.Entry<String, List<UUID>> entry : chunk) {
+                    if (confirmGroup(entry.getKey(), entry.getValue())) confirmed[0]++;
+                }
+            });
+        }
 
-            List<String> orderNos = entry.getValue().stream()
-                .map(Order::getOrderNo)
-                .collect(Collectors.toList());
+        job.progress(grouped.size(), grouped.size());
+        log.info("전체 묶음 확정 완료: {}그룹", confirmed[0]);
+        return Map.of("success", true, "confirmed", confirmed[0],
+            "message", confirmed[0] + "그룹 묶음 확정 완료");
+    }
 
-            Optional<BundleGroup> existing = bundleGroupRepository.findByBundleKey(entry.getKey());
-            BundleGroup bundle;
+    /**
+     * 묶음 그룹 1건 확정 — 청크 트랜잭션 안에서 주문을 다시 읽어 그 사이 취소된 주문은 뺍니다.
+     * 남은 주문이 2건 미만이면 확정하지 않고 false.
+     */
+    private boolean confirmGroup(String bundleKey, List<UUID> orderIds) {
+        // 최신순 정렬 → 대표 주문 = 최신 1건
+        List<Order> groupOrders = orderRepository.findAllById(orderIds).stream()
+            .filter(o -> o.getOrderStatus() != Order.OrderStatus.CANCELLED)
+            .sorted(Comparator.comparing(
+                o -> o.getOrderedAt() != null ? o.getOrderedAt() : o.getCreatedAt(),
+                Comparator.nullsLast(Comparator.reverseOrder())
+            ))
+            .collect(Collectors.toList());
+        if (groupOrders.size() < 2) return false;
 
-            // 최신순 정렬 → 대표 주문 = 최신 1건
-            List<Order> groupOrders = entry.getValue().stream()
-                .sorted(Comparator.comparing(
-                    o -> o.getOrderedAt() != null ? o.getOrderedAt() : o.getCreatedAt(),
-                    Comparator.nullsLast(Comparator.reverseOrder())
-                ))
-                .collect(Collectors.toList());
+        List<String> orderNos = groupOrders.stream()
+            .map(Order::getOrderNo)
+            .collect(Collectors.toList());
+        Order rep = groupOrders.get(0);
 
-            Order rep = groupOrders.get(0);
-
-            // 대표 제외 나머지 취소
-            for (int i = 1; i < groupOrders.size(); i++) {
-                groupOrders.get(i).setOrderStatus(Order.OrderStatus.CANCELLED);
-                orderRepository.save(groupOrders.get(i));
-            }
-
-            if (existing.isPresent()) {
-                bundle = existing.get();
-                bundle.setRepresentativeOrderNo(rep.getOrderNo());
-                bundle.setOrderNos(String.join(",", orderNos));
-                bundle.setStatus(BundleGroup.BundleStatus.BUNDLED);
-            } else {
-                bundle = BundleGroup.builder()
-                    .bundleKey(entry.getKey())
-                    .representativeOrderNo(rep.getOrderNo())
-                    .orderNos(String.join(",", orderNos))
-                    .recipientName(rep.getRecipientName())
-                    .recipientPhone(rep.getRecipientPhone())
-                    .address(rep.getAddress())
-                    .status(BundleGroup.BundleStatus.BUNDLED)
-                    .build();
-            }
-            bundle.setConfirmedAt(LocalDateTime.now());
-            bundleGroupRepository.save(bundle);
-            confirmed++;
+        // 대표 제외 나머지 취소
+        for (int i = 1; i < groupOrders.size(); i++) {
+            groupOrders.get(i).setOrderStatus(Order.OrderStatus.CANCELLED);
+            orderRepository.save(groupOrders.get(i));
         }
 
-        log.info("전체 묶음 확정 완료: {}그룹", confirmed);
-        return ResponseEntity.ok(Map.of("success", true, "confirmed", confirmed,
-            "message", confirmed + "그룹 묶음 확정 완료"));
+        BundleGroup bundle = bundleGroupRepository.findByBundleKey(bundleKey)
+            .map(existing -> {
+                existing.setRepresentativeOrderNo(rep.getOrderNo());
+                existing.setOrderNos(String.join(",", orderNos));
+                existing.setStatus(BundleGroup.BundleStatus.BUNDLED);
+                return existing;
+            })
+            .orElseGet(() -> BundleGroup.builder()
+                .bundleKey(bundleKey)
+                .representativeOrderNo(rep.getOrderNo())
+                .orderNos(String.join(",", orderNos))
+                .recipientName(rep.getRecipientName())
+                .recipientPhone(rep.getRecipientPhone())
+                .address(rep.getAddress())
+                .status(BundleGroup.BundleStatus.BUNDLED)
+                .build());
+        bundle.setConfirmedAt(LocalDateTime.now());
+        bundleGroupRepository.save(bundle);
+        return true;
     }
 
     // ─── 묶음 목록 조회 ──────────────────────────────────────────
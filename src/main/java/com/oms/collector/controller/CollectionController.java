@@ -66,7 +66,7 @@ public class CollectionController {
             body.put("savedCount", result.savedCount());
             body.put("processedCount", result.processedCount());
             body.put("errors", result.errors());
-            body.put("unprocessedOrders", rawOrderService.getUnprocessedOrders().size());
+            body.put("unprocessedOrders", rawOrderService.countUnprocessedOrders());
             return result.success()
                 ? ResponseEntity.ok(body)
                 : ResponseEntity.badRequest().body(body);
@@ -136,7 +136,7 @@ public class CollectionController {
     public ResponseEntity<Map<String, Object>> getStatus() {
         log.info("📊 Collector 상태 조회");
 
-        int unprocessedCount = rawOrderService.getUnprocessedOrders().size();
+        long unprocessedCount = rawOrderService.countUnprocessedOrders();
 
         return ResponseEntity.ok(Map.of(
             "collectors", Map.of("SABANGNET", "SABANGNET - 설정된 쇼핑몰 기준 수집"),
@@ -4,6 +4,7 @@ import com.oms.collector.entity.Order;
 import com.oms.collector.entity.OrderItem;
 import com.oms.collector.repository.OrderItemRepository;
 import com.oms.collector.repository.OrderRepository;
+import com.oms.collector.service.KeywordSearchService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -36,6 +37,7 @@ public class CsOrderController {
 
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
+    private final KeywordSearchService keywordSearchService;
 
     public static class CsOrderDTO {
         public String  orderNo;
@@ -116,48 +118,39 @@ public class CsOrderController {
         LocalDateTime end   = (endDate   != null ? endDate   : LocalDate.now()).atTime(23, 59, 59);
 
         boolean isShippedDate = "shipped".equalsIgnoreCase(dateType) || "발송일자".equals(dateType);
-        boolean isTracking    = "송장번호".equals(searchType) || "trackingno".equalsIgnoreCase(searchType);
         boolean hasKeyword    = keyword != null && !keyword.isBlank();
-        final String kw       = hasKeyword ? keyword.trim().toLowerCase() : "";
 
         List<Order> orders;
 
-        boolean directOrderSearch = hasKeyword && ("주문번호".equals(searchType) || "송장번호".equals(searchType));
-        if (directOrderSearch) {
-            orders = orderRepository.searchByOrderNoOrTracking(keyword.trim());
-            orders = filterBySelectedDate(orders, start, end, isShippedDate);
-        } else if (isTracking && hasKeyword) {
-            if (isShippedDate) {
-                // 발송일자 기준 + 송장번호 검색
-                orders = orderRepository.findShippedByDateRange(start, end).stream()
-                    .filter(o -> contains(getTrackingNo(o), kw))
-                    .collect(Collectors.toList());
-            } else {
-                // 주문일자 기준 + 송장번호 검색 (DB LIKE 쿼리)
-                orders = orderRepository.findByDateRangeAndTracking(start, end, keyword.trim());
-            }
+        if (hasKeyword) {
+            // 키워드 검색 — 트라이그램 인덱스로 후보를 좁힌 뒤 일치도 순 (상한 collector.search.max-results)
+            orders = keywordSearchService.searchOrders(new KeywordSearchService.OrderCriteria(
+                keyword, toSearchField(searchType),
+                isShippedDate ? List.of(Order.OrderStatus.SHIPPED) : null,
+                isShippedDate ? KeywordSearchService.DateBasis.UPDATED : KeywordSearchService.DateBasis.ORDERED,
+                start, end, 0));
         } else if (isShippedDate) {
             // 발송일자 기준 (SHIPPED 주문의 updatedAt)
             orders = orderRepository.findShippedByDateRange(start, end);
-            if (hasKeyword) orders = filterByKeyword(orders, searchType, kw);
         } else {
             // 주문일자 기준 (기본)
             orders = orderRepository.findByDateRange(start, end);
-            if (hasKeyword) orders = filterByKeyword(orders, searchType, kw);
         }
 
         if (invoiceAssignedFrom != null || invoiceAssignedTo != null) {
             orders = filterByInvoiceAssignedRange(orders, invoiceAssignedFrom, invoiceAssignedTo);
         }
 
-        // 정렬
-        orders.sort((a, b) -> {
-            LocalDateTime da = isShippedDate ? a.getUpdatedAt() : a.getOrderedAt();
-            LocalDateTime db = isShippedDate ? b.getUpdatedAt() : b.getOrderedAt();
-            if (da == null) return 1;
-            if (db == null) return -1;
-            return db.compareTo(da);
-        });
+        // 정렬 (키워드 검색은 일치도 순서 유지)
+        if (!hasKeyword) {
+            orders.sort((a, b) -> {
+                LocalDateTime da = isShippedDate ? a.getUpdatedAt() : a.getOrderedAt();
+                LocalDateTime db = isShippedDate ? b.getUpdatedAt() : b.getOrderedAt();
+                if (da == null) return 1;
+                if (db == null) return -1;
+                return db.compareTo(da);
+            });
+        }
 
         log.info("CS 주문 검색: dateType={}, searchType={}, keyword={}, 결과={}건",
             dateType, searchType, keyword, orders.size());
@@ -165,17 +158,6 @@ public class CsOrderController {
         return ResponseEntity.ok(orders.stream().map(this::toDTO).collect(Collectors.toList()));
     }
 
-    private List<Order> filterBySelectedDate(List<Order> orders, LocalDateTime start, LocalDateTime end, boolean shippedDate) {
-        return orders.stream()
-            .filter(o -> {
-                LocalDateTime target = shippedDate ? o.getUpdatedAt() : o.getOrderedAt();
-                return target != null
-                    && !target.isBefore(start)
-                    && !target.isAfter(end);
-            })
-            .collect(Collectors.toList());
-    }
-
     private List<Order> filterByInvoiceAssignedRange(List<Order> orders, LocalDateTime from, LocalDateTime to) {
         return orders.stream()
             .filter(o -> {
@@ -393,19 +375,16 @@ public class CsOrderController {
         }
     }
 
-    private List<Order> filterByKeyword(List<Order> orders, String searchType, String kw) {
-        return orders.stream().filter(o -> switch (searchType) {
-            case "주문번호" -> contains(o.getOrderNo(), kw);
-            case "수취인"   -> contains(o.getRecipientName(), kw);
-            case "연락처"   -> contains(o.getRecipientPhone(), kw);
-            case "상품명"   -> contains(getProductName(o), kw);
-            case "송장번호" -> contains(getTrackingNo(o), kw);
-            default         -> contains(o.getOrderNo(), kw)
-                            || contains(o.getRecipientName(), kw)
-                            || contains(o.getRecipientPhone(), kw)
-                            || contains(getProductName(o), kw)
-                            || contains(getTrackingNo(o), kw);
-        }).collect(Collectors.toList());
+    private KeywordSearchService.Field toSearchField(String searchType) {
+        return switch (searchType) {
+            case "주문번호" -> KeywordSearchService.Field.ORDER_NO;
+            case "수취인"   -> KeywordSearchService.Field.RECIPIENT;
+            case "연락처"   -> KeywordSearchService.Field.PHONE;
+            case "상품명"   -> KeywordSearchService.Field.PRODUCT;
+            case "송장번호" -> KeywordSearchService.Field.TRACKING;
+            default         -> "trackingno".equalsIgnoreCase(searchType)
+                ? KeywordSearchService.Field.TRACKING : KeywordSearchService.Field.ALL;
+        };
     }
 
     private CsOrderDTO toDTO(Order o) {
@@ -568,10 +547,6 @@ public class CsOrderController {
             .collect(Collectors.joining(", "));
     }
 
-    private boolean contains(String val, String kw) {
-        return val != null && val.toLowerCase().contains(kw);
-    }
-
     private String normalizeText(String value) {
         if (value == null) {
             return null;
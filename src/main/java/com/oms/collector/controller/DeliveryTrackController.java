@@ -1,7 +1,9 @@
 package com.oms.collector.controller;
 
 import com.oms.collector.entity.Order;
+import com.oms.collector.entity.OrderInvoice;
 import com.oms.collector.repository.OrderRepository;
+import com.oms.collector.service.OrderInvoiceService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -39,6 +41,7 @@ import java.util.*;
 public class DeliveryTrackController {
 
     private final OrderRepository orderRepository;
+    private final OrderInvoiceService orderInvoiceService;
 
     // data.go.kr에서 발급받은 서비스 인증키 (URL 인코딩된 키)
     @Value("${delivery.post-office.api-key:}")
@@ -147,26 +150,23 @@ public class DeliveryTrackController {
         LocalDateTime start = LocalDate.parse(startDate).atStartOfDay();
         LocalDateTime end = LocalDate.parse(endDate).atTime(23, 59, 59);
 
-        List<Order> candidates = orderRepository.findByDateRange(start, end).stream()
+        List<Order> orders = orderRepository.findByDateRange(start, end).stream()
             .filter(order -> !Boolean.TRUE.equals(order.getInspectionCompleted()))
             .filter(order -> includePreShipmentCancelled || order.getOrderStatus() != Order.OrderStatus.CANCELLED)
-            .filter(order -> {
-                InvoiceMemoInfo info = extractInvoiceMemoInfo(order.getDeliveryMemo());
-                return info != null
-                    && "POST".equalsIgnoreCase(info.carrierCode)
-                    && info.trackingNo != null
-                    && !info.trackingNo.isBlank();
-            })
             .toList();
+        Map<UUID, OrderInvoice> invoices = orderInvoiceService.findByOrders(orders);
 
         List<ScanErrorOrderDTO> rows = new ArrayList<>();
-        for (Order order : candidates) {
-            InvoiceMemoInfo info = extractInvoiceMemoInfo(order.getDeliveryMemo());
-            TrackResult track = callPostOfficeApi(info.trackingNo);
+        for (Order order : orders) {
+            OrderInvoice invoice = invoices.get(order.getOrderId());
+            if (invoice == null || !"POST".equalsIgnoreCase(invoice.getCarrierCode())) {
+                continue;
+            }
+            TrackResult track = callPostOfficeApi(invoice.getTrackingNo());
             if (!hasPostalFlow(track)) {
                 continue;
             }
-            rows.add(toScanErrorRow(order, info, track));
+            rows.add(toScanErrorRow(order, invoice, track));
         }
 
         rows.sort(Comparator.comparing((ScanErrorOrderDTO row) -> row.orderedAt == null ? "" : row.orderedAt).reversed());
@@ -220,7 +220,7 @@ public class DeliveryTrackController {
             && !result.steps.isEmpty();
     }
 
-    private ScanErrorOrderDTO toScanErrorRow(Order order, InvoiceMemoInfo info, TrackResult track) {
+    private ScanErrorOrderDTO toScanErrorRow(Order order, OrderInvoice invoice, TrackResult track) {
         ScanErrorOrderDTO dto = new ScanErrorOrderDTO();
         dto.orderNo = order.getOrderNo();
         dto.orderStatus = order.getOrderStatus() != null ? order.getOrderStatus().name() : "";
@@ -228,9 +228,9 @@ public class DeliveryTrackController {
         dto.orderedAt = order.getOrderedAt() != null ? order.getOrderedAt().toString() : null;
         dto.recipientName = order.getRecipientName();
         dto.recipientPhone = order.getRecipientPhone();
-        dto.trackingNo = info.trackingNo;
-        dto.carrierCode = info.carrierCode;
-        dto.carrierName = info.carrierName;
+        dto.trackingNo = invoice.getTrackingNo();
+        dto.carrierCode = invoice.getCarrierCode();
+        dto.carrierName = invoice.getCarrierName();
         dto.currentStatus = track.currentStatus;
         dto.flowSummary = track.steps == null ? "" : track.steps.stream()
             .map(step -> step.status)
@@ -259,41 +259,6 @@ public class DeliveryTrackController {
         return dto;
     }
 
-    private InvoiceMemoInfo extractInvoiceMemoInfo(String memo) {
-        if (memo == null || !memo.contains("INVOICE:")) {
-            return null;
-        }
-        String invoiceSegment = memo.substring(memo.indexOf("INVOICE:") + "INVOICE:".length());
-        String carrierCode = null;
-        String carrierName = null;
-        String trackingNo = null;
-        for (String part : invoiceSegment.split("\\|")) {
-            String[] kv = part.split(":", 2);
-            if (kv.length != 2) {
-                continue;
-            }
-            if ("CARRIER".equals(kv[0])) carrierCode = kv[1];
-            if ("CARRIER_NAME".equals(kv[0])) carrierName = kv[1];
-            if ("TRACKING".equals(kv[0])) trackingNo = kv[1];
-        }
-        if (trackingNo == null || trackingNo.isBlank()) {
-            return null;
-        }
-        return new InvoiceMemoInfo(carrierCode, carrierName, trackingNo);
-    }
-
-    private static class InvoiceMemoInfo {
-        final String carrierCode;
-        final String carrierName;
-        final String trackingNo;
-
-        private InvoiceMemoInfo(String carrierCode, String carrierName, String trackingNo) {
-            this.carrierCode = carrierCode;
-            this.carrierName = carrierName;
-            this.trackingNo = trackingNo;
-        }
-    }
-
     /* ── 통합 API XML 파싱 ────────────────────────────────── */
     private void parseCombinedXml(String xml, TrackResult result) throws Exception {
         Document doc = parseXml(xml);
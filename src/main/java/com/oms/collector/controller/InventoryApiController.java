@@ -4,6 +4,7 @@ import com.oms.collector.entity.InventoryTransaction;
 import com.oms.collector.entity.Product;
 import com.oms.collector.repository.ProductRepository;
 import com.oms.collector.service.InventoryService;
+import com.oms.collector.service.ProductCatalogIndex;
 import com.oms.collector.service.ProductSearchService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -34,6 +35,7 @@ public class InventoryApiController {
     private final ProductRepository productRepository;
     private final InventoryService  inventoryService;
     private final ProductSearchService productSearchService;
+    private final ProductCatalogIndex productCatalogIndex;
 
     /* ── DTO ─────────────────────────────────────────────── */
 
@@ -53,7 +55,8 @@ public class InventoryApiController {
         public String  warehouseLocation;
         public boolean isActive;
 
-        public ProductDTO(Product p) {
+        /** 창고 재고는 product_warehouse_stock (창고 코드 → 재고) */
+        public ProductDTO(Product p, Map<String, Integer> warehouseStocks) {
             this.productId             = p.getProductId().toString();
             this.sku                   = p.getSku();
             this.barcode               = p.getBarcode();
@@ -63,9 +66,9 @@ public class InventoryApiController {
             this.totalStock            = p.getTotalStock()            != null ? p.getTotalStock()            : 0;
             this.availableStock        = p.getAvailableStock()        != null ? p.getAvailableStock()        : 0;
             this.reservedStock         = p.getReservedStock()         != null ? p.getReservedStock()         : 0;
-            this.warehouseStockAnyang  = p.getWarehouseStockAnyang()  != null ? p.getWarehouseStockAnyang()  : 0;
-            this.warehouseStockIcheon  = p.getWarehouseStockIcheon()  != null ? p.getWarehouseStockIcheon()  : 0;
-            this.warehouseStockBucheon = p.getWarehouseStockBucheon() != null ? p.getWarehouseStockBucheon() : 0;
+            this.warehouseStockAnyang  = warehouseStocks.getOrDefault("ANYANG", 0);
+            this.warehouseStockIcheon  = warehouseStocks.getOrDefault("ICHEON_BOX", 0);
+            this.warehouseStockBucheon = warehouseStocks.getOrDefault("BUCHEON", 0);
             this.warehouseLocation     = p.getWarehouseLocation();
             this.isActive              = Boolean.TRUE.equals(p.getIsActive());
         }
@@ -133,10 +136,15 @@ public class InventoryApiController {
 
         return ResponseEntity.ok(Map.of(
             "success", true,
-            "product", new ProductDTO(product)
+            "product", toDto(product)
         ));
     }
 
+    private ProductDTO toDto(Product product) {
+        return new ProductDTO(product, inventoryService.getWarehouseStockMap(List.of(product.getProductId()))
+            .getOrDefault(product.getProductId(), Map.of()));
+    }
+
     /* ── 상품 검색 ────────────────────────────────────────── */
 
     @GetMapping("/search")
@@ -145,9 +153,12 @@ public class InventoryApiController {
         @RequestParam String keyword,
         @RequestParam(defaultValue = "30") int limit
     ) {
+        List<Product> products = productSearchService.search(keyword, limit);
+        Map<UUID, Map<String, Integer>> stocks = inventoryService.getWarehouseStockMap(
+            products.stream().map(Product::getProductId).toList());
         return ResponseEntity.ok(
-            productSearchService.search(keyword, limit).stream()
-                .map(ProductDTO::new)
+            products.stream()
+                .map(p -> new ProductDTO(p, stocks.getOrDefault(p.getProductId(), Map.of())))
                 .collect(Collectors.toList())
         );
     }
@@ -179,7 +190,7 @@ public class InventoryApiController {
             return ResponseEntity.ok(Map.of(
                 "success", true,
                 "message", updated.getProductName() + " " + req.quantity + "개 입고 완료",
-                "product", new ProductDTO(updated)
+                "product", toDto(updated)
             ));
         } catch (Exception e) {
             log.error("입고 실패: {}", e.getMessage());
@@ -214,7 +225,7 @@ public class InventoryApiController {
             return ResponseEntity.ok(Map.of(
                 "success", true,
                 "message", updated.getProductName() + " " + req.quantity + "개 출고 완료",
-                "product", new ProductDTO(updated)
+                "product", toDto(updated)
             ));
         } catch (IllegalStateException e) {
             // 재고 부족
@@ -244,7 +255,7 @@ public class InventoryApiController {
     @GetMapping("/summary")
     @Transactional(readOnly = true)
     public ResponseEntity<Map<String, Object>> summary() {
-        List<Product> all = productRepository.findAll();
+        List<Product> all = productCatalogIndex.snapshot().products();
         long total      = all.size();
         long outOfStock = all.stream().filter(p -> p.getAvailableStock() != null && p.getAvailableStock() <= 0).count();
         int  totalQty   = all.stream().mapToInt(p -> p.getTotalStock() != null ? p.getTotalStock() : 0).sum();
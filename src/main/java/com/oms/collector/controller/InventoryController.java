@@ -8,6 +8,7 @@ import com.oms.collector.entity.Order;
 import com.oms.collector.entity.OrderItem;
 import com.oms.collector.repository.OrderItemRepository;
 import com.oms.collector.repository.ProductRepository;
+import com.oms.collector.service.InventoryLedgerService;
 import com.oms.collector.service.InventoryService;
 import com.oms.collector.service.ProductSearchService;
 import lombok.RequiredArgsConstructor;
@@ -36,11 +37,12 @@ public class InventoryController {
     private final OrderItemRepository orderItemRepository;
     private final InventoryService inventoryService;
     private final ProductSearchService productSearchService;
+    private final InventoryLedgerService inventoryLedgerService;
 
     @GetMapping("/products")
     public ResponseEntity<List<ProductDto>> getAllProducts() {
         List<Product> products = productRepository.findByIsActiveTrueOrderByProductNameAsc();
-        return ResponseEntity.ok(products.stream().map(this::toProductDto).collect(Collectors.toList()));
+        return ResponseEntity.ok(toProductDtos(products));
     }
 
     @GetMapping("/products/{id}")
@@ -56,7 +58,7 @@ public class InventoryController {
         log.info("🔍 상품 검색: {}", keyword);
         List<Product> products = productSearchService.search(keyword, 100);
         log.info("✅ 검색 결과: {}개", products.size());
-        return ResponseEntity.ok(products.stream().map(this::toProductDto).collect(Collectors.toList()));
+        return ResponseEntity.ok(toProductDtos(products));
     }
 
     @PostMapping("/products")
@@ -300,13 +302,13 @@ public class InventoryController {
     @GetMapping("/low-stock")
     public ResponseEntity<List<ProductDto>> getLowStockProducts() {
         List<Product> products = inventoryService.getOutOfStockProducts();
-        return ResponseEntity.ok(products.stream().map(this::toProductDto).collect(Collectors.toList()));
+        return ResponseEntity.ok(toProductDtos(products));
     }
 
     @GetMapping("/out-of-stock")
     public ResponseEntity<List<ProductDto>> getOutOfStockProducts() {
         List<Product> products = inventoryService.getOutOfStockProducts();
-        return ResponseEntity.ok(products.stream().map(this::toProductDto).collect(Collectors.toList()));
+        return ResponseEntity.ok(toProductDtos(products));
     }
 
     @GetMapping("/transactions")
@@ -332,6 +334,17 @@ public class InventoryController {
         return ResponseEntity.ok(dtos);
     }
 
+    /**
+     * 시점 재고 (재고 원장 스냅샷 + 이후 이벤트) — at 미지정 시 현재
+     */
+    @GetMapping("/products/{id}/stock-as-of")
+    public ResponseEntity<InventoryLedgerService.StockAsOf> getStockAsOf(
+            @PathVariable UUID id,
+            @RequestParam(required = false) String at) {
+        LocalDateTime when = at != null ? LocalDateTime.parse(at) : LocalDateTime.now();
+        return ResponseEntity.ok(inventoryLedgerService.asOf(id, when));
+    }
+
     @GetMapping("/products/{id}/transactions")
     public ResponseEntity<List<InventoryDto.TransactionResponse>> getTransactionHistory(
             @PathVariable UUID id,
@@ -405,32 +418,17 @@ public class InventoryController {
     }
 
     /**
-     * 재고 동기화: 레거시 창고 컬럼 기준으로 totalStock/availableStock 재계산
-     * product_warehouse_stock 테이블의 레거시 창고(ANYANG/ICHEON_BOX/ICHEON_PCS/BUCHEON) 항목은 삭제 후 정리
+     * 재고 동기화: 실재고 창고(type = REAL)의 product_warehouse_stock 합계로 totalStock/availableStock 재계산
      */
     @PostMapping("/products/{id}/sync-stock")
     public ResponseEntity<?> syncStock(@PathVariable UUID id) {
         log.info("🔄 재고 동기화 요청: {}", id);
-        return productRepository.findById(id).map(product -> {
-            // 1. product_warehouse_stock 테이블에서 레거시 창고 항목 제거 (중복 방지)
-            for (String legacyCode : new String[]{"ANYANG", "ICHEON_BOX", "ICHEON_PCS", "BUCHEON"}) {
-                inventoryService.deleteWarehouseStockIfExists(product.getProductId(), legacyCode);
-            }
-
-            // 2. 레거시 컬럼 합산 = 정상 창고 재고
-            int legacySum = (product.getWarehouseStockAnyang()  != null ? product.getWarehouseStockAnyang()  : 0)
-                          + (product.getWarehouseStockIcheon()  != null ? product.getWarehouseStockIcheon()  : 0)
-                          + (product.getWarehouseStockBucheon() != null ? product.getWarehouseStockBucheon() : 0);
-
-            // 3. totalStock / availableStock 재설정 (reservedStock 유지)
-            int reserved = product.getReservedStock() != null ? product.getReservedStock() : 0;
-            product.setTotalStock(legacySum);
-            product.setAvailableStock(Math.max(0, legacySum - reserved));
-            productRepository.save(product);
-
-            log.info("✅ 재고 동기화 완료: {} → totalStock={}", product.getProductName(), legacySum);
-            return ResponseEntity.ok(toProductDto(product));
-        }).orElse(ResponseEntity.notFound().build());
+        if (!productRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        Product product = inventoryService.syncTotalStock(id);
+        log.info("✅ 재고 동기화 완료: {} → totalStock={}", product.getProductName(), product.getTotalStock());
+        return ResponseEntity.ok(toProductDto(product));
     }
 
     @GetMapping("/stats")
@@ -449,7 +447,21 @@ public class InventoryController {
         return ResponseEntity.ok(stats);
     }
 
+    private List<ProductDto> toProductDtos(List<Product> products) {
+        Map<UUID, Map<String, Integer>> stocks = inventoryService.getWarehouseStockMap(
+            products.stream().map(Product::getProductId).toList());
+        return products.stream()
+            .map(p -> toProductDto(p, stocks.getOrDefault(p.getProductId(), Map.of())))
+            .collect(Collectors.toList());
+    }
+
     private ProductDto toProductDto(Product product) {
+        return toProductDto(product, inventoryService.getWarehouseStockMap(List.of(product.getProductId()))
+            .getOrDefault(product.getProductId(), Map.of()));
+    }
+
+    /** 안양/이천/부천 필드는 기존 화면 호환용 — product_warehouse_stock 값으로 채움 */
+    private ProductDto toProductDto(Product product, Map<String, Integer> warehouseStocks) {
         return ProductDto.builder()
             .productId(product.getProductId())
             .sku(product.getSku())
@@ -467,9 +479,9 @@ public class InventoryController {
             .availableStock(product.getAvailableStock())
             .reservedStock(product.getReservedStock())
             .warehouseLocation(product.getWarehouseLocation())
-            .warehouseStockAnyang(product.getWarehouseStockAnyang())
-            .warehouseStockIcheon(product.getWarehouseStockIcheon())
-            .warehouseStockBucheon(product.getWarehouseStockBucheon())
+            .warehouseStockAnyang(warehouseStocks.getOrDefault("ANYANG", 0))
+            .warehouseStockIcheon(warehouseStocks.getOrDefault("ICHEON_BOX", 0))
+            .warehouseStockBucheon(warehouseStocks.getOrDefault("BUCHEON", 0))
             .isActive(product.getIsActive())
             .description(product.getDescription())
             .note(product.getNote())
@@ -2,13 +2,22 @@ package com.oms.collector.controller;
 
 import com.oms.collector.config.TenantContext;
 import com.oms.collector.entity.Order;
+import com.oms.collector.entity.OrderInvoice;
 import com.oms.collector.entity.OrderItem;
 import com.oms.collector.entity.Product;
 import com.oms.collector.repository.OrderRepository;
 import com.oms.collector.repository.ProductRepository;
 import com.oms.collector.service.InventoryService;
 import com.oms.collector.service.InvoiceApiLogService;
+import com.oms.collector.service.InvoiceIssuanceService;
+import com.oms.collector.service.InvoiceIssueProgressService;
+import com.oms.collector.service.InvoiceMemo;
+import com.oms.collector.service.OrderInvoiceService;
+import com.oms.collector.service.ProductCatalogIndex;
 import com.oms.collector.service.WorkLockService;
+import com.oms.collector.service.job.JobResult;
+import com.oms.collector.service.job.JobService;
+import com.oms.collector.service.job.JobView;
 import com.oms.collector.service.postoffice.DeliveryAreaCodeService;
 import com.oms.collector.service.tracking.TrackingNumberProvider;
 import com.oms.collector.entity.InvoiceApiLog;
@@ -22,7 +31,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
-import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.time.LocalDate;
@@ -37,9 +45,13 @@ import java.time.LocalDateTime;
  * GET  /api/invoice/completed       - 송장 입력 완료 목록
  * GET  /api/invoice/shipped         - 발송 완료 목록 (SHIPPED)
  * POST /api/invoice/auto-assign/{orderNo} - 단건 자동 부여
- * POST /api/invoice/auto-assign-all - 일괄 자동 부여
+ * POST /api/invoice/auto-assign-all - 일괄 자동 부여 (백그라운드 작업)
+ * GET  /api/invoice/auto-assign-all/{runId} - 일괄 자동 부여 진행 상황
  * POST /api/invoice/cancel/{orderNo} - 발송취소 (SHIPPED → CONFIRMED)
  * POST /api/invoice/delete/{orderNo} - 송장삭제 (deliveryMemo 초기화)
+ * POST /api/invoice/printed         - 송장 출력 기록
+ *
+ * 송장 여부·송장번호 조회는 order_invoices(OrderInvoiceService), 우체국 접수 정보는 deliveryMemo 의 INVOICE: 구간을 사용합니다.
  */
 @Slf4j
 @RestController
@@ -47,18 +59,20 @@ import java.time.LocalDateTime;
 @RequiredArgsConstructor
 @CrossOrigin(origins = "*")
 public class InvoiceController {
-    private static final String INVOICE_PREFIX = "INVOICE:";
-    private static final String MESSAGE_PREFIX = "MESSAGE_B64:";
-
     private static final int ORDER_LOCK_TTL = 30; // 초
 
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
+    private final ProductCatalogIndex productCatalogIndex;
     private final InventoryService inventoryService;
     private final DeliveryAreaCodeService deliveryAreaCodeService;
     private final TrackingNumberProvider trackingNumberProvider;
     private final InvoiceApiLogService invoiceApiLogService;
     private final WorkLockService workLockService;
+    private final OrderInvoiceService orderInvoiceService;
+    private final InvoiceIssuanceService invoiceIssuanceService;
+    private final InvoiceIssueProgressService invoiceIssueProgressService;
+    private final JobService jobService;
 
     @Value("${tracking.post-office.order-company-name:}")
     private String senderCompanyName;
@@ -169,7 +183,7 @@ public class InvoiceController {
         public boolean hasInvoice;           // 송장 입력 여부
         public List<OrderItemDTO> items;     // ★ 개별 상품 목록 (옵션·바코드 포함)
 
-        public InvoiceOrderDTO(Order o, Map<String, Product> productMap, String senderCompanyName,
+        public InvoiceOrderDTO(Order o, OrderInvoice invoice, Map<String, Product> productMap, String senderCompanyName,
                                String senderContact, String senderZip, String senderAddress,
                                String senderRoutePrimary, String senderRouteSecondary,
                                String deliveryAreaCode, String arrivalCenterName,
@@ -208,15 +222,22 @@ public class InvoiceController {
                     .collect(Collectors.joining(", "));
             this.quantity      = o.getItems().stream().mapToInt(OrderItem::getActiveQuantity).sum();
             this.orderedAt     = o.getOrderedAt() != null ? o.getOrderedAt().toString() : "";
-            this.invoiceIssuedAt = o.getUpdatedAt() != null ? o.getUpdatedAt().toString() : "";
+            this.invoiceIssuedAt = invoice != null && invoice.getIssuedAt() != null
+                ? invoice.getIssuedAt().toString()
+                : (o.getUpdatedAt() != null ? o.getUpdatedAt().toString() : "");
             this.shippedAt     = o.getUpdatedAt() != null ? o.getUpdatedAt().toString() : "";
             // 개별 상품 목록 (옵션·바코드 포함)
             this.items         = o.getItems().stream()
                 .filter(i -> i.getActiveQuantity() > 0)
                 .map(i -> new OrderItemDTO(i, resolveLocation(productMap, i)))
                 .collect(Collectors.toList());
-            // 배송 메모에서 송장 정보 파싱 (저장 형식: "CARRIER:CJ|TRACKING:1234567890")
-            parseInvoiceFromMemo(o.getDeliveryMemo());
+            this.deliveryMessage = InvoiceMemo.deliveryMessage(o.getDeliveryMemo());
+            if (invoice != null) {
+                this.carrierCode = invoice.getCarrierCode();
+                this.carrierName = invoice.getCarrierName();
+                this.trackingNo = invoice.getTrackingNo();
+            }
+            this.hasInvoice = invoice != null;
         }
 
         private String resolveLocation(Map<String, Product> productMap, OrderItem item) {
@@ -237,33 +258,6 @@ public class InvoiceController {
             }
             return productName + " / " + optionName;
         }
-
-        private void parseInvoiceFromMemo(String memo) {
-            this.deliveryMessage = extractDeliveryMessage(memo);
-            if (memo == null || !memo.contains(INVOICE_PREFIX)) {
-                this.hasInvoice = false;
-                return;
-            }
-            try {
-                String invoiceSegment = extractInvoiceSegment(memo);
-                if (invoiceSegment == null || invoiceSegment.isBlank()) {
-                    this.hasInvoice = false;
-                    return;
-                }
-                String[] parts = invoiceSegment.split("\\|");
-                for (String part : parts) {
-                    String[] kv = part.split(":", 2);
-                    if (kv.length == 2) {
-                        if ("CARRIER".equals(kv[0])) this.carrierCode = kv[1];
-                        if ("CARRIER_NAME".equals(kv[0])) this.carrierName = kv[1];
-                        if ("TRACKING".equals(kv[0])) this.trackingNo = kv[1];
-                    }
-                }
-                this.hasInvoice = this.trackingNo != null && !this.trackingNo.isBlank();
-            } catch (Exception e) {
-                this.hasInvoice = false;
-            }
-        }
     }
 
     public static class InspectScanOrderDTO {
@@ -275,15 +269,14 @@ public class InvoiceController {
         public String trackingNo;
         public List<OrderItemDTO> items;
 
-        public InspectScanOrderDTO(Order order) {
+        public InspectScanOrderDTO(Order order, OrderInvoice invoice) {
             this.orderNo = order.getOrderNo();
             this.recipientName = order.getRecipientName();
             this.recipientPhone = order.getRecipientPhone();
             this.address = (order.getAddress() != null ? order.getAddress() : "")
                 + (order.getAddressDetail() != null ? " " + order.getAddressDetail() : "");
-            InvoiceInfo invoiceInfo = extractInvoiceInfo(order.getDeliveryMemo());
-            this.carrierName = invoiceInfo != null ? Objects.toString(invoiceInfo.carrierName(), "") : "";
-            this.trackingNo = invoiceInfo != null ? Objects.toString(invoiceInfo.trackingNo(), "") : "";
+            this.carrierName = invoice != null ? Objects.toString(invoice.getCarrierName(), "") : "";
+            this.trackingNo = invoice != null ? Objects.toString(invoice.getTrackingNo(), "") : "";
             this.items = order.getItems().stream()
                 .filter(i -> i.getActiveQuantity() > 0)
                 .map(i -> new OrderItemDTO(i, ""))
@@ -302,7 +295,7 @@ public class InvoiceController {
         public String carrierName;
         public String trackingNo;
 
-        public ShippedSummaryDTO(Order order) {
+        public ShippedSummaryDTO(Order order, OrderInvoice invoice) {
             this.orderNo = order.getOrderNo();
             this.channelName = order.getChannel() != null ? order.getChannel().getChannelName() : "";
             this.recipientName = order.getRecipientName();
@@ -312,10 +305,9 @@ public class InvoiceController {
                 .collect(Collectors.joining(", "));
             this.quantity = order.getItems().stream().mapToInt(OrderItem::getActiveQuantity).sum();
             this.shippedAt = order.getUpdatedAt() != null ? order.getUpdatedAt().toString() : "";
-            InvoiceInfo invoiceInfo = extractInvoiceInfo(order.getDeliveryMemo());
-            this.carrierCode = invoiceInfo != null ? Objects.toString(invoiceInfo.carrierCode(), "") : "";
-            this.carrierName = invoiceInfo != null ? Objects.toString(invoiceInfo.carrierName(), "") : "";
-            this.trackingNo = invoiceInfo != null ? Objects.toString(invoiceInfo.trackingNo(), "") : "";
+            this.carrierCode = invoice != null ? Objects.toString(invoice.getCarrierCode(), "") : "";
+            this.carrierName = invoice != null ? Objects.toString(invoice.getCarrierName(), "") : "";
+            this.trackingNo = invoice != null ? Objects.toString(invoice.getTrackingNo(), "") : "";
         }
 
         private static String formatProductLabel(String productName, String optionName) {
@@ -330,77 +322,15 @@ public class InvoiceController {
         if (memo == null || memo.isBlank()) {
             return null;
         }
-        int invoiceIndex = memo.indexOf(INVOICE_PREFIX);
+        int invoiceIndex = memo.indexOf(InvoiceMemo.INVOICE_PREFIX);
         if (invoiceIndex < 0) {
             return null;
         }
-        return memo.substring(invoiceIndex + INVOICE_PREFIX.length());
-    }
-
-    private static String extractDeliveryMessage(String memo) {
-        if (memo == null || memo.isBlank()) {
-            return "";
-        }
-        int messageIndex = memo.indexOf(MESSAGE_PREFIX);
-        if (messageIndex >= 0) {
-            int endIndex = memo.indexOf('|', messageIndex);
-            String encoded = endIndex >= 0
-                ? memo.substring(messageIndex + MESSAGE_PREFIX.length(), endIndex)
-                : memo.substring(messageIndex + MESSAGE_PREFIX.length());
-            try {
-                return new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
-            } catch (IllegalArgumentException e) {
-                log.warn("배송메시지 디코딩 실패: {}", encoded);
-                return "";
-            }
-        }
-        if (memo.contains(INVOICE_PREFIX)) {
-            return "";
-        }
-        return memo;
-    }
-
-    private static String buildDeliveryMemo(String existingMemo, String carrierCode, String carrierName,
-                                             String trackingNo, String poReqNo, String reservationNo, String reqYmd,
-                                             String deliveryAreaCode, String arrivalCenterName,
-                                             String deliveryPostOfficeName, String deliveryCourseNo) {
-        String deliveryMessage = extractDeliveryMessage(existingMemo);
-        List<String> parts = new ArrayList<>();
-        if (!deliveryMessage.isBlank()) {
-            parts.add(MESSAGE_PREFIX + Base64.getUrlEncoder().encodeToString(deliveryMessage.getBytes(StandardCharsets.UTF_8)));
-        }
-        StringBuilder invoice = new StringBuilder()
-            .append(INVOICE_PREFIX)
-            .append("CARRIER:").append(Objects.toString(carrierCode, ""))
-            .append("|CARRIER_NAME:").append(Objects.toString(carrierName, ""))
-            .append("|TRACKING:").append(Objects.toString(trackingNo, ""));
-        if (poReqNo != null && !poReqNo.isBlank()) {
-            invoice.append("|PO_REQ_NO:").append(poReqNo);
-        }
-        if (reservationNo != null && !reservationNo.isBlank()) {
-            invoice.append("|RES_NO:").append(reservationNo);
-        }
-        if (reqYmd != null && !reqYmd.isBlank()) {
-            invoice.append("|REQ_YMD:").append(reqYmd);
-        }
-        if (deliveryAreaCode != null && !deliveryAreaCode.isBlank()) {
-            invoice.append("|DELIV_AREA_CD:").append(deliveryAreaCode);
-        }
-        if (arrivalCenterName != null && !arrivalCenterName.isBlank()) {
-            invoice.append("|ARR_CNPO_NM:").append(arrivalCenterName);
-        }
-        if (deliveryPostOfficeName != null && !deliveryPostOfficeName.isBlank()) {
-            invoice.append("|DELIV_PO_NM:").append(deliveryPostOfficeName);
-        }
-        if (deliveryCourseNo != null && !deliveryCourseNo.isBlank()) {
-            invoice.append("|COURSE_NO:").append(deliveryCourseNo);
-        }
-        parts.add(invoice.toString());
-        return String.join("|", parts);
+        return memo.substring(invoiceIndex + InvoiceMemo.INVOICE_PREFIX.length());
     }
 
     private static String removeInvoiceFromMemo(String memo) {
-        String deliveryMessage = extractDeliveryMessage(memo);
+        String deliveryMessage = InvoiceMemo.deliveryMessage(memo);
         return deliveryMessage.isBlank() ? null : deliveryMessage;
     }
 
@@ -487,13 +417,14 @@ public class InvoiceController {
 
         Order order = orderRepository.findWithItemsByOrderNo(q).orElse(null);
         if (order == null || !statuses.contains(order.getOrderStatus())) {
-            order = orderRepository.findByTrackingNoInMemo(statuses, q).orElse(null);
+            order = orderRepository.findByTrackingNo(statuses, q.trim()).orElse(null);
         }
         if (order == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(Map.of("message", "주문을 찾을 수 없습니다: " + q));
         }
-        if (order.getDeliveryMemo() == null || !order.getDeliveryMemo().contains(INVOICE_PREFIX)) {
+        OrderInvoice invoice = orderInvoiceService.find(order.getOrderId()).orElse(null);
+        if (invoice == null) {
             return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
                 .body(Map.of("message", "송장번호가 없는 주문입니다: " + q));
         }
@@ -501,7 +432,7 @@ public class InvoiceController {
         if (order.getChannel() != null) order.getChannel().getChannelName();
         Map<String, Product> productMap = getInvoiceProductMap(order);
         String fullSenderAddress = buildSenderAddress();
-        return ResponseEntity.ok(toInvoiceOrderDTO(order, productMap, fullSenderAddress));
+        return ResponseEntity.ok(toInvoiceOrderDTO(order, invoice, productMap, fullSenderAddress));
     }
 
     @GetMapping("/scan-find")
@@ -518,9 +449,9 @@ public class InvoiceController {
                 .body(Map.of("message", "이미 출고 완료된 주문입니다: " + q));
         }
         if (order == null || !statuses.contains(order.getOrderStatus())) {
-            order = orderRepository.findByTrackingNoInMemo(statuses, q).orElse(null);
+            order = orderRepository.findByTrackingNo(statuses, q.trim()).orElse(null);
         }
-        if (order == null && orderRepository.findByTrackingNoInMemo(List.of(Order.OrderStatus.SHIPPED), q).isPresent()) {
+        if (order == null && orderRepository.findByTrackingNo(List.of(Order.OrderStatus.SHIPPED), q.trim()).isPresent()) {
             return ResponseEntity.status(HttpStatus.CONFLICT)
                 .body(Map.of("message", "이미 출고 완료된 주문입니다: " + q));
         }
@@ -528,12 +459,13 @@ public class InvoiceController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(Map.of("message", "주문을 찾을 수 없습니다: " + q));
         }
-        if (order.getDeliveryMemo() == null || !order.getDeliveryMemo().contains(INVOICE_PREFIX)) {
+        OrderInvoice invoice = orderInvoiceService.find(order.getOrderId()).orElse(null);
+        if (invoice == null) {
             return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
                 .body(Map.of("message", "송장번호가 없는 주문입니다: " + q));
         }
         order.getItems().size();
-        return ResponseEntity.ok(new InspectScanOrderDTO(order));
+        return ResponseEntity.ok(new InspectScanOrderDTO(order, invoice));
     }
 
     /**
@@ -632,8 +564,9 @@ public class InvoiceController {
 
         Map<String, Product> productMap = getInvoiceProductMap();
         String fullSenderAddress = buildSenderAddress();
+        Map<UUID, OrderInvoice> invoices = orderInvoiceService.findByOrders(orders);
         List<InvoiceOrderDTO> result = orders.stream()
-            .map(order -> toInvoiceOrderDTO(order, productMap, fullSenderAddress))
+            .map(order -> toInvoiceOrderDTO(order, invoices.get(order.getOrderId()), productMap, fullSenderAddress))
             .collect(Collectors.toList());
 
         return ResponseEntity.ok(result);
@@ -685,7 +618,12 @@ public class InvoiceController {
                 ));
             }
 
-            order.setDeliveryMemo(buildDeliveryMemo(order.getDeliveryMemo(), carrierCode, carrierName, trackingNo, null, null, null, null, null, null, null));
+            try {
+                orderInvoiceService.assign(order, carrierCode, carrierName, trackingNo);
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("success", false, "message", e.getMessage()));
+            }
+            order.setDeliveryMemo(InvoiceMemo.build(order.getDeliveryMemo(), carrierCode, carrierName, trackingNo.trim(), null, null, null, null, null, null, null));
             order.setInvoiceAssignedAt(LocalDateTime.now());
             orderRepository.save(order);
 
@@ -717,7 +655,8 @@ public class InvoiceController {
                 Order order = orderRepository.findByOrderNo(orderNo).orElse(null);
                 if (order == null) { failed++; continue; }
                 if (Boolean.TRUE.equals(order.getShippingHold())) { failed++; continue; }
-                order.setDeliveryMemo(buildDeliveryMemo(order.getDeliveryMemo(), carrierCode, carrierName, trackingNo, null, null, null, null, null, null, null));
+                orderInvoiceService.assign(order, carrierCode, carrierName, trackingNo);
+                order.setDeliveryMemo(InvoiceMemo.build(order.getDeliveryMemo(), carrierCode, carrierName, trackingNo.trim(), null, null, null, null, null, null, null));
                 order.setInvoiceAssignedAt(LocalDateTime.now());
                 orderRepository.save(order);
                 saved++;
@@ -761,9 +700,10 @@ public class InvoiceController {
 
         Map<String, Product> productMap = getInvoiceProductMap();
         String fullSenderAddress = buildSenderAddress();
+        Map<UUID, OrderInvoice> invoices = orderInvoiceService.findByOrders(orders);
         List<InvoiceOrderDTO> result = orders.stream()
-            .map(order -> toInvoiceOrderDTO(order, productMap, fullSenderAddress))
-            .filter(dto -> dto.hasInvoice)
+            .filter(order -> invoices.containsKey(order.getOrderId()))
+            .map(order -> toInvoiceOrderDTO(order, invoices.get(order.getOrderId()), productMap, fullSenderAddress))
             .collect(Collectors.toList());
 
         return ResponseEntity.ok(result);
@@ -797,7 +737,8 @@ public class InvoiceController {
 
             var result = trackingNumberProvider.issue(carrierCode, carrierName, orderNo);
             invoiceApiLogService.logIssueSuccess(orderNo, carrierCode, carrierName, result);
-            order.setDeliveryMemo(buildDeliveryMemo(order.getDeliveryMemo(), carrierCode, carrierName,
+            orderInvoiceService.assign(order, carrierCode, carrierName, result.trackingNo());
+            order.setDeliveryMemo(InvoiceMemo.build(order.getDeliveryMemo(), carrierCode, carrierName,
                 result.trackingNo(), result.poReqNo(), result.reservationNo(), result.reqYmd(),
                 result.deliveryAreaCode(), result.arrivalCenterName(), result.deliveryPostOfficeName(), result.deliveryCourseNo()));
             order.setInvoiceAssignedAt(LocalDateTime.now());
@@ -831,63 +772,54 @@ public class InvoiceController {
     }
 
     /**
-     * 전체 일괄 자동부여
+     * 전체 일괄 자동부여 — 백그라운드 작업 (202 + jobId·runId, 결과는 /api/jobs/{jobId}, 진행 상황은 runId 로 조회)
      * POST /api/invoice/auto-assign-all
      * Body: { "carrierCode": "POST", "carrierName": "우체국택배" }
+     *
+     * 택배사 호출은 동시 호출 수·초당 호출 수 제한 안에서 병렬로, 주문 반영은 건별 트랜잭션으로 처리 (InvoiceIssuanceService).
+     * 중간에 끊기거나 취소해도 다시 호출하면 송장이 있는 주문은 건너뛰고 발급만 된 번호부터 반영합니다.
+     * 같은 테넌트에서 일괄 자동부여가 이미 대기/실행 중이면 409 (진행 중인 jobId 포함).
      */
     @PostMapping("/auto-assign-all")
-    @Transactional
     public ResponseEntity<Map<String, Object>> autoAssignAll(
         @RequestBody Map<String, String> body
     ) {
         String carrierCode = body.getOrDefault("carrierCode", "POST");
         String carrierName = body.getOrDefault("carrierName", "우체국택배");
 
-        List<Order> orders = new ArrayList<>();
-        { int p = 0; while(true) {
-            var pg = PageRequest.of(p++, 500, Sort.by(Sort.Direction.DESC, "orderedAt"));
-            var sl = orderRepository.findByOrderStatus(Order.OrderStatus.CONFIRMED, pg);
-            orders.addAll(sl.getContent()); if(!sl.hasNext()) break; } }
-        orders.forEach(o -> o.getItems().size());
-
-        int assigned = 0;
-        List<Map<String, String>> failedOrders = new ArrayList<>();
-        for (Order order : orders) {
-            if (extractInvoiceSegment(order.getDeliveryMemo()) != null) continue;
-            if (Boolean.TRUE.equals(order.getShippingHold())) {
-                failedOrders.add(Map.of(
-                    "orderNo", order.getOrderNo(),
-                    "message", "보류 주문"
-                ));
-                continue;
-            }
-            try {
-                var result = trackingNumberProvider.issue(carrierCode, carrierName, order.getOrderNo());
-                invoiceApiLogService.logIssueSuccess(order.getOrderNo(), carrierCode, carrierName, result);
-                order.setDeliveryMemo(buildDeliveryMemo(order.getDeliveryMemo(), carrierCode, carrierName,
-                    result.trackingNo(), result.poReqNo(), result.reservationNo(), result.reqYmd(),
-                    result.deliveryAreaCode(), result.arrivalCenterName(), result.deliveryPostOfficeName(), result.deliveryCourseNo()));
-                order.setInvoiceAssignedAt(LocalDateTime.now());
-                orderRepository.save(order);
-                assigned++;
-            } catch (IllegalArgumentException | IllegalStateException e) {
-                invoiceApiLogService.logFailure(order.getOrderNo(), null, carrierCode, carrierName, InvoiceApiLog.ActionType.ISSUE, e);
-                log.error("송장 일괄 자동부여 실패: {} - {}", order.getOrderNo(), e.getMessage(), e);
-                failedOrders.add(Map.of(
-                    "orderNo", order.getOrderNo(),
-                    "message", e.getMessage()
-                ));
-            }
-        }
+        UUID runId = UUID.randomUUID();
+        JobView job = jobService.submitExclusive("INVOICE_AUTO_ASSIGN_ALL", context -> {
+            InvoiceIssuanceService.Summary summary = invoiceIssuanceService.issueAll(runId, carrierCode, carrierName, context);
+            log.info("송장 일괄 자동부여: {}건 ({})", summary.assigned(), carrierName);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("success", true);
+            result.put("runId", summary.runId().toString());
+            result.put("candidates", summary.candidates());
+            result.put("assigned", summary.assigned());
+            result.put("resumed", summary.resumed());
+            result.put("skipped", summary.skipped());
+            result.put("failed", summary.failedOrders().size());
+            result.put("failedOrders", summary.failedOrders());
+            result.put("message", summary.assigned() + "건 송장번호 자동 부여 완료");
+            return JobResult.of(result);
+        });
+        Map<String, Object> accepted = job.acceptedBody(carrierName + " 송장번호 일괄 자동 부여를 시작했습니다");
+        accepted.put("runId", runId.toString());
+        accepted.put("progressUrl", "/api/invoice/auto-assign-all/" + runId);
+        return ResponseEntity.accepted().body(accepted);
+    }
 
-        log.info("송장 일괄 자동부여: {}건 ({})", assigned, carrierName);
-        return ResponseEntity.ok(Map.of(
-            "success", true,
-            "assigned", assigned,
-            "failed", failedOrders.size(),
-            "failedOrders", failedOrders,
-            "message", assigned + "건 송장번호 자동 부여 완료"
-        ));
+    /**
+     * 일괄 자동부여 진행 상황 (실행 중 다른 화면에서 조회)
+     * GET /api/invoice/auto-assign-all/{runId}
+     */
+    @GetMapping("/auto-assign-all/{runId}")
+    public ResponseEntity<Map<String, Object>> autoAssignAllProgress(@PathVariable UUID runId) {
+        Map<String, Long> counts = invoiceIssueProgressService.summarize(runId);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("runId", runId.toString());
+        result.putAll(counts);
+        return ResponseEntity.ok(result);
     }
 
     /**
@@ -919,16 +851,17 @@ public class InvoiceController {
             if (o.getChannel() != null) o.getChannel().getChannelName();
         });
 
+        Map<UUID, OrderInvoice> invoices = orderInvoiceService.findByOrders(orders);
         if (summary) {
             return ResponseEntity.ok(orders.stream()
-                .map(ShippedSummaryDTO::new)
+                .map(order -> new ShippedSummaryDTO(order, invoices.get(order.getOrderId())))
                 .collect(Collectors.toList()));
         }
 
         Map<String, Product> productMap = getInvoiceProductMap();
         String fullSenderAddress = buildSenderAddress();
         List<InvoiceOrderDTO> result = orders.stream()
-            .map(order -> toInvoiceOrderDTO(order, productMap, fullSenderAddress))
+            .map(order -> toInvoiceOrderDTO(order, invoices.get(order.getOrderId()), productMap, fullSenderAddress))
             .collect(Collectors.toList());
 
         return ResponseEntity.ok(result);
@@ -1027,6 +960,7 @@ public class InvoiceController {
         order.setOrderStatus(Order.OrderStatus.CONFIRMED);
         order.setInspectionCompleted(false);
         orderRepository.save(order);
+        orderInvoiceService.reopen(order.getOrderId());
         log.info("발송취소 완료: {} → CONFIRMED (재고복구 {}건)", orderNo, restored);
 
         return ResponseEntity.ok(Map.of(
@@ -1054,6 +988,7 @@ public class InvoiceController {
 
             cancelCarrierInvoiceIfNeeded(order);
             order.setDeliveryMemo(removeInvoiceFromMemo(order.getDeliveryMemo()));
+            orderInvoiceService.remove(order.getOrderId());
             order.setInspectionCompleted(false);
             order.setInvoiceAssignedAt(null);
             orderRepository.save(order);
@@ -1070,17 +1005,21 @@ public class InvoiceController {
         }
     }
 
+    /**
+     * 송장 출력 기록 (발급 상태 송장만 PRINTED 로)
+     * POST /api/invoice/printed
+     * Body: { "orderNos": ["OMS-...", ...] }
+     */
+    @PostMapping("/printed")
+    @Transactional
+    public ResponseEntity<Map<String, Object>> markPrinted(@RequestBody Map<String, List<String>> body) {
+        List<String> orderNos = body.getOrDefault("orderNos", List.of());
+        int printed = orderInvoiceService.markPrinted(orderNos);
+        return ResponseEntity.ok(Map.of("success", true, "printed", printed));
+    }
+
     private Map<String, Product> getInvoiceProductMap() {
-        Map<String, Product> productMap = new HashMap<>();
-        for (Product product : productRepository.findAll()) {
-            if (product.getSku() != null && !product.getSku().isBlank()) {
-                productMap.put(product.getSku().toLowerCase(), product);
-            }
-            if (product.getBarcode() != null && !product.getBarcode().isBlank()) {
-                productMap.put(product.getBarcode().toLowerCase(), product);
-            }
-        }
-        return productMap;
+        return productCatalogIndex.snapshot().codeMap();
     }
 
     private Map<String, Product> getInvoiceProductMap(Order order) {
@@ -1160,7 +1099,8 @@ public class InvoiceController {
         ));
     }
 
-    private InvoiceOrderDTO toInvoiceOrderDTO(Order order, Map<String, Product> productMap, String fullSenderAddress) {
+    private InvoiceOrderDTO toInvoiceOrderDTO(Order order, OrderInvoice invoice,
+                                              Map<String, Product> productMap, String fullSenderAddress) {
         InvoiceInfo invoiceInfo = extractInvoiceInfo(order.getDeliveryMemo());
         boolean hasEmbeddedDeliveryArea = invoiceInfo != null && (
             hasText(invoiceInfo.deliveryAreaCode())
@@ -1197,6 +1137,7 @@ public class InvoiceController {
 
         return new InvoiceOrderDTO(
             order,
+            invoice,
             productMap,
             senderCompanyName,
             senderContact,
@@ -0,0 +1,117 @@
+package com.oms.collector.controller;
+
+import com.oms.collector.service.job.JobService;
+import com.oms.collector.service.job.JobView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 백그라운드 작업 조회·취소·결과 다운로드
+ *
+ * GET  /api/jobs?type=&limit=      - 최근 작업 목록 (현재 테넌트)
+ * GET  /api/jobs/{jobId}           - 상태·진행률 (polling)
+ * POST /api/jobs/{jobId}/cancel    - 취소 요청
+ * GET  /api/jobs/{jobId}/result    - 결과 (파일이면 다운로드, 아니면 요약 JSON)
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/jobs")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class JobController {
+
+    private final JobService jobService;
+
+    @GetMapping
+    public ResponseEntity<List<JobView>> list(
+        @RequestParam(required = false) String type,
+        @RequestParam(defaultValue = "50") int limit
+    ) {
+        return ResponseEntity.ok(jobService.list(type, limit));
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<JobView> get(@PathVariable UUID jobId) {
+        return jobService.find(jobId)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{jobId}/cancel")
+    public ResponseEntity<JobView> cancel(@PathVariable UUID jobId) {
+        return jobService.cancel(jobId)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{jobId}/result")
+    public ResponseEntity<?> result(@PathVariable UUID jobId) throws IOException {
+        Optional<JobView> found = jobService.find(jobId);
+        if (found.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        JobView job = found.get();
+        if (!JobService.SUCCEEDED.equals(job.status())) {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("success", false);
+            body.put("status", job.status());
+            body.put("message", job.isFinished()
+                ? Optional.ofNullable(job.error()).orElse("결과가 없는 작업입니다")
+                : "작업이 아직 끝나지 않았습니다");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+        }
+
+        if (job.resultFileName() == null) {
+            return ResponseEntity.ok(job.result() != null ? job.result() : Map.of("success", true));
+        }
+        Optional<Path> file = jobService.resultFile(job);
+        if (file.isEmpty() && jobService.isResultOnOtherNode(job)) {
+            // 노드별 로컬 result-dir — 파일은 남아 있으므로 410 이 아님 (421: 이 서버는 응답할 수 없는 요청)
+            return ResponseEntity.status(421).body(Map.of(
+                "success", false,
+                "resultNode", job.resultNode(),
+                "message", "결과 파일이 다른 서버(" + job.resultNode() + ")에 있습니다. 잠시 후 다시 시도해 주세요"
+            ));
+        }
+        if (file.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.GONE).body(Map.of(
+                "success", false,
+                "message", "결과 파일이 보관 기간이 지나 삭제되었습니다"
+            ));
+        }
+
+        Resource resource = new FileSystemResource(file.get());
+        String encodedName = URLEncoder.encode(job.resultFileName(), StandardCharsets.UTF_8).replace("+", "%20");
+        return ResponseEntity.ok()
+            .contentType(job.resultContentType() != null
+                ? MediaType.parseMediaType(job.resultContentType())
+                : MediaType.APPLICATION_OCTET_STREAM)
+            .contentLength(resource.contentLength())
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + encodedName + "\"; filename*=UTF-8''" + encodedName)
+            .body(resource);
+    }
+}
@@ -1,7 +1,9 @@
 package com.oms.collector.controller;
 
 import com.oms.collector.entity.Order;
+import com.oms.collector.entity.OrderInvoice;
 import com.oms.collector.repository.OrderRepository;
+import com.oms.collector.service.OrderInvoiceService;
 import com.oms.collector.service.market.MarketShipmentSyncService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -10,7 +12,7 @@ import org.springframework.web.bind.annotation.*;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @RestController
@@ -18,12 +20,9 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @CrossOrigin(origins = "*")
 public class MarketShipmentController {
-    private static final String INVOICE_PREFIX = "INVOICE:";
-
-    private record InvoiceInfo(String carrierCode, String carrierName, String trackingNo) {}
-
     private final OrderRepository orderRepository;
     private final MarketShipmentSyncService marketShipmentSyncService;
+    private final OrderInvoiceService orderInvoiceService;
 
     public record MarketShipmentDto(
         String orderNo,
@@ -39,8 +38,7 @@ public class MarketShipmentController {
         String marketSyncAttemptedAt,
         String marketSyncedAt
     ) {
-        public static MarketShipmentDto from(Order order) {
-            InvoiceInfo invoice = extractInvoiceInfo(order.getDeliveryMemo());
+        public static MarketShipmentDto from(Order order, OrderInvoice invoice) {
             String resolvedChannelOrderNo = resolveChannelOrderNo(order);
             String marketSyncStatus = resolveEffectiveMarketSyncStatus(order, invoice, resolvedChannelOrderNo);
             String marketSyncMessage = resolveEffectiveMarketSyncMessage(order, invoice, marketSyncStatus, resolvedChannelOrderNo);
@@ -50,8 +48,8 @@ public class MarketShipmentController {
                 order.getChannel() != null ? order.getChannel().getChannelName() : "",
                 resolvedChannelOrderNo,
                 order.getRecipientName(),
-                invoice != null ? invoice.carrierName() : "",
-                invoice != null ? invoice.trackingNo() : "",
+                invoice != null ? invoice.getCarrierName() : "",
+                invoice != null ? invoice.getTrackingNo() : "",
                 marketSyncStatus,
                 marketSyncMessage,
                 formatDateTime(order.getUpdatedAt()),
@@ -75,8 +73,9 @@ public class MarketShipmentController {
             if (order.getChannel() != null) order.getChannel().getChannelName();
         });
 
+        Map<UUID, OrderInvoice> invoices = orderInvoiceService.findByOrders(shipped);
         List<MarketShipmentDto> result = shipped.stream()
-            .map(MarketShipmentDto::from)
+            .map(order -> MarketShipmentDto.from(order, invoices.get(order.getOrderId())))
             .filter(dto -> wanted.contains(dto.marketSyncStatus()))
             .collect(Collectors.toList());
 
@@ -88,8 +87,8 @@ public class MarketShipmentController {
         Order order = orderRepository.findWithItemsByOrderNo(orderNo)
             .orElseThrow(() -> new RuntimeException("주문을 찾을 수 없습니다: " + orderNo));
 
-        InvoiceInfo invoice = extractInvoiceInfo(order.getDeliveryMemo());
-        if (invoice == null || invoice.trackingNo() == null || invoice.trackingNo().isBlank()) {
+        OrderInvoice invoice = orderInvoiceService.find(order.getOrderId()).orElse(null);
+        if (invoice == null) {
             return ResponseEntity.badRequest().body(Map.of(
                 "success", false,
                 "message", "송장정보가 없어 판매처 발송완료 전송이 불가합니다"
@@ -98,9 +97,9 @@ public class MarketShipmentController {
 
         MarketShipmentSyncService.MarketShipmentSyncResult result = marketShipmentSyncService.syncShipment(
             order,
-            invoice.carrierCode(),
-            invoice.carrierName(),
-            invoice.trackingNo()
+            invoice.getCarrierCode(),
+            invoice.getCarrierName(),
+            invoice.getTrackingNo()
         );
 
         return ResponseEntity.ok(Map.of(
@@ -122,16 +121,16 @@ public class MarketShipmentController {
                     failed++;
                     continue;
                 }
-                InvoiceInfo invoice = extractInvoiceInfo(order.getDeliveryMemo());
-                if (invoice == null || invoice.trackingNo() == null || invoice.trackingNo().isBlank()) {
+                OrderInvoice invoice = orderInvoiceService.find(order.getOrderId()).orElse(null);
+                if (invoice == null) {
                     failed++;
                     continue;
                 }
                 MarketShipmentSyncService.MarketShipmentSyncResult result = marketShipmentSyncService.syncShipment(
                     order,
-                    invoice.carrierCode(),
-                    invoice.carrierName(),
-                    invoice.trackingNo()
+                    invoice.getCarrierCode(),
+                    invoice.getCarrierName(),
+                    invoice.getTrackingNo()
                 );
                 if (result.success()) success++;
                 else failed++;
@@ -152,7 +151,7 @@ public class MarketShipmentController {
         return value != null ? value.toString() : "";
     }
 
-    private static String resolveEffectiveMarketSyncStatus(Order order, InvoiceInfo invoice, String channelOrderNo) {
+    private static String resolveEffectiveMarketSyncStatus(Order order, OrderInvoice invoice, String channelOrderNo) {
         if (order.getMarketSyncStatus() == Order.MarketSyncStatus.SUCCESS) {
             return Order.MarketSyncStatus.SUCCESS.name();
         }
@@ -164,7 +163,7 @@ public class MarketShipmentController {
             && order.getChannel().getChannelCode() != null
             && !order.getChannel().getChannelCode().isBlank();
         boolean hasChannelOrderNo = channelOrderNo != null && !channelOrderNo.isBlank();
-        boolean hasTracking = invoice != null && invoice.trackingNo() != null && !invoice.trackingNo().isBlank();
+        boolean hasTracking = invoice != null;
 
         if (hasChannel && hasChannelOrderNo && hasTracking) {
             return Order.MarketSyncStatus.PENDING.name();
@@ -175,7 +174,7 @@ public class MarketShipmentController {
         return Order.MarketSyncStatus.NOT_REQUIRED.name();
     }
 
-    private static String resolveEffectiveMarketSyncMessage(Order order, InvoiceInfo invoice, String effectiveStatus, String channelOrderNo) {
+    private static String resolveEffectiveMarketSyncMessage(Order order, OrderInvoice invoice, String effectiveStatus, String channelOrderNo) {
         if (Order.MarketSyncStatus.SUCCESS.name().equals(effectiveStatus)
             || Order.MarketSyncStatus.FAILED.name().equals(effectiveStatus)) {
             if (order.getMarketSyncMessage() != null && !order.getMarketSyncMessage().isBlank()) {
@@ -191,7 +190,7 @@ public class MarketShipmentController {
         if (channelOrderNo == null || channelOrderNo.isBlank()) {
             return "판매처 주문번호(channelOrderNo) 없음";
         }
-        if (invoice == null || invoice.trackingNo() == null || invoice.trackingNo().isBlank()) {
+        if (invoice == null) {
             return "송장정보 없음";
         }
         return order.getMarketSyncMessage();
@@ -208,29 +207,4 @@ public class MarketShipmentController {
         }
         return "";
     }
-
-    private static InvoiceInfo extractInvoiceInfo(String memo) {
-        if (memo == null || memo.isBlank()) {
-            return null;
-        }
-        int invoiceIndex = memo.indexOf(INVOICE_PREFIX);
-        if (invoiceIndex < 0) {
-            return null;
-        }
-
-        String carrierCode = null;
-        String carrierName = null;
-        String trackingNo = null;
-        String invoiceSegment = memo.substring(invoiceIndex + INVOICE_PREFIX.length());
-        for (String part : invoiceSegment.split("\\|")) {
-            String[] kv = part.split(":", 2);
-            if (kv.length != 2) {
-                continue;
-            }
-            if (Objects.equals("CARRIER", kv[0])) carrierCode = kv[1];
-            if (Objects.equals("CARRIER_NAME", kv[0])) carrierName = kv[1];
-            if (Objects.equals("TRACKING", kv[0])) trackingNo = kv[1];
-        }
-        return new InvoiceInfo(carrierCode, carrierName, trackingNo);
-    }
 }
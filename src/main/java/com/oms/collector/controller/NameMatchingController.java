@@ -9,7 +9,13 @@ import com.oms.collector.repository.ProductMatchingRuleRepository;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import com.oms.collector.repository.ProductRepository;
+import com.oms.collector.service.ProductCatalogIndex;
 import com.oms.collector.service.ProductSearchService;
+import com.oms.collector.service.job.JobContext;
+import com.oms.collector.service.job.JobResult;
+import com.oms.collector.service.job.JobService;
+import com.oms.collector.service.job.JobView;
+import com.oms.collector.service.matching.ProductNameMatcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -17,7 +23,6 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
-import java.util.Arrays;
 import java.util.stream.Collectors;
 
 /**
@@ -26,7 +31,7 @@ import java.util.stream.Collectors;
  * GET  /api/matching/unmatched        - 미매칭 주문상품 목록
  * GET  /api/matching/search?keyword=  - 재고 상품 검색
  * POST /api/matching/match            - 매칭 확정 (룰 저장 + OrderItem 업데이트)
- * POST /api/matching/auto             - 자동매칭 실행 (기존 룰 + 유사도)
+ * POST /api/matching/auto             - 자동매칭 실행 (기존 룰 + 유사도, 백그라운드 작업)
  * GET  /api/matching/rules            - 저장된 매칭 룰 목록
  * DELETE /api/matching/rules/{id}     - 룰 삭제
  */
@@ -41,6 +46,9 @@ public class NameMatchingController {
     private final ProductRepository           productRepository;
     private final ProductMatchingRuleRepository ruleRepository;
     private final ProductSearchService        productSearchService;
+    private final ProductCatalogIndex         productCatalogIndex;
+    private final ProductNameMatcher          productNameMatcher;
+    private final JobService                  jobService;
 
     // ─── DTO ─────────────────────────────────────────────────────
 
@@ -120,21 +128,12 @@ public class NameMatchingController {
         ruleRepository.findAllByOrderByCreatedAtDesc()
             .forEach(r -> ruleCache.put(r.getChannelProductName(), r));
 
-        // 전체 상품 SKU·바코드 Set (아이템마다 DB 조회 → 메모리 룩업으로 변경)
-        Set<String> productSkuSet     = new HashSet<>();
-        Set<String> productBarcodeSet = new HashSet<>();
-        Map<String, Product> skuToProduct     = new HashMap<>();
-        Map<String, Product> barcodeToProduct = new HashMap<>();
-        productRepository.findAll().forEach(p -> {
-            if (p.getSku()     != null && !p.getSku().isBlank()) {
-                productSkuSet.add(p.getSku().toLowerCase());
-                skuToProduct.put(p.getSku().toLowerCase(), p);
-            }
-            if (p.getBarcode() != null && !p.getBarcode().isBlank()) {
-                productBarcodeSet.add(p.getBarcode().toLowerCase());
-                barcodeToProduct.put(p.getBarcode().toLowerCase(), p);
-            }
-        });
+        // 전체 상품 SKU·바코드 룩업 — 공유 카탈로그 인덱스 (요청마다 전체 로딩하지 않음)
+        ProductCatalogIndex.CatalogSnapshot catalog = productCatalogIndex.snapshot();
+        Map<String, Product> skuToProduct     = catalog.skuMap();
+        Map<String, Product> barcodeToProduct = catalog.barcodeMap();
+        Set<String> productSkuSet     = skuToProduct.keySet();
+        Set<String> productBarcodeSet = barcodeToProduct.keySet();
         // ────────────────────────────────────────────────────────
 
         List<UnmatchedItemDTO> result = new ArrayList<>();
@@ -168,10 +167,9 @@ public class NameMatchingController {
                         dto.matchStatus          = "AUTO_SUGGESTED";
                     }
                 }
-                // [3] 유사도 추천 (바코드/룰 모두 실패 시만) — 이미 로딩된 상품 목록 재사용
+                // [3] 유사도 추천 (바코드/룰 모두 실패 시만) — 상품명 트라이그램 색인
                 if (!"AUTO_SUGGESTED".equals(dto.matchStatus)) {
-                    Product similar = findBestMatchFromCache(item.getProductName(),
-                        new ArrayList<>(skuToProduct.values()));
+                    Product similar = productNameMatcher.bestMatch(item.getProductName(), SIMILARITY_THRESHOLD).orElse(null);
                     if (similar != null) {
                         dto.suggestedProductId   = similar.getProductId().toString();
                         dto.suggestedProductName = similar.getProductName();
@@ -259,115 +257,130 @@ public class NameMatchingController {
     }
 
     /**
-     * 자동매칭 실행
+     * 자동매칭 실행 — 백그라운드 작업 (202 + jobId, 결과는 /api/jobs/{jobId})
      * POST /api/matching/auto
+     *
+     * 주문 200건마다 커밋하므로 취소·실패해도 이미 끝난 청크의 매칭은 유지됩니다 (CSV 업로드와 같음).
      */
     @PostMapping("/auto")
-    @Transactional
     public ResponseEntity<Map<String, Object>> autoMatch() {
+        JobView job = jobService.submit("PRODUCT_AUTO_MATCH", context -> JobResult.of(runAutoMatch(context)));
+        return ResponseEntity.accepted().body(job.acceptedBody("자동매칭을 시작했습니다"));
+    }
+
+    private Map<String, Object> runAutoMatch(JobContext job) {
         log.info("자동매칭 실행");
 
-        List<Order> orders = new ArrayList<>();
+        List<UUID> orderIds = new ArrayList<>();
         for (Order.OrderStatus st : new Order.OrderStatus[]{Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED}) {
             int p = 0; while(true) {
                 var pg = PageRequest.of(p++, 500, Sort.by(Sort.Direction.DESC, "orderedAt"));
                 var sl = orderRepository.findByOrderStatus(st, pg);
-                orders.addAll(sl.getContent()); if(!sl.hasNext()) break;
+                sl.getContent().forEach(o -> orderIds.add(o.getOrderId())); if(!sl.hasNext()) break;
             }
         }
-        orders.forEach(o -> o.getItems().size());
 
         // ── 캐시 사전 로딩 ──────────────────────────────────────
         Map<String, ProductMatchingRule> ruleCache = new HashMap<>();
         ruleRepository.findAllByOrderByCreatedAtDesc()
             .forEach(r -> ruleCache.put(r.getChannelProductName(), r));
 
-        List<Product> allProducts = productRepository.findAll();
-        Map<String, Product> skuMap     = new HashMap<>();
-        Map<String, Product> barcodeMap = new HashMap<>();
-        allProducts.forEach(p -> {
-            if (p.getSku()     != null) skuMap.put(p.getSku().toLowerCase(), p);
-            if (p.getBarcode() != null) barcodeMap.put(p.getBarcode().toLowerCase(), p);
-        });
+        ProductCatalogIndex.CatalogSnapshot catalog = productCatalogIndex.snapshot();
+        Map<String, Product> skuMap     = catalog.skuMap();
+        Map<String, Product> barcodeMap = catalog.barcodeMap();
         // ────────────────────────────────────────────────────────
 
-        int matched = 0;
-        int skipped = 0;
+        int[] tally = new int[2]; // [매칭, 미매칭]
 
-        for (Order o : orders) {
-            for (OrderItem item : o.getItems()) {
-                Set<String> skuSet     = skuMap.keySet();
-                Set<String> barcodeSet = barcodeMap.keySet();
-                if (isMatchedFast(item, ruleCache, skuSet, barcodeSet)) continue;
-
-                // [1] 바코드(productCode) 직접 매칭 — Map 룩업
-                if (item.getProductCode() != null && !item.getProductCode().isBlank()
-                        && !item.getProductCode().startsWith("FAKE")
-                        && !item.getProductCode().startsWith("NOINSTOCK")) {
-                    String lower = item.getProductCode().toLowerCase();
-                    Product exactMatch = skuMap.containsKey(lower) ? skuMap.get(lower)
-                                       : barcodeMap.get(lower);
-                    if (exactMatch != null) {
-                        if (!ruleCache.containsKey(item.getProductName())) {
-                            ProductMatchingRule newRule = ProductMatchingRule.builder()
-                                .channelProductName(item.getProductName())
-                                .productId(exactMatch.getProductId())
-                                .productName(exactMatch.getProductName())
-                                .sku(exactMatch.getSku())
-                                .matchType("AUTO")
-                                .build();
-                            ruleRepository.save(newRule);
-                            ruleCache.put(item.getProductName(), newRule);
-                        }
-                        matched++;
-                        continue;
-                    }
+        for (int from = 0; from < orderIds.size(); from += AUTO_MATCH_CHUNK) {
+            job.checkCancelled();
+            job.progress(from, orderIds.size());
+            List<UUID> chunk = orderIds.subList(from, Math.min(from + AUTO_MATCH_CHUNK, orderIds.size()));
+            job.inChunk(() -> {
+                for (Order o : orderRepository.findWithItemsByOrderIdIn(chunk)) {
+                    matchOrderItems(o, ruleCache, catalog, skuMap, barcodeMap, tally);
                 }
+            });
+        }
+        int matched = tally[0];
+        int skipped = tally[1];
 
-                // [2] 룰 캐시로 매칭
-                ProductMatchingRule rule = ruleCache.get(item.getProductName());
-                if (rule != null) {
-                    Product product = skuMap.values().stream()
-                        .filter(p -> p.getProductId().equals(rule.getProductId()))
-                        .findFirst().orElse(null);
-                    if (product != null) {
-                        item.setProductCode(product.getSku());
-                        orderRepository.save(o);
-                        matched++;
-                        continue;
-                    }
-                }
+        job.progress(orderIds.size(), orderIds.size());
+        log.info("자동매칭 완료: {}건 매칭, {}건 미매칭", matched, skipped);
+        return Map.of(
+            "success", true,
+            "matched", matched,
+            "skipped", skipped,
+            "message", matched + "건 자동 매칭 완료, " + skipped + "건 수동 필요"
+        );
+    }
 
-                // [3] 유사도 매칭 — 캐시된 목록 사용
-                Product best = findBestMatchFromCache(item.getProductName(), allProducts);
-                if (best != null) {
-                    item.setProductCode(best.getSku());
-                    orderRepository.save(o);
+    /** 주문 1건의 미매칭 아이템 자동매칭 — 바코드 → 룰 → 상품명 유사도 순 (tally: [매칭, 미매칭]) */
+    private void matchOrderItems(Order o, Map<String, ProductMatchingRule> ruleCache,
+                                 ProductCatalogIndex.CatalogSnapshot catalog,
+                                 Map<String, Product> skuMap, Map<String, Product> barcodeMap, int[] tally) {
+        for (OrderItem item : o.getItems()) {
+            Set<String> skuSet     = skuMap.keySet();
+            Set<String> barcodeSet = barcodeMap.keySet();
+            if (isMatchedFast(item, ruleCache, skuSet, barcodeSet)) continue;
+
+            // [1] 바코드(productCode) 직접 매칭 — Map 룩업
+            if (item.getProductCode() != null && !item.getProductCode().isBlank()
+                    && !item.getProductCode().startsWith("FAKE")
+                    && !item.getProductCode().startsWith("NOINSTOCK")) {
+                String lower = item.getProductCode().toLowerCase();
+                Product exactMatch = skuMap.containsKey(lower) ? skuMap.get(lower)
+                                   : barcodeMap.get(lower);
+                if (exactMatch != null) {
                     if (!ruleCache.containsKey(item.getProductName())) {
                         ProductMatchingRule newRule = ProductMatchingRule.builder()
                             .channelProductName(item.getProductName())
-                            .productId(best.getProductId())
-                            .productName(best.getProductName())
-                            .sku(best.getSku())
+                            .productId(exactMatch.getProductId())
+                            .productName(exactMatch.getProductName())
+                            .sku(exactMatch.getSku())
                             .matchType("AUTO")
                             .build();
                         ruleRepository.save(newRule);
                         ruleCache.put(item.getProductName(), newRule);
                     }
-                    matched++;
+                    tally[0]++;
                     continue;
                 }
-                skipped++;
             }
-        }
 
-        log.info("자동매칭 완료: {}건 매칭, {}건 미매칭", matched, skipped);
-        return ResponseEntity.ok(Map.of(
-            "success", true,
-            "matched", matched,
-            "skipped", skipped,
-            "message", matched + "건 자동 매칭 완료, " + skipped + "건 수동 필요"
-        ));
+            // [2] 룰 캐시로 매칭
+            ProductMatchingRule rule = ruleCache.get(item.getProductName());
+            if (rule != null) {
+                Product product = catalog.byId(rule.getProductId());
+                if (product != null) {
+                    item.setProductCode(product.getSku());
+                    orderRepository.save(o);
+                    tally[0]++;
+                    continue;
+                }
+            }
+
+            // [3] 유사도 매칭 — 상품명 트라이그램 색인
+            Product best = productNameMatcher.bestMatch(item.getProductName(), SIMILARITY_THRESHOLD).orElse(null);
+            if (best != null) {
+                item.setProductCode(best.getSku());
+                orderRepository.save(o);
+                if (!ruleCache.containsKey(item.getProductName())) {
+                    ProductMatchingRule newRule = ProductMatchingRule.builder()
+                        .channelProductName(item.getProductName())
+                        .productId(best.getProductId())
+                        .productName(best.getProductName())
+                        .sku(best.getSku())
+                        .matchType("AUTO")
+                        .build();
+                    ruleRepository.save(newRule);
+                    ruleCache.put(item.getProductName(), newRule);
+                }
+                tally[0]++;
+                continue;
+            }
+            tally[1]++;
+        }
     }
 
     /**
@@ -416,90 +429,9 @@ public class NameMatchingController {
         log.warn("OrderItem을 찾을 수 없음: {}", itemId);
     }
 
-    /**
-     * 상품명 정규화 (특수문자 제거, 소문자, 토큰화)
-     * "XFL1TL1003 블랙 / M(55반~66)" → ["xfl1tl1003", "블랙", "m55반66"]
-     */
-    private Set<String> tokenize(String s) {
-        if (s == null || s.isBlank()) return new HashSet<>();
-        String normalized = s.replaceAll("[/\\\\|·•\\-_]", " ")
-                             .replaceAll("\\s+", " ")
-                             .trim()
-                             .toLowerCase();
-        return new HashSet<>(Arrays.asList(normalized.split(" ")));
-    }
-
-    /**
-     * Jaccard 유사도 (0.0 ~ 1.0)
-     * 0.4 이상이면 매칭 후보로 간주
-     */
-    private double similarity(String a, String b) {
-        Set<String> ta = tokenize(a);
-        Set<String> tb = tokenize(b);
-        if (ta.isEmpty() || tb.isEmpty()) return 0.0;
-        Set<String> inter = new HashSet<>(ta);
-        inter.retainAll(tb);
-        Set<String> union = new HashSet<>(ta);
-        union.addAll(tb);
-        return (double) inter.size() / union.size();
-    }
-
+    /** 자동 추천/자동매칭 최소 유사도 (정규화 토큰 Jaccard) */
     private static final double SIMILARITY_THRESHOLD = 0.4;
-
-    /**
-     * 상품명 유사도 기반 최적 상품 탐색
-     * 검색 키워드로 후보군을 뽑은 뒤, 전체 상품명 유사도로 최적 선택
-     */
-    /**
-     * 캐시된 상품 목록에서 유사도 기반 최적 매칭 (DB 조회 없음)
-     */
-    private Product findBestMatchFromCache(String channelProductName, List<Product> allProducts) {
-        if (channelProductName == null || channelProductName.isBlank()) return null;
-        if (allProducts.isEmpty()) return null;
-
-        String code = channelProductName.split(" ")[0];
-        if (code.length() > 12) code = code.substring(0, 12);
-        final String codeFilter = code.toLowerCase();
-
-        // 코드 앞부분으로 1차 필터링
-        List<Product> candidates = allProducts.stream()
-            .filter(p -> p.getProductName() != null &&
-                (p.getProductName().toLowerCase().contains(codeFilter) ||
-                 (p.getSku() != null && p.getSku().toLowerCase().contains(codeFilter))))
-            .collect(Collectors.toList());
-
-        if (candidates.isEmpty()) candidates = allProducts;
-
-        return candidates.stream()
-            .max(Comparator.comparingDouble(p -> similarity(channelProductName, p.getProductName())))
-            .filter(p -> similarity(channelProductName, p.getProductName()) >= SIMILARITY_THRESHOLD)
-            .orElse(null);
-    }
-
-    private Product findBestMatch(String channelProductName) {
-        if (channelProductName == null || channelProductName.isBlank()) return null;
-
-        // 코드 부분 추출 (첫 번째 공백 전 또는 앞 10자)
-        String code = channelProductName.split(" ")[0];
-        if (code.length() > 12) code = code.substring(0, 12);
-
-        List<Product> candidates = productSearchService.search(code, 50);
-
-        // 후보가 없으면 전체 상품명 앞부분으로 재검색
-        if (candidates.isEmpty()) {
-            String fallback = channelProductName.length() > 8
-                ? channelProductName.substring(0, 8) : channelProductName;
-            candidates = productSearchService.search(fallback, 50);
-        }
-
-        if (candidates.isEmpty()) return null;
-
-        // 전체 상품명 유사도로 최적 선택
-        return candidates.stream()
-            .max(Comparator.comparingDouble(p -> similarity(channelProductName, p.getProductName())))
-            .filter(p -> similarity(channelProductName, p.getProductName()) >= SIMILARITY_THRESHOLD)
-            .orElse(null);
-    }
+    private static final int AUTO_MATCH_CHUNK = 200;
 
     private String extractKeyword(String productName) {
         if (productName == null) return "";
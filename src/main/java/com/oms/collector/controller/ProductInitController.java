@@ -2,6 +2,10 @@ package com.oms.collector.controller;
 
 import com.oms.collector.entity.Product;
 import com.oms.collector.repository.ProductRepository;
+import com.oms.collector.service.job.JobContext;
+import com.oms.collector.service.job.JobResult;
+import com.oms.collector.service.job.JobService;
+import com.oms.collector.service.job.JobView;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -11,6 +15,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.StringReader;
 import java.math.BigDecimal;
 import java.nio.charset.Charset;
@@ -42,6 +47,7 @@ public class ProductInitController {
     private static final List<String> REQUIRED_PRODUCT_CSV_HEADERS = List.of("상품명", "옵션명", "바코드");
 
     private final ProductRepository productRepository;
+    private final JobService jobService;
 
     /**
      * CSV 업로드 OPTIONS 요청 처리 (CORS Preflight)
@@ -73,12 +79,12 @@ public class ProductInitController {
     }
 
     /**
-     * CSV 파일 업로드로 상품 등록
+     * CSV 파일 업로드로 상품 등록 — 파일을 받아 두고 백그라운드 작업으로 등록 (202 + jobId, 결과는 /api/jobs/{jobId})
      */
     @PostMapping("/products/upload-csv")
-    public ResponseEntity<String> uploadCsvProducts(
+    public ResponseEntity<Map<String, Object>> uploadCsvProducts(
             @RequestParam("file") MultipartFile file,
-            HttpServletResponse response) {
+            HttpServletResponse response) throws IOException {
 
         response.setHeader("Access-Control-Allow-Origin", "*");
         response.setHeader("Access-Control-Allow-Methods", "POST, OPTIONS");
@@ -89,78 +95,86 @@ public class ProductInitController {
         log.info("   파일크기: {} bytes", file.getSize());
 
         if (file.isEmpty()) {
-            return ResponseEntity.badRequest().body("파일이 비어있습니다.");
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", "파일이 비어있습니다."));
         }
 
-        try {
-            List<Product> parsedProducts = parseCsvFile(file);
-            int parsedCount = parsedProducts.size();
-            Map<String, Product> uniqueProductsBySku = new LinkedHashMap<>();
-            int duplicateInCsvCount = 0;
-            for (Product product : parsedProducts) {
-                String uniqueKey = productUniqueKey(product);
-                if (uniqueProductsBySku.containsKey(uniqueKey)) {
-                    duplicateInCsvCount++;
-                    continue;
-                }
-                uniqueProductsBySku.put(uniqueKey, product);
+        byte[] bytes = file.getBytes();
+        JobView job = jobService.submit("PRODUCT_CSV_UPLOAD", context -> JobResult.of(importCsvProducts(bytes, context)));
+        return ResponseEntity.accepted().body(job.acceptedBody("CSV 상품 등록을 시작했습니다"));
+    }
+
+    /**
+     * CSV 상품 등록 — 1000건 청크마다 저장·진행률 기록, 취소하면 이미 저장한 청크는 유지
+     */
+    private Map<String, Object> importCsvProducts(byte[] bytes, JobContext job) throws Exception {
+        List<Product> parsedProducts = parseCsvFile(bytes);
+        int parsedCount = parsedProducts.size();
+        Map<String, Product> uniqueProductsBySku = new LinkedHashMap<>();
+        int duplicateInCsvCount = 0;
+        for (Product product : parsedProducts) {
+            String uniqueKey = productUniqueKey(product);
+            if (uniqueProductsBySku.containsKey(uniqueKey)) {
+                duplicateInCsvCount++;
+                continue;
             }
-            List<Product> products = new ArrayList<>(uniqueProductsBySku.values());
-            log.info("CSV 파싱 완료: {}개 상품, 내부 중복 {}개 제외", parsedCount, duplicateInCsvCount);
-
-            ExistingProductKeys existingKeys = loadExistingProductKeys(products);
-            int chunkSize = 1000;
-            int newCount = 0;
-            int updateCount = 0;
-            int totalProcessed = 0;
-
-            for (int i = 0; i < products.size(); i += chunkSize) {
-                int end = Math.min(i + chunkSize, products.size());
-                List<Product> chunk = products.subList(i, end);
-
-                List<Product> toSave = new ArrayList<>();
-                for (Product product : chunk) {
-                    if (isExistingProduct(product, existingKeys)) {
-                        updateCount++;
-                    } else {
-                        toSave.add(product);
-                    }
-                }
+            uniqueProductsBySku.put(uniqueKey, product);
+        }
+        List<Product> products = new ArrayList<>(uniqueProductsBySku.values());
+        log.info("CSV 파싱 완료: {}개 상품, 내부 중복 {}개 제외", parsedCount, duplicateInCsvCount);
 
-                if (!toSave.isEmpty()) {
-                    productRepository.saveAll(toSave);
-                    newCount += toSave.size();
+        ExistingProductKeys existingKeys = loadExistingProductKeys(products);
+        int chunkSize = 1000;
+        int newCount = 0;
+        int updateCount = 0;
+        int totalProcessed = 0;
+
+        for (int i = 0; i < products.size(); i += chunkSize) {
+            job.checkCancelled();
+            int end = Math.min(i + chunkSize, products.size());
+            List<Product> chunk = products.subList(i, end);
+
+            List<Product> toSave = new ArrayList<>();
+            for (Product product : chunk) {
+                if (isExistingProduct(product, existingKeys)) {
+                    updateCount++;
+                } else {
+                    toSave.add(product);
                 }
-
-                totalProcessed = end;
-                log.info("진행: {}/{} ({}%)",
-                    totalProcessed, products.size(),
-                    products.isEmpty() ? 100 : (totalProcessed * 100 / products.size()));
             }
 
-            String message = String.format(
-                "CSV 업로드 완료\n신규: %,d개\n기존/건너뜀: %,d개\nCSV 내부 중복 제외: %,d개\n총 읽은 행: %,d개",
-                newCount, updateCount, duplicateInCsvCount, parsedCount
-            );
-
-            log.info(message);
-            return ResponseEntity.ok(message);
+            if (!toSave.isEmpty()) {
+                productRepository.saveAll(toSave);
+                newCount += toSave.size();
+            }
 
-        } catch (IllegalArgumentException e) {
-            log.warn("CSV 검증 실패: {}", e.getMessage());
-            return ResponseEntity.badRequest().body("업로드 실패: " + e.getMessage());
-        } catch (Exception e) {
-            log.error("CSV 처리 실패", e);
-            return ResponseEntity.status(500)
-                .body("업로드 실패: " + e.getMessage());
+            totalProcessed = end;
+            job.progress(totalProcessed, products.size());
+            log.info("진행: {}/{} ({}%)",
+                totalProcessed, products.size(),
+                products.isEmpty() ? 100 : (totalProcessed * 100 / products.size()));
         }
+
+        String message = String.format(
+            "CSV 업로드 완료\n신규: %,d개\n기존/건너뜀: %,d개\nCSV 내부 중복 제외: %,d개\n총 읽은 행: %,d개",
+            newCount, updateCount, duplicateInCsvCount, parsedCount
+        );
+
+        log.info(message);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("success", true);
+        result.put("newCount", newCount);
+        result.put("skippedCount", updateCount);
+        result.put("duplicateInCsvCount", duplicateInCsvCount);
+        result.put("parsedCount", parsedCount);
+        result.put("message", message);
+        return result;
     }
 
-    private List<Product> parseCsvFile(MultipartFile file) throws Exception {
+    private List<Product> parseCsvFile(byte[] bytes) throws Exception {
         List<Product> products = new ArrayList<>();
         LocalDateTime now = LocalDateTime.now();
 
-        String content = readCsvContent(file);
+        String content = readCsvContent(bytes);
         try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
             String headerLine = reader.readLine();
             if (headerLine == null || headerLine.isBlank()) {
@@ -218,9 +232,6 @@ public class ProductInitController {
                     .availableStock(0)
                     .reservedStock(0)
                     .warehouseLocation(location)
-                    .warehouseStockAnyang(0)
-                    .warehouseStockIcheon(0)
-                    .warehouseStockBucheon(0)
                     .isActive(true)
                     .description(optionName)
                     .note(note)
@@ -240,8 +251,7 @@ public class ProductInitController {
         return products;
     }
 
-    private String readCsvContent(MultipartFile file) throws Exception {
-        byte[] bytes = file.getBytes();
+    private String readCsvContent(byte[] bytes) {
         String utf8 = new String(bytes, StandardCharsets.UTF_8);
         if (!utf8.contains("\uFFFD")) {
             return utf8.replace("\uFEFF", "");
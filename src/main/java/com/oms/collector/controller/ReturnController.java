@@ -11,6 +11,7 @@ import com.oms.collector.repository.OrderItemRepository;
 import com.oms.collector.repository.CsMemoRepository;
 import com.oms.collector.repository.ProductReturnRepository;
 import com.oms.collector.service.InventoryService;
+import com.oms.collector.service.KeywordSearchService;
 import com.oms.collector.service.OrderSequenceService;
 import com.oms.collector.repository.ProductRepository;
 import com.oms.collector.repository.SalesChannelRepository;
@@ -51,6 +52,7 @@ public class ReturnController {
     private final CsMemoRepository csMemoRepository;
     private final SalesChannelRepository salesChannelRepository;
     private final OrderSequenceService orderSequenceService;
+    private final KeywordSearchService keywordSearchService;
 
     /* ── DTO ─────────────────────────────────────────── */
 
@@ -309,7 +311,7 @@ public class ReturnController {
         if (orderNo != null && !orderNo.isBlank()) {
             returns = returnRepository.findByOrderNoOrderByCreatedAtDesc(orderNo.trim());
         } else if (keyword != null && !keyword.isBlank()) {
-            returns = returnRepository.searchByKeyword(keyword.trim());
+            returns = keywordSearchService.searchReturns(keyword, 0);
         } else if (status != null && !status.isBlank() && !status.equals("ALL")) {
             returns = returnRepository.findByStatusOrderByCreatedAtDesc(
                 ProductReturn.ReturnStatus.valueOf(status)
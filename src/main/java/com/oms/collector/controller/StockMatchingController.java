@@ -3,9 +3,14 @@ package com.oms.collector.controller;
 import com.oms.collector.entity.Order;
 import com.oms.collector.entity.OrderItem;
 import com.oms.collector.entity.Product;
+import com.oms.collector.entity.ProductWarehouseStock;
 import com.oms.collector.repository.OrderRepository;
-import com.oms.collector.repository.ProductRepository;
 import com.oms.collector.service.InventoryService;
+import com.oms.collector.service.ProductCatalogIndex;
+import com.oms.collector.service.StockMatchingSnapshotCache;
+import com.oms.collector.service.StockReservationService;
+import com.oms.collector.service.matching.ProductNameMatcher;
+import com.oms.collector.service.matching.StockAllocationEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
@@ -32,11 +37,22 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*")
 public class StockMatchingController {
 
-    private final OrderRepository   orderRepository;
-    private final ProductRepository productRepository;
-    private final InventoryService  inventoryService;
+    private final OrderRepository     orderRepository;
+    private final ProductCatalogIndex productCatalogIndex;
+    private final ProductNameMatcher  productNameMatcher;
+    private final StockMatchingSnapshotCache matchingSnapshotCache;
+    private final InventoryService    inventoryService;
+    private final StockReservationService stockReservationService;
     private final com.oms.collector.repository.ProductWarehouseStockRepository warehouseStockRepository;
 
+    /** 코드 매칭 실패 시 상품명 매칭 최소 유사도 */
+    private static final double NAME_MATCH_THRESHOLD = 0.3;
+
+    /** 할당 우선순위: priority_allocation DESC, ordered_at ASC (조회 쿼리 정렬과 동일) */
+    private static final Comparator<PendingLine> ALLOCATION_ORDER = Comparator
+        .comparing((PendingLine line) -> Boolean.TRUE.equals(line.row().getPriorityAllocation()) ? 0 : 1)
+        .thenComparing(line -> line.row().getOrderedAt(), Comparator.nullsLast(Comparator.naturalOrder()));
+
     // ─── DTO ─────────────────────────────────────────────────────
 
     public static class MatchItemDTO {
@@ -82,32 +98,21 @@ public class StockMatchingController {
             }
         }
 
-        // Projection 기반 생성자 (상품명 매칭 - product 별도 전달)
-        public MatchItemDTO(com.oms.collector.repository.MatchedItemProjection row, Product product, int stock) {
+        // Projection + 순차 할당 결과 (재고 매칭)
+        public MatchItemDTO(com.oms.collector.repository.MatchedItemProjection row, String sku,
+                            StockAllocationEngine.Line line) {
             this.orderNo        = row.getOrderNo();
             this.channelName    = row.getChannelName() != null ? row.getChannelName() : "";
             this.recipientName  = row.getRecipientName();
             this.productName    = row.getProductName();
             this.optionName     = row.getOptionName();
             this.productCode    = row.getProductCode();
-            this.sku            = product != null ? product.getSku() : null;
+            this.sku            = sku;
             this.ordered        = row.getQuantity() != null ? row.getQuantity() : 0;
-            this.warehouseStock = stock;
+            this.warehouseStock = line.available();
+            this.allocatable    = line.allocated();
+            this.shipStatus     = line.status().name();
             this.orderedAt      = row.getOrderedAt() != null ? row.getOrderedAt() : "";
-
-            if (product == null) {
-                this.allocatable = 0;
-                this.shipStatus  = "NOT_MATCHED";
-            } else if (stock <= 0) {
-                this.allocatable = 0;
-                this.shipStatus  = "IMPOSSIBLE";
-            } else if (stock >= this.ordered) {
-                this.allocatable = this.ordered;
-                this.shipStatus  = "FULL";
-            } else {
-                this.allocatable = stock;
-                this.shipStatus  = "PARTIAL";
-            }
         }
 
         public MatchItemDTO(Order o, OrderItem item, Product product, int stock) {
@@ -147,58 +152,116 @@ public class StockMatchingController {
         public int    partial;
         public int    impossible;
         public int    notMatched;
+        public int    page;
+        public int    size;
+        public int    totalPages;
+        public long   snapshotVersion;
+        public String computedAt;
         public List<MatchItemDTO> items;
 
-        public MatchResultDTO(String code, String name, List<MatchItemDTO> items) {
-            this.warehouseCode = code;
-            this.warehouseName = name;
-            this.items         = items;
-            this.totalItems    = items.size();
-            this.totalOrders   = (int) items.stream().map(i -> i.orderNo).distinct().count();
-            this.full          = (int) items.stream().filter(i -> "FULL".equals(i.shipStatus)).count();
-            this.partial       = (int) items.stream().filter(i -> "PARTIAL".equals(i.shipStatus)).count();
-            this.impossible    = (int) items.stream().filter(i -> "IMPOSSIBLE".equals(i.shipStatus)).count();
-            this.notMatched    = (int) items.stream().filter(i -> "NOT_MATCHED".equals(i.shipStatus)).count();
+        /**
+         * 스냅샷에서 한 페이지만 잘라 응답 (size 가 없으면 전체)
+         */
+        public MatchResultDTO(String code, String name, StockMatchingSnapshotCache.Snapshot<MatchSnapshot> snapshot,
+                              int page, Integer size) {
+            MatchSnapshot result = snapshot.value();
+            List<MatchItemDTO> all = result.items();
+
+            this.warehouseCode   = code;
+            this.warehouseName   = name;
+            this.totalItems      = all.size();
+            this.totalOrders     = result.totalOrders();
+            this.full            = result.full();
+            this.partial         = result.partial();
+            this.impossible      = result.impossible();
+            this.notMatched      = result.notMatched();
+            this.snapshotVersion = snapshot.version();
+            this.computedAt      = snapshot.computedAt().toString();
+
+            if (size == null || size <= 0) {
+                this.page       = 0;
+                this.size       = all.size();
+                this.totalPages = 1;
+                this.items      = all;
+            } else {
+                int from = (int) Math.min((long) Math.max(page, 0) * size, all.size());
+                this.page       = Math.max(page, 0);
+                this.size       = size;
+                this.totalPages = (all.size() + size - 1) / size;
+                this.items      = all.subList(from, Math.min(from + size, all.size()));
+            }
+        }
+    }
+
+    /**
+     * 재고 매칭 계산 결과 (정렬된 전체 아이템 + 상태별 건수 + 예약 계획)
+     */
+    public record MatchSnapshot(List<MatchItemDTO> items, int totalOrders,
+                                int full, int partial, int impossible, int notMatched,
+                                StockAllocationEngine.ReservationPlan plan) {
+
+        static MatchSnapshot of(List<MatchItemDTO> items, StockAllocationEngine.ReservationPlan plan) {
+            Set<String> orderNos = new HashSet<>();
+            int full = 0, partial = 0, impossible = 0, notMatched = 0;
+            for (MatchItemDTO item : items) {
+                orderNos.add(item.orderNo);
+                switch (item.shipStatus) {
+                    case "FULL"       -> full++;
+                    case "PARTIAL"    -> partial++;
+                    case "IMPOSSIBLE" -> impossible++;
+                    default           -> notMatched++;
+                }
+            }
+            return new MatchSnapshot(List.copyOf(items), orderNos.size(), full, partial, impossible, notMatched, plan);
         }
     }
 
     /**
      * 할당 창고 기준 재고 매칭
-     * GET /api/stock-matching/match?warehouseCode=ANYANG&warehouseName=본사(안양)
+     * GET /api/stock-matching/match?warehouseCode=ANYANG&warehouseName=본사(안양)&page=0&size=200
      *
      * 개선: 9551건 Java 루프 → DB JOIN 쿼리 2번으로 교체
      *   1) 코드 매칭 성공 아이템: SQL JOIN으로 한 번에 처리
-     *   2) 코드 매칭 실패 아이템: 상품명 Jaccard (소수만)
+     *   2) 코드 매칭 실패 아이템: 상품명 트라이그램 색인 (소수만)
+     *
+     * 매칭 결과는 테넌트·창고별 스냅샷으로 보관하고, 주문/재고 변경 카운터가 바뀐 경우에만 다시 계산합니다.
+     * 페이지 이동은 스냅샷에서 잘라서 응답 (size 미지정 시 전체 반환 — 기존 화면 호환)
      */
     @GetMapping("/match")
     @Transactional(readOnly = true)
     public ResponseEntity<MatchResultDTO> match(
         @RequestParam String warehouseCode,
         @RequestParam(defaultValue = "") String warehouseName,
-        @RequestParam(defaultValue = "0")   int page,
-        @RequestParam(defaultValue = "200") int size
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(required = false)   Integer size
     ) {
+        StockMatchingSnapshotCache.Snapshot<MatchSnapshot> snapshot =
+            matchingSnapshotCache.getOrCompute("match:" + warehouseCode, () -> computeMatch(warehouseCode));
+        return ResponseEntity.ok(new MatchResultDTO(warehouseCode, warehouseName, snapshot, page, size));
+    }
+
+    private MatchSnapshot computeMatch(String warehouseCode) {
         log.info("재고 매칭 시작: warehouse={}", warehouseCode);
         long t0 = System.currentTimeMillis();
 
-        // ── 신규 창고 재고 캐시 (ANYANG/ICHEON/BUCHEON 외) ────────
-        Map<UUID, Integer> warehouseStockCache = new HashMap<>();
-        warehouseStockRepository.findByWarehouseCode(warehouseCode)
-            .forEach(ws -> warehouseStockCache.put(ws.getProductId(), ws.getStock()));
-
-        List<MatchItemDTO> items = new ArrayList<>();
+        // ── 창고 재고 (모든 창고 동일 경로, 인덱스 조회 1회) ────────
+        Map<UUID, Integer> warehouseStock = loadWarehouseStock(warehouseCode);
 
         // ── 1단계: 코드 매칭 성공 → DB JOIN (Java 루프 없음) ──────
         List<com.oms.collector.repository.MatchedItemProjection> matched =
             orderRepository.findPendingMatchedByCode();
         log.info("[PERF] DB JOIN 코드매칭: {}건 → {}ms", matched.size(), System.currentTimeMillis() - t0);
 
+        List<PendingLine> pending = new ArrayList<>(matched.size());
+        Map<UUID, Integer> initialStock = new HashMap<>();
         for (var row : matched) {
-            int stock = getStockFromProjection(row, warehouseCode, warehouseStockCache);
-            items.add(new MatchItemDTO(row, stock));
+            pending.add(new PendingLine(row, row.getProductId(), row.getSku()));
+            if (row.getProductId() != null) {
+                initialStock.putIfAbsent(row.getProductId(), warehouseStock.getOrDefault(row.getProductId(), 0));
+            }
         }
 
-        // ── 2단계: 코드 매칭 실패 → 상품명 Jaccard (소수만) ───────
+        // ── 2단계: 코드 매칭 실패 → 상품명 매칭 (소수만) ──────────
         long t1 = System.currentTimeMillis();
         List<com.oms.collector.repository.MatchedItemProjection> unmatched =
             orderRepository.findPendingUnmatchedByCode();
@@ -206,24 +269,34 @@ public class StockMatchingController {
 
         if (!unmatched.isEmpty()) {
             long t2 = System.currentTimeMillis();
-            List<Product> allProducts = productRepository.findAll();
-            Map<String, Product> skuMap     = new HashMap<>();
-            Map<String, Product> barcodeMap = new HashMap<>();
-            allProducts.forEach(prod -> {
-                if (prod.getSku()     != null) skuMap.put(prod.getSku().toLowerCase(), prod);
-                if (prod.getBarcode() != null) barcodeMap.put(prod.getBarcode().toLowerCase(), prod);
-            });
-
             for (var row : unmatched) {
-                Product product = findBestMatchByName(row.getProductName(), skuMap, barcodeMap, allProducts);
-                int stock = product != null
-                    ? getWarehouseStockCached(product, warehouseCode, warehouseStockCache)
-                    : 0;
-                items.add(new MatchItemDTO(row, product, stock));
+                Product product = productNameMatcher.bestMatch(row.getProductName(), NAME_MATCH_THRESHOLD).orElse(null);
+                if (product == null) {
+                    pending.add(new PendingLine(row, null, null));
+                    continue;
+                }
+                pending.add(new PendingLine(row, product.getProductId(), product.getSku()));
+                initialStock.putIfAbsent(product.getProductId(),
+                    warehouseStock.getOrDefault(product.getProductId(), 0));
             }
             log.info("[PERF] 상품명 매칭 완료: {}건 → {}ms", unmatched.size(), System.currentTimeMillis() - t2);
         }
 
+        // ── 3단계: 할당 우선순위 순으로 재고 순차 차감 ─────────────
+        // 두 목록 모두 같은 기준으로 정렬돼 있으므로 안정 정렬은 병합만 수행
+        pending.sort(ALLOCATION_ORDER);
+        long t3 = System.currentTimeMillis();
+        StockAllocationEngine.Result allocation = StockAllocationEngine.allocate(
+            pending.stream().map(PendingLine::demand).toList(),
+            productId -> initialStock.getOrDefault(productId, 0));
+        log.info("[PERF] 순차 할당: {}건 → {}ms", pending.size(), System.currentTimeMillis() - t3);
+
+        List<MatchItemDTO> items = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            PendingLine line = pending.get(i);
+            items.add(new MatchItemDTO(line.row(), line.sku(), allocation.lines().get(i)));
+        }
+
         // 정렬: FULL → PARTIAL → IMPOSSIBLE → NOT_MATCHED
         items.sort(Comparator.comparingInt(i -> switch (i.shipStatus) {
             case "FULL"        -> 0;
@@ -233,7 +306,7 @@ public class StockMatchingController {
         }));
 
         log.info("[PERF] 전체 완료: {}건 → {}ms", items.size(), System.currentTimeMillis() - t0);
-        return ResponseEntity.ok(new MatchResultDTO(warehouseCode, warehouseName, items));
+        return MatchSnapshot.of(items, allocation.plan());
     }
 
     /**
@@ -253,116 +326,46 @@ public class StockMatchingController {
         }
         log.info("재고 예약: 창고={}, {}건", warehouseCode, orderNos.size());
 
-        // 캐시 1회 로딩
-        List<Product> allProducts = productRepository.findAll();
-        Map<String, Product> skuMap     = new HashMap<>();
-        Map<String, Product> barcodeMap = new HashMap<>();
-        allProducts.forEach(prod -> {
-            if (prod.getSku()     != null) skuMap.put(prod.getSku().toLowerCase(), prod);
-            if (prod.getBarcode() != null) barcodeMap.put(prod.getBarcode().toLowerCase(), prod);
-        });
-
-        int reserved = 0, failed = 0;
-        List<String> failedNos = new ArrayList<>();
-
-        for (String orderNo : orderNos) {
-            Order order = orderRepository.findByOrderNo(orderNo).orElse(null);
-            if (order == null) { failed++; failedNos.add(orderNo); continue; }
-            if (Boolean.TRUE.equals(order.getAllocationExcluded())) { failed++; failedNos.add(orderNo); continue; }
-            order.getItems().size();
-            boolean ok = true;
-
-            for (OrderItem item : order.getItems()) {
-                Product product = findProductFromCache(item, skuMap, barcodeMap, allProducts);
-                if (product == null) { ok = false; continue; }
-                int qty = item.getQuantity() != null ? item.getQuantity() : 0;
-                int stock = getWarehouseStock(product, warehouseCode);
-                int reserveQty = Math.min(qty, stock);
-                if (reserveQty <= 0) { ok = false; continue; }
-                try {
-                    inventoryService.reserveStock(product.getProductId(), reserveQty);
-                } catch (Exception e) {
-                    log.error("예약 실패: {} - {}", orderNo, e.getMessage());
-                    ok = false;
-                }
-            }
+        // 매칭 화면과 같은 순차 할당 결과로 예약 (아이템마다 재고를 다시 읽지 않음)
+        StockAllocationEngine.ReservationPlan plan = matchingSnapshotCache
+            .getOrCompute("match:" + warehouseCode, () -> computeMatch(warehouseCode))
+            .value().plan();
 
-            if (ok) {
-                order.setOrderStatus(Order.OrderStatus.CONFIRMED);
-                orderRepository.save(order);
-                reserved++;
-            } else {
-                failed++;
-                failedNos.add(orderNo);
-            }
-        }
+        // 주문 잠금 → 상품별 합계 일괄 예약 → 주문 상태 일괄 변경 (주문·아이템 건수와 무관하게 SQL 몇 번)
+        StockReservationService.Result result = stockReservationService.reserveOrders(plan, orderNos);
+        int reserved = result.reserved().size();
 
         return ResponseEntity.ok(Map.of(
             "success",  true,
             "reserved", reserved,
-            "failed",   failed,
-            "failedOrderNos", failedNos,
+            "failed",   result.failed().size(),
+            "failedOrderNos", result.failed(),
             "message",  reserved + "건 재고 예약 완료 (검수발송 시 실차감)"
         ));
     }
 
     // ─── 헬퍼 ────────────────────────────────────────────────────
 
-    /**
-     * Projection에서 창고 코드에 맞는 재고 반환
-     */
-    private int getStockFromProjection(
-            com.oms.collector.repository.MatchedItemProjection row,
-            String warehouseCode,
-            Map<UUID, Integer> cache) {
-        return switch (warehouseCode.toUpperCase()) {
-            case "ANYANG"     -> row.getWarehouseStockAnyang()  != null ? row.getWarehouseStockAnyang()  : 0;
-            case "ICHEON_BOX",
-                 "ICHEON_PCS" -> row.getWarehouseStockIcheon()  != null ? row.getWarehouseStockIcheon()  : 0;
-            case "BUCHEON"    -> row.getWarehouseStockBucheon() != null ? row.getWarehouseStockBucheon() : 0;
-            default           -> row.getProductId() != null ? cache.getOrDefault(row.getProductId(), 0) : 0;
-        };
+    /** 할당 대상 아이템 (조회 행 + 매칭된 상품) */
+    private record PendingLine(com.oms.collector.repository.MatchedItemProjection row, UUID productId, String sku) {
+
+        StockAllocationEngine.Demand demand() {
+            return new StockAllocationEngine.Demand(
+                row.getOrderNo(), productId, row.getQuantity() != null ? row.getQuantity() : 0);
+        }
     }
 
     /**
-     * 상품명 기반 매칭 — 코드 매칭 실패한 소수 아이템용
+     * 창고 코드 → 상품별 재고 (product_warehouse_stock 단일 원장)
      */
-    private Product findBestMatchByName(String productName,
-                                        Map<String, Product> skuMap,
-                                        Map<String, Product> barcodeMap,
-                                        List<Product> allProducts) {
-        if (productName == null || productName.isBlank()) return null;
-
-        String firstToken = productName.split("[ /\\\\|·•\\-_]+")[0].toLowerCase();
-        if (firstToken.isBlank()) return null;
-
-        List<Product> candidates = new ArrayList<>();
-        for (Map.Entry<String, Product> e : skuMap.entrySet()) {
-            if (e.getKey().startsWith(firstToken)) candidates.add(e.getValue());
-        }
-        if (candidates.isEmpty()) {
-            for (Map.Entry<String, Product> e : barcodeMap.entrySet()) {
-                if (e.getKey().startsWith(firstToken)) candidates.add(e.getValue());
-            }
-        }
-        if (candidates.isEmpty()) {
-            for (Product p : allProducts) {
-                if (p.getProductName() != null &&
-                        p.getProductName().toLowerCase().contains(firstToken)) {
-                    candidates.add(p);
-                }
-            }
-        }
-        if (candidates.isEmpty()) return null;
-
-        final String pName = productName;
-        return candidates.stream()
-            .max(Comparator.comparingDouble(p -> jaccardSimilarity(pName, p.getProductName())))
-            .filter(p -> jaccardSimilarity(pName, p.getProductName()) >= 0.3)
-            .orElse(null);
+    private Map<UUID, Integer> loadWarehouseStock(String warehouseCode) {
+        Map<UUID, Integer> stock = new HashMap<>();
+        warehouseStockRepository.findStockRowsByWarehouseCode(
+                ProductWarehouseStock.stockCode(warehouseCode.toUpperCase()))
+            .forEach(ws -> stock.put(ws.getProductId(), ws.getStock() != null ? ws.getStock() : 0));
+        return stock;
     }
 
-
     private boolean isChannelProductCode(String code) {
         if (code == null) return false;
         return code.matches("(?i)(11ST|NAVER|CP|GS|COUPANG|KAKAO)-.*");
@@ -371,114 +374,15 @@ public class StockMatchingController {
     /**
      * 캐시 기반 상품 조회 (DB 조회 없음)
      */
-    private Product findProductFromCache(OrderItem item,
-                                          Map<String, Product> skuMap,
-                                          Map<String, Product> barcodeMap,
-                                          List<Product> allProducts) {
+    private Product findProductFromCache(OrderItem item, ProductCatalogIndex.CatalogSnapshot catalog) {
         String code = item.getProductCode();
 
         if (code != null && !code.isBlank() && !isChannelProductCode(code)) {
-            String lower = code.toLowerCase();
-            Product exact = skuMap.containsKey(lower) ? skuMap.get(lower)
-                          : barcodeMap.get(lower);
+            Product exact = catalog.byCode(code);
             if (exact != null) return exact;
         }
-        // SKU/바코드 매칭 실패 시 상품명 인덱스 기반 조회
-        return findBestMatchByNameFromCache(item.getProductName(), skuMap, barcodeMap, allProducts);
-    }
-
-    /**
-     * 상품명 기반 매칭 — 전체 스캔 제거
-     *
-     * 기존: 후보 없으면 allProducts 전체 Jaccard → O(N*아이템수) → 1.5분 원인
-     * 개선: 첫 토큰으로 SKU/바코드맵에서 prefix 매칭 → O(후보수) ≈ O(수십)
-     *       후보가 없으면 null 반환 (전체 스캔 금지)
-     */
-    private Product findBestMatchByNameFromCache(String productName,
-                                                  Map<String, Product> skuMap,
-                                                  Map<String, Product> barcodeMap,
-                                                  List<Product> allProducts) {
-        if (productName == null || productName.isBlank()) return null;
-        if (allProducts.isEmpty()) return null;
-
-        // 첫 토큰 추출 (보통 SKU 앞부분 코드)
-        String firstToken = productName.split("[ /\\\\|·•\\-_]+")[0].toLowerCase();
-        if (firstToken.isBlank()) return null;
-
-        // 1단계: SKU prefix 매칭
-        List<Product> candidates = new ArrayList<>();
-        for (Map.Entry<String, Product> e : skuMap.entrySet()) {
-            if (e.getKey().startsWith(firstToken)) candidates.add(e.getValue());
-        }
-        // 2단계: 바코드 prefix 매칭
-        if (candidates.isEmpty()) {
-            for (Map.Entry<String, Product> e : barcodeMap.entrySet()) {
-                if (e.getKey().startsWith(firstToken)) candidates.add(e.getValue());
-            }
-        }
-        // 3단계: 상품명 contains — 여전히 후보 없을 때만 (전체 스캔이지만 발생 빈도 낮음)
-        if (candidates.isEmpty()) {
-            for (Product p : allProducts) {
-                if (p.getProductName() != null &&
-                        p.getProductName().toLowerCase().contains(firstToken)) {
-                    candidates.add(p);
-                }
-            }
-        }
-        // 그래도 없으면 매칭 불가 반환 (allProducts 전체 Jaccard 스캔 금지)
-        if (candidates.isEmpty()) return null;
-
-        final String pName = productName;
-        return candidates.stream()
-            .max(Comparator.comparingDouble(p -> jaccardSimilarity(pName, p.getProductName())))
-            .filter(p -> jaccardSimilarity(pName, p.getProductName()) >= 0.3)
-            .orElse(null);
-    }
-
-    private double jaccardSimilarity(String a, String b) {
-        if (a == null || b == null) return 0.0;
-        Set<String> ta = tokenize(a);
-        Set<String> tb = tokenize(b);
-        if (ta.isEmpty() || tb.isEmpty()) return 0.0;
-        Set<String> inter = new HashSet<>(ta);
-        inter.retainAll(tb);
-        Set<String> union = new HashSet<>(ta);
-        union.addAll(tb);
-        return (double) inter.size() / union.size();
-    }
-
-    private Set<String> tokenize(String s) {
-        String n = s.replaceAll("[/\\\\|·•\\-_]", " ").replaceAll("\\s+", " ").trim().toLowerCase();
-        return new HashSet<>(java.util.Arrays.asList(n.split(" ")));
-    }
-
-    private int getWarehouseStock(Product product, String warehouseCode) {
-        if (product == null) return 0;
-        return switch (warehouseCode.toUpperCase()) {
-            case "ANYANG"     -> product.getWarehouseStockAnyang();
-            case "ICHEON_BOX",
-                 "ICHEON_PCS" -> product.getWarehouseStockIcheon();
-            case "BUCHEON"    -> product.getWarehouseStockBucheon();
-            default           -> {
-                yield warehouseStockRepository
-                    .findByProductIdAndWarehouseCode(product.getProductId(), warehouseCode)
-                    .map(com.oms.collector.entity.ProductWarehouseStock::getStock)
-                    .orElse(0);
-            }
-        };
-    }
-
-    // 캐시 기반 창고 재고 조회 (N+1 완전 제거)
-    private int getWarehouseStockCached(Product product, String warehouseCode,
-                                        Map<UUID, Integer> cache) {
-        if (product == null) return 0;
-        return switch (warehouseCode.toUpperCase()) {
-            case "ANYANG"     -> product.getWarehouseStockAnyang()  != null ? product.getWarehouseStockAnyang()  : 0;
-            case "ICHEON_BOX",
-                 "ICHEON_PCS" -> product.getWarehouseStockIcheon()  != null ? product.getWarehouseStockIcheon()  : 0;
-            case "BUCHEON"    -> product.getWarehouseStockBucheon() != null ? product.getWarehouseStockBucheon() : 0;
-            default           -> cache.getOrDefault(product.getProductId(), 0);
-        };
+        // SKU/바코드 매칭 실패 시 상품명 트라이그램 색인으로 조회
+        return productNameMatcher.bestMatch(item.getProductName(), NAME_MATCH_THRESHOLD).orElse(null);
     }
 
     /**
@@ -506,16 +410,11 @@ public class StockMatchingController {
     ) {
         log.info("할당 완료 목록 조회: warehouse={}", warehouseCode);
 
-        Map<UUID, Integer> warehouseStockCache = new HashMap<>();
-        if (!warehouseCode.isBlank()) {
-            warehouseStockRepository.findByWarehouseCode(warehouseCode)
-                .forEach(ws -> warehouseStockCache.put(ws.getProductId(), ws.getStock()));
-        }
+        Map<UUID, Integer> warehouseStock = warehouseCode.isBlank() ? Map.of() : loadWarehouseStock(warehouseCode);
 
         List<MatchItemDTO> items = orderRepository.findConfirmedWithProducts().stream()
             .map(row -> {
-                int stock = warehouseCode.isBlank() ? 0
-                    : getStockFromProjection(row, warehouseCode, warehouseStockCache);
+                int stock = row.getProductId() != null ? warehouseStock.getOrDefault(row.getProductId(), 0) : 0;
                 MatchItemDTO dto = new MatchItemDTO(row, stock);
                 dto.shipStatus = "ALLOCATED";
                 return dto;
@@ -538,17 +437,11 @@ public class StockMatchingController {
             .orElseThrow(() -> new RuntimeException("주문을 찾을 수 없습니다: " + orderNo));
         order.getItems().size();
 
-        // 이 주문만 필요하므로 전체 캐시 대신 단건 SKU/바코드 조회
-        List<Product> allProducts = productRepository.findAll();
-        Map<String, Product> skuMap     = new HashMap<>();
-        Map<String, Product> barcodeMap = new HashMap<>();
-        allProducts.forEach(prod -> {
-            if (prod.getSku()     != null) skuMap.put(prod.getSku().toLowerCase(), prod);
-            if (prod.getBarcode() != null) barcodeMap.put(prod.getBarcode().toLowerCase(), prod);
-        });
+        // 이 주문만 필요하므로 공유 카탈로그 인덱스로 조회
+        ProductCatalogIndex.CatalogSnapshot catalog = productCatalogIndex.snapshot();
 
         for (OrderItem item : order.getItems()) {
-            Product product = findProductFromCache(item, skuMap, barcodeMap, allProducts);
+            Product product = findProductFromCache(item, catalog);
             if (product == null) continue;
             int qty = item.getQuantity() != null ? item.getQuantity() : 0;
             try {
@@ -1,13 +1,23 @@
 package com.oms.collector.controller;
 
 import com.oms.collector.config.TenantContext;
+import com.oms.collector.scheduler.TenantTaskRunner;
 import com.oms.collector.service.TenantSchemaInitService;
+import com.oms.collector.service.job.JobResult;
+import com.oms.collector.service.job.JobService;
+import com.oms.collector.service.job.JobView;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
 
@@ -17,7 +27,10 @@ import java.util.Map;
  * GET  /api/tenant/status          현재 테넌트 스키마 상태 조회
  * POST /api/tenant/init            현재 테넌트 스키마 초기화
  * GET  /api/tenant/list            전체 테넌트 스키마 목록 (관리자용)
+ * GET  /api/tenant/scheduler-metrics 테넌트별 스케줄 작업 실행 지표 (관리자용)
  * POST /api/tenant/create/{code}   새 회사 스키마 생성 (관리자용)
+ * GET  /api/tenant/backup/...      스키마 백업 (백그라운드 작업, 202 + jobId)
+ * POST /api/tenant/restore/...     스키마 복구 (백그라운드 작업, 202 + jobId)
  */
 @Slf4j
 @RestController
@@ -27,6 +40,10 @@ import java.util.Map;
 public class TenantController {
 
     private final TenantSchemaInitService initService;
+    private final TenantTaskRunner tenantTaskRunner;
+    private final JobService jobService;
+
+    private static final DateTimeFormatter BACKUP_FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
 
     /** 현재 테넌트(로그인 회사)의 스키마 상태 반환 */
     @GetMapping("/status")
@@ -74,48 +91,34 @@ public class TenantController {
         return ResponseEntity.ok(initService.listTenantSchemas());
     }
 
+    /** 테넌트별 스케줄 작업 최근 실행 지표 (관리자용 — 모든 테넌트의 지표가 포함됨) */
+    @GetMapping("/scheduler-metrics")
+    public ResponseEntity<?> schedulerMetrics() {
+        if (!isAdmin()) {
+            return forbidden();
+        }
+        return ResponseEntity.ok(tenantTaskRunner.getMetrics());
+    }
+
+    /** 현재 스키마 백업 — 백그라운드 작업으로 JSON 파일 생성, 결과는 /api/jobs/{jobId}/result 로 다운로드 */
     @GetMapping("/backup/current")
     public ResponseEntity<Map<String, Object>> backupCurrent() {
         String schema = TenantContext.getCurrentTenant();
         if (schema == null || schema.isBlank()) schema = "public";
-        try {
-            return ResponseEntity.ok(initService.exportSchemaBackup(schema));
-        } catch (Exception e) {
-            log.error("[TenantBackup] 현재 스키마 백업 실패: {} - {}", schema, e.getMessage(), e);
-            return ResponseEntity.internalServerError().body(Map.of(
-                "success", false,
-                "message", "백업 실패: " + e.getMessage()
-            ));
-        }
+        return submitBackup(schema);
     }
 
     @GetMapping("/backup/company/{companyCode}")
     public ResponseEntity<Map<String, Object>> backupByCompanyCode(@PathVariable String companyCode) {
-        String schema = TenantContext.toSchema(companyCode);
-        try {
-            return ResponseEntity.ok(initService.exportSchemaBackup(schema));
-        } catch (Exception e) {
-            log.error("[TenantBackup] 스키마 백업 실패: {} - {}", schema, e.getMessage(), e);
-            return ResponseEntity.internalServerError().body(Map.of(
-                "success", false,
-                "message", "백업 실패: " + e.getMessage()
-            ));
-        }
+        return submitBackup(TenantContext.toSchema(companyCode));
     }
 
+    /** 현재 스키마 복구 — 업로드 파일을 임시 파일로 받아 두고 백그라운드 작업으로 복구 */
     @PostMapping("/restore/current")
     public ResponseEntity<Map<String, Object>> restoreCurrent(@RequestParam("file") MultipartFile file) {
         String schema = TenantContext.getCurrentTenant();
         if (schema == null || schema.isBlank()) schema = "public";
-        try {
-            return ResponseEntity.ok(initService.restoreSchemaBackup(schema, file));
-        } catch (Exception e) {
-            log.error("[TenantRestore] 현재 스키마 복구 실패: {} - {}", schema, e.getMessage(), e);
-            return ResponseEntity.internalServerError().body(Map.of(
-                "success", false,
-                "message", "복구 실패: " + e.getMessage()
-            ));
-        }
+        return submitRestore(schema, file);
     }
 
     @PostMapping("/restore/company/{companyCode}")
@@ -123,16 +126,67 @@ public class TenantController {
         @PathVariable String companyCode,
         @RequestParam("file") MultipartFile file
     ) {
-        String schema = TenantContext.toSchema(companyCode);
+        return submitRestore(TenantContext.toSchema(companyCode), file);
+    }
+
+    private ResponseEntity<Map<String, Object>> submitBackup(String schema) {
+        if (!initService.schemaExists(schema)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "백업 실패: 존재하지 않는 스키마입니다: " + schema
+            ));
+        }
+        JobView job = jobService.submit("SCHEMA_BACKUP", context -> {
+            String fileName = "backup_" + schema + "_" + LocalDateTime.now().format(BACKUP_FILE_TIME) + ".json";
+            Path target = context.resultFile(fileName);
+            Map<String, Object> meta = initService.exportSchemaBackup(schema, target, context);
+            return JobResult.file(target, fileName, "application/json", Map.of(
+                "success",    true,
+                "schema",     schema,
+                "tableCount", meta.get("tableCount")
+            ));
+        });
+        log.info("[TenantBackup] 백업 작업 등록: {} → {}", schema, job.jobId());
+        return ResponseEntity.accepted().body(job.acceptedBody("백업을 시작했습니다: " + schema));
+    }
+
+    private ResponseEntity<Map<String, Object>> submitRestore(String schema, MultipartFile file) {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "복구 실패: 파일이 비어있습니다."
+            ));
+        }
+        Path upload;
         try {
-            return ResponseEntity.ok(initService.restoreSchemaBackup(schema, file));
-        } catch (Exception e) {
-            log.error("[TenantRestore] 스키마 복구 실패: {} - {}", schema, e.getMessage(), e);
+            upload = Files.createTempFile("oms-restore-", ".upload");
+            file.transferTo(upload);
+        } catch (IOException e) {
+            log.error("[TenantRestore] 업로드 파일 저장 실패: {} - {}", schema, e.getMessage(), e);
             return ResponseEntity.internalServerError().body(Map.of(
                 "success", false,
                 "message", "복구 실패: " + e.getMessage()
             ));
         }
+
+        try {
+            JobView job = jobService.submit("SCHEMA_RESTORE", context -> {
+                try {
+                    return JobResult.of(initService.restoreSchemaBackup(schema, upload, context));
+                } finally {
+                    Files.deleteIfExists(upload);
+                }
+            });
+            log.info("[TenantRestore] 복구 작업 등록: {} → {}", schema, job.jobId());
+            return ResponseEntity.accepted().body(job.acceptedBody("복구를 시작했습니다: " + schema));
+        } catch (RuntimeException e) {
+            try {
+                Files.deleteIfExists(upload);
+            } catch (IOException ignored) {
+                // 임시 파일 — OS 정리에 맡김
+            }
+            throw e;
+        }
     }
 
     /** 관리자가 새 회사 코드의 스키마를 직접 생성 */
@@ -167,4 +221,20 @@ public class TenantController {
             ));
         }
     }
+
+    /**
+     * 관리자 = 기본 회사(C00, public 스키마) 토큰으로 로그인한 사용자
+     * 토큰 없는 요청도 public 으로 잡히므로 사용자명이 있는 경우만 인정
+     */
+    private boolean isAdmin() {
+        String schema = TenantContext.getCurrentTenant();
+        return "public".equals(schema) && !"unknown".equals(TenantContext.getCurrentUser());
+    }
+
+    private ResponseEntity<Map<String, Object>> forbidden() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
+            "success", false,
+            "message", "관리자(C00) 계정만 사용할 수 있습니다"
+        ));
+    }
 }
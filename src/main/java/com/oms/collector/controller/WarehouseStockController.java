@@ -8,6 +8,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -57,7 +59,7 @@ public class WarehouseStockController {
     @Transactional(readOnly = true)
     public ResponseEntity<List<StockDTO>> getByWarehouse(@PathVariable String warehouseCode) {
         return ResponseEntity.ok(
-            warehouseStockRepository.findByWarehouseCode(warehouseCode)
+            warehouseStockRepository.findByWarehouseCode(ProductWarehouseStock.stockCode(warehouseCode))
                 .stream().map(StockDTO::new).collect(Collectors.toList())
         );
     }
@@ -71,17 +73,22 @@ public class WarehouseStockController {
         List<String> ids = body.get("productIds");
         if (ids == null || ids.isEmpty()) return ResponseEntity.ok(Map.of());
 
-        return ResponseEntity.ok(
-            ids.stream()
-                .filter(id -> {
-                    try { UUID.fromString(id); return true; }
-                    catch (Exception e) { return false; }
-                })
-                .collect(Collectors.toMap(
-                    id -> id,
-                    id -> warehouseStockRepository.findByProductId(UUID.fromString(id))
-                        .stream().map(StockDTO::new).collect(Collectors.toList())
-                ))
-        );
+        List<UUID> productIds = ids.stream()
+            .filter(id -> {
+                try { UUID.fromString(id); return true; }
+                catch (Exception e) { return false; }
+            })
+            .map(UUID::fromString)
+            .distinct()
+            .collect(Collectors.toList());
+
+        // product_id 인덱스 조회 1회 후 상품별로 묶음 (재고 없는 상품은 빈 목록)
+        Map<String, List<StockDTO>> result = new LinkedHashMap<>();
+        productIds.forEach(id -> result.put(id.toString(), new ArrayList<>()));
+        if (!productIds.isEmpty()) {
+            warehouseStockRepository.findByProductIdIn(productIds)
+                .forEach(ws -> result.get(ws.getProductId().toString()).add(new StockDTO(ws)));
+        }
+        return ResponseEntity.ok(result);
     }
 }
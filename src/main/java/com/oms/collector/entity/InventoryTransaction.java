@@ -2,6 +2,8 @@ package com.oms.collector.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Generated;
+import org.hibernate.annotations.Immutable;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -12,6 +14,9 @@ import java.util.UUID;
  * 재고 이동 내역 Entity
  * 
  * 입고, 출고, 이동 등 모든 재고 변동 기록
+ * 추가만 가능한 원장 — ledger_seq(단조 증가)로 순서를 매기고 UPDATE/DELETE 는 DB 트리거로 막습니다.
+ * 창고 재고가 바뀐 경우 warehouse_code / warehouse_delta 를 함께 기록해
+ * InventoryLedgerService 가 창고별 시점 재고를 계산할 수 있게 합니다.
  */
 @Getter
 @Setter
@@ -20,6 +25,7 @@ import java.util.UUID;
 @Builder
 @Entity
 @Table(name = "inventory_transactions")
+@Immutable
 @EntityListeners(AuditingEntityListener.class)
 public class InventoryTransaction {
     
@@ -27,6 +33,10 @@ public class InventoryTransaction {
     @GeneratedValue(strategy = GenerationType.UUID)
     @Column(name = "transaction_id")
     private UUID transactionId;
+
+    @Generated
+    @Column(name = "ledger_seq", insertable = false, updatable = false)
+    private Long ledgerSeq;  // 원장 순번 (DB 시퀀스)
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
@@ -49,6 +59,12 @@ public class InventoryTransaction {
     
     @Column(name = "to_location", length = 100)
     private String toLocation;  // 도착 위치
+
+    @Column(name = "warehouse_code", length = 100)
+    private String warehouseCode;  // 재고가 바뀐 창고 (product_warehouse_stock 코드)
+
+    @Column(name = "warehouse_delta")
+    private Integer warehouseDelta;  // 창고 재고 증감
     
     @Column(name = "reference_type", length = 50)
     private String referenceType;  // ORDER(주문), PURCHASE(발주), MANUAL(수동)
@@ -0,0 +1,59 @@
+package com.oms.collector.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 주문 송장 (주문당 1건)
+ *
+ * 송장번호를 deliveryMemo 문자열에서 파싱하던 조회(검수 스캔, 송장 여부, 송장번호 검색)는 이 테이블을 사용합니다.
+ * tracking_no 유니크 인덱스로 스캔한 송장번호 → 주문을 인덱스 한 번으로 찾습니다.
+ * deliveryMemo 의 INVOICE: 구간은 우체국 접수 정보(소포신청번호, 배달구역 등) 보관용으로 함께 유지됩니다.
+ */
+@Entity
+@Table(name = "order_invoices",
+    indexes = @Index(name = "ux_order_invoices_tracking_no", columnList = "tracking_no", unique = true))
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderInvoice {
+
+    @Id
+    @Column(name = "order_id")
+    private UUID orderId;
+
+    @Column(name = "carrier_code", length = 50)
+    private String carrierCode;
+
+    @Column(name = "carrier_name", length = 100)
+    private String carrierName;
+
+    @Column(name = "tracking_no", nullable = false, length = 100)
+    private String trackingNo;
+
+    @Column(name = "issued_at", nullable = false)
+    private LocalDateTime issuedAt;
+
+    @Column(name = "printed_at")
+    private LocalDateTime printedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private Status status = Status.ISSUED;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum Status {
+        ISSUED,     // 발급
+        PRINTED,    // 출력
+        SHIPPED     // 검수발송 완료
+    }
+}
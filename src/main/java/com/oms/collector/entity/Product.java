@@ -1,5 +1,6 @@
 package com.oms.collector.entity;
 
+import com.oms.collector.service.ProductCatalogListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
@@ -22,7 +23,7 @@ import java.util.UUID;
 @Builder
 @Entity
 @Table(name = "products")
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, ProductCatalogListener.class})
 public class Product {
     
     @Id
@@ -78,15 +79,7 @@ public class Product {
     @Column(name = "warehouse_location", length = 100)
     private String warehouseLocation;  // 창고 위치
     
-    // 창고별 재고 (JSON 형식으로 저장)
-    @Column(name = "warehouse_stock_anyang")
-    private Integer warehouseStockAnyang = 0;  // 1.본사(안양)
-    
-    @Column(name = "warehouse_stock_icheon")
-    private Integer warehouseStockIcheon = 0;  // 2.고백창고(이천)
-    
-    @Column(name = "warehouse_stock_bucheon")
-    private Integer warehouseStockBucheon = 0;  // 3.부천검수창고
+    // 창고별 재고는 product_warehouse_stock (ProductWarehouseStock) 에서 관리
     
     @Column(name = "is_active")
     private Boolean isActive = true;
@@ -8,12 +8,12 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
- * 창고별 상품 재고 테이블
+ * 창고별 상품 재고 테이블 (창고 재고의 유일한 원장)
  *
- * Product의 하드코딩된 3개 컬럼(anyang/icheon/bucheon)을 대체하여
- * 모든 창고의 재고를 동적으로 관리
+ * Product의 하드코딩된 3개 컬럼(anyang/icheon/bucheon)은 OperationalSchemaMigration 에서
+ * 이 테이블로 옮겨졌으며, 안양/이천/부천을 포함한 모든 창고가 같은 경로로 조회·증감됩니다.
  *
- * product_id + warehouse_code 유니크 조합
+ * product_id + warehouse_code 유니크 조합 (stock 을 INCLUDE 한 커버링 인덱스)
  */
 @Entity
 @Table(name = "product_warehouse_stock",
@@ -45,4 +45,12 @@ public class ProductWarehouseStock {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    /**
+     * 재고를 함께 쓰는 창고 코드 → 재고 행의 창고 코드
+     * (ICHEON_PCS 는 기존 이천 컬럼을 ICHEON_BOX 와 공유했으므로 같은 행을 사용)
+     */
+    public static String stockCode(String warehouseCode) {
+        return "ICHEON_PCS".equals(warehouseCode) ? "ICHEON_BOX" : warehouseCode;
+    }
 }
@@ -48,6 +48,9 @@ public class RawOrder {
     @Column(name = "collected_at", nullable = false)
     private LocalDateTime collectedAt;
     
+    @Column(name = "batch_id")
+    private UUID batchId;  // 수집 배치 (collection_batches) - 원본 응답 참조
+    
     @Column(name = "processed")
     private Boolean processed = false;
     
@@ -81,4 +81,13 @@ public class SabangnetIntegration {
     @LastModifiedDate
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    /**
+     * 수집 커서 전진 (저장 완료된 구간의 끝 시각, 앞으로만 이동)
+     */
+    public void advanceCollectionCursor(LocalDateTime highWaterMark) {
+        if (highWaterMark != null && (this.lastCollectedAt == null || highWaterMark.isAfter(this.lastCollectedAt))) {
+            this.lastCollectedAt = highWaterMark;
+        }
+    }
 }
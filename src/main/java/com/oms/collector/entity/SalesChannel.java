@@ -69,6 +69,16 @@ public class SalesChannel {
         this.lastCollectedAt = LocalDateTime.now();
     }
     
+    /**
+     * 수집 커서 전진 (저장 완료된 구간의 끝 시각)
+     * 과거 구간 재수집으로 커서가 뒤로 가지 않도록 앞으로만 이동합니다.
+     */
+    public void advanceCollectionCursor(LocalDateTime highWaterMark) {
+        if (highWaterMark != null && (this.lastCollectedAt == null || highWaterMark.isAfter(this.lastCollectedAt))) {
+            this.lastCollectedAt = highWaterMark;
+        }
+    }
+    
     public boolean isApiType() {
         return "REST".equalsIgnoreCase(this.apiType) || "SOAP".equalsIgnoreCase(this.apiType);
     }
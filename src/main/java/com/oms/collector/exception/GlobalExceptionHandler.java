@@ -22,4 +22,26 @@ public class GlobalExceptionHandler {
             "lockedBy",  e.getLockedBy()
         ));
     }
+
+    @ExceptionHandler(JobConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleJobConflict(JobConflictException e) {
+        log.warn("[Job] 제출 거절 (같은 작업 진행 중): {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+            "success",   false,
+            "errorCode", "JOB_ALREADY_RUNNING",
+            "message",   e.getMessage(),
+            "jobId",     e.getActiveJobId().toString(),
+            "statusUrl", "/api/jobs/" + e.getActiveJobId()
+        ));
+    }
+
+    @ExceptionHandler(JobRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handleJobRejected(JobRejectedException e) {
+        log.warn("[Job] 제출 거절: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+            "success",   false,
+            "errorCode", "JOB_QUEUE_FULL",
+            "message",   e.getMessage()
+        ));
+    }
 }
@@ -0,0 +1,15 @@
+package com.oms.collector.exception;
+
+import java.util.UUID;
+
+public class JobConflictException extends RuntimeException {
+
+    private final UUID activeJobId;
+
+    public JobConflictException(String message, UUID activeJobId) {
+        super(message);
+        this.activeJobId = activeJobId;
+    }
+
+    public UUID getActiveJobId() { return activeJobId; }
+}
@@ -9,40 +9,41 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 /**
  * 재고 거래 내역 Repository
+ *
+ * 모든 조회는 ledger_seq 인덱스(전체 / 상품별) 역순으로 필요한 건수만 읽습니다.
+ * (원장 크기와 무관하게 created_at 전체 정렬을 하지 않음, 검색은 InventoryLedgerService.recentTransactionIds)
  */
 @Repository
 public interface InventoryTransactionRepository extends JpaRepository<InventoryTransaction, UUID> {
-    
+
     /**
-     * 상품 + 기간별 거래 내역
+     * 상품 + 기간별 거래 내역 (최신순, 최대 pageable 건)
      */
-    List<InventoryTransaction> findByProductAndCreatedAtBetweenOrderByCreatedAtDesc(
+    List<InventoryTransaction> findByProductAndCreatedAtBetweenOrderByLedgerSeqDesc(
         Product product,
         LocalDateTime startDate,
-        LocalDateTime endDate
+        LocalDateTime endDate,
+        Pageable pageable
     );
 
-    List<InventoryTransaction> findByProductOrderByCreatedAtDesc(Product product);
-    
+    List<InventoryTransaction> findByProductOrderByLedgerSeqDesc(Product product, Pageable pageable);
+
     /**
      * 최근 거래 내역 조회 (FETCH JOIN으로 Product 즉시 로딩)
      */
-    @Query("SELECT t FROM InventoryTransaction t JOIN FETCH t.product ORDER BY t.createdAt DESC")
+    @Query("SELECT t FROM InventoryTransaction t JOIN FETCH t.product ORDER BY t.ledgerSeq DESC")
     List<InventoryTransaction> findRecentTransactionsWithProduct(Pageable pageable);
-    
+
     /**
-     * 거래 내역 검색 (상품명, SKU, 바코드 - FETCH JOIN)
+     * 거래 ID 목록 조회 (FETCH JOIN, 최신순)
      */
-    @Query("SELECT t FROM InventoryTransaction t " +
-           "JOIN FETCH t.product p " +
-           "WHERE LOWER(p.productName) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-           "OR LOWER(p.sku) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-           "OR LOWER(p.barcode) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-           "ORDER BY t.createdAt DESC")
-    List<InventoryTransaction> searchTransactionsWithProduct(@Param("keyword") String keyword, Pageable pageable);
+    @Query("SELECT t FROM InventoryTransaction t JOIN FETCH t.product " +
+           "WHERE t.transactionId IN :ids ORDER BY t.ledgerSeq DESC")
+    List<InventoryTransaction> findAllWithProductByIdIn(@Param("ids") Collection<UUID> ids);
 }
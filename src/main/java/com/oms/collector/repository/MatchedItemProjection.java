@@ -16,6 +16,7 @@ public interface MatchedItemProjection {
     String getRecipientName();
     String getAddress();
     String getOrderedAt();
+    Boolean getPriorityAllocation();
 
     // OrderItem
     String getProductName();
@@ -27,8 +28,5 @@ public interface MatchedItemProjection {
     UUID getProductId();
     String getSku();
 
-    // 창고별 재고 (Product 컬럼)
-    Integer getWarehouseStockAnyang();
-    Integer getWarehouseStockIcheon();
-    Integer getWarehouseStockBucheon();
+    // 창고별 재고는 포함하지 않음 — product_warehouse_stock 에서 창고 단위로 한 번에 조회
 }
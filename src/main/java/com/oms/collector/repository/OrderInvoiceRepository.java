@@ -0,0 +1,31 @@
+package com.oms.collector.repository;
+
+import com.oms.collector.entity.OrderInvoice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface OrderInvoiceRepository extends JpaRepository<OrderInvoice, UUID> {
+
+    /** 스캔한 송장번호 → 송장 (ux_order_invoices_tracking_no) */
+    Optional<OrderInvoice> findByTrackingNo(String trackingNo);
+
+    List<OrderInvoice> findByOrderIdIn(Collection<UUID> orderIds);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OrderInvoice i SET i.printedAt = :printedAt, i.status = :printed, i.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE i.orderId IN (SELECT o.orderId FROM Order o WHERE o.orderNo IN :orderNos) AND i.status = :issued")
+    int markPrinted(@Param("orderNos") Collection<String> orderNos,
+                    @Param("printedAt") LocalDateTime printedAt,
+                    @Param("issued") OrderInvoice.Status issued,
+                    @Param("printed") OrderInvoice.Status printed);
+}
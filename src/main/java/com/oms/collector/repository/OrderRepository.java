@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,16 +20,22 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
     @EntityGraph(attributePaths = {"items", "channel", "rawOrder"})
     Optional<Order> findWithItemsByOrderNo(String orderNo);
 
+    @EntityGraph(attributePaths = {"channel", "rawOrder"})
+    List<Order> findWithChannelByOrderNoIn(Collection<String> orderNos);
+
+    /**
+     * 키워드 검색 결과(주문 ID) → 주문 (KeywordSearchService 에서 순위대로 재정렬)
+     */
     @EntityGraph(attributePaths = {"items", "channel"})
-    @Query("SELECT DISTINCT o FROM Order o WHERE LOWER(o.orderNo) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-           "OR LOWER(o.deliveryMemo) LIKE LOWER(CONCAT('%TRACKING:', :keyword, '%')) " +
-           "ORDER BY o.orderedAt DESC")
-    List<Order> searchByOrderNoOrTracking(@Param("keyword") String keyword);
+    List<Order> findWithItemsByOrderIdIn(Collection<UUID> orderIds);
 
+    /**
+     * 스캔한 송장번호 → 주문 (order_invoices.tracking_no 유니크 인덱스 1회 조회)
+     */
     @EntityGraph(attributePaths = {"items", "channel"})
     @Query("SELECT o FROM Order o WHERE o.orderStatus IN :statuses " +
-           "AND o.deliveryMemo LIKE CONCAT('%TRACKING:', :trackingNo, '%')")
-    Optional<Order> findByTrackingNoInMemo(
+           "AND o.orderId = (SELECT i.orderId FROM OrderInvoice i WHERE i.trackingNo = :trackingNo)")
+    Optional<Order> findByTrackingNo(
         @Param("statuses") java.util.Collection<Order.OrderStatus> statuses,
         @Param("trackingNo") String trackingNo);
 
@@ -50,16 +57,28 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
         FROM Order o
         WHERE o.orderStatus = 'CONFIRMED'
           AND COALESCE(o.shippingHold, false) = false
-          AND (o.deliveryMemo IS NULL OR o.deliveryMemo NOT LIKE '%INVOICE:%')
+          AND NOT EXISTS (SELECT 1 FROM OrderInvoice i WHERE i.orderId = o.orderId)
         """)
     long countInvoicePendingOrders();
 
+    /**
+     * 송장 일괄 발급 대상 — 송장 없는 확정 주문 (보류 주문 포함, 호출한 쪽에서 걸러냄)
+     */
+    @Query("""
+        SELECT o
+        FROM Order o
+        WHERE o.orderStatus = 'CONFIRMED'
+          AND NOT EXISTS (SELECT 1 FROM OrderInvoice i WHERE i.orderId = o.orderId)
+        ORDER BY o.orderedAt DESC
+        """)
+    List<Order> findInvoicePendingOrders();
+
     @Query("""
         SELECT COUNT(o)
         FROM Order o
         WHERE o.orderStatus = 'CONFIRMED'
           AND COALESCE(o.shippingHold, false) = false
-          AND o.deliveryMemo LIKE '%INVOICE:%'
+          AND EXISTS (SELECT 1 FROM OrderInvoice i WHERE i.orderId = o.orderId)
         """)
     long countInvoiceAssignedOrders();
 
@@ -122,17 +141,6 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
         @Param("start") java.time.LocalDateTime start,
         @Param("end")   java.time.LocalDateTime end);
 
-    @Query("SELECT o FROM Order o WHERE o.orderedAt BETWEEN :start AND :end " +
-           "AND (:keyword IS NULL OR :keyword = '' " +
-           "     OR o.orderNo LIKE %:keyword% " +
-           "     OR o.recipientName LIKE %:keyword% " +
-           "     OR o.customerName LIKE %:keyword%) " +
-           "ORDER BY o.orderedAt DESC")
-    List<Order> findByDateRangeAndTracking(
-        @Param("start")   java.time.LocalDateTime start,
-        @Param("end")     java.time.LocalDateTime end,
-        @Param("keyword") String keyword);
-
     @Query("SELECT o FROM Order o WHERE o.orderedAt BETWEEN :start AND :end " +
            "ORDER BY o.orderedAt DESC")
     List<Order> findByDateRange(
@@ -157,34 +165,14 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
 
     List<Order> findByPrintTypeCodeAndOrderStatusNot(String printTypeCode, Order.OrderStatus status);
 
-    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.channel c " +
-           "WHERE (:status IS NULL OR o.orderStatus = :status) " +
-           "AND (:keyword IS NULL OR :keyword = '' " +
-           "     OR LOWER(o.orderNo) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-           "     OR LOWER(o.channelOrderNo) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-           "     OR LOWER(o.deliveryMemo) LIKE LOWER(CONCAT('%TRACKING:', :keyword, '%')) " +
-           "     OR LOWER(o.deliveryMemo) LIKE LOWER(CONCAT('%TRACKING=', :keyword, '%')) " +
-           "     OR LOWER(o.recipientName) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-           "     OR LOWER(o.customerName) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-           "     OR LOWER(c.channelName) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
-           "ORDER BY o.orderedAt DESC")
-    List<Order> searchForAgent(
-        @Param("keyword") String keyword,
-        @Param("status") Order.OrderStatus status,
-        Pageable pageable);
-
-    @Query(value = "SELECT COUNT(*) FROM orders WHERE ordered_at::date = CURRENT_DATE", nativeQuery = true)
+    @Query(value = "SELECT COUNT(*) FROM orders WHERE ordered_at >= CURRENT_DATE AND ordered_at < CURRENT_DATE + 1", nativeQuery = true)
     long countTodayOrders();
 
-    @Query(value = "SELECT o.order_no FROM orders o " +
-                   "WHERE TO_CHAR(o.ordered_at, 'YYYYMMDD') = :dateStr " +
-                   "ORDER BY o.order_no DESC LIMIT 1", nativeQuery = true)
-    String findLastOrderNoByDate(@Param("dateStr") String dateStr);
-
     // ────────────────────────────────────────────────────────────────────────
     // 재고 매칭용 네이티브 쿼리
     // orders + order_items + products 를 DB에서 직접 JOIN
     // Java 루프 없이 매칭 결과를 한 번에 가져와 9551건 루프 문제 해결
+    // 코드 매칭은 product_codes(code_normalized) 인덱스 등가 조인 — SKU 우선, 없으면 바코드
     // ────────────────────────────────────────────────────────────────────────
 
     /**
@@ -194,12 +182,13 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
         SELECT COUNT(*)
         FROM orders o
         JOIN order_items oi ON oi.order_id = o.order_id
-        LEFT JOIN products p ON LOWER(p.sku)     = LOWER(oi.product_code)
-                             OR LOWER(p.barcode) = LOWER(oi.product_code)
         WHERE o.order_status = 'PENDING'
           AND COALESCE(o.allocation_excluded, false) = false
           AND GREATEST(oi.quantity - COALESCE(oi.cancelled_quantity, 0), 0) > 0
-          AND p.product_id IS NULL
+          AND NOT EXISTS (
+              SELECT 1 FROM product_codes pc
+              WHERE pc.code_normalized = LOWER(oi.product_code)
+                AND pc.code_type IN ('SKU', 'BARCODE'))
         """, nativeQuery = true)
     Long countPendingUnmatched();
 
@@ -213,19 +202,24 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
             o.recipient_name    AS recipientName,
             o.address           AS address,
             CAST(o.ordered_at AS VARCHAR) AS orderedAt,
+            COALESCE(o.priority_allocation, false) AS priorityAllocation,
             oi.product_name     AS productName,
             oi.option_name      AS optionName,
             oi.product_code     AS productCode,
             GREATEST(oi.quantity - COALESCE(oi.cancelled_quantity, 0), 0) AS quantity,
             p.product_id        AS productId,
-            p.sku               AS sku,
-            COALESCE(p.warehouse_stock_anyang,  0) AS warehouseStockAnyang,
-            COALESCE(p.warehouse_stock_icheon,  0) AS warehouseStockIcheon,
-            COALESCE(p.warehouse_stock_bucheon, 0) AS warehouseStockBucheon
+            p.sku               AS sku
         FROM orders o
         JOIN order_items oi ON oi.order_id = o.order_id
-        JOIN products p     ON LOWER(p.sku) = LOWER(oi.product_code)
-                            OR LOWER(p.barcode) = LOWER(oi.product_code)
+        JOIN LATERAL (
+            SELECT pc.product_id
+            FROM product_codes pc
+            WHERE pc.code_normalized = LOWER(oi.product_code)
+              AND pc.code_type IN ('SKU', 'BARCODE')
+            ORDER BY CASE pc.code_type WHEN 'SKU' THEN 0 ELSE 1 END
+            LIMIT 1
+        ) pc ON TRUE
+        JOIN products p     ON p.product_id = pc.product_id
         LEFT JOIN sales_channels sc ON sc.channel_id = o.channel_id
         WHERE o.order_status = 'PENDING'
           AND COALESCE(o.allocation_excluded, false) = false
@@ -239,7 +233,7 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
 
     /**
      * PENDING 주문 중 productCode로 매칭 안 된 아이템만 조회 (상품명 매칭 대상)
-     * LEFT JOIN 후 product_id IS NULL인 것만 반환
+     * product_codes 에 SKU/바코드로 등록되지 않은 것만 반환 (NOT EXISTS)
      */
     @Query(value = """
         SELECT
@@ -248,24 +242,23 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
             o.recipient_name    AS recipientName,
             o.address           AS address,
             CAST(o.ordered_at AS VARCHAR) AS orderedAt,
+            COALESCE(o.priority_allocation, false) AS priorityAllocation,
             oi.product_name     AS productName,
             oi.option_name      AS optionName,
             oi.product_code     AS productCode,
             GREATEST(oi.quantity - COALESCE(oi.cancelled_quantity, 0), 0) AS quantity,
             CAST(NULL AS uuid)  AS productId,
-            CAST(NULL AS VARCHAR) AS sku,
-            0                   AS warehouseStockAnyang,
-            0                   AS warehouseStockIcheon,
-            0                   AS warehouseStockBucheon
+            CAST(NULL AS VARCHAR) AS sku
         FROM orders o
         JOIN order_items oi ON oi.order_id = o.order_id
-        LEFT JOIN products p ON LOWER(p.sku)     = LOWER(oi.product_code)
-                             OR LOWER(p.barcode) = LOWER(oi.product_code)
         LEFT JOIN sales_channels sc ON sc.channel_id = o.channel_id
         WHERE o.order_status = 'PENDING'
           AND COALESCE(o.allocation_excluded, false) = false
           AND GREATEST(oi.quantity - COALESCE(oi.cancelled_quantity, 0), 0) > 0
-          AND p.product_id IS NULL
+          AND NOT EXISTS (
+              SELECT 1 FROM product_codes pc
+              WHERE pc.code_normalized = LOWER(oi.product_code)
+                AND pc.code_type IN ('SKU', 'BARCODE'))
         ORDER BY COALESCE(o.priority_allocation, false) DESC, o.ordered_at ASC
         """, nativeQuery = true)
     List<MatchedItemProjection> findPendingUnmatchedByCode();
@@ -280,19 +273,24 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
             o.recipient_name    AS recipientName,
             o.address           AS address,
             CAST(o.ordered_at AS VARCHAR) AS orderedAt,
+            COALESCE(o.priority_allocation, false) AS priorityAllocation,
             oi.product_name     AS productName,
             oi.option_name      AS optionName,
             oi.product_code     AS productCode,
             GREATEST(oi.quantity - COALESCE(oi.cancelled_quantity, 0), 0) AS quantity,
             p.product_id        AS productId,
-            p.sku               AS sku,
-            COALESCE(p.warehouse_stock_anyang,  0) AS warehouseStockAnyang,
-            COALESCE(p.warehouse_stock_icheon,  0) AS warehouseStockIcheon,
-            COALESCE(p.warehouse_stock_bucheon, 0) AS warehouseStockBucheon
+            p.sku               AS sku
         FROM orders o
         JOIN order_items oi ON oi.order_id = o.order_id
-        LEFT JOIN products p ON LOWER(p.sku)     = LOWER(oi.product_code)
-                             OR LOWER(p.barcode) = LOWER(oi.product_code)
+        LEFT JOIN LATERAL (
+            SELECT pc.product_id
+            FROM product_codes pc
+            WHERE pc.code_normalized = LOWER(oi.product_code)
+              AND pc.code_type IN ('SKU', 'BARCODE')
+            ORDER BY CASE pc.code_type WHEN 'SKU' THEN 0 ELSE 1 END
+            LIMIT 1
+        ) pc ON TRUE
+        LEFT JOIN products p ON p.product_id = pc.product_id
         LEFT JOIN sales_channels sc ON sc.channel_id = o.channel_id
         WHERE o.order_status = 'CONFIRMED'
           AND GREATEST(oi.quantity - COALESCE(oi.cancelled_quantity, 0), 0) > 0
@@ -33,12 +33,6 @@ public interface ProductReturnRepository extends JpaRepository<ProductReturn, UU
         @Param("end")   LocalDateTime end
     );
 
-    // 키워드 검색 (주문번호, 수령자, 상품명)
-    @Query("SELECT r FROM ProductReturn r WHERE " +
-           "r.orderNo LIKE %:kw% OR r.recipientName LIKE %:kw% OR r.productName LIKE %:kw% " +
-           "ORDER BY r.createdAt DESC")
-    List<ProductReturn> searchByKeyword(@Param("kw") String keyword);
-
     // 상태별 카운트
     long countByStatus(ProductReturn.ReturnStatus status);
 
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,8 +19,29 @@ public interface ProductWarehouseStockRepository extends JpaRepository<ProductWa
 
     List<ProductWarehouseStock> findByProductId(UUID productId);
 
+    List<ProductWarehouseStock> findByProductIdIn(Collection<UUID> productIds);
+
     List<ProductWarehouseStock> findByWarehouseCode(String warehouseCode);
 
+    /**
+     * 창고 1곳의 상품별 재고 — (warehouse_code, product_id) INCLUDE (stock) 인덱스만으로 조회
+     */
+    @Query("SELECT s.productId AS productId, s.stock AS stock FROM ProductWarehouseStock s " +
+           "WHERE s.warehouseCode = :warehouseCode")
+    List<StockRow> findStockRowsByWarehouseCode(@Param("warehouseCode") String warehouseCode);
+
     @Query("SELECT SUM(s.stock) FROM ProductWarehouseStock s WHERE s.productId = :productId")
     Integer sumStockByProductId(@Param("productId") UUID productId);
+
+    /**
+     * 실재고 창고(type = REAL) 재고 합계 — 총재고 재계산용
+     */
+    @Query("SELECT COALESCE(SUM(s.stock), 0) FROM ProductWarehouseStock s, Warehouse w " +
+           "WHERE s.productId = :productId AND w.code = s.warehouseCode AND w.type = 'REAL'")
+    Integer sumRealStockByProductId(@Param("productId") UUID productId);
+
+    interface StockRow {
+        UUID getProductId();
+        Integer getStock();
+    }
 }
@@ -0,0 +1,41 @@
+package com.oms.collector.scheduler;
+
+import com.oms.collector.service.InventoryLedgerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 재고 원장 압축 스케줄러
+ *
+ * 주기적으로 테넌트별 재고 원장(inventory_transactions)의 직전 기준점 이후 구간을
+ * 스냅샷(inventory_ledger_snapshots)으로 남겨, 시점 재고 조회가 짧은 꼬리만 읽도록 합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "collector.inventory-ledger.compaction-enabled", havingValue = "true", matchIfMissing = true)
+public class InventoryLedgerCompactionScheduler {
+
+    private final InventoryLedgerService inventoryLedgerService;
+    private final TenantTaskRunner tenantTaskRunner;
+
+    @Scheduled(cron = "${collector.inventory-ledger.compaction-cron:0 */15 * * * *}")
+    public void compact() {
+        try {
+            List<TenantTaskRunner.TenantRunResult> results =
+                tenantTaskRunner.runForAllTenants("ledger-compact", tenant -> inventoryLedgerService.compact());
+            for (TenantTaskRunner.TenantRunResult result : results) {
+                if (result.errorMessage() != null) {
+                    log.warn("  🏢 [{}] 재고 원장 압축 {} — {}", result.tenant(), result.status(), result.errorMessage());
+                }
+            }
+        } catch (Exception e) {
+            log.error("❌ 재고 원장 압축 실패", e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.oms.collector.scheduler;
+
+import com.oms.collector.service.job.JobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 백그라운드 작업 정리 스케줄러
+ *
+ * 주기적으로 노드 재시작 등으로 끊긴 작업을 실패 처리하고, 하루 한 번 보관 기간이 지난 작업과 결과 파일을 삭제합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JobCleanupScheduler {
+
+    private final JobService jobService;
+    private final TenantTaskRunner tenantTaskRunner;
+
+    @Scheduled(fixedDelayString = "${collector.jobs.stale-check-interval-ms:300000}", initialDelay = 60000)
+    public void failStale() {
+        try {
+            tenantTaskRunner.runForAllTenants("job-stale", tenant -> jobService.failStaleJobs());
+        } catch (Exception e) {
+            log.error("❌ 중단된 백그라운드 작업 정리 실패", e);
+        }
+    }
+
+    @Scheduled(cron = "${collector.jobs.purge-cron:0 40 4 * * *}")
+    public void purge() {
+        try {
+            tenantTaskRunner.runForAllTenants("job-purge", tenant -> jobService.purgeExpired());
+        } catch (Exception e) {
+            log.error("❌ 백그라운드 작업 보관 정리 실패", e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.oms.collector.scheduler;
+
+import com.oms.collector.service.market.MarketSyncDispatcher;
+import com.oms.collector.service.market.MarketSyncOutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 판매처 발송완료 아웃박스 스케줄러
+ *
+ * 짧은 주기로 테넌트별 아웃박스를 비우고, 하루 한 번 보관 기간이 지난 완료 행을 정리합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "collector.market-sync.enabled", havingValue = "true", matchIfMissing = true)
+public class MarketSyncOutboxScheduler {
+
+    private final MarketSyncDispatcher marketSyncDispatcher;
+    private final MarketSyncOutboxService marketSyncOutboxService;
+    private final TenantTaskRunner tenantTaskRunner;
+
+    @Value("${collector.market-sync.done-retention-days:7}")
+    private int doneRetentionDays;
+
+    @Scheduled(fixedDelayString = "${collector.market-sync.poll-interval-ms:2000}")
+    public void dispatch() {
+        try {
+            List<TenantTaskRunner.TenantRunResult> results =
+                tenantTaskRunner.runForAllTenants("market-sync", marketSyncDispatcher::dispatch);
+            for (TenantTaskRunner.TenantRunResult result : results) {
+                if (result.errorMessage() != null) {
+                    log.warn("  🏢 [{}] 판매처 발송완료 전송 {} — {}", result.tenant(), result.status(), result.errorMessage());
+                }
+            }
+        } catch (Exception e) {
+            log.error("❌ 판매처 발송완료 아웃박스 처리 실패", e);
+        }
+    }
+
+    @Scheduled(cron = "${collector.market-sync.purge-cron:0 10 4 * * *}")
+    public void purge() {
+        try {
+            tenantTaskRunner.runForAllTenants("market-sync-purge", tenant -> marketSyncOutboxService.purgeDone(doneRetentionDays));
+        } catch (Exception e) {
+            log.error("❌ 판매처 발송완료 아웃박스 정리 실패", e);
+        }
+    }
+}
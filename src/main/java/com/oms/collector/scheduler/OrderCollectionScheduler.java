@@ -1,19 +1,24 @@
 package com.oms.collector.scheduler;
 
+import com.oms.collector.service.CollectionBatchService;
 import com.oms.collector.service.OrderCollectionService;
 import com.oms.collector.service.OrderProcessingService;
+import com.oms.collector.service.SabangnetOrderCollectionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 주문 수집 스케줄러
  * 
  * 주기적으로 판매처에서 주문을 수집하고 처리합니다.
+ * 수집/처리 작업은 TenantTaskRunner 를 통해 public 및 모든 테넌트 스키마에서 실행됩니다.
  */
 @Slf4j
 @Component
@@ -23,12 +28,19 @@ public class OrderCollectionScheduler {
     
     private final OrderCollectionService collectionService;
     private final OrderProcessingService processingService;
+    private final SabangnetOrderCollectionService sabangnetCollectionService;
+    private final TenantTaskRunner tenantTaskRunner;
+    private final CollectionBatchService collectionBatchService;
+
+    @Value("${collector.collection-batches.retention-days:30}")
+    private int batchRetentionDays;
     
     /**
      * 주기적 주문 수집 (10분마다)
      * 
      * fixedDelay: 이전 작업 완료 후 10분 대기
      * initialDelay: 시작 후 1분 뒤 첫 실행
+     * 판매처/사방넷 연동별 수집 커서 이후 구간만 증분 수집합니다.
      */
     @Scheduled(fixedDelayString = "${collector.schedule.interval:600000}", 
                initialDelayString = "${collector.schedule.initial-delay:60000}")
@@ -38,19 +50,13 @@ public class OrderCollectionScheduler {
         log.info("⏰ ========================================");
         
         try {
-            // 최근 15분 주문 수집 (중복 방지를 위해 여유있게)
             LocalDateTime endDate = LocalDateTime.now();
-            LocalDateTime startDate = endDate.minusMinutes(15);
-            
-            log.info("📅 수집 기간: {} ~ {}", startDate, endDate);
-            
-            // 1. 주문 수집
-            collectionService.collectAllChannels(startDate, endDate);
             
-            // 2. 수집된 주문 자동 처리
-            int processedCount = processingService.processUnprocessedOrders();
+            // 테넌트별 증분 수집 → 자동 처리
+            List<TenantTaskRunner.TenantRunResult> results =
+                tenantTaskRunner.runForAllTenants("collect", tenant -> collectAndProcess(tenant, endDate));
             
-            log.info("✅ 스케줄러 작업 완료 (처리: {} 건)", processedCount);
+            log.info("✅ 스케줄러 작업 완료 (처리: {} 건)", logTenantResults(results));
             
         } catch (Exception e) {
             log.error("❌ 스케줄러 작업 실패", e);
@@ -60,34 +66,28 @@ public class OrderCollectionScheduler {
     }
     
     /**
-     * 매일 자정에 전날 주문 재수집 (누락 방지)
+     * 매일 자정 누락 보정 수집
      * 
      * cron: 초 분 시 일 월 요일
      * "0 0 0 * * *" = 매일 자정
+     * 전날 전체를 다시 받지 않고, 커서가 밀려 있는 판매처만 커서 이후 구간을 따라잡습니다.
      */
     @Scheduled(cron = "${collector.schedule.daily-cron:0 0 0 * * *}")
     public void collectYesterdayOrders() {
         log.info("🌙 ========================================");
-        log.info("🌙 전날 주문 재수집 시작");
+        log.info("🌙 누락 보정 수집 시작");
         log.info("🌙 ========================================");
         
         try {
-            // 어제 00:00 ~ 오늘 00:00
-            LocalDateTime endDate = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0).withNano(0);
-            LocalDateTime startDate = endDate.minusDays(1);
-            
-            log.info("📅 재수집 기간: {} ~ {}", startDate, endDate);
-            
-            // 1. 전날 주문 재수집
-            collectionService.collectAllChannels(startDate, endDate);
+            LocalDateTime endDate = LocalDateTime.now();
             
-            // 2. 수집된 주문 처리
-            int processedCount = processingService.processUnprocessedOrders();
+            List<TenantTaskRunner.TenantRunResult> results =
+                tenantTaskRunner.runForAllTenants("catch-up", tenant -> collectAndProcess(tenant, endDate));
             
-            log.info("✅ 전날 주문 재수집 완료 (처리: {} 건)", processedCount);
+            log.info("✅ 누락 보정 수집 완료 (처리: {} 건)", logTenantResults(results));
             
         } catch (Exception e) {
-            log.error("❌ 전날 주문 재수집 실패", e);
+            log.error("❌ 누락 보정 수집 실패", e);
         }
         
         log.info("🌙 ========================================");
@@ -103,8 +103,10 @@ public class OrderCollectionScheduler {
         log.info("🔄 ========================================");
         
         try {
-            // 미처리 주문 재시도
-            int processedCount = processingService.processUnprocessedOrders();
+            // 테넌트별 미처리 주문 재시도
+            List<TenantTaskRunner.TenantRunResult> results =
+                tenantTaskRunner.runForAllTenants("retry", tenant -> processingService.processUnprocessedOrders());
+            int processedCount = logTenantResults(results);
             
             if (processedCount > 0) {
                 log.info("✅ 실패 주문 재시도 완료 (처리: {} 건)", processedCount);
@@ -119,6 +121,19 @@ public class OrderCollectionScheduler {
         log.info("🔄 ========================================");
     }
     
+    /**
+     * 매일 보관 기간이 지난 수집 배치(원본 응답) 정리
+     */
+    @Scheduled(cron = "${collector.collection-batches.purge-cron:0 20 4 * * *}")
+    public void purgeCollectionBatches() {
+        try {
+            tenantTaskRunner.runForAllTenants("collection-batch-purge",
+                tenant -> collectionBatchService.purgeExpired(batchRetentionDays));
+        } catch (Exception e) {
+            log.error("❌ 수집 배치 보관 정리 실패", e);
+        }
+    }
+    
     /**
      * 매일 오전 9시 통계 로깅
      */
@@ -141,4 +156,66 @@ public class OrderCollectionScheduler {
         
         log.info("📊 ========================================");
     }
+    
+    /**
+     * 한 테넌트의 증분 수집 + 정규화 (TenantTaskRunner 가 TenantContext 를 설정한 스레드에서 실행)
+     */
+    private int collectAndProcess(String tenant, LocalDateTime endDate) {
+        log.info("🏢 [{}] 주문 수집", tenant);
+        
+        // 1. 주문 증분 수집 (커서 ~ 현재)
+        OrderCollectionService.CollectionRunSummary summary =
+            collectionService.collectIncremental(endDate);
+        logChannelResults(summary);
+        collectSabangnet(endDate);
+        
+        // 2. 수집된 주문 자동 처리
+        return processingService.processUnprocessedOrders();
+    }
+    
+    /**
+     * 테넌트별 실행 결과 로깅 후 처리 건수 합계 반환
+     */
+    private int logTenantResults(List<TenantTaskRunner.TenantRunResult> results) {
+        int total = 0;
+        for (TenantTaskRunner.TenantRunResult result : results) {
+            total += result.count();
+            log.info("  🏢 [{}] {} - {} 건 ({} ms){}",
+                result.tenant(), result.status(), result.count(), result.elapsedMillis(),
+                result.errorMessage() != null ? " " + result.errorMessage() : "");
+        }
+        return total;
+    }
+    
+    /**
+     * 사방넷 연동 증분 수집 (연동 설정이 없으면 건너뜀)
+     */
+    private void collectSabangnet(LocalDateTime endDate) {
+        try {
+            SabangnetOrderCollectionService.SabangnetCollectResult result =
+                sabangnetCollectionService.collectIncremental(endDate);
+            if (result.integrationCount() > 0) {
+                log.info("📦 사방넷 증분 수집: {} 건 수집 / {} 건 저장 (연동 {} 개)",
+                    result.collectedCount(), result.savedCount(), result.integrationCount());
+            }
+        } catch (Exception e) {
+            log.error("❌ 사방넷 증분 수집 실패", e);
+        }
+    }
+    
+    /**
+     * 판매처별 수집 소요시간/결과 로깅 (지연 판매처 확인용)
+     */
+    private void logChannelResults(OrderCollectionService.CollectionRunSummary summary) {
+        for (OrderCollectionService.ChannelCollectionResult result : summary.channels()) {
+            if (result.status() == OrderCollectionService.ChannelCollectionStatus.SUCCESS) {
+                log.info("  [{}] {} 건 수집 / {} 건 저장 ({} ms)",
+                    result.channelCode(), result.collectedCount(), result.savedCount(), result.elapsedMillis());
+            } else {
+                log.warn("  [{}] {} ({} ms) {}",
+                    result.channelCode(), result.status(), result.elapsedMillis(),
+                    result.errorMessage() != null ? result.errorMessage() : "");
+            }
+        }
+    }
 }
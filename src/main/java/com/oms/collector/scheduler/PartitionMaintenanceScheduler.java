@@ -0,0 +1,41 @@
+package com.oms.collector.scheduler;
+
+import com.oms.collector.service.TablePartitionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 월별 파티션 유지보수 스케줄러
+ *
+ * 테넌트별로 앞으로 쓸 월 파티션을 미리 만들고, 보관 기간이 지난 파티션을 분리해
+ * 기간 조회·VACUUM·인덱스 유지 비용이 최근 데이터 크기에만 비례하도록 합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "collector.partitioning.enabled", havingValue = "true", matchIfMissing = true)
+public class PartitionMaintenanceScheduler {
+
+    private final TablePartitionService tablePartitionService;
+    private final TenantTaskRunner tenantTaskRunner;
+
+    @Scheduled(cron = "${collector.partitioning.maintenance-cron:0 30 3 * * *}")
+    public void maintain() {
+        try {
+            List<TenantTaskRunner.TenantRunResult> results =
+                tenantTaskRunner.runForAllTenants("partition-maintain", tablePartitionService::maintain);
+            for (TenantTaskRunner.TenantRunResult result : results) {
+                if (result.errorMessage() != null) {
+                    log.warn("  🏢 [{}] 파티션 유지보수 {} — {}", result.tenant(), result.status(), result.errorMessage());
+                }
+            }
+        } catch (Exception e) {
+            log.error("❌ 파티션 유지보수 실패", e);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.oms.collector.scheduler;
+
+import com.oms.collector.config.TenantContext;
+import com.oms.collector.service.TenantSchemaInitService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+/**
+ * 테넌트(회사 스키마)별 스케줄 작업 실행기
+ *
+ * 스케줄러 스레드에는 TenantContext 가 없어 모든 작업이 public 스키마로만 가므로,
+ * public + 전체 테넌트 스키마를 열거해 각 스키마에서 작업을 실행합니다.
+ * - 제한된 스레드 풀에서 병렬 실행 (전체 소요시간은 테넌트 수가 아니라 풀 크기에 비례)
+ * - 테넌트별 동시 실행 수 제한 (이전 실행이 안 끝난 테넌트는 이번 회차 건너뜀)
+ * - 회차마다 시작 테넌트를 돌려가며 제출 (라운드로빈)
+ * - 테넌트/작업별 최근 실행 지표 기록
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TenantTaskRunner {
+
+    private final TenantSchemaInitService tenantSchemaInitService;
+
+    @Value("${collector.tenant.max-threads:4}")
+    private int maxThreads;
+
+    @Value("${collector.tenant.per-tenant-concurrency:1}")
+    private int perTenantConcurrency;
+
+    private ThreadPoolExecutor tenantExecutor;
+    private final AtomicInteger roundRobinOffset = new AtomicInteger();
+    private final Map<String, Semaphore> tenantPermits = new ConcurrentHashMap<>();
+    private final Map<String, TenantRunMetrics> metrics = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void initExecutor() {
+        int threads = Math.max(1, maxThreads);
+        AtomicInteger sequence = new AtomicInteger();
+        tenantExecutor = new ThreadPoolExecutor(
+            threads, threads, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "tenant-task-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        tenantExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        tenantExecutor.shutdownNow();
+    }
+
+    /**
+     * 모든 테넌트 스키마에서 작업 실행 후 결과 반환
+     *
+     * @param jobName 지표/로그용 작업 이름
+     * @param task    테넌트 스키마가 TenantContext 에 설정된 상태로 실행되며 처리 건수를 반환
+     */
+    public List<TenantRunResult> runForAllTenants(String jobName, ToIntFunction<String> task) {
+        List<String> tenants = rotate(tenantSchemas());
+
+        Map<String, Future<TenantRunResult>> futures = new LinkedHashMap<>();
+        for (String tenant : tenants) {
+            futures.put(tenant, tenantExecutor.submit(() -> runTenant(jobName, tenant, task)));
+        }
+
+        List<TenantRunResult> results = new ArrayList<>();
+        for (Map.Entry<String, Future<TenantRunResult>> entry : futures.entrySet()) {
+            try {
+                results.add(entry.getValue().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.add(TenantRunResult.failed(entry.getKey(), 0L, "인터럽트"));
+                break;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                results.add(TenantRunResult.failed(entry.getKey(), 0L, cause.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    /** 테넌트/작업별 최근 실행 지표 */
+    public List<TenantRunMetrics> getMetrics() {
+        return metrics.values().stream()
+            .sorted((a, b) -> (a.tenant() + a.jobName()).compareTo(b.tenant() + b.jobName()))
+            .toList();
+    }
+
+    private TenantRunResult runTenant(String jobName, String tenant, ToIntFunction<String> task) {
+        Semaphore permits = tenantPermits.computeIfAbsent(tenant, key -> new Semaphore(Math.max(1, perTenantConcurrency)));
+        if (!permits.tryAcquire()) {
+            log.warn("[TenantTask] {} - {} 이전 실행이 아직 진행 중이라 건너뜁니다", jobName, tenant);
+            TenantRunResult skipped = TenantRunResult.skipped(tenant);
+            record(jobName, skipped);
+            return skipped;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        TenantRunResult result;
+        TenantContext.setCurrentTenant(tenant);
+        try {
+            int count = task.applyAsInt(tenant);
+            result = TenantRunResult.success(tenant, count, System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            log.error("[TenantTask] {} - {} 실행 실패", jobName, tenant, e);
+            result = TenantRunResult.failed(tenant, System.currentTimeMillis() - startedAt, e.getMessage());
+        } finally {
+            TenantContext.clear();
+            permits.release();
+        }
+        record(jobName, result);
+        return result;
+    }
+
+    private void record(String jobName, TenantRunResult result) {
+        metrics.compute(result.tenant() + ":" + jobName, (key, previous) -> {
+            TenantRunMetrics base = previous != null
+                ? previous
+                : new TenantRunMetrics(result.tenant(), jobName, null, null, 0L, 0, 0L, 0L, 0L, null);
+            return base.next(result);
+        });
+    }
+
+    private List<String> tenantSchemas() {
+        Set<String> schemas = new LinkedHashSet<>();
+        schemas.add("public");
+        try {
+            for (String schema : tenantSchemaInitService.listTenantSchemas()) {
+                if (schema != null && schema.matches("[a-zA-Z_][a-zA-Z0-9_]{0,62}")) {
+                    schemas.add(schema);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("[TenantTask] 테넌트 스키마 조회 실패 — public 만 실행: {}", e.getMessage());
+        }
+        return new ArrayList<>(schemas);
+    }
+
+    /** 회차마다 시작 위치를 한 칸씩 밀어 항상 같은 테넌트가 먼저 실행되지 않도록 함 */
+    private List<String> rotate(List<String> tenants) {
+        if (tenants.size() < 2) {
+            return tenants;
+        }
+        List<String> rotated = new ArrayList<>(tenants);
+        Collections.rotate(rotated, -Math.floorMod(roundRobinOffset.getAndIncrement(), tenants.size()));
+        return rotated;
+    }
+
+    public enum TenantRunStatus {
+        SUCCESS, FAILED, SKIPPED
+    }
+
+    public record TenantRunResult(
+        String tenant,
+        TenantRunStatus status,
+        int count,
+        long elapsedMillis,
+        String errorMessage
+    ) {
+        static TenantRunResult success(String tenant, int count, long elapsedMillis) {
+            return new TenantRunResult(tenant, TenantRunStatus.SUCCESS, count, elapsedMillis, null);
+        }
+
+        static TenantRunResult failed(String tenant, long elapsedMillis, String message) {
+            return new TenantRunResult(tenant, TenantRunStatus.FAILED, 0, elapsedMillis, message);
+        }
+
+        static TenantRunResult skipped(String tenant) {
+            return new TenantRunResult(tenant, TenantRunStatus.SKIPPED, 0, 0L, null);
+        }
+    }
+
+    public record TenantRunMetrics(
+        String tenant,
+        String jobName,
+        LocalDateTime lastRunAt,
+        TenantRunStatus lastStatus,
+        long lastElapsedMillis,
+        int lastCount,
+        long runCount,
+        long failureCount,
+        long skippedCount,
+        String lastError
+    ) {
+        TenantRunMetrics next(TenantRunResult result) {
+            return new TenantRunMetrics(
+                tenant,
+                jobName,
+                LocalDateTime.now(),
+                result.status(),
+                result.elapsedMillis(),
+                result.count(),
+                runCount + 1,
+                failureCount + (result.status() == TenantRunStatus.FAILED ? 1 : 0),
+                skippedCount + (result.status() == TenantRunStatus.SKIPPED ? 1 : 0),
+                result.status() == TenantRunStatus.FAILED ? result.errorMessage() : lastError
+            );
+        }
+    }
+}
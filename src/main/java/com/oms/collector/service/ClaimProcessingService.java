@@ -30,6 +30,7 @@ public class ClaimProcessingService {
     private final ProductReturnRepository productReturnRepository;
     private final InventoryService inventoryService;
     private final com.fasterxml.jackson.databind.ObjectMapper objectMapper;
+    private final OrderInvoiceService orderInvoiceService;
 
     public record ClaimResult(
         boolean success,
@@ -276,7 +277,7 @@ public class ClaimProcessingService {
     }
 
     private boolean hasInvoice(Order order) {
-        return order.getDeliveryMemo() != null && order.getDeliveryMemo().contains("TRACKING:");
+        return orderInvoiceService.find(order.getOrderId()).isPresent();
     }
 
     private String buildReason(ClaimRequest request) {
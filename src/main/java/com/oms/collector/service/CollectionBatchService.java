@@ -0,0 +1,92 @@
+package com.oms.collector.service;
+
+import com.oms.collector.config.TenantTables;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 수집 배치 서비스
+ *
+ * 수집 1회분의 원본 응답을 collection_batches 에 gzip 으로 1건만 보관합니다.
+ * raw_orders 는 주문별 조각만 저장하고 batch_id 로 원본 응답을 참조합니다.
+ * (raw_orders.batch_id → collection_batches FK, 배치가 보관 기간 정리로 삭제되면 NULL)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CollectionBatchService {
+
+    private final JdbcTemplate jdbc;
+
+    /**
+     * 원본 응답 파일을 압축 저장하고 batch_id 반환
+     *
+     * raw_orders 는 배치마다 따로 커밋되므로, 배치 행도 호출자 트랜잭션과 무관하게 먼저 커밋합니다 (REQUIRES_NEW).
+     * 호출자가 롤백되어도 이미 커밋된 raw_orders.batch_id 가 없는 배치를 가리키지 않습니다.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public UUID saveBatch(String channelCode, LocalDateTime windowStart, LocalDateTime windowEnd,
+                          Path responseFile, String charset) throws IOException {
+        UUID batchId = UUID.randomUUID();
+        Path compressed = Files.createTempFile("collection-batch-", ".gz");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+                Files.copy(responseFile, out);
+            }
+            long responseBytes = Files.size(responseFile);
+            int compressedBytes = (int) Files.size(compressed);
+
+            try (InputStream in = Files.newInputStream(compressed)) {
+                jdbc.update("INSERT INTO " + TenantTables.qualify("collection_batches") +
+                    " (batch_id, channel_code, window_start, window_end, response_charset, response_bytes, response_gzip, created_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, NOW())", ps -> {
+                    ps.setObject(1, batchId);
+                    ps.setString(2, channelCode);
+                    ps.setTimestamp(3, windowStart == null ? null : Timestamp.valueOf(windowStart));
+                    ps.setTimestamp(4, windowEnd == null ? null : Timestamp.valueOf(windowEnd));
+                    ps.setString(5, charset);
+                    ps.setLong(6, responseBytes);
+                    ps.setBinaryStream(7, in, compressedBytes);
+                });
+            }
+            log.debug("수집 배치 저장: {} - {} ({} bytes → {} bytes)", channelCode, batchId, responseBytes, compressedBytes);
+            return batchId;
+        } finally {
+            Files.deleteIfExists(compressed);
+        }
+    }
+
+    /**
+     * 배치 처리 결과 기록
+     */
+    @Transactional
+    public void completeBatch(UUID batchId, int orderCount, int savedCount) {
+        jdbc.update("UPDATE " + TenantTables.qualify("collection_batches") +
+                " SET order_count = ?, saved_count = ? WHERE batch_id = ?",
+            orderCount, savedCount, batchId);
+    }
+
+    /**
+     * 보관 기간이 지난 배치 삭제 (참조하던 raw_orders.batch_id 는 FK 로 NULL)
+     */
+    @Transactional
+    public int purgeExpired(int retentionDays) {
+        return jdbc.update("DELETE FROM " + TenantTables.qualify("collection_batches") +
+            " WHERE created_at < NOW() - make_interval(days => ?)", retentionDays);
+    }
+
+}
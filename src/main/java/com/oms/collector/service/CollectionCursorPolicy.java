@@ -0,0 +1,58 @@
+package com.oms.collector.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 증분 수집 구간 계산
+ *
+ * 판매처/사방넷 연동별로 저장된 마지막 수집 시각(high-water mark)을 기준으로
+ * 다음 수집 구간을 정합니다.
+ * - 커서가 없으면 initial-lookback 만큼 과거부터 수집
+ * - 커서가 있으면 overlap 만큼 겹쳐서 수집 (판매처 반영 지연 대비, 중복은 raw_orders 유니크 제약으로 제거)
+ * - 너무 오래 멈춰 있던 커서는 구간 끝을 시작 + max-lookback 으로 잘라 한 번에 과도한 구간을 요청하지 않음.
+ *   커서는 실제로 수집한 구간 끝까지만 전진하므로 밀린 구간은 다음 수집들이 이어서 채움
+ */
+@Component
+public class CollectionCursorPolicy {
+
+    @Value("${collector.cursor.overlap-minutes:5}")
+    private long overlapMinutes;
+
+    @Value("${collector.cursor.initial-lookback-minutes:15}")
+    private long initialLookbackMinutes;
+
+    @Value("${collector.cursor.max-lookback-hours:72}")
+    private long maxLookbackHours;
+
+    /**
+     * 이번 수집 구간
+     *
+     * @param cursor 마지막 수집 커서 (없으면 null)
+     * @param end    이번 수집의 요청 끝 시각
+     */
+    public CollectionWindow window(LocalDateTime cursor, LocalDateTime end) {
+        if (cursor == null) {
+            return new CollectionWindow(end.minusMinutes(Math.max(1, initialLookbackMinutes)), end);
+        }
+        LocalDateTime start = cursor.minusMinutes(Math.max(0, overlapMinutes));
+        if (start.isAfter(end)) {
+            return new CollectionWindow(end, end);
+        }
+        LocalDateTime cappedEnd = start.plusHours(Math.max(1, maxLookbackHours));
+        return new CollectionWindow(start, cappedEnd.isBefore(end) ? cappedEnd : end);
+    }
+
+    /**
+     * 수집 구간 — end 는 수집이 끝나면 커서로 저장할 시각
+     */
+    public record CollectionWindow(LocalDateTime start, LocalDateTime end) {
+
+        /** 밀린 구간이 많아 요청 끝 시각보다 앞에서 잘린 구간인지 */
+        public boolean isCapped(LocalDateTime requestedEnd) {
+            return end.isBefore(requestedEnd);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.oms.collector.service;
+
+import com.oms.collector.config.TenantTables;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 재고 원장 (inventory_transactions) 스냅샷 · 시점 조회
+ *
+ * 원장은 추가만 되며 ledger_seq 로 순서가 정해집니다. 압축(compact)은 주기적으로
+ * 직전 기준점 이후 구간만 읽어 상품별 총재고('*')와 창고별 재고 스냅샷 행을 남기고,
+ * 시점 조회(asOf)는 "그 시점 이전 마지막 스냅샷 1건 + 다음 스냅샷까지의 짧은 꼬리"만 읽습니다.
+ * 따라서 원장이 10만 건이든 1억 건이든 조회 비용은 압축 주기 동안 쌓인 건수에만 비례합니다.
+ *
+ * 스냅샷 snapshot_at 은 포함된 이벤트 created_at 의 최댓값이므로,
+ * snapshot_at <= 시점 인 스냅샷에는 그 시점 이후 이벤트가 섞이지 않습니다.
+ *
+ * 압축 범위는 커밋 기준점(inventory_ledger_watermark)까지입니다. 매 실행마다 "지금까지 발급된 순번 +
+ * 현재 스냅샷의 xmax" 를 대기 기준점으로 기록하고, 다음 실행에서 xmin 이 그 xmax 를 넘었으면
+ * (그때 진행 중이던 트랜잭션이 모두 끝났으면) 그 순번까지를 압축합니다. 원장 행은 항상 같은 트랜잭션의
+ * 재고 UPDATE 뒤에 기록되어 순번을 받기 전에 xid 가 이미 배정되므로, 기준점 순번 이하를 받은 트랜잭션은
+ * 모두 기록한 xmax 보다 작은 xid 를 가집니다. 따라서 스냅샷은 한 주기 늦게 만들어지지만
+ * 늦게 커밋되는 앞 순번을 건너뛰는 일은 없습니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryLedgerService {
+
+    /** 스냅샷의 상품 총재고 키 (warehouse_code 자리) */
+    public static final String TOTAL = "*";
+
+    private final JdbcTemplate jdbc;
+
+    @Value("${collector.inventory-ledger.compaction-batch-size:100000}")
+    private long compactionBatchSize;
+
+    /**
+     * 상품 1건의 시점 재고
+     *
+     * @return 총재고와 창고별 재고 — 최초 기준 스냅샷보다 이전 시점의 창고 재고는 알 수 없어 빠짐
+     */
+    @Transactional(readOnly = true)
+    public StockAsOf asOf(UUID productId, LocalDateTime at) {
+        Timestamp ts = Timestamp.valueOf(at);
+
+        // 키('*' + 창고 코드)마다 시점 이전 마지막 스냅샷(lower)과 시점 이후 첫 스냅샷(upper)을 찾고,
+        // 그 사이 시점 이전 이벤트만 더함. 스냅샷이 없는 창고는 최초 기준점(origin) 이후라면 0 에서 시작.
+        String sql = """
+            WITH origin AS (
+                SELECT ledger_seq AS seq, snapshot_at AS at FROM %1$s ORDER BY ledger_seq LIMIT 1
+            ), keys AS (
+                SELECT '*'::varchar AS code
+                UNION
+                SELECT warehouse_code FROM %3$s WHERE product_id = ?
+            ), bounds AS (
+                SELECT k.code,
+                       CASE WHEN base.ledger_seq IS NOT NULL THEN base.ledger_seq
+                            WHEN k.code = '*' THEN 0
+                            WHEN NOT EXISTS (SELECT 1 FROM origin) THEN 0
+                            WHEN (SELECT o.at FROM origin o) <= ? THEN (SELECT o.seq FROM origin o)
+                       END AS lower_seq,
+                       base.stock AS base_stock,
+                       COALESCE(nxt.ledger_seq, 9223372036854775807) AS upper_seq
+                  FROM keys k
+                  LEFT JOIN LATERAL (
+                        SELECT s.ledger_seq, s.stock FROM %1$s s
+                         WHERE s.product_id = ? AND s.warehouse_code = k.code AND s.snapshot_at <= ?
+                         ORDER BY s.ledger_seq DESC LIMIT 1) base ON TRUE
+                  LEFT JOIN LATERAL (
+                        SELECT s.ledger_seq FROM %1$s s
+                         WHERE s.product_id = ? AND s.warehouse_code = k.code AND s.snapshot_at > ?
+                         ORDER BY s.ledger_seq ASC LIMIT 1) nxt ON TRUE
+            )
+            SELECT b.code, b.base_stock,
+                   CASE WHEN b.code = '*' THEN
+                       (SELECT t.after_stock FROM %2$s t
+                         WHERE t.product_id = ? AND t.ledger_seq > b.lower_seq AND t.ledger_seq <= b.upper_seq
+                           AND t.created_at <= ? AND t.after_stock IS NOT NULL
+                         ORDER BY t.ledger_seq DESC LIMIT 1)
+                   END AS total_after,
+                   CASE WHEN b.code <> '*' THEN
+                       (SELECT COALESCE(SUM(t.warehouse_delta), 0) FROM %2$s t
+                         WHERE t.product_id = ? AND t.warehouse_code = b.code
+                           AND t.ledger_seq > b.lower_seq AND t.ledger_seq <= b.upper_seq
+                           AND t.created_at <= ?)
+                   END AS warehouse_sum
+              FROM bounds b
+             WHERE b.lower_seq IS NOT NULL
+            """.formatted(TenantTables.qualify("inventory_ledger_snapshots"), TenantTables.qualify("inventory_transactions"),
+                          TenantTables.qualify("product_warehouse_stock"));
+
+        Integer[] total = {null};
+        Map<String, Integer> warehouses = new LinkedHashMap<>();
+        jdbc.query(sql, rs -> {
+            String code = rs.getString("code");
+            Integer baseStock = (Integer) rs.getObject("base_stock");
+            if (TOTAL.equals(code)) {
+                Integer after = (Integer) rs.getObject("total_after");
+                total[0] = after != null ? after : baseStock;
+            } else {
+                warehouses.put(code, (baseStock != null ? baseStock : 0) + rs.getInt("warehouse_sum"));
+            }
+        }, productId, ts, productId, ts, productId, ts, productId, ts, productId, ts);
+
+        return new StockAsOf(productId, at, total[0], warehouses);
+    }
+
+    /**
+     * 현재 테넌트 원장 압축 — 직전 기준점 이후 커밋 기준점까지의 구간을 스냅샷으로 남기고 다음 대기 기준점 기록
+     *
+     * @return 새로 기록한 스냅샷 행 수
+     */
+    @Transactional
+    public int compact() {
+        String snapshots = TenantTables.qualify("inventory_ledger_snapshots");
+        String watermark = TenantTables.qualify("inventory_ledger_watermark");
+        Boolean ready = jdbc.queryForObject(
+            "SELECT to_regclass(?) IS NOT NULL AND to_regclass(?) IS NOT NULL", Boolean.class, snapshots, watermark);
+        if (!Boolean.TRUE.equals(ready)) {
+            return 0;
+        }
+
+        // 대기 기준점: 기록 당시 진행 중이던 트랜잭션이 모두 끝났으면 (xmin >= xmax) 그 순번까지 커밋 확정
+        List<Watermark> pending = jdbc.query(
+            "SELECT pending_seq, pending_xid <= pg_snapshot_xmin(pg_current_snapshot()) FROM " + watermark + " WHERE id = 1",
+            (rs, rowNum) -> new Watermark(rs.getLong(1), rs.getBoolean(2)));
+        if (!pending.isEmpty() && !pending.get(0).settled()) {
+            return 0;
+        }
+
+        int rows = 0;
+        boolean caughtUp = true;
+        if (!pending.isEmpty()) {
+            // 압축 완료 순번 — 원장 행이 없던 구간(롤백된 순번 등)까지 포함하므로 마지막 스냅샷보다 앞설 수 있음
+            long previous = jdbc.queryForObject(
+                "SELECT GREATEST((SELECT COALESCE(MAX(ledger_seq), 0) FROM " + snapshots + "), " +
+                "(SELECT compacted_seq FROM " + watermark + " WHERE id = 1))", Long.class);
+            long limit = Math.min(pending.get(0).seq(), previous + Math.max(1, compactionBatchSize));
+            caughtUp = limit >= pending.get(0).seq();
+            if (limit > previous) {
+                rows = compactRange(previous, limit);
+                jdbc.update("UPDATE " + watermark + " SET compacted_seq = ? WHERE id = 1", limit);
+            }
+        }
+        if (caughtUp) {
+            recordPending(watermark);
+        }
+        return rows;
+    }
+
+    private int compactRange(long previous, long limit) {
+        String snapshots = TenantTables.qualify("inventory_ledger_snapshots");
+        String ledger = TenantTables.qualify("inventory_transactions");
+        Long horizon = jdbc.queryForObject(
+            "SELECT MAX(ledger_seq) FROM " + ledger + " WHERE ledger_seq > ? AND ledger_seq <= ?",
+            Long.class, previous, limit);
+        if (horizon == null) {
+            return 0;
+        }
+
+        int rows = jdbc.update("""
+            WITH batch AS (
+                SELECT * FROM %2$s WHERE ledger_seq > ? AND ledger_seq <= ?
+            ), horizon AS (
+                SELECT GREATEST(MAX(r.created_at),
+                                (SELECT MAX(s.snapshot_at) FROM %1$s s
+                                  WHERE s.ledger_seq = (SELECT MAX(ledger_seq) FROM %1$s))) AS at
+                  FROM batch r
+            ), totals AS (
+                SELECT DISTINCT ON (product_id) product_id, '*'::varchar AS warehouse_code, after_stock AS stock
+                  FROM batch
+                 WHERE after_stock IS NOT NULL
+                 ORDER BY product_id, ledger_seq DESC
+            ), warehouses AS (
+                SELECT r.product_id, r.warehouse_code,
+                       COALESCE(prev.stock, 0) + SUM(r.warehouse_delta) AS stock
+                  FROM batch r
+                  LEFT JOIN LATERAL (
+                        SELECT s.stock FROM %1$s s
+                         WHERE s.product_id = r.product_id AND s.warehouse_code = r.warehouse_code
+                         ORDER BY s.ledger_seq DESC LIMIT 1) prev ON TRUE
+                 WHERE r.warehouse_code IS NOT NULL AND r.warehouse_delta IS NOT NULL
+                 GROUP BY r.product_id, r.warehouse_code, prev.stock
+            )
+            INSERT INTO %1$s (product_id, warehouse_code, ledger_seq, snapshot_at, stock)
+            SELECT u.product_id, u.warehouse_code, ?, h.at, u.stock
+              FROM (SELECT * FROM totals UNION ALL SELECT * FROM warehouses) u
+             CROSS JOIN horizon h
+            """.formatted(snapshots, ledger), previous, horizon, horizon);
+
+        log.info("📒 재고 원장 압축: {} seq {} → {}, 스냅샷 {}건", TenantTables.currentSchema(), previous, horizon, rows);
+        return rows;
+    }
+
+    /**
+     * 다음 대기 기준점 기록 — 발급된 마지막 순번을 먼저 읽고, 별도 문장으로 그 뒤의 xmax 를 읽음
+     */
+    private void recordPending(String watermark) {
+        long seq = jdbc.queryForObject(
+            "SELECT CASE WHEN is_called THEN last_value ELSE last_value - 1 END FROM "
+                + TenantTables.qualify("inventory_ledger_seq"), Long.class);
+        String xmax = jdbc.queryForObject("SELECT pg_snapshot_xmax(pg_current_snapshot())::text", String.class);
+        jdbc.update("INSERT INTO " + watermark + " (id, pending_seq, pending_xid) VALUES (1, ?, ?::xid8)" +
+            " ON CONFLICT (id) DO UPDATE SET pending_seq = EXCLUDED.pending_seq, pending_xid = EXCLUDED.pending_xid",
+            seq, xmax);
+    }
+
+    /**
+     * 상품 목록의 최근 거래 ID — 상품마다 (product_id, ledger_seq) 인덱스에서 limit 건만 읽어 병합
+     */
+    @Transactional(readOnly = true)
+    public List<UUID> recentTransactionIds(Collection<UUID> productIds, int limit) {
+        if (productIds.isEmpty() || limit <= 0) return List.of();
+        return jdbc.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement("""
+                SELECT t.transaction_id
+                  FROM unnest(?::uuid[]) AS p(product_id)
+                 CROSS JOIN LATERAL (
+                       SELECT it.transaction_id, it.ledger_seq
+                         FROM %s it
+                        WHERE it.product_id = p.product_id
+                        ORDER BY it.ledger_seq DESC
+                        LIMIT ?) t
+                 ORDER BY t.ledger_seq DESC
+                 LIMIT ?
+                """.formatted(TenantTables.qualify("inventory_transactions")));
+            ps.setArray(1, connection.createArrayOf("uuid", productIds.toArray()));
+            ps.setInt(2, limit);
+            ps.setInt(3, limit);
+            return ps;
+        }, (rs, rowNum) -> rs.getObject(1, UUID.class));
+    }
+
+    /**
+     * 시점 재고
+     *
+     * @param totalStock      총재고 (그 시점 이전 이벤트·스냅샷이 없으면 null)
+     * @param warehouseStocks 창고 코드 → 재고 (최초 기준점 이전 시점이면 비어 있음)
+     */
+    public record StockAsOf(UUID productId, LocalDateTime at, Integer totalStock,
+                            Map<String, Integer> warehouseStocks) {}
+
+    /** 대기 기준점 (settled: 기록 당시 진행 중이던 트랜잭션이 모두 끝남) */
+    private record Watermark(long seq, boolean settled) {}
+}
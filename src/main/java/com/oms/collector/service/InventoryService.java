@@ -8,8 +8,11 @@ import com.oms.collector.repository.InventoryTransactionRepository;
 import com.oms.collector.repository.ProductRepository;
 import com.oms.collector.repository.ProductWarehouseStockRepository;
 import com.oms.collector.repository.WarehouseRepository;
+import com.oms.collector.service.StockMutationService.StockDelta;
+import com.oms.collector.service.StockMutationService.StockLevels;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -17,7 +20,10 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -27,7 +33,11 @@ import java.util.UUID;
  *   1. WarehouseRepository 주입 추가
  *   2. processInboundWithWarehouse  - switch 하드코딩 → DB 창고 조회로 교체
  *   3. processOutboundWithWarehouse - switch 하드코딩 → DB 창고 조회로 교체
- *   4. 나머지 메서드 전부 동일
+ *   4. 입고/출고/예약/이동 재고 증감 - 상품 조회 후 저장 → StockMutationService 원자적 SQL 증감
+ *      (동시 출고 시 덮어쓰기 방지, 거래 내역 이전/이후 재고는 RETURNING 값 기준)
+ *   5. 창고별 재고 - 레거시 Product 컬럼(안양/이천/부천) 분기 제거, 모든 창고를 product_warehouse_stock 으로
+ *   6. 거래 내역 - 추가만 가능한 원장, 창고 코드/창고 증감량 기록 (InventoryLedgerService 스냅샷·시점 조회)
+ *      내역 조회는 ledger_seq 역순으로 최대 history-limit 건
  */
 @Slf4j
 @Service
@@ -38,12 +48,16 @@ public class InventoryService {
     private final InventoryTransactionRepository transactionRepository;
     private final WarehouseRepository warehouseRepository;
     private final ProductWarehouseStockRepository warehouseStockRepository; // ✅ 창고별 재고
+    private final StockMutationService stockMutationService;                 // 원자적 재고 증감
+    private final InventoryLedgerService inventoryLedgerService;             // 원장 스냅샷·검색
+    private final ProductSearchService productSearchService;
 
-    // 레거시 Product 컬럼과 매핑되는 창고 코드 (기존 3개만 유지)
-    private static final String ANYANG  = "ANYANG";
-    private static final String ICHEON  = "ICHEON_BOX";
-    private static final String ICHEON2 = "ICHEON_PCS";   // 별칭 혹은 레거시
-    private static final String BUCHEON = "BUCHEON";
+    /** 상품별 거래 내역 최대 조회 건수 */
+    @Value("${collector.inventory-ledger.history-limit:500}")
+    private int historyLimit;
+
+    /** 거래 내역 검색 시 후보 상품 수 */
+    private static final int SEARCH_PRODUCT_LIMIT = 200;
 
     /**
      * 입고 처리 (창고별)
@@ -57,52 +71,27 @@ public class InventoryService {
                                                String warehouseCode, String location, String notes) {
         log.info("📦 입고 처리 (창고별): 상품 ID={}, 수량={}, 창고={}", productId, quantity, warehouseCode);
 
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다."));
-
         // ✅ DB에서 창고 조회 (하드코딩 switch 완전 대체)
-        Warehouse warehouse = warehouseRepository.findByCode(warehouseCode)
-            .filter(w -> Boolean.TRUE.equals(w.getIsActive()))
-            .orElseThrow(() -> new IllegalArgumentException(
-                "존재하지 않거나 비활성화된 창고입니다: " + warehouseCode));
+        Warehouse warehouse = activeWarehouse(warehouseCode);
 
-        // ANYANG / ICHEON_BOX / ICHEON_PCS / BUCHEON 은 Product 레거시 컬럼
-        // 그 외 모든 창고는 product_warehouse_stock 테이블
-        switch (warehouse.getCode()) {
-            case "ANYANG":
-                product.setWarehouseStockAnyang(product.getWarehouseStockAnyang() + quantity);
-                break;
-            case "ICHEON_BOX":
-            case "ICHEON_PCS":
-                product.setWarehouseStockIcheon(product.getWarehouseStockIcheon() + quantity);
-                break;
-            case "BUCHEON":
-                product.setWarehouseStockBucheon(product.getWarehouseStockBucheon() + quantity);
-                break;
-            default:
-                // 신규 창고 전부: product_warehouse_stock 테이블에 기록
-                updateWarehouseStock(product.getProductId(), warehouse.getCode(),
-                    warehouse.getName(), quantity);
-                log.debug("신규 창고 입고 (warehouse_stock 테이블): {} {}", warehouse.getCode(), quantity);
-        }
+        // 창고 재고(product_warehouse_stock) + 총재고 증감
+        stockMutationService.applyWarehouse(productId, warehouse.getCode(), warehouse.getName(), quantity, false);
+        StockLevels after = stockMutationService.apply(productId, StockDelta.of(quantity, quantity, 0))
+            .orElseThrow(() -> new IllegalStateException("재고가 부족합니다."));
+        Product product = sync(productId, after);
 
-        // 거래 내역 기록 (총재고 변경 전에 생성해야 beforeStock이 정확함)
+        // 거래 내역 기록 (이전/이후 재고는 RETURNING 값 기준)
         String detailedNotes = String.format("창고:%s(%s) | %s",
             warehouse.getName(), warehouse.getCode(), notes != null ? notes : "");
-        InventoryTransaction transaction = InventoryTransaction.createInbound(
-            product, quantity, location != null ? location : warehouse.getName(), detailedNotes);
-        transactionRepository.save(transaction);
-
-        // 총 재고 증가
-        product.increaseStock(quantity);
-
-        Product saved = productRepository.save(product);
+        InventoryTransaction transaction = record(atWarehouse(InventoryTransaction.createInbound(
+            product, quantity, location != null ? location : warehouse.getName(), detailedNotes),
+            warehouse.getCode(), quantity), after, quantity);
 
         log.info("✅ 입고 완료: {} - 창고:{}, 재고 {} → {}",
             product.getProductName(), warehouse.getName(),
             transaction.getBeforeStock(), transaction.getAfterStock());
 
-        return saved;
+        return product;
     }
 
     /**
@@ -116,8 +105,7 @@ public class InventoryService {
             .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 창고: " + warehouseCode));
         Product product = productRepository.findById(productId)
             .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다: " + productId));
-        updateWarehouseStock(product.getProductId(), warehouse.getCode(),
-            warehouse.getName(), quantity);
+        stockMutationService.applyWarehouse(productId, warehouse.getCode(), warehouse.getName(), quantity, false);
         String detailedNotes = String.format("창고:%s(%s) | %s",
             warehouse.getName(), warehouse.getCode(), notes != null ? notes : "");
         // 접수 입고는 총재고 변경 없음 → beforeStock = afterStock = totalStock
@@ -128,10 +116,11 @@ public class InventoryService {
             .beforeStock(product.getTotalStock())
             .afterStock(product.getTotalStock())
             .toLocation(warehouse.getName())
+            .warehouseCode(ProductWarehouseStock.stockCode(warehouse.getCode()))
+            .warehouseDelta(quantity)
             .notes(detailedNotes)
             .build();
         transactionRepository.save(tx);
-        productRepository.save(product);
         log.info("✅ 접수 입고: {} {}개 → {}", product.getProductName(), quantity, warehouse.getName());
     }
 
@@ -139,6 +128,8 @@ public class InventoryService {
      * 창고 간 이동 — fromWarehouse 재고 차감, toWarehouse 재고 증가
      * normalTransfer=true  → toWarehouse 입고 시 총재고/가용재고도 증가 (정상 검수)
      * normalTransfer=false → 창고별 재고만 이동, 총재고 불변 (불량 검수)
+     *
+     * 창고별 재고는 기존과 같이 부족 여부를 검사하지 않음 (접수 입고 전 반품 등)
      */
     @Transactional
     public void warehouseTransfer(UUID productId, int quantity,
@@ -146,21 +137,20 @@ public class InventoryService {
                                   boolean normalTransfer, String notes) {
         log.info("🔄 창고 이동: {} {}개 {} → {}", productId, quantity, fromWarehouseCode, toWarehouseCode);
 
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다: " + productId));
-
         Warehouse fromWh = warehouseRepository.findByCode(fromWarehouseCode)
             .orElseThrow(() -> new IllegalArgumentException("출발 창고 없음: " + fromWarehouseCode));
         Warehouse toWh = warehouseRepository.findByCode(toWarehouseCode)
             .orElseThrow(() -> new IllegalArgumentException("도착 창고 없음: " + toWarehouseCode));
 
-        // 출발 창고 재고 차감 (레거시 컬럼 vs warehouse_stock 테이블 구분)
-        applyWarehouseStockDelta(product, fromWh.getCode(), fromWh.getName(), -quantity);
+        // 창고 재고 이동 (부족 검사 없음) + 정상 검수면 총재고 증가
+        int totalDelta = normalTransfer ? quantity : 0;
+        stockMutationService.applyWarehouse(productId, fromWh.getCode(), fromWh.getName(), -quantity, false);
+        stockMutationService.applyWarehouse(productId, toWh.getCode(), toWh.getName(), quantity, false);
+        StockLevels after = stockMutationService.applyUnchecked(productId, StockDelta.of(totalDelta, totalDelta, 0));
+        Product product = sync(productId, after);
 
-        // 도착 창고 재고 증가 (레거시 컬럼 vs warehouse_stock 테이블 구분)
-        applyWarehouseStockDelta(product, toWh.getCode(), toWh.getName(), quantity);
-
-        int beforeTotal = product.getTotalStock();
+        int afterTotal = after.totalStock();
+        int beforeTotal = afterTotal - totalDelta;
         String baseNotes = notes != null ? notes : "";
         InventoryTransaction outTx = InventoryTransaction.builder()
             .product(product)
@@ -169,34 +159,37 @@ public class InventoryService {
             .beforeStock(beforeTotal)
             .afterStock(beforeTotal)
             .fromLocation(fromWh.getName())
+            .warehouseCode(ProductWarehouseStock.stockCode(fromWh.getCode()))
+            .warehouseDelta(-quantity)
             .referenceType("WAREHOUSE_TRANSFER")
             .notes(String.format("창고이동 출고:%s→%s | %s", fromWh.getName(), toWh.getName(), baseNotes))
             .build();
         transactionRepository.save(outTx);
 
+        // 정상 검수 이동: 총재고/가용재고 증가 (ANYANG_KO_RETURN은 총재고 미반영이었으므로 여기서 반영)
         InventoryTransaction inTx = InventoryTransaction.builder()
             .product(product)
             .transactionType("IN")
             .quantity(quantity)
             .beforeStock(beforeTotal)
-            .afterStock(normalTransfer ? beforeTotal + quantity : beforeTotal)
+            .afterStock(afterTotal)
             .toLocation(toWh.getName())
+            .warehouseCode(ProductWarehouseStock.stockCode(toWh.getCode()))
+            .warehouseDelta(quantity)
             .referenceType("WAREHOUSE_TRANSFER")
             .notes(String.format("창고이동 입고:%s→%s | %s", fromWh.getName(), toWh.getName(), baseNotes))
             .build();
         transactionRepository.save(inTx);
 
-        // 정상 검수 이동: 총재고/가용재고 증가 (ANYANG_KO_RETURN은 총재고 미반영이었으므로 여기서 반영)
-        if (normalTransfer) {
-            product.increaseStock(quantity);
-        }
-
-        productRepository.save(product);
-
         log.info("✅ 창고 이동 완료: {} {}개 {} → {}", product.getProductName(), quantity,
             fromWh.getName(), toWh.getName());
     }
 
+    /**
+     * 재고현황 수량/예약/메모 수정 — 창고 재고를 목표 수량으로 맞추고 총재고·가용재고에 차이를 반영
+     * 다른 입출고와 마찬가지로 상품·창고 행을 잠근 뒤 StockMutationService 로 증감하므로
+     * 원장(ADJUST)의 이전/이후 재고와 창고 증감량이 실제 변경과 일치합니다.
+     */
     @Transactional
     public Product updateInventorySnapshot(UUID productId,
                                            String warehouseCode,
@@ -206,23 +199,30 @@ public class InventoryService {
                                            String warehouseLocation,
                                            String note,
                                            String reason) {
-        Product product = productRepository.findById(productId)
+        StockLevels before = stockMutationService.lock(productId)
             .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다: " + productId));
 
-        int beforeTotal = product.getTotalStock() != null ? product.getTotalStock() : 0;
         int delta = 0;
+        int warehouseDelta = 0;
         if (warehouseCode != null && !warehouseCode.isBlank() && targetWarehouseStock != null) {
-            int current = getWarehouseStock(product, warehouseCode);
+            int current = stockMutationService.lockWarehouse(productId, warehouseCode);
             delta = targetWarehouseStock - current;
-            if (delta != 0) {
-                setWarehouseStock(product, warehouseCode, warehouseName != null ? warehouseName : warehouseCode, targetWarehouseStock);
-                product.setTotalStock(Math.max(0, beforeTotal + delta));
+            warehouseDelta = Math.max(0, targetWarehouseStock) - current;
+            if (warehouseDelta != 0) {
+                stockMutationService.applyWarehouse(productId, warehouseCode,
+                    warehouseName != null ? warehouseName : warehouseCode, warehouseDelta, false);
             }
         }
 
-        int nextReserved = reservedStock != null ? Math.max(0, reservedStock) : (product.getReservedStock() != null ? product.getReservedStock() : 0);
-        product.setReservedStock(nextReserved);
-        product.setAvailableStock(Math.max(0, (product.getTotalStock() != null ? product.getTotalStock() : 0) - nextReserved));
+        int nextTotal = Math.max(0, before.totalStock() + delta);
+        int nextReserved = reservedStock != null ? Math.max(0, reservedStock) : before.reservedStock();
+        int nextAvailable = Math.max(0, nextTotal - nextReserved);
+        StockLevels after = stockMutationService.applyUnchecked(productId, StockDelta.of(
+            nextTotal - before.totalStock(),
+            nextAvailable - before.availableStock(),
+            nextReserved - before.reservedStock()));
+
+        Product product = sync(productId, after);
         product.setWarehouseLocation(warehouseLocation);
         product.setNote(note);
 
@@ -230,10 +230,12 @@ public class InventoryService {
             .product(product)
             .transactionType("ADJUST")
             .quantity(delta)
-            .beforeStock(beforeTotal)
-            .afterStock(product.getTotalStock())
+            .beforeStock(before.totalStock())
+            .afterStock(after.totalStock())
             .fromLocation(warehouseName != null ? warehouseName : warehouseCode)
             .toLocation(warehouseName != null ? warehouseName : warehouseCode)
+            .warehouseCode(warehouseDelta != 0 ? ProductWarehouseStock.stockCode(warehouseCode) : null)
+            .warehouseDelta(warehouseDelta != 0 ? warehouseDelta : null)
             .referenceType("MANUAL")
             .notes(reason != null && !reason.isBlank() ? reason : "재고현황 수량/제외 내용 수정")
             .build();
@@ -242,61 +244,6 @@ public class InventoryService {
         return productRepository.save(product);
     }
 
-    private int getWarehouseStock(Product product, String warehouseCode) {
-        return switch (warehouseCode) {
-            case "ANYANG" -> product.getWarehouseStockAnyang() != null ? product.getWarehouseStockAnyang() : 0;
-            case "ICHEON_BOX", "ICHEON_PCS" -> product.getWarehouseStockIcheon() != null ? product.getWarehouseStockIcheon() : 0;
-            case "BUCHEON" -> product.getWarehouseStockBucheon() != null ? product.getWarehouseStockBucheon() : 0;
-            default -> warehouseStockRepository.findByProductIdAndWarehouseCode(product.getProductId(), warehouseCode)
-                .map(ProductWarehouseStock::getStock)
-                .orElse(0);
-        };
-    }
-
-    private void setWarehouseStock(Product product, String warehouseCode, String warehouseName, int stock) {
-        int next = Math.max(0, stock);
-        switch (warehouseCode) {
-            case "ANYANG" -> product.setWarehouseStockAnyang(next);
-            case "ICHEON_BOX", "ICHEON_PCS" -> product.setWarehouseStockIcheon(next);
-            case "BUCHEON" -> product.setWarehouseStockBucheon(next);
-            default -> {
-                ProductWarehouseStock ws = warehouseStockRepository
-                    .findByProductIdAndWarehouseCode(product.getProductId(), warehouseCode)
-                    .orElseGet(() -> ProductWarehouseStock.builder()
-                        .productId(product.getProductId())
-                        .warehouseCode(warehouseCode)
-                        .warehouseName(warehouseName)
-                        .stock(0)
-                        .build());
-                ws.setWarehouseName(warehouseName);
-                ws.setStock(next);
-                warehouseStockRepository.save(ws);
-            }
-        }
-    }
-
-    /**
-     * 레거시 창고(ANYANG/ICHEON_BOX/ICHEON_PCS/BUCHEON)는 Product 컬럼 직접 수정,
-     * 그 외 신규 창고는 product_warehouse_stock 테이블 사용
-     */
-    private void applyWarehouseStockDelta(Product product, String warehouseCode,
-                                          String warehouseName, int delta) {
-        switch (warehouseCode) {
-            case "ANYANG":
-                product.setWarehouseStockAnyang(product.getWarehouseStockAnyang() + delta);
-                break;
-            case "ICHEON_BOX":
-            case "ICHEON_PCS":
-                product.setWarehouseStockIcheon(product.getWarehouseStockIcheon() + delta);
-                break;
-            case "BUCHEON":
-                product.setWarehouseStockBucheon(product.getWarehouseStockBucheon() + delta);
-                break;
-            default:
-                updateWarehouseStock(product.getProductId(), warehouseCode, warehouseName, delta);
-        }
-    }
-
     /**
      * 불량 반품 입고 — 창고별 재고만 기록, 총재고/가용재고 변경 없음
      */
@@ -312,85 +259,49 @@ public class InventoryService {
             .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 창고: " + warehouseCode));
 
         // 창고별 재고만 업데이트 (총재고/가용재고 변경 없음)
-        updateWarehouseStock(product.getProductId(), warehouse.getCode(),
-            warehouse.getName(), quantity);
+        stockMutationService.applyWarehouse(productId, warehouse.getCode(), warehouse.getName(), quantity, false);
 
         // 거래 내역 기록
         String detailedNotes = String.format("창고:%s(%s) | %s",
             warehouse.getName(), warehouse.getCode(), notes != null ? notes : "");
-        InventoryTransaction transaction = InventoryTransaction.createInbound(
-            product, quantity, warehouse.getName(), detailedNotes);
+        // 총재고 변경 없음 → beforeStock = afterStock = totalStock
+        InventoryTransaction transaction = atWarehouse(InventoryTransaction.createInbound(
+            product, quantity, warehouse.getName(), detailedNotes), warehouse.getCode(), quantity);
+        transaction.setAfterStock(transaction.getBeforeStock());
         transactionRepository.save(transaction);
-        productRepository.save(product);
 
         log.info("✅ 불량 입고 완료: {} - 창고:{}", product.getProductName(), warehouse.getName());
     }
+
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public Product processOutboundWithWarehouse(UUID productId, int quantity,
                                                 String warehouseCode, UUID orderId, String notes) {
         log.info("📤 출고 처리 (창고별): 상품 ID={}, 수량={}, 창고={}", productId, quantity, warehouseCode);
 
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다."));
-
         // ✅ DB에서 창고 조회 (하드코딩 switch 완전 대체)
-        Warehouse warehouse = warehouseRepository.findByCode(warehouseCode)
-            .filter(w -> Boolean.TRUE.equals(w.getIsActive()))
-            .orElseThrow(() -> new IllegalArgumentException(
-                "존재하지 않거나 비활성화된 창고입니다: " + warehouseCode));
+        Warehouse warehouse = activeWarehouse(warehouseCode);
 
-        // 레거시 컬럼 창고는 개별 컬럼 차감, 신규 창고는 product_warehouse_stock 테이블
-        int warehouseStock;
-        switch (warehouse.getCode()) {
-            case "ANYANG":
-                warehouseStock = product.getWarehouseStockAnyang();
-                if (warehouseStock < quantity)
-                    throw new IllegalStateException(warehouse.getName() + " 재고 부족 (현재: " + warehouseStock + "개)");
-                product.setWarehouseStockAnyang(warehouseStock - quantity);
-                break;
-            case "ICHEON_BOX":
-            case "ICHEON_PCS":
-                warehouseStock = product.getWarehouseStockIcheon();
-                if (warehouseStock < quantity)
-                    throw new IllegalStateException(warehouse.getName() + " 재고 부족 (현재: " + warehouseStock + "개)");
-                product.setWarehouseStockIcheon(warehouseStock - quantity);
-                break;
-            case "BUCHEON":
-                warehouseStock = product.getWarehouseStockBucheon();
-                if (warehouseStock < quantity)
-                    throw new IllegalStateException(warehouse.getName() + " 재고 부족 (현재: " + warehouseStock + "개)");
-                product.setWarehouseStockBucheon(warehouseStock - quantity);
-                break;
-            default:
-                // 신규 창고: product_warehouse_stock 테이블에서 차감
-                ProductWarehouseStock ws = warehouseStockRepository
-                    .findByProductIdAndWarehouseCode(product.getProductId(), warehouse.getCode())
-                    .orElse(null);
-                int wsStock = ws != null ? ws.getStock() : 0;
-                if (wsStock < quantity)
-                    throw new IllegalStateException(warehouse.getName() + " 재고 부족 (현재: " + wsStock + "개)");
-                updateWarehouseStock(product.getProductId(), warehouse.getCode(),
-                    warehouse.getName(), -quantity);
-                log.debug("신규 창고 출고 (warehouse_stock 테이블): {} -{}", warehouse.getCode(), quantity);
+        // 창고 재고 먼저 차감 (부족하면 중단), 이어서 총재고 차감 — 실패 시 트랜잭션 전체 롤백
+        if (stockMutationService.applyWarehouse(productId, warehouse.getCode(), warehouse.getName(), -quantity, true).isEmpty()) {
+            int wsStock = stockMutationService.currentWarehouse(productId, warehouse.getCode());
+            throw new IllegalStateException(warehouse.getName() + " 재고 부족 (현재: " + wsStock + "개)");
         }
 
-        // 거래 내역 기록 (총재고 변경 전에 생성해야 beforeStock이 정확함)
+        StockLevels after = stockMutationService.apply(productId, StockDelta.of(-quantity, -quantity, 0))
+            .orElseThrow(() -> new IllegalStateException("재고가 부족합니다."));
+        Product product = sync(productId, after);
+
+        // 거래 내역 기록 (이전/이후 재고는 RETURNING 값 기준)
         String detailedNotes = String.format("창고:%s(%s) | %s",
             warehouse.getName(), warehouse.getCode(), notes != null ? notes : "");
-        InventoryTransaction transaction = InventoryTransaction.createOutbound(
-            product, quantity, orderId, detailedNotes);
-        transactionRepository.save(transaction);
-
-        // 총 재고 차감
-        product.decreaseStock(quantity);
-
-        Product saved = productRepository.save(product);
+        InventoryTransaction transaction = record(atWarehouse(InventoryTransaction.createOutbound(
+            product, quantity, orderId, detailedNotes), warehouse.getCode(), -quantity), after, -quantity);
 
         log.info("✅ 출고 완료: {} - 창고:{}, 재고 {} → {}",
             product.getProductName(), warehouse.getName(),
             transaction.getBeforeStock(), transaction.getAfterStock());
 
-        return saved;
+        return product;
     }
 
     // ── 아래는 기존 코드와 100% 동일 ─────────────────────────────────────────
@@ -402,21 +313,17 @@ public class InventoryService {
     public Product processInbound(UUID productId, int quantity, String location, String notes) {
         log.info("📦 입고 처리: 상품 ID={}, 수량={}", productId, quantity);
 
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다."));
-
-        InventoryTransaction transaction = InventoryTransaction.createInbound(
-            product, quantity, location, notes);
-        transactionRepository.save(transaction);
-
-        product.increaseStock(quantity);
+        StockLevels after = stockMutationService.apply(productId, StockDelta.of(quantity, quantity, 0))
+            .orElseThrow(() -> new IllegalStateException("재고가 부족합니다."));
+        Product product = sync(productId, after);
 
-        Product saved = productRepository.save(product);
+        InventoryTransaction transaction = record(InventoryTransaction.createInbound(
+            product, quantity, location, notes), after, quantity);
 
         log.info("✅ 입고 완료: {} - 재고 {} → {}",
             product.getProductName(), transaction.getBeforeStock(), transaction.getAfterStock());
 
-        return saved;
+        return product;
     }
 
     /**
@@ -426,21 +333,17 @@ public class InventoryService {
     public Product processOutbound(UUID productId, int quantity, UUID orderId, String notes) {
         log.info("📤 출고 처리: 상품 ID={}, 수량={}", productId, quantity);
 
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다."));
-
-        InventoryTransaction transaction = InventoryTransaction.createOutbound(
-            product, quantity, orderId, notes);
-        transactionRepository.save(transaction);
+        StockLevels after = stockMutationService.apply(productId, StockDelta.of(-quantity, -quantity, 0))
+            .orElseThrow(() -> new IllegalStateException("재고가 부족합니다."));
+        Product product = sync(productId, after);
 
-        product.decreaseStock(quantity);
-
-        Product saved = productRepository.save(product);
+        InventoryTransaction transaction = record(InventoryTransaction.createOutbound(
+            product, quantity, orderId, notes), after, -quantity);
 
         log.info("✅ 출고 완료: {} - 재고 {} → {}",
             product.getProductName(), transaction.getBeforeStock(), transaction.getAfterStock());
 
-        return saved;
+        return product;
     }
 
     /**
@@ -450,21 +353,25 @@ public class InventoryService {
     public Product adjustInventory(UUID productId, int quantity, String reason) {
         log.info("🔧 재고 조정: 상품 ID={}, 수량={}", productId, quantity);
 
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다."));
-
-        product.increaseStock(quantity);
-
-        InventoryTransaction transaction = InventoryTransaction.createAdjustment(
-            product, quantity, reason);
-        transactionRepository.save(transaction);
+        StockLevels after = stockMutationService.apply(productId, StockDelta.of(quantity, quantity, 0))
+            .orElseThrow(() -> new IllegalStateException("재고가 부족합니다."));
+        Product product = sync(productId, after);
 
-        Product saved = productRepository.save(product);
+        InventoryTransaction transaction = record(InventoryTransaction.createAdjustment(
+            product, quantity, reason), after, quantity);
 
         log.info("✅ 재고 조정 완료: {} - 재고 {} → {}",
             product.getProductName(), transaction.getBeforeStock(), transaction.getAfterStock());
 
-        return saved;
+        return product;
+    }
+
+    /**
+     * 여러 상품 재고를 한 트랜잭션에서 연달아 바꾸기 전에 상품 잠금을 정렬된 순서로 미리 확보
+     */
+    @Transactional
+    public void lockProducts(Collection<UUID> productIds) {
+        stockMutationService.lockStripes(productIds);
     }
 
     /**
@@ -472,10 +379,9 @@ public class InventoryService {
      */
     @Transactional
     public void reserveStock(UUID productId, int quantity) {
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다."));
-        product.reserveStock(quantity);
-        productRepository.save(product);
+        StockLevels after = stockMutationService.apply(productId, StockDelta.of(0, -quantity, quantity))
+            .orElseThrow(() -> new IllegalStateException("가용 재고가 부족합니다."));
+        Product product = sync(productId, after);
         log.info("🔒 재고 예약: {} - {}개", product.getProductName(), quantity);
     }
 
@@ -484,10 +390,9 @@ public class InventoryService {
      */
     @Transactional
     public void releaseReservedStock(UUID productId, int quantity) {
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다."));
-        product.releaseReservedStock(quantity);
-        productRepository.save(product);
+        StockLevels after = stockMutationService.apply(productId, StockDelta.of(0, quantity, -quantity))
+            .orElseThrow(() -> new IllegalStateException("예약 재고가 부족합니다."));
+        Product product = sync(productId, after);
         log.info("🔓 재고 예약 취소: {} - {}개", product.getProductName(), quantity);
     }
 
@@ -507,15 +412,15 @@ public class InventoryService {
             UUID productId, LocalDateTime startDate, LocalDateTime endDate) {
         Product product = productRepository.findById(productId)
             .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다."));
-        return transactionRepository.findByProductAndCreatedAtBetweenOrderByCreatedAtDesc(
-            product, startDate, endDate);
+        return transactionRepository.findByProductAndCreatedAtBetweenOrderByLedgerSeqDesc(
+            product, startDate, endDate, PageRequest.of(0, historyLimit));
     }
 
     @Transactional(readOnly = true)
     public List<InventoryTransaction> getAllTransactionHistory(UUID productId) {
         Product product = productRepository.findById(productId)
             .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다."));
-        return transactionRepository.findByProductOrderByCreatedAtDesc(product);
+        return transactionRepository.findByProductOrderByLedgerSeqDesc(product, PageRequest.of(0, historyLimit));
     }
 
     /**
@@ -529,99 +434,86 @@ public class InventoryService {
 
     /**
      * 거래 내역 검색 (상품명, SKU, 바코드)
+     * 상품을 먼저 찾고, 상품별 (product_id, ledger_seq) 인덱스에서 최근 거래만 병합
      */
     @Transactional(readOnly = true)
     public List<InventoryTransaction> searchTransactions(String keyword, int limit) {
-        Pageable pageable = PageRequest.of(0, limit);
-        return transactionRepository.searchTransactionsWithProduct(keyword, pageable);
-    }
-
-    /**
-     * 신규 창고별 재고 업데이트 (ProductWarehouseStock 테이블)
-     * quantity > 0 : 입고, quantity < 0 : 출고
-     * 같은 트랜잭션 내에서 호출되므로 @Transactional 없음
-     */
-    private void updateWarehouseStock(UUID productId, String warehouseCode,
-                                      String warehouseName, int quantity) {
-        try {
-            ProductWarehouseStock ws = warehouseStockRepository
-                .findByProductIdAndWarehouseCode(productId, warehouseCode)
-                .orElseGet(() -> ProductWarehouseStock.builder()
-                    .productId(productId)
-                    .warehouseCode(warehouseCode)
-                    .warehouseName(warehouseName)
-                    .stock(0)
-                    .build());
-
-            int before = ws.getStock();
-            ws.setStock(before + quantity);
-            warehouseStockRepository.save(ws);
-            log.info("✅ 창고별 재고 업데이트: {} ({}) {} → {}",
-                warehouseName, warehouseCode, before, ws.getStock());
-        } catch (Exception e) {
-            log.error("❌ 창고별 재고 업데이트 실패: {} ({}) - {}", warehouseName, warehouseCode, e.getMessage(), e);
-        }
+        List<UUID> productIds = productSearchService.search(keyword, SEARCH_PRODUCT_LIMIT).stream()
+            .map(Product::getProductId)
+            .toList();
+        List<UUID> ids = inventoryLedgerService.recentTransactionIds(productIds, limit);
+        return ids.isEmpty() ? List.of() : transactionRepository.findAllWithProductByIdIn(ids);
     }
 
     /**
-     * 반품 취소용 강제 출고 — 재고 부족 체크 없이 차감
+     * 반품 취소용 강제 출고 — 재고 부족 체크 없이 차감 (0 아래로는 내려가지 않음)
      */
     @Transactional
     public void forceOutboundForReturn(UUID productId, int quantity,
                                        String warehouseCode, String notes) {
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다."));
-
         Warehouse warehouse = warehouseRepository.findByCode(warehouseCode)
             .orElse(null);
         String warehouseName = warehouse != null ? warehouse.getName() : warehouseCode;
 
-        switch (warehouseCode) {
-            case "ANYANG":
-                product.setWarehouseStockAnyang(Math.max(0, product.getWarehouseStockAnyang() - quantity));
-                break;
-            case "ICHEON_BOX":
-            case "ICHEON_PCS":
-                product.setWarehouseStockIcheon(Math.max(0, product.getWarehouseStockIcheon() - quantity));
-                break;
-            case "BUCHEON":
-                product.setWarehouseStockBucheon(Math.max(0, product.getWarehouseStockBucheon() - quantity));
-                break;
-            default:
-                // 신규 창고: 0 이하로 내려가지 않도록 처리
-                ProductWarehouseStock ws = warehouseStockRepository
-                    .findByProductIdAndWarehouseCode(productId, warehouseCode)
-                    .orElseGet(() -> ProductWarehouseStock.builder()
-                        .productId(productId).warehouseCode(warehouseCode)
-                        .warehouseName(warehouseName).stock(0).build());
-                ws.setStock(Math.max(0, ws.getStock() - quantity));
-                warehouseStockRepository.save(ws);
-        }
+        // 0 에서 멈출 수 있으므로 변경 전 총재고는 행을 잠그고 먼저 읽음
+        StockLevels before = stockMutationService.lock(productId)
+            .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다."));
+
+        int warehouseDelta = stockMutationService.applyWarehouseClamped(productId, warehouseCode, warehouseName, -quantity);
+        StockLevels after = stockMutationService.applyClamped(productId, StockDelta.of(-quantity, -quantity, 0));
+        Product product = sync(productId, after);
 
-        // 거래 내역 기록 (총재고 변경 전에 생성해야 beforeStock이 정확함)
-        int newTotal = Math.max(0, product.getTotalStock() - quantity);
-        int newAvail = Math.max(0, product.getAvailableStock() - quantity);
         String detailedNotes = String.format("창고:%s(%s) | %s", warehouseName, warehouseCode, notes);
         InventoryTransaction transaction = InventoryTransaction.builder()
             .product(product)
             .transactionType("OUT")
             .quantity(quantity)
-            .beforeStock(product.getTotalStock())
-            .afterStock(newTotal)
+            .beforeStock(before.totalStock())
+            .afterStock(after.totalStock())
             .fromLocation(warehouseName)
+            .warehouseCode(ProductWarehouseStock.stockCode(warehouseCode))
+            .warehouseDelta(warehouseDelta)
             .referenceType("RETURN_CANCEL")
             .notes(detailedNotes)
             .build();
         transactionRepository.save(transaction);
 
-        // 총재고 차감 (0 이하 방지)
-        product.setTotalStock(newTotal);
-        product.setAvailableStock(newAvail);
-
-        productRepository.save(product);
         log.info("✅ 강제 출고 완료 (반품 취소): {} - 창고:{}", product.getProductName(), warehouseName);
     }
 
+    /** 활성 창고 조회 */
+    private Warehouse activeWarehouse(String warehouseCode) {
+        return warehouseRepository.findByCode(warehouseCode)
+            .filter(w -> Boolean.TRUE.equals(w.getIsActive()))
+            .orElseThrow(() -> new IllegalArgumentException(
+                "존재하지 않거나 비활성화된 창고입니다: " + warehouseCode));
+    }
+
+    /**
+     * SQL 로 바꾼 재고를 영속성 컨텍스트의 상품에도 반영
+     * (이미 로딩된 엔티티가 이전 값으로 flush 되어 증감을 덮어쓰지 않도록)
+     */
+    private Product sync(UUID productId, StockLevels after) {
+        Product product = productRepository.findById(productId)
+            .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다."));
+        after.applyTo(product);
+        return product;
+    }
+
+    /** 거래 내역에 창고 코드(stockCode 정규화)와 창고 재고 증감량 기록 */
+    private static InventoryTransaction atWarehouse(InventoryTransaction transaction, String warehouseCode, int delta) {
+        transaction.setWarehouseCode(ProductWarehouseStock.stockCode(warehouseCode));
+        transaction.setWarehouseDelta(delta);
+        return transaction;
+    }
+
+    /** 거래 내역 저장 — 이전/이후 재고는 RETURNING 값(이후)과 총재고 증감량으로 기록 */
+    private InventoryTransaction record(InventoryTransaction transaction, StockLevels after, int totalDelta) {
+        transaction.setBeforeStock(after.totalStock() - totalDelta);
+        transaction.setAfterStock(after.totalStock());
+        return transactionRepository.save(transaction);
+    }
+
     /**
      * 창고별 재고 조회
      */
@@ -631,14 +523,43 @@ public class InventoryService {
     }
 
     /**
-     * product_warehouse_stock 테이블에서 레거시 창고 항목 삭제 (동기화용)
+     * 여러 상품의 창고별 재고 (상품 → 창고 코드 → 재고) — product_id 인덱스 조회 1회
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, Map<String, Integer>> getWarehouseStockMap(Collection<UUID> productIds) {
+        Map<UUID, Map<String, Integer>> result = new HashMap<>();
+        if (productIds.isEmpty()) return result;
+        for (ProductWarehouseStock ws : warehouseStockRepository.findByProductIdIn(productIds)) {
+            result.computeIfAbsent(ws.getProductId(), id -> new HashMap<>())
+                .put(ws.getWarehouseCode(), ws.getStock() != null ? ws.getStock() : 0);
+        }
+        return result;
+    }
+
+    /**
+     * 실재고 창고(type = REAL) 합계 기준으로 총재고/가용재고 재계산 (예약 재고 유지)
+     * 총재고가 바뀌면 원장에 ADJUST 를 남겨 시점 조회·스냅샷이 현재 재고와 어긋나지 않도록 함
      */
     @Transactional
-    public void deleteWarehouseStockIfExists(UUID productId, String warehouseCode) {
-        warehouseStockRepository.findByProductIdAndWarehouseCode(productId, warehouseCode)
-            .ifPresent(ws -> {
-                warehouseStockRepository.delete(ws);
-                log.info("🗑️ 레거시 창고 중복 항목 삭제: {} ({})", warehouseCode, productId);
-            });
+    public Product syncTotalStock(UUID productId) {
+        StockLevels before = stockMutationService.lock(productId)
+            .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다."));
+        int realSum = warehouseStockRepository.sumRealStockByProductId(productId);
+        int nextAvailable = Math.max(0, realSum - before.reservedStock());
+        StockLevels after = stockMutationService.applyUnchecked(productId, StockDelta.of(
+            realSum - before.totalStock(), nextAvailable - before.availableStock(), 0));
+        Product product = sync(productId, after);
+
+        int totalDelta = after.totalStock() - before.totalStock();
+        if (totalDelta != 0) {
+            record(InventoryTransaction.builder()
+                .product(product)
+                .transactionType("ADJUST")
+                .quantity(totalDelta)
+                .referenceType("MANUAL")
+                .notes("실재고 창고 합계로 총재고 재계산")
+                .build(), after, totalDelta);
+        }
+        return product;
     }
 }
@@ -0,0 +1,307 @@
+package com.oms.collector.service;
+
+import com.oms.collector.config.TenantContext;
+import com.oms.collector.entity.InvoiceApiLog;
+import com.oms.collector.entity.Order;
+import com.oms.collector.repository.OrderRepository;
+import com.oms.collector.service.job.JobCancelledException;
+import com.oms.collector.service.job.JobContext;
+import com.oms.collector.service.tracking.TrackingNumberProvider;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 송장번호 일괄 발급
+ *
+ * 송장 없는 확정 주문마다 택배사 발급 API 를 제한된 스레드 풀에서 호출하고, 받은 번호는 바로
+ * 주문 1건 단위의 짧은 트랜잭션으로 반영합니다 (InvoiceIssueProgressService).
+ * - 택배사별 동시 호출 수(세마포어)와 초당 호출 수(호출 간격)를 제한 — 여러 일괄 발급이 겹쳐도 합산해서 지킴
+ * - 택배사 호출 동안 DB 트랜잭션·커넥션을 잡고 있지 않음
+ * - 발급 결과는 반영 전에 진행 기록으로 먼저 커밋 → 중간에 끊겨도 다시 실행하면 송장이 있는 주문은 건너뛰고,
+ *   발급만 되고 반영 안 된 번호는 택배사를 다시 부르지 않고 반영
+ * - 주문별 작업 잠금(ORDER:{orderNo})으로 단건 자동부여와 겹치지 않음 — 잠금을 잡은 뒤 송장·발급 기록을 다시 읽어
+ *   그 사이 다른 쪽이 송장을 넣은 주문은 건너뛰고, 발급만 된 번호가 있으면 택배사를 부르지 않고 그 번호를 반영
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InvoiceIssuanceService {
+
+    private static final int ORDER_LOCK_TTL = 30; // 초
+
+    private final OrderRepository orderRepository;
+    private final TrackingNumberProvider trackingNumberProvider;
+    private final InvoiceApiLogService invoiceApiLogService;
+    private final InvoiceIssueProgressService progressService;
+    private final WorkLockService workLockService;
+    private final OrderInvoiceService orderInvoiceService;
+
+    @Value("${collector.invoice-issue.threads:8}")
+    private int threads;
+
+    @Value("${collector.invoice-issue.per-carrier-concurrency:4}")
+    private int perCarrierConcurrency;
+
+    @Value("${collector.invoice-issue.per-carrier-rate-per-second:10}")
+    private double perCarrierRatePerSecond;
+
+    private ThreadPoolExecutor executor;
+    private final Map<String, Semaphore> carrierPermits = new ConcurrentHashMap<>();
+    private final Map<String, CallPacer> carrierPacers = new ConcurrentHashMap<>();
+
+    /**
+     * 일괄 발급 결과
+     *
+     * @param resumed 이전 실행에서 발급만 되고 반영 안 된 번호를 이번에 반영한 건수 (assigned 에 포함)
+     * @param skipped 목록 조회 뒤 다른 실행·단건 자동부여가 먼저 송장을 넣어 건너뛴 건수
+     */
+    public record Summary(UUID runId, int candidates, int assigned, int resumed, int skipped,
+                          List<Map<String, String>> failedOrders) {}
+
+    private enum IssueStatus { ASSIGNED, RESUMED, SKIPPED, FAILED }
+
+    /** 주문 1건 처리 결과 (failure 는 FAILED 일 때만) */
+    private record Outcome(IssueStatus status, String failure) {
+        static Outcome of(IssueStatus onSuccess, String failure) {
+            return failure == null ? new Outcome(onSuccess, null) : new Outcome(IssueStatus.FAILED, failure);
+        }
+    }
+
+    @PostConstruct
+    void initExecutor() {
+        int size = Math.max(1, threads);
+        AtomicInteger sequence = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+            size, size, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "invoice-issue-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 현재 테넌트의 송장 없는 확정 주문 전체에 송장번호 발급 (백그라운드 작업에서 트랜잭션 없이 호출)
+     * runId 는 호출자가 작업 제출 전에 만들어 응답으로 돌려주므로 실행 중에도 진행 상황을 조회할 수 있습니다.
+     *
+     * 주문이 끝날 때마다 진행률을 남기고, 취소 요청이 들어오면 아직 시작하지 않은 주문은 건너뛴 뒤
+     * JobCancelledException 을 던집니다 (이미 반영한 주문은 그대로 유지).
+     */
+    public Summary issueAll(UUID runId, String carrierCode, String carrierName, JobContext job) {
+        String tenant = TenantContext.getCurrentTenant();
+        String user = TenantContext.getCurrentUser();
+
+        List<Order> orders = orderRepository.findInvoicePendingOrders();
+
+        List<Map<String, String>> failedOrders = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger assigned = new AtomicInteger();
+        AtomicInteger resumed = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicBoolean stopped = new AtomicBoolean();
+        List<Future<?>> futures = new ArrayList<>();
+        for (Order order : orders) {
+            if (Boolean.TRUE.equals(order.getShippingHold())) {
+                failedOrders.add(Map.of("orderNo", order.getOrderNo(), "message", "보류 주문"));
+                continue;
+            }
+            futures.add(executor.submit(() -> {
+                if (stopped.get()) return;
+                TenantContext.setCurrentTenant(tenant);
+                TenantContext.setCurrentUser(user);
+                try {
+                    Outcome outcome = issueLocked(runId, order, carrierCode, carrierName);
+                    switch (outcome.status()) {
+                        case ASSIGNED -> assigned.incrementAndGet();
+                        case RESUMED -> {
+                            assigned.incrementAndGet();
+                            resumed.incrementAndGet();
+                        }
+                        case SKIPPED -> skipped.incrementAndGet();
+                        case FAILED -> failedOrders.add(Map.of("orderNo", order.getOrderNo(), "message", outcome.failure()));
+                    }
+                } finally {
+                    TenantContext.clear();
+                }
+            }));
+        }
+        int done = 0;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.error("[InvoiceIssue] 발급 작업 실패", e.getCause());
+            } catch (CancellationException ignored) {
+                // 취소 요청으로 시작 전에 빠진 주문
+            }
+            job.progress(++done, futures.size());
+            if (!stopped.get() && job.isCancelled()) {
+                stopped.set(true);
+                futures.forEach(pending -> pending.cancel(false));
+            }
+        }
+
+        log.info("[InvoiceIssue] {} 일괄 발급 run={} 대상 {}건 → 반영 {}건 (재개 {}건), 건너뜀 {}건, 실패 {}건 ({}){}",
+            tenant, runId, orders.size(), assigned.get(), resumed.get(), skipped.get(), failedOrders.size(), carrierName,
+            stopped.get() ? " — 취소됨" : "");
+        if (stopped.get()) {
+            throw new JobCancelledException();
+        }
+        return new Summary(runId, orders.size(), assigned.get(), resumed.get(), skipped.get(), new ArrayList<>(failedOrders));
+    }
+
+    /**
+     * 주문 잠금(ORDER:{orderNo}) 안에서 송장·발급 기록을 다시 확인한 뒤 발급 또는 재반영
+     *
+     * 대상 목록은 잠금 없이 읽으므로, 잠금을 잡을 때까지 단건 자동부여나 다른 일괄 실행이 먼저 처리했을 수 있습니다.
+     */
+    private Outcome issueLocked(UUID runId, Order order, String carrierCode, String carrierName) {
+        String lockKey = "ORDER:" + order.getOrderNo();
+        try {
+            workLockService.acquire(lockKey, TenantContext.getCurrentUser(), ORDER_LOCK_TTL);
+        } catch (RuntimeException e) {
+            return Outcome.of(IssueStatus.FAILED, Objects.toString(e.getMessage(), "작업 잠금 실패"));
+        }
+        try {
+            if (orderInvoiceService.find(order.getOrderId()).isPresent()) {
+                log.debug("[InvoiceIssue] 이미 송장이 있는 주문 건너뜀: {}", order.getOrderNo());
+                return Outcome.of(IssueStatus.SKIPPED, null);
+            }
+            InvoiceIssueProgressService.IssuedNumber issued =
+                progressService.findUnassigned(List.of(order.getOrderId())).get(order.getOrderId());
+            if (issued != null) {
+                log.info("[InvoiceIssue] 발급된 번호 재반영: {} → {}", order.getOrderNo(), issued.result().trackingNo());
+                return Outcome.of(IssueStatus.RESUMED, assign(runId, order, issued));
+            }
+            return Outcome.of(IssueStatus.ASSIGNED, issueAndAssign(runId, order, carrierCode, carrierName));
+        } finally {
+            workLockService.release(lockKey);
+        }
+    }
+
+    /**
+     * 택배사 발급 → 진행 기록 커밋 → 주문 반영 (주문 잠금 안에서 호출)
+     *
+     * @return 실패 사유 (성공이면 null)
+     */
+    private String issueAndAssign(UUID runId, Order order, String carrierCode, String carrierName) {
+        String orderNo = order.getOrderNo();
+        TrackingNumberProvider.IssueResult result;
+        try {
+            result = issueWithLimits(carrierCode, carrierName, orderNo);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "발급 중단";
+        } catch (RuntimeException e) {
+            invoiceApiLogService.logFailure(orderNo, null, carrierCode, carrierName, InvoiceApiLog.ActionType.ISSUE, e);
+            log.error("송장 일괄 자동부여 실패: {} - {}", orderNo, e.getMessage(), e);
+            progressService.recordFailed(runId, order, carrierCode, carrierName, e.getMessage());
+            return Objects.toString(e.getMessage(), e.getClass().getSimpleName());
+        }
+        try {
+            invoiceApiLogService.logIssueSuccess(orderNo, carrierCode, carrierName, result);
+            progressService.recordIssued(runId, order, carrierCode, carrierName, result);
+        } catch (RuntimeException e) {
+            // 택배사는 이미 번호를 발급함 — 진행 기록이 없으면 재실행 때 새 번호를 받으므로 번호를 남기고 실패로 보고
+            log.error("송장 일괄 자동부여: 발급된 송장번호 기록 실패 {} → {} - {}", orderNo, result.trackingNo(), e.getMessage(), e);
+            logIssuedButUnrecorded(orderNo, carrierCode, carrierName, result.trackingNo(), e);
+            return "송장번호 " + result.trackingNo() + " 발급 후 기록 실패: "
+                + Objects.toString(e.getMessage(), e.getClass().getSimpleName());
+        }
+        return assign(runId, order, new InvoiceIssueProgressService.IssuedNumber(
+            order.getOrderId(), orderNo, carrierCode, carrierName, result));
+    }
+
+    /** 발급됐지만 진행 기록에 남기지 못한 번호를 API 로그에 실패로 기록 (수동 반영·취소용) */
+    private void logIssuedButUnrecorded(String orderNo, String carrierCode, String carrierName, String trackingNo,
+                                        RuntimeException cause) {
+        try {
+            invoiceApiLogService.logFailure(orderNo, trackingNo, carrierCode, carrierName, InvoiceApiLog.ActionType.ISSUE, cause);
+        } catch (RuntimeException e) {
+            log.error("송장 API 로그 기록 실패: {} → {} - {}", orderNo, trackingNo, e.getMessage());
+        }
+    }
+
+    private String assign(UUID runId, Order order, InvoiceIssueProgressService.IssuedNumber issued) {
+        try {
+            progressService.assign(runId, issued);
+            return null;
+        } catch (RuntimeException e) {
+            log.error("송장 일괄 자동부여 반영 실패: {} - {}", order.getOrderNo(), e.getMessage(), e);
+            progressService.recordFailed(runId, order, issued.carrierCode(), issued.carrierName(), e.getMessage());
+            return Objects.toString(e.getMessage(), e.getClass().getSimpleName());
+        }
+    }
+
+    private TrackingNumberProvider.IssueResult issueWithLimits(String carrierCode, String carrierName, String orderNo)
+            throws InterruptedException {
+        String carrier = carrierCode != null ? carrierCode.toUpperCase() : "";
+        Semaphore permits = carrierPermits.computeIfAbsent(carrier, key -> new Semaphore(Math.max(1, perCarrierConcurrency)));
+        permits.acquire();
+        try {
+            carrierPacers.computeIfAbsent(carrier, key -> new CallPacer(perCarrierRatePerSecond)).await();
+            return trackingNumberProvider.issue(carrierCode, carrierName, orderNo);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 택배사별 초당 호출 수 제한 — 호출 시각을 일정 간격으로 배정 (0 이하이면 제한 없음)
+     */
+    private static final class CallPacer {
+        private final long intervalNanos;
+        private long nextSlot = System.nanoTime();
+
+        CallPacer(double permitsPerSecond) {
+            this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0L;
+        }
+
+        void await() throws InterruptedException {
+            if (intervalNanos == 0L) {
+                return;
+            }
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long slot = Math.max(now, nextSlot);
+                nextSlot = slot + intervalNanos;
+                waitNanos = slot - now;
+            }
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.oms.collector.service;
+
+import com.oms.collector.config.TenantTables;
+import com.oms.collector.entity.Order;
+import com.oms.collector.repository.OrderRepository;
+import com.oms.collector.service.tracking.TrackingNumberProvider;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 송장 일괄 발급 진행 기록 (invoice_issue_items, 주문당 1행)
+ *
+ * 택배사에서 받은 번호는 주문 반영 전에 ISSUED 로 먼저 커밋하고, 주문 반영 트랜잭션에서 ASSIGNED 로 바꿉니다.
+ * 반영 전에 중단되면(노드 중단, 반영 실패) 다시 실행할 때 택배사를 다시 부르지 않고 ISSUED 번호를 그대로 반영하므로
+ * 택배사에 이미 발급된 번호가 버려지거나 같은 주문에 두 번 발급되지 않습니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InvoiceIssueProgressService {
+
+    public static final String ISSUED = "ISSUED";
+    public static final String ASSIGNED = "ASSIGNED";
+    public static final String FAILED = "FAILED";
+
+    private final JdbcTemplate jdbc;
+    private final OrderRepository orderRepository;
+    private final OrderInvoiceService orderInvoiceService;
+
+    /**
+     * 발급은 받았지만 주문에 반영되지 않은 번호
+     */
+    public record IssuedNumber(UUID orderId, String orderNo, String carrierCode, String carrierName,
+                               TrackingNumberProvider.IssueResult result) {}
+
+    /**
+     * 택배사 발급 결과 기록 (트랜잭션 없이 호출 — 즉시 커밋)
+     */
+    public void recordIssued(UUID runId, Order order, String carrierCode, String carrierName,
+                             TrackingNumberProvider.IssueResult result) {
+        jdbc.update("""
+            INSERT INTO %s (order_id, run_id, order_no, carrier_code, carrier_name, status, tracking_no,
+                            po_req_no, reservation_no, req_ymd, delivery_area_code, arrival_center_name,
+                            delivery_post_office_name, delivery_course_no, message, updated_at)
+            VALUES (?, ?, ?, ?, ?, 'ISSUED', ?, ?, ?, ?, ?, ?, ?, ?, NULL, NOW())
+            ON CONFLICT (order_id) DO UPDATE
+               SET run_id = EXCLUDED.run_id, carrier_code = EXCLUDED.carrier_code, carrier_name = EXCLUDED.carrier_name,
+                   status = 'ISSUED', tracking_no = EXCLUDED.tracking_no, po_req_no = EXCLUDED.po_req_no,
+                   reservation_no = EXCLUDED.reservation_no, req_ymd = EXCLUDED.req_ymd,
+                   delivery_area_code = EXCLUDED.delivery_area_code, arrival_center_name = EXCLUDED.arrival_center_name,
+                   delivery_post_office_name = EXCLUDED.delivery_post_office_name,
+                   delivery_course_no = EXCLUDED.delivery_course_no, message = NULL, updated_at = NOW()
+            """.formatted(table()),
+            order.getOrderId(), runId, order.getOrderNo(), carrierCode, carrierName, result.trackingNo(),
+            result.poReqNo(), result.reservationNo(), result.reqYmd(), result.deliveryAreaCode(),
+            result.arrivalCenterName(), result.deliveryPostOfficeName(), result.deliveryCourseNo());
+    }
+
+    /**
+     * 실패 기록 — 이미 발급받은 번호(ISSUED)가 있으면 번호는 남겨 두고 사유만 기록
+     */
+    public void recordFailed(UUID runId, Order order, String carrierCode, String carrierName, String message) {
+        jdbc.update("""
+            INSERT INTO %s AS p (order_id, run_id, order_no, carrier_code, carrier_name, status, message, updated_at)
+            VALUES (?, ?, ?, ?, ?, 'FAILED', ?, NOW())
+            ON CONFLICT (order_id) DO UPDATE
+               SET run_id = EXCLUDED.run_id, message = EXCLUDED.message, updated_at = NOW(),
+                   status = CASE WHEN p.status = 'ISSUED' THEN 'ISSUED' ELSE 'FAILED' END
+            """.formatted(table()),
+            order.getOrderId(), runId, order.getOrderNo(), carrierCode, carrierName, message);
+    }
+
+    /**
+     * 발급 번호를 주문에 반영 (주문 1건 = 짧은 트랜잭션 1개)
+     *
+     * @throws IllegalStateException 이미 송장이 있거나 같은 송장번호가 다른 주문에 있을 때
+     */
+    @Transactional
+    public void assign(UUID runId, IssuedNumber issued) {
+        Order order = orderRepository.findById(issued.orderId())
+            .orElseThrow(() -> new IllegalStateException("주문을 찾을 수 없습니다: " + issued.orderNo()));
+        if (orderInvoiceService.find(order.getOrderId()).isPresent()) {
+            throw new IllegalStateException("이미 송장이 입력된 주문입니다: " + order.getOrderNo());
+        }
+        TrackingNumberProvider.IssueResult result = issued.result();
+        orderInvoiceService.assign(order, issued.carrierCode(), issued.carrierName(), result.trackingNo());
+        order.setDeliveryMemo(InvoiceMemo.build(order.getDeliveryMemo(), issued.carrierCode(), issued.carrierName(),
+            result.trackingNo(), result.poReqNo(), result.reservationNo(), result.reqYmd(),
+            result.deliveryAreaCode(), result.arrivalCenterName(), result.deliveryPostOfficeName(), result.deliveryCourseNo()));
+        order.setInvoiceAssignedAt(LocalDateTime.now());
+        orderRepository.save(order);
+
+        jdbc.update("UPDATE " + table() + " SET run_id = ?, status = 'ASSIGNED', message = NULL, updated_at = NOW() WHERE order_id = ?",
+            runId, order.getOrderId());
+    }
+
+    /**
+     * 주문 목록 중 발급만 되고 반영되지 않은 번호 (orderId → 번호)
+     */
+    public Map<UUID, IssuedNumber> findUnassigned(Collection<UUID> orderIds) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<UUID, IssuedNumber> issued = new HashMap<>();
+        jdbc.query("""
+            SELECT order_id, order_no, carrier_code, carrier_name, tracking_no, po_req_no, reservation_no, req_ymd,
+                   delivery_area_code, arrival_center_name, delivery_post_office_name, delivery_course_no
+              FROM %s
+             WHERE status = 'ISSUED' AND order_id = ANY (?)
+            """.formatted(table()),
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", orderIds.toArray())),
+            rs -> {
+                UUID orderId = rs.getObject("order_id", UUID.class);
+                issued.put(orderId, new IssuedNumber(orderId, rs.getString("order_no"),
+                    rs.getString("carrier_code"), rs.getString("carrier_name"),
+                    new TrackingNumberProvider.IssueResult(
+                        rs.getString("tracking_no"), rs.getString("po_req_no"), rs.getString("reservation_no"),
+                        rs.getString("req_ymd"), null, null, null, null, null,
+                        rs.getString("delivery_area_code"), rs.getString("arrival_center_name"),
+                        rs.getString("delivery_post_office_name"), rs.getString("delivery_course_no"))));
+            });
+        return issued;
+    }
+
+    /**
+     * 실행(run)별 상태 건수 — ISSUED/ASSIGNED/FAILED
+     */
+    public Map<String, Long> summarize(UUID runId) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put(ISSUED, 0L);
+        counts.put(ASSIGNED, 0L);
+        counts.put(FAILED, 0L);
+        jdbc.query("SELECT status, COUNT(*) AS cnt FROM " + table() + " WHERE run_id = ? GROUP BY status",
+            rs -> {
+                counts.put(rs.getString("status"), rs.getLong("cnt"));
+            }, runId);
+        return counts;
+    }
+
+    private String table() {
+        return TenantTables.qualify("invoice_issue_items");
+    }
+}
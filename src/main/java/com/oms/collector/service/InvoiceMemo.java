@@ -0,0 +1,93 @@
+package com.oms.collector.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 주문 deliveryMemo 의 송장 구간 작성
+ *
+ * 형식: [MESSAGE_B64:{배송메시지 base64}|]INVOICE:CARRIER:..|CARRIER_NAME:..|TRACKING:..[|PO_REQ_NO:..|RES_NO:..|...]
+ * 송장 입력 화면(InvoiceController)과 일괄 발급(InvoiceIssuanceService)이 같은 형식으로 기록합니다.
+ */
+@Slf4j
+public final class InvoiceMemo {
+
+    public static final String INVOICE_PREFIX = "INVOICE:";
+    public static final String MESSAGE_PREFIX = "MESSAGE_B64:";
+
+    private InvoiceMemo() {
+    }
+
+    /**
+     * 메모에서 고객 배송메시지만 추출 (송장 구간만 있으면 빈 문자열)
+     */
+    public static String deliveryMessage(String memo) {
+        if (memo == null || memo.isBlank()) {
+            return "";
+        }
+        int messageIndex = memo.indexOf(MESSAGE_PREFIX);
+        if (messageIndex >= 0) {
+            int endIndex = memo.indexOf('|', messageIndex);
+            String encoded = endIndex >= 0
+                ? memo.substring(messageIndex + MESSAGE_PREFIX.length(), endIndex)
+                : memo.substring(messageIndex + MESSAGE_PREFIX.length());
+            try {
+                return new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                log.warn("배송메시지 디코딩 실패: {}", encoded);
+                return "";
+            }
+        }
+        if (memo.contains(INVOICE_PREFIX)) {
+            return "";
+        }
+        return memo;
+    }
+
+    /**
+     * 기존 메모의 배송메시지를 보존한 채 송장 구간을 새로 작성
+     */
+    public static String build(String existingMemo, String carrierCode, String carrierName,
+                               String trackingNo, String poReqNo, String reservationNo, String reqYmd,
+                               String deliveryAreaCode, String arrivalCenterName,
+                               String deliveryPostOfficeName, String deliveryCourseNo) {
+        String deliveryMessage = deliveryMessage(existingMemo);
+        List<String> parts = new ArrayList<>();
+        if (!deliveryMessage.isBlank()) {
+            parts.add(MESSAGE_PREFIX + Base64.getUrlEncoder().encodeToString(deliveryMessage.getBytes(StandardCharsets.UTF_8)));
+        }
+        StringBuilder invoice = new StringBuilder()
+            .append(INVOICE_PREFIX)
+            .append("CARRIER:").append(Objects.toString(carrierCode, ""))
+            .append("|CARRIER_NAME:").append(Objects.toString(carrierName, ""))
+            .append("|TRACKING:").append(Objects.toString(trackingNo, ""));
+        if (poReqNo != null && !poReqNo.isBlank()) {
+            invoice.append("|PO_REQ_NO:").append(poReqNo);
+        }
+        if (reservationNo != null && !reservationNo.isBlank()) {
+            invoice.append("|RES_NO:").append(reservationNo);
+        }
+        if (reqYmd != null && !reqYmd.isBlank()) {
+            invoice.append("|REQ_YMD:").append(reqYmd);
+        }
+        if (deliveryAreaCode != null && !deliveryAreaCode.isBlank()) {
+            invoice.append("|DELIV_AREA_CD:").append(deliveryAreaCode);
+        }
+        if (arrivalCenterName != null && !arrivalCenterName.isBlank()) {
+            invoice.append("|ARR_CNPO_NM:").append(arrivalCenterName);
+        }
+        if (deliveryPostOfficeName != null && !deliveryPostOfficeName.isBlank()) {
+            invoice.append("|DELIV_PO_NM:").append(deliveryPostOfficeName);
+        }
+        if (deliveryCourseNo != null && !deliveryCourseNo.isBlank()) {
+            invoice.append("|COURSE_NO:").append(deliveryCourseNo);
+        }
+        parts.add(invoice.toString());
+        return String.join("|", parts);
+    }
+}
@@ -0,0 +1,252 @@
+package com.oms.collector.service;
+
+import com.oms.collector.config.TenantTables;
+import com.oms.collector.entity.Order;
+import com.oms.collector.entity.ProductReturn;
+import com.oms.collector.repository.OrderRepository;
+import com.oms.collector.repository.ProductReturnRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 주문·반품 키워드 검색 (pg_trgm)
+ *
+ * 주문번호·수취인·연락처·주소를 소문자로 합친 검색식(ORDER_SEARCH_TEXT_SQL)의 식 인덱스와
+ * order_items.product_name, order_invoices.tracking_no 의 트라이그램 GIN 인덱스로 후보를 좁힌 뒤
+ * 주문번호 완전일치 → 유사도(word_similarity) → 최신순으로 정렬해 상한 건수까지만 돌려줍니다.
+ * 2글자 이하 검색어는 트라이그램이 없어 인덱스를 타지 못하므로 기간·상태 조건이 함께 걸리는 화면에서 씁니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class KeywordSearchService {
+
+    /**
+     * orders 검색식 — 식 인덱스(OperationalSchemaMigration / TenantSchemaInitService)와 조회에서 같은 식을 써야
+     * 플래너가 인덱스를 사용함 (컬럼은 별칭 없이 참조)
+     */
+    public static final String ORDER_SEARCH_TEXT_SQL = """
+        lower(coalesce(order_no, '') || '|' || coalesce(channel_order_no, '') || '|' ||
+              coalesce(recipient_name, '') || '|' || coalesce(customer_name, '') || '|' ||
+              coalesce(recipient_phone, '') || '|' || regexp_replace(coalesce(recipient_phone, ''), '[^0-9]', '', 'g') || '|' ||
+              coalesce(address, '') || '|' || coalesce(address_detail, ''))""";
+
+    /** product_returns 검색식 (식 인덱스와 같은 식) */
+    public static final String RETURN_SEARCH_TEXT_SQL = """
+        lower(coalesce(order_no, '') || '|' || coalesce(recipient_name, '') || '|' ||
+              coalesce(recipient_phone, '') || '|' || regexp_replace(coalesce(recipient_phone, ''), '[^0-9]', '', 'g') || '|' ||
+              coalesce(product_name, '') || '|' || coalesce(return_tracking_no, ''))""";
+
+    private static final String ORDER_SEARCH_TEXT = "(" + ORDER_SEARCH_TEXT_SQL + ")";
+    private static final String RETURN_SEARCH_TEXT = "(" + RETURN_SEARCH_TEXT_SQL + ")";
+
+    public enum Field { ALL, ORDER_NO, RECIPIENT, PHONE, PRODUCT, TRACKING }
+
+    public enum DateBasis { ORDERED, UPDATED }
+
+    /**
+     * 주문 검색 조건 — keyword 가 비어 있으면 상태·기간 조건만으로 최신순 조회
+     *
+     * @param statuses null/빈 값이면 전체 상태
+     * @param limit    0 이하이면 collector.search.max-results
+     */
+    public record OrderCriteria(String keyword, Field field, Collection<Order.OrderStatus> statuses,
+                                DateBasis dateBasis, LocalDateTime from, LocalDateTime to, int limit) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final OrderRepository orderRepository;
+    private final ProductReturnRepository productReturnRepository;
+
+    @Value("${collector.search.max-results:500}")
+    private int maxResults;
+
+    private volatile Boolean trigramAvailable;
+
+    /**
+     * 주문 검색 — 순위 순서대로 items/channel 을 함께 로딩해 반환
+     */
+    public List<Order> searchOrders(OrderCriteria criteria) {
+        List<UUID> orderIds = searchOrderIds(criteria);
+        if (orderIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<UUID, Order> byId = orderRepository.findWithItemsByOrderIdIn(orderIds).stream()
+            .collect(Collectors.toMap(Order::getOrderId, Function.identity(), (a, b) -> a));
+        return orderIds.stream().map(byId::get).filter(Objects::nonNull)
+            .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private List<UUID> searchOrderIds(OrderCriteria criteria) {
+        String keyword = normalize(criteria.keyword());
+        Field field = criteria.field() != null ? criteria.field() : Field.ALL;
+        String dateColumn = criteria.dateBasis() == DateBasis.UPDATED ? "o.updated_at" : "o.ordered_at";
+        List<Object> args = new ArrayList<>();
+
+        StringBuilder sql = new StringBuilder("SELECT o.order_id FROM ").append(TenantTables.qualify("orders")).append(" o");
+        if (!keyword.isEmpty()) {
+            String candidates = candidateSql(field, keyword, args);
+            if (candidates == null) {
+                return List.of();
+            }
+            sql.append(" JOIN (").append(candidates).append(") hit ON hit.order_id = o.order_id");
+        }
+        sql.append(" WHERE 1 = 1");
+        if (criteria.statuses() != null && !criteria.statuses().isEmpty()) {
+            sql.append(" AND o.order_status IN (")
+                .append(String.join(", ", Collections.nCopies(criteria.statuses().size(), "?")))
+                .append(")");
+            criteria.statuses().forEach(s -> args.add(s.name()));
+        }
+        if (criteria.from() != null) {
+            sql.append(" AND ").append(dateColumn).append(" >= ?");
+            args.add(Timestamp.valueOf(criteria.from()));
+        }
+        if (criteria.to() != null) {
+            sql.append(" AND ").append(dateColumn).append(" <= ?");
+            args.add(Timestamp.valueOf(criteria.to()));
+        }
+
+        sql.append(" ORDER BY ");
+        if (!keyword.isEmpty()) {
+            sql.append("(lower(o.order_no) = ? OR lower(o.channel_order_no) = ?) DESC, ");
+            args.add(keyword);
+            args.add(keyword);
+            if (trigramAvailable()) {
+                sql.append("word_similarity(?, ").append(ORDER_SEARCH_TEXT).append(") DESC, ");
+                args.add(keyword);
+            }
+        }
+        sql.append(dateColumn).append(" DESC NULLS LAST LIMIT ?");
+        args.add(effectiveLimit(criteria.limit()));
+
+        return jdbc.queryForList(sql.toString(), UUID.class, args.toArray());
+    }
+
+    /**
+     * 반품 검색 (주문번호·수령자·연락처·상품명·반품송장) — 순위 순서대로 반환
+     */
+    public List<ProductReturn> searchReturns(String keyword, int limit) {
+        String normalized = normalize(keyword);
+        if (normalized.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT r.return_id FROM ").append(TenantTables.qualify("product_returns")).append(" r")
+            .append(" WHERE ").append(RETURN_SEARCH_TEXT).append(" LIKE ?")
+            .append(" ORDER BY (lower(r.order_no) = ?) DESC, ");
+        args.add(contains(normalized));
+        args.add(normalized);
+        if (trigramAvailable()) {
+            sql.append("word_similarity(?, ").append(RETURN_SEARCH_TEXT).append(") DESC, ");
+            args.add(normalized);
+        }
+        sql.append("r.created_at DESC NULLS LAST LIMIT ?");
+        args.add(effectiveLimit(limit));
+
+        List<UUID> returnIds = jdbc.queryForList(sql.toString(), UUID.class, args.toArray());
+        if (returnIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<UUID, ProductReturn> byId = productReturnRepository.findAllById(returnIds).stream()
+            .collect(Collectors.toMap(ProductReturn::getReturnId, Function.identity()));
+        return returnIds.stream().map(byId::get).filter(Objects::nonNull)
+            .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * 검색 필드별 후보 주문 SQL — 각 분기는 트라이그램 인덱스 컬럼으로 먼저 거른 뒤 해당 컬럼을 재확인
+     * (연락처는 숫자만 비교하므로 숫자가 없으면 null)
+     */
+    private String candidateSql(Field field, String keyword, List<Object> args) {
+        String pattern = contains(keyword);
+        String orders = TenantTables.qualify("orders");
+        String items = TenantTables.qualify("order_items");
+        String invoices = TenantTables.qualify("order_invoices");
+
+        switch (field) {
+            case ORDER_NO -> {
+                args.add(pattern);
+                args.add(pattern);
+                args.add(pattern);
+                return "SELECT order_id FROM " + orders + " WHERE " + ORDER_SEARCH_TEXT + " LIKE ?"
+                    + " AND (lower(order_no) LIKE ? OR lower(channel_order_no) LIKE ?)";
+            }
+            case RECIPIENT -> {
+                args.add(pattern);
+                args.add(pattern);
+                return "SELECT order_id FROM " + orders + " WHERE " + ORDER_SEARCH_TEXT + " LIKE ? AND lower(recipient_name) LIKE ?";
+            }
+            case PHONE -> {
+                String digits = keyword.replaceAll("[^0-9]", "");
+                if (digits.isEmpty()) {
+                    return null;
+                }
+                args.add(contains(digits));
+                args.add(contains(digits));
+                return "SELECT order_id FROM " + orders + " WHERE " + ORDER_SEARCH_TEXT + " LIKE ?"
+                    + " AND regexp_replace(coalesce(recipient_phone, ''), '[^0-9]', '', 'g') LIKE ?";
+            }
+            case PRODUCT -> {
+                args.add(pattern);
+                return "SELECT order_id FROM " + items + " WHERE product_name ILIKE ?";
+            }
+            case TRACKING -> {
+                args.add(pattern);
+                return "SELECT order_id FROM " + invoices + " WHERE tracking_no ILIKE ?";
+            }
+            default -> {
+                args.add(pattern);
+                args.add(pattern);
+                args.add(pattern);
+                return "SELECT order_id FROM " + orders + " WHERE " + ORDER_SEARCH_TEXT + " LIKE ?"
+                    + " UNION SELECT order_id FROM " + items + " WHERE product_name ILIKE ?"
+                    + " UNION SELECT order_id FROM " + invoices + " WHERE tracking_no ILIKE ?";
+            }
+        }
+    }
+
+    /** pg_trgm 이 없으면 유사도 정렬만 생략 (LIKE 검색은 그대로 동작) */
+    private boolean trigramAvailable() {
+        Boolean available = trigramAvailable;
+        if (available == null) {
+            available = Boolean.TRUE.equals(jdbc.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm')", Boolean.class));
+            if (!available) {
+                log.warn("pg_trgm 확장이 없어 키워드 검색을 유사도 정렬 없이 수행합니다");
+            }
+            trigramAvailable = available;
+        }
+        return available;
+    }
+
+    private int effectiveLimit(int limit) {
+        return limit > 0 ? Math.min(limit, maxResults) : maxResults;
+    }
+
+    private String normalize(String keyword) {
+        return keyword == null ? "" : keyword.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private String contains(String keyword) {
+        String escaped = keyword.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+}
@@ -0,0 +1,224 @@
+package com.oms.collector.service;
+
+import com.oms.collector.config.TenantTables;
+import com.oms.collector.entity.Order;
+import com.oms.collector.entity.OrderItem;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 정규화 주문 일괄 저장
+ *
+ * 정규화가 끝난 청크를 JDBC 배치로 orders / order_items 에 INSERT 하고
+ * 원본 주문은 UPDATE ... WHERE raw_order_id = ANY(?) 한 번으로 처리 완료 표시합니다.
+ * REQUIRES_NEW 전파 — 청크·단건마다 별도 트랜잭션으로 커밋하므로 호출자의 트랜잭션과 무관하게
+ * 실패한 청크만 롤백됩니다. (JpaTransactionManager 는 JDBC 세이브포인트 기반 NESTED 를 지원하지 않음)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NormalizedOrderWriter {
+
+    private final JdbcTemplate jdbc;
+    private final OrderSequenceService sequenceService;
+
+    /** JDBC 배치 1회당 최대 행 수 */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * 청크 전체를 하나의 새 트랜잭션으로 저장
+     *
+     * @return 새로 생성된 주문 수 (이미 정규화된 원본은 처리 완료 표시만 함)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int writeChunk(List<NormalizedOrder> orders) {
+        return write(orders);
+    }
+
+    /**
+     * 단건 저장 — 청크 저장이 실패했을 때 실패 행만 골라내기 위해 사용
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int writeOne(NormalizedOrder order) {
+        return write(List.of(order));
+    }
+
+    /**
+     * 정규화 실패 표시 (processed = false 유지, error_message 기록)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markErrors(Map<UUID, String> errors) {
+        if (errors == null || errors.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(errors.size());
+        errors.forEach((rawOrderId, message) -> rows.add(new Object[] {message, rawOrderId}));
+        jdbc.batchUpdate("UPDATE " + TenantTables.qualify("raw_orders") +
+            " SET processed = FALSE, error_message = ? WHERE raw_order_id = ?", rows);
+    }
+
+    private int write(List<NormalizedOrder> orders) {
+        if (orders == null || orders.isEmpty()) {
+            return 0;
+        }
+
+        List<UUID> rawOrderIds = orders.stream().map(NormalizedOrder::rawOrderId).toList();
+
+        // 1. 이미 정규화된 원본 제외 (재처리/중복 수집 대비)
+        Set<UUID> existing = existingRawOrderIds(rawOrderIds);
+        List<NormalizedOrder> fresh = orders.stream()
+            .filter(order -> !existing.contains(order.rawOrderId()))
+            .toList();
+
+        if (!fresh.isEmpty()) {
+            // 2. 주문번호 일괄 할당
+            List<String> orderNos = sequenceService.generateOrderNos(fresh.size());
+            for (int i = 0; i < fresh.size(); i++) {
+                fresh.get(i).order().setOrderNo(orderNos.get(i));
+            }
+
+            // 3. orders / order_items 배치 INSERT
+            insertOrders(fresh);
+            insertItems(fresh);
+        }
+
+        // 4. 원본 주문 처리 완료 표시
+        markProcessed(rawOrderIds);
+
+        if (!existing.isEmpty()) {
+            log.debug("⏭️ 이미 정규화된 원본 {} 건 처리완료 표시", existing.size());
+        }
+        return fresh.size();
+    }
+
+    private Set<UUID> existingRawOrderIds(List<UUID> rawOrderIds) {
+        return new HashSet<>(jdbc.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                "SELECT raw_order_id FROM " + TenantTables.qualify("orders") + " WHERE raw_order_id = ANY(?)");
+            ps.setArray(1, uuidArray(connection, rawOrderIds));
+            return ps;
+        }, (rs, rowNum) -> rs.getObject(1, UUID.class)));
+    }
+
+    private void insertOrders(List<NormalizedOrder> orders) {
+        String sql = "INSERT INTO " + TenantTables.qualify("orders") + " (" +
+            "order_id, order_no, raw_order_id, channel_id, channel_order_no, " +
+            "customer_name, customer_phone, customer_email, " +
+            "recipient_name, recipient_phone, postal_code, address, address_detail, delivery_memo, " +
+            "total_amount, payment_amount, shipping_fee, discount_amount, " +
+            "order_status, payment_status, market_sync_status, " +
+            "shipping_hold, priority_allocation, allocation_excluded, print_type_code, print_type_name, inspection_completed, " +
+            "ordered_at, paid_at, created_at, updated_at" +
+            ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW(), NOW())";
+
+        jdbc.batchUpdate(sql, orders, BATCH_SIZE, (ps, normalized) -> {
+            Order order = normalized.order();
+            ps.setObject(1, normalized.orderId());
+            ps.setString(2, order.getOrderNo());
+            ps.setObject(3, normalized.rawOrderId());
+            ps.setObject(4, normalized.channelId());
+            ps.setString(5, order.getChannelOrderNo());
+            ps.setString(6, order.getCustomerName());
+            ps.setString(7, order.getCustomerPhone());
+            ps.setString(8, order.getCustomerEmail());
+            ps.setString(9, order.getRecipientName());
+            ps.setString(10, order.getRecipientPhone());
+            ps.setString(11, order.getPostalCode());
+            ps.setString(12, order.getAddress());
+            ps.setString(13, order.getAddressDetail());
+            ps.setString(14, order.getDeliveryMemo());
+            ps.setBigDecimal(15, order.getTotalAmount());
+            ps.setBigDecimal(16, order.getPaymentAmount());
+            ps.setBigDecimal(17, orZero(order.getShippingFee()));
+            ps.setBigDecimal(18, orZero(order.getDiscountAmount()));
+            ps.setString(19, order.getOrderStatus() == null ? Order.OrderStatus.PENDING.name() : order.getOrderStatus().name());
+            ps.setString(20, order.getPaymentStatus() == null ? Order.PaymentStatus.PENDING.name() : order.getPaymentStatus().name());
+            ps.setString(21, order.getMarketSyncStatus() == null ? Order.MarketSyncStatus.NOT_REQUIRED.name() : order.getMarketSyncStatus().name());
+            ps.setBoolean(22, Boolean.TRUE.equals(order.getShippingHold()));
+            ps.setBoolean(23, Boolean.TRUE.equals(order.getPriorityAllocation()));
+            ps.setBoolean(24, Boolean.TRUE.equals(order.getAllocationExcluded()));
+            ps.setString(25, order.getPrintTypeCode() == null ? "NORMAL" : order.getPrintTypeCode());
+            ps.setString(26, order.getPrintTypeName() == null ? "일반건" : order.getPrintTypeName());
+            ps.setBoolean(27, Boolean.TRUE.equals(order.getInspectionCompleted()));
+            ps.setTimestamp(28, Timestamp.valueOf(order.getOrderedAt()));
+            ps.setTimestamp(29, order.getPaidAt() == null ? null : Timestamp.valueOf(order.getPaidAt()));
+        });
+    }
+
+    private void insertItems(List<NormalizedOrder> orders) {
+        List<Object[]> rows = new ArrayList<>();
+        for (NormalizedOrder normalized : orders) {
+            for (OrderItem item : normalized.order().getItems()) {
+                rows.add(new Object[] {normalized.orderId(), item});
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        String sql = "INSERT INTO " + TenantTables.qualify("order_items") + " (" +
+            "item_id, order_id, product_code, channel_product_code, product_name, option_name, " +
+            "quantity, cancelled_quantity, item_status, cancel_reason, unit_price, total_price, created_at" +
+            ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW())";
+
+        jdbc.batchUpdate(sql, rows, BATCH_SIZE, (ps, row) -> {
+            OrderItem item = (OrderItem) row[1];
+            ps.setObject(1, UUID.randomUUID());
+            ps.setObject(2, row[0]);
+            ps.setString(3, item.getProductCode());
+            ps.setString(4, item.getChannelProductCode());
+            ps.setString(5, item.getProductName());
+            ps.setString(6, item.getOptionName());
+            ps.setInt(7, item.getQuantity());
+            ps.setInt(8, item.getCancelledQuantity() == null ? 0 : item.getCancelledQuantity());
+            ps.setString(9, item.getItemStatus() == null ? OrderItem.ItemStatus.ACTIVE.name() : item.getItemStatus().name());
+            ps.setString(10, item.getCancelReason());
+            ps.setBigDecimal(11, item.getUnitPrice());
+            ps.setBigDecimal(12, item.getTotalPrice());
+        });
+    }
+
+    private void markProcessed(List<UUID> rawOrderIds) {
+        jdbc.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement("UPDATE " + TenantTables.qualify("raw_orders") +
+                " SET processed = TRUE, processed_at = NOW() WHERE raw_order_id = ANY(?)");
+            ps.setArray(1, uuidArray(connection, rawOrderIds));
+            return ps;
+        });
+    }
+
+    private Array uuidArray(Connection connection, List<UUID> ids) throws SQLException {
+        return connection.createArrayOf("uuid", ids.toArray());
+    }
+
+    private BigDecimal orZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    /**
+     * 정규화된 주문 (주문번호는 저장 시 할당)
+     */
+    public record NormalizedOrder(
+        UUID orderId,
+        UUID rawOrderId,
+        UUID channelId,
+        Order order
+    ) {}
+}
@@ -1,25 +1,39 @@
 package com.oms.collector.service;
 
 import com.oms.collector.collector.OrderCollector;
+import com.oms.collector.config.TenantContext;
 import com.oms.collector.dto.CollectedOrder;
-import com.oms.collector.entity.RawOrder;
 import com.oms.collector.entity.SalesChannel;
 import com.oms.collector.repository.SalesChannelRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * 주문 수집 서비스
  * 
- * 모든 판매처에서 주문을 수집하고 저장하는 메인 서비스
+ * 모든 판매처에서 주문을 수집하고 저장하는 메인 서비스.
+ * 판매처별 Collector 호출은 제한된 스레드 풀에서 병렬로 실행되며,
+ * 판매처마다 개별 타임아웃이 적용되어 느린 판매처가 다른 판매처를 지연시키지 않습니다.
  */
 @Slf4j
 @Service
@@ -29,16 +43,70 @@ public class OrderCollectionService {
     private final List<OrderCollector> collectors;  // 모든 OrderCollector 구현체가 자동 주입됨
     private final SalesChannelRepository salesChannelRepository;
     private final RawOrderService rawOrderService;
+    private final CollectionCursorPolicy cursorPolicy;
+
+    @Value("${collector.parallel.max-threads:4}")
+    private int maxThreads;
+
+    @Value("${collector.parallel.channel-timeout-seconds:60}")
+    private long channelTimeoutSeconds;
+
+    private ThreadPoolExecutor collectExecutor;
+
+    @PostConstruct
+    void initExecutor() {
+        int threads = Math.max(1, maxThreads);
+        AtomicInteger sequence = new AtomicInteger();
+        collectExecutor = new ThreadPoolExecutor(
+            threads, threads, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(256),
+            runnable -> {
+                Thread thread = new Thread(runnable, "order-collect-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        collectExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        collectExecutor.shutdownNow();
+    }
     
     /**
-     * 모든 활성 판매처에서 주문 수집
+     * 모든 활성 판매처에서 지정한 기간의 주문 수집
+     *
+     * 판매처별 수집은 병렬로 실행되고, 저장은 호출 스레드에서 판매처 순서대로 처리합니다.
+     * 타임아웃/오류가 난 판매처는 수집 커서를 갱신하지 않습니다.
      */
-    public void collectAllChannels(LocalDateTime startDate, LocalDateTime endDate) {
+    public CollectionRunSummary collectAllChannels(LocalDateTime startDate, LocalDateTime endDate) {
         log.info("========================================");
         log.info("🚀 전체 판매처 주문 수집 시작");
         log.info("  기간: {} ~ {}", startDate, endDate);
         log.info("========================================");
         
+        return collectChannels(channel -> new CollectionCursorPolicy.CollectionWindow(startDate, endDate), endDate);
+    }
+    
+    /**
+     * 모든 활성 판매처에서 증분 수집
+     *
+     * 판매처별 마지막 수집 커서(lastCollectedAt) 이후 구간만 요청하며,
+     * 저장이 끝난 판매처만 커서를 수집한 구간 끝으로 전진시킵니다. (밀린 판매처는 max-lookback 단위로 나눠 따라잡음)
+     */
+    public CollectionRunSummary collectIncremental(LocalDateTime endDate) {
+        log.info("========================================");
+        log.info("🚀 전체 판매처 증분 주문 수집 시작 (~ {})", endDate);
+        log.info("========================================");
+        
+        return collectChannels(channel -> cursorPolicy.window(channel.getLastCollectedAt(), endDate), endDate);
+    }
+    
+    private CollectionRunSummary collectChannels(Function<SalesChannel, CollectionCursorPolicy.CollectionWindow> windowOf, LocalDateTime endDate) {
+        long runStartedAt = System.currentTimeMillis();
+        
         // Collector Map 생성 (channelCode -> Collector)
         Map<String, OrderCollector> collectorMap = collectors.stream()
             .collect(Collectors.toMap(OrderCollector::getChannelCode, Function.identity()));
@@ -49,54 +117,45 @@ public class OrderCollectionService {
         List<SalesChannel> activeChannels = salesChannelRepository.findByIsActiveTrue();
         log.info("✅ 활성 판매처: {} 개", activeChannels.size());
         
-        int totalCollected = 0;
-        int totalSaved = 0;
-        
-        // 각 판매처별로 수집
+        // 1. 판매처별 수집 작업 제출
+        Map<SalesChannel, ChannelTask> tasks = new LinkedHashMap<>();
+        List<ChannelCollectionResult> results = new ArrayList<>();
+        LocalDateTime earliestStart = null;
         for (SalesChannel channel : activeChannels) {
-            try {
-                OrderCollector collector = collectorMap.get(channel.getChannelCode());
-                
-                if (collector == null) {
-                    log.warn("⚠️ {} Collector가 없습니다. 건너뜁니다.", channel.getChannelCode());
-                    continue;
-                }
-                
-                log.info("📦 {} 주문 수집 중...", channel.getChannelName());
-                
-                // 주문 수집
-                List<CollectedOrder> orders = collector.collectOrders(startDate, endDate);
-                totalCollected += orders.size();
-                
-                log.info("  - 수집된 주문: {} 건", orders.size());
-                
-                // 원본 저장
-                int savedCount = 0;
-                for (CollectedOrder order : orders) {
-                    try {
-                        rawOrderService.saveRawOrder(order);
-                        savedCount++;
-                    } catch (Exception e) {
-                        log.error("  - 주문 저장 실패: {}", order.getChannelOrderNo(), e);
-                    }
-                }
-                
-                totalSaved += savedCount;
-                log.info("  - 저장된 주문: {} 건", savedCount);
-                
-                // 마지막 수집 시간 업데이트
-                channel.updateLastCollectedTime();
-                salesChannelRepository.save(channel);
-                
-            } catch (Exception e) {
-                log.error("❌ {} 주문 수집 실패", channel.getChannelName(), e);
+            OrderCollector collector = collectorMap.get(channel.getChannelCode());
+            if (collector == null) {
+                log.warn("⚠️ {} Collector가 없습니다. 건너뜁니다.", channel.getChannelCode());
+                results.add(ChannelCollectionResult.skipped(channel));
+                continue;
+            }
+            CollectionCursorPolicy.CollectionWindow window = windowOf.apply(channel);
+            if (earliestStart == null || window.start().isBefore(earliestStart)) {
+                earliestStart = window.start();
             }
+            if (window.isCapped(endDate)) {
+                log.warn("📦 {} 밀린 구간 분할 수집: {} ~ {} (요청 끝 {})",
+                    channel.getChannelName(), window.start(), window.end(), endDate);
+            } else {
+                log.info("📦 {} 수집 구간: {} ~ {}", channel.getChannelName(), window.start(), window.end());
+            }
+            tasks.put(channel, submit(collector, window.start(), window.end()));
+        }
+        
+        // 2. 판매처별 결과 대기 및 저장
+        for (Map.Entry<SalesChannel, ChannelTask> entry : tasks.entrySet()) {
+            results.add(awaitAndSave(entry.getKey(), entry.getValue()));
         }
         
+        CollectionRunSummary summary = CollectionRunSummary.of(
+            earliestStart, endDate, results, System.currentTimeMillis() - runStartedAt);
+        
         log.info("========================================");
-        log.info("✅ 전체 판매처 주문 수집 완료");
-        log.info("  수집: {} 건 / 저장: {} 건", totalCollected, totalSaved);
+        log.info("✅ 전체 판매처 주문 수집 완료 ({} ms)", summary.elapsedMillis());
+        log.info("  수집: {} 건 / 저장: {} 건 / 타임아웃: {} / 오류: {}",
+            summary.totalCollected(), summary.totalSaved(), summary.timeoutCount(), summary.errorCount());
         log.info("========================================");
+        
+        return summary;
     }
     
     /**
@@ -112,14 +171,8 @@ public class OrderCollectionService {
         
         List<CollectedOrder> orders = collector.collectOrders(startDate, endDate);
         
-        // 원본 저장
-        for (CollectedOrder order : orders) {
-            try {
-                rawOrderService.saveRawOrder(order);
-            } catch (Exception e) {
-                log.error("주문 저장 실패: {}", order.getChannelOrderNo(), e);
-            }
-        }
+        // 원본 일괄 저장
+        rawOrderService.saveRawOrders(channelCode, orders);
         
         log.info("✅ {} 주문 {} 건 수집 완료", channelCode, orders.size());
         
@@ -136,4 +189,175 @@ public class OrderCollectionService {
                 c -> c.getCollectorType() + " - " + (c.testConnection() ? "연결됨" : "연결 안 됨")
             ));
     }
+
+    private ChannelTask submit(OrderCollector collector, LocalDateTime startDate, LocalDateTime endDate) {
+        String tenant = TenantContext.getCurrentTenant();
+        AtomicLong startedAt = new AtomicLong();
+        AtomicLong finishedAt = new AtomicLong();
+        Future<List<CollectedOrder>> future = collectExecutor.submit(() -> {
+            startedAt.set(System.currentTimeMillis());
+            String previous = TenantContext.getCurrentTenant();
+            TenantContext.setCurrentTenant(tenant);
+            try {
+                return collector.collectOrders(startDate, endDate);
+            } finally {
+                finishedAt.set(System.currentTimeMillis());
+                TenantContext.setCurrentTenant(previous);
+            }
+        });
+        return new ChannelTask(future, startedAt, finishedAt, endDate);
+    }
+
+    /**
+     * 판매처 수집 결과를 기다린 뒤 원본 주문을 저장합니다.
+     * 타임아웃은 작업이 실제로 시작된 시점부터 계산하므로 풀 대기 시간은 포함되지 않습니다.
+     */
+    private ChannelCollectionResult awaitAndSave(SalesChannel channel, ChannelTask task) {
+        long timeoutMillis = TimeUnit.SECONDS.toMillis(Math.max(1, channelTimeoutSeconds));
+        List<CollectedOrder> orders;
+        try {
+            orders = await(task, timeoutMillis);
+        } catch (TimeoutException e) {
+            task.future().cancel(true);
+            log.warn("⏱️ {} 주문 수집 타임아웃 ({} ms)", channel.getChannelName(), timeoutMillis);
+            return ChannelCollectionResult.timeout(channel, task.elapsedMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.future().cancel(true);
+            return ChannelCollectionResult.error(channel, task.elapsedMillis(), "수집 대기 중 인터럽트");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log.error("❌ {} 주문 수집 실패", channel.getChannelName(), cause);
+            return ChannelCollectionResult.error(channel, task.elapsedMillis(), cause.getMessage());
+        }
+        long elapsedMillis = task.elapsedMillis();
+        
+        log.info("📦 {} 수집된 주문: {} 건 ({} ms)", channel.getChannelName(), orders.size(), elapsedMillis);
+        
+        // 원본 일괄 저장 (ON CONFLICT DO NOTHING)
+        int savedCount;
+        try {
+            RawOrderService.BulkSaveResult saved = rawOrderService.saveRawOrders(channel.getChannelCode(), orders);
+            savedCount = saved.inserted();
+            log.info("  - 저장된 주문: {} 건 (중복 {} 건, 실패 {} 건)", saved.inserted(), saved.duplicates(), saved.failed());
+            for (RawOrderService.FailedOrder failure : saved.failures()) {
+                log.warn("  - 주문 저장 실패: {} - {}", failure.channelOrderNo(), failure.reason());
+            }
+        } catch (Exception e) {
+            log.error("❌ {} 주문 저장 실패", channel.getChannelName(), e);
+            return ChannelCollectionResult.error(channel, elapsedMillis, "주문 저장 실패: " + e.getMessage());
+        }
+        
+        try {
+            // 저장이 끝난 구간까지 수집 커서 전진
+            channel.advanceCollectionCursor(task.windowEnd());
+            salesChannelRepository.save(channel);
+        } catch (Exception e) {
+            log.error("❌ {} 수집 커서 갱신 실패", channel.getChannelName(), e);
+        }
+        
+        return ChannelCollectionResult.success(channel, orders.size(), savedCount, elapsedMillis);
+    }
+
+    /**
+     * 판매처 수집 결과 대기
+     *
+     * 앞 판매처의 저장이 오래 걸려 늦게 확인하더라도, 수집이 타임아웃 안에 끝났으면 결과를 그대로 돌려줍니다.
+     */
+    private List<CollectedOrder> await(ChannelTask task, long timeoutMillis)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        while (true) {
+            if (task.future().isDone()) {
+                if (task.finishedAt().get() - task.startedAt().get() > timeoutMillis) {
+                    throw new TimeoutException();
+                }
+                return task.future().get();
+            }
+            long startedAt = task.startedAt().get();
+            long remaining = startedAt == 0
+                ? timeoutMillis
+                : startedAt + timeoutMillis - System.currentTimeMillis();
+            if (remaining <= 0) {
+                throw new TimeoutException();
+            }
+            try {
+                return task.future().get(remaining, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // 아직 시작 전이었다면 시작 시점 기준으로 다시 계산
+                if (startedAt != 0) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private record ChannelTask(Future<List<CollectedOrder>> future, AtomicLong startedAt, AtomicLong finishedAt,
+                               LocalDateTime windowEnd) {
+        long elapsedMillis() {
+            long started = startedAt.get();
+            long finished = finishedAt.get();
+            return started == 0 ? 0L : (finished != 0 ? finished : System.currentTimeMillis()) - started;
+        }
+    }
+
+    public enum ChannelCollectionStatus {
+        SUCCESS, TIMEOUT, ERROR, SKIPPED
+    }
+
+    public record ChannelCollectionResult(
+        String channelCode,
+        String channelName,
+        ChannelCollectionStatus status,
+        int collectedCount,
+        int savedCount,
+        long elapsedMillis,
+        String errorMessage
+    ) {
+        static ChannelCollectionResult success(SalesChannel channel, int collected, int saved, long elapsedMillis) {
+            return new ChannelCollectionResult(channel.getChannelCode(), channel.getChannelName(),
+                ChannelCollectionStatus.SUCCESS, collected, saved, elapsedMillis, null);
+        }
+
+        static ChannelCollectionResult timeout(SalesChannel channel, long elapsedMillis) {
+            return new ChannelCollectionResult(channel.getChannelCode(), channel.getChannelName(),
+                ChannelCollectionStatus.TIMEOUT, 0, 0, elapsedMillis, "수집 타임아웃");
+        }
+
+        static ChannelCollectionResult error(SalesChannel channel, long elapsedMillis, String message) {
+            return new ChannelCollectionResult(channel.getChannelCode(), channel.getChannelName(),
+                ChannelCollectionStatus.ERROR, 0, 0, elapsedMillis, message);
+        }
+
+        static ChannelCollectionResult skipped(SalesChannel channel) {
+            return new ChannelCollectionResult(channel.getChannelCode(), channel.getChannelName(),
+                ChannelCollectionStatus.SKIPPED, 0, 0, 0L, "Collector 없음");
+        }
+    }
+
+    public record CollectionRunSummary(
+        LocalDateTime startDate,
+        LocalDateTime endDate,
+        int totalCollected,
+        int totalSaved,
+        int timeoutCount,
+        int errorCount,
+        long elapsedMillis,
+        List<ChannelCollectionResult> channels
+    ) {
+        static CollectionRunSummary of(LocalDateTime startDate, LocalDateTime endDate,
+                                       List<ChannelCollectionResult> channels, long elapsedMillis) {
+            int collected = 0;
+            int saved = 0;
+            int timeouts = 0;
+            int errors = 0;
+            for (ChannelCollectionResult result : channels) {
+                collected += result.collectedCount();
+                saved += result.savedCount();
+                if (result.status() == ChannelCollectionStatus.TIMEOUT) timeouts++;
+                if (result.status() == ChannelCollectionStatus.ERROR) errors++;
+            }
+            return new CollectionRunSummary(startDate, endDate, collected, saved, timeouts, errors,
+                elapsedMillis, List.copyOf(channels));
+        }
+    }
 }
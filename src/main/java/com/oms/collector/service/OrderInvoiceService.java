@@ -0,0 +1,109 @@
+package com.oms.collector.service;
+
+import com.oms.collector.entity.Order;
+import com.oms.collector.entity.OrderInvoice;
+import com.oms.collector.repository.OrderInvoiceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 송장 (order_invoices) 기록·조회
+ *
+ * 송장을 입력·발급·삭제하는 모든 경로가 deliveryMemo 와 함께 이 서비스를 거치므로
+ * 송장 여부·송장번호 조회는 문자열 파싱 없이 order_invoices 만 보면 됩니다.
+ * 호출한 쪽의 트랜잭션에 참여합니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderInvoiceService {
+
+    private final OrderInvoiceRepository orderInvoiceRepository;
+
+    /**
+     * 송장 입력/발급 — 기존 송장이 있으면 덮어씀
+     *
+     * @throws IllegalStateException 같은 송장번호가 다른 주문에 등록되어 있을 때
+     */
+    public OrderInvoice assign(Order order, String carrierCode, String carrierName, String trackingNo) {
+        String normalized = Objects.toString(trackingNo, "").trim();
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("송장번호가 없습니다: " + order.getOrderNo());
+        }
+        orderInvoiceRepository.findByTrackingNo(normalized)
+            .filter(existing -> !existing.getOrderId().equals(order.getOrderId()))
+            .ifPresent(existing -> {
+                throw new IllegalStateException("이미 다른 주문에 등록된 송장번호입니다: " + normalized);
+            });
+
+        OrderInvoice invoice = orderInvoiceRepository.findById(order.getOrderId())
+            .orElseGet(() -> OrderInvoice.builder().orderId(order.getOrderId()).build());
+        invoice.setCarrierCode(carrierCode);
+        invoice.setCarrierName(carrierName);
+        invoice.setTrackingNo(normalized);
+        invoice.setIssuedAt(LocalDateTime.now());
+        invoice.setPrintedAt(null);
+        invoice.setStatus(OrderInvoice.Status.ISSUED);
+        return orderInvoiceRepository.save(invoice);
+    }
+
+    /**
+     * 송장 삭제
+     */
+    public void remove(UUID orderId) {
+        orderInvoiceRepository.findById(orderId).ifPresent(orderInvoiceRepository::delete);
+    }
+
+    /**
+     * 검수발송 완료
+     */
+    public void markShipped(UUID orderId) {
+        orderInvoiceRepository.findById(orderId).ifPresent(invoice -> invoice.setStatus(OrderInvoice.Status.SHIPPED));
+    }
+
+    /**
+     * 발송취소 — 출력 여부에 따라 PRINTED/ISSUED 로 되돌림
+     */
+    public void reopen(UUID orderId) {
+        orderInvoiceRepository.findById(orderId).ifPresent(invoice -> invoice.setStatus(
+            invoice.getPrintedAt() != null ? OrderInvoice.Status.PRINTED : OrderInvoice.Status.ISSUED));
+    }
+
+    /**
+     * 송장 출력 기록 (발급 상태인 송장만)
+     */
+    public int markPrinted(Collection<String> orderNos) {
+        if (orderNos == null || orderNos.isEmpty()) {
+            return 0;
+        }
+        return orderInvoiceRepository.markPrinted(orderNos, LocalDateTime.now(),
+            OrderInvoice.Status.ISSUED, OrderInvoice.Status.PRINTED);
+    }
+
+    public Optional<OrderInvoice> find(UUID orderId) {
+        return orderId != null ? orderInvoiceRepository.findById(orderId) : Optional.empty();
+    }
+
+    /**
+     * 주문 목록의 송장 (orderId → 송장, 송장 없는 주문은 키 없음)
+     */
+    public Map<UUID, OrderInvoice> findByOrders(Collection<Order> orders) {
+        if (orders == null || orders.isEmpty()) {
+            return Map.of();
+        }
+        List<UUID> orderIds = orders.stream().map(Order::getOrderId).filter(Objects::nonNull).distinct().toList();
+        return orderInvoiceRepository.findByOrderIdIn(orderIds).stream()
+            .collect(Collectors.toMap(OrderInvoice::getOrderId, Function.identity()));
+    }
+}
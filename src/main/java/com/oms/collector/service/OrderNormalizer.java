@@ -29,10 +29,17 @@ public class OrderNormalizer {
      * 수집된 주문을 OMS 표준 형식으로 정규화
      */
     public Order normalize(CollectedOrder collected, RawOrder rawOrder, SalesChannel channel) {
-        log.debug("🔄 주문 정규화 시작: {}", collected.getChannelOrderNo());
-        
         // OMS 주문번호 생성
-        String orderNo = sequenceService.generateOrderNo();
+        return normalize(collected, rawOrder, channel, sequenceService.generateOrderNo());
+    }
+    
+    /**
+     * 주문번호를 지정하여 정규화
+     * 
+     * 청크 정규화에서는 orderNo = null 로 변환만 하고 번호는 저장 시점에 일괄 할당합니다.
+     */
+    public Order normalize(CollectedOrder collected, RawOrder rawOrder, SalesChannel channel, String orderNo) {
+        log.debug("🔄 주문 정규화 시작: {}", collected.getChannelOrderNo());
         
         // Order Entity 생성
         Order order = Order.builder()
@@ -75,7 +82,7 @@ public class OrderNormalizer {
             order.addItem(orderItem);
         });
         
-        log.info("✅ 주문 정규화 완료: {} → {}", collected.getChannelOrderNo(), orderNo);
+        log.debug("✅ 주문 정규화 완료: {} → {}", collected.getChannelOrderNo(), orderNo);
         
         return order;
     }
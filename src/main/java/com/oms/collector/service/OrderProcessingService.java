@@ -1,19 +1,38 @@
 package com.oms.collector.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oms.collector.config.TenantContext;
+import com.oms.collector.config.TenantTables;
 import com.oms.collector.dto.CollectedOrder;
 import com.oms.collector.entity.Order;
+import com.oms.collector.entity.OrderItem;
 import com.oms.collector.entity.RawOrder;
 import com.oms.collector.entity.SalesChannel;
 import com.oms.collector.repository.OrderRepository;
+import com.oms.collector.repository.SalesChannelRepository;
+import com.oms.collector.service.NormalizedOrderWriter.NormalizedOrder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -30,43 +49,59 @@ public class OrderProcessingService {
     private final OrderNormalizer orderNormalizer;
     private final OrderRepository orderRepository;
     private final ObjectMapper objectMapper;
+    private final SalesChannelRepository salesChannelRepository;
+    private final NormalizedOrderWriter orderWriter;
+    private final JdbcTemplate jdbc;
+    
+    @Value("${collector.processing.chunk-size:500}")
+    private int chunkSize;
+    
+    @Value("${collector.processing.threads:4}")
+    private int normalizeThreads;
+    
+    private ThreadPoolExecutor normalizeExecutor;
+    
+    @PostConstruct
+    void initExecutor() {
+        chunkSize = Math.max(1, chunkSize);
+        normalizeThreads = Math.max(1, normalizeThreads);
+        AtomicInteger sequence = new AtomicInteger();
+        normalizeExecutor = new ThreadPoolExecutor(
+            normalizeThreads, normalizeThreads, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(256),
+            runnable -> {
+                Thread thread = new Thread(runnable, "order-normalize-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        normalizeExecutor.allowCoreThreadTimeOut(true);
+    }
+    
+    @PreDestroy
+    void shutdownExecutor() {
+        normalizeExecutor.shutdownNow();
+    }
     
     /**
      * 미처리 주문 일괄 처리
-     * 각 건을 독립 트랜잭션으로 처리 — 1건 실패해도 나머지 계속 진행
+     * (collected_at, raw_order_id) 키셋 페이지 단위로 청크 처리 — 실패한 건만 에러 표시하고 나머지 계속 진행
      */
     public int processUnprocessedOrders() {
         log.info("========================================");
         log.info("🔄 미처리 주문 처리 시작");
         log.info("========================================");
         
-        List<RawOrder> unprocessedOrders = rawOrderService.getUnprocessedOrders();
-        log.info("📋 미처리 주문: {} 건", unprocessedOrders.size());
-        
-        int successCount = 0;
-        int errorCount = 0;
-        
-        for (RawOrder rawOrder : unprocessedOrders) {
-            try {
-                processRawOrder(rawOrder);  // 각 건 독립 @Transactional
-                successCount++;
-            } catch (Exception e) {
-                errorCount++;
-                log.error("❌ 주문 처리 실패: {}", rawOrder.getChannelOrderNo(), e);
-                try {
-                    rawOrderService.markAsError(rawOrder, e.getMessage());
-                } catch (Exception ex) {
-                    log.error("❌ 에러 표시 실패: {}", rawOrder.getChannelOrderNo(), ex);
-                }
-            }
-        }
+        BacklogResult result = processBacklog(null);
         
         log.info("========================================");
         log.info("✅ 미처리 주문 처리 완료");
-        log.info("  성공: {} 건 / 실패: {} 건", successCount, errorCount);
+        log.info("  성공: {} 건 / 실패: {} 건 / 청크: {} / {}ms",
+            result.successCount(), result.errorCount(), result.chunkCount(), result.elapsedMillis());
         log.info("========================================");
         
-        return successCount;
+        return result.successCount();
     }
     
     /**
@@ -119,28 +154,193 @@ public class OrderProcessingService {
     /**
      * 특정 판매처의 미처리 주문 처리
      */
-    @Transactional
     public int processUnprocessedOrdersByChannel(String channelCode) {
         log.info("🔄 {} 미처리 주문 처리 시작", channelCode);
         
-        List<RawOrder> unprocessedOrders = rawOrderService.getUnprocessedOrdersByChannel(channelCode);
-        log.info("📋 {} 미처리 주문: {} 건", channelCode, unprocessedOrders.size());
+        SalesChannel channel = salesChannelRepository.findByChannelCode(channelCode)
+            .orElseThrow(() -> new RuntimeException("판매처를 찾을 수 없습니다"));
+        BacklogResult result = processBacklog(channel.getChannelId());
         
-        int successCount = 0;
+        log.info("✅ {} 미처리 주문 처리 완료: {} 건 (실패 {} 건)", channelCode, result.successCount(), result.errorCount());
         
-        for (RawOrder rawOrder : unprocessedOrders) {
-            try {
-                processRawOrder(rawOrder);
-                successCount++;
-            } catch (Exception e) {
-                log.error("❌ 주문 처리 실패: {}", rawOrder.getChannelOrderNo(), e);
-                rawOrderService.markAsError(rawOrder, e.getMessage());
+        return result.successCount();
+    }
+    
+    /**
+     * 미처리 백로그를 청크 단위로 정규화
+     *
+     * 1. (collected_at, raw_order_id) 키셋으로 chunkSize 만큼 조회 (메모리 사용량 일정)
+     * 2. 청크를 워커 풀에서 병렬로 파싱/정규화
+     * 3. NormalizedOrderWriter 로 orders/order_items 배치 INSERT + 원본 일괄 처리완료 표시
+     * 4. 청크 저장이 실패하면 해당 청크만 단건 저장으로 재시도하여 실패 행만 에러 표시
+     *
+     * 에러로 남은 행은 커서가 지나가므로 같은 실행에서 다시 조회되지 않습니다.
+     *
+     * @param channelId null 이면 전체 판매처
+     */
+    private BacklogResult processBacklog(UUID channelId) {
+        long started = System.currentTimeMillis();
+        int success = 0;
+        int errors = 0;
+        int chunks = 0;
+        Timestamp cursorAt = null;
+        UUID cursorId = null;
+        
+        while (true) {
+            List<RawOrderRow> rows = fetchUnprocessedPage(channelId, cursorAt, cursorId);
+            if (rows.isEmpty()) {
+                break;
+            }
+            chunks++;
+            RawOrderRow last = rows.get(rows.size() - 1);
+            cursorAt = last.collectedAt();
+            cursorId = last.rawOrderId();
+            
+            Map<UUID, String> failures = new LinkedHashMap<>();
+            List<NormalizedOrder> normalized = normalizeChunk(rows, failures);
+            success += writeChunk(normalized, failures);
+            
+            if (!failures.isEmpty()) {
+                errors += failures.size();
+                orderWriter.markErrors(failures);
+            }
+            log.debug("📦 청크 {} 처리: {} 건 (누적 성공 {} / 실패 {})", chunks, rows.size(), success, errors);
+            
+            if (rows.size() < chunkSize) {
+                break;
             }
         }
         
-        log.info("✅ {} 미처리 주문 처리 완료: {} 건", channelCode, successCount);
+        return new BacklogResult(success, errors, chunks, System.currentTimeMillis() - started);
+    }
+    
+    private List<RawOrderRow> fetchUnprocessedPage(UUID channelId, Timestamp cursorAt, UUID cursorId) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT raw_order_id, channel_id, channel_order_no, raw_data::text AS raw_data, collected_at FROM ")
+            .append(TenantTables.qualify("raw_orders"))
+            .append(" WHERE processed = FALSE");
+        List<Object> params = new ArrayList<>();
+        if (channelId != null) {
+            sql.append(" AND channel_id = ?");
+            params.add(channelId);
+        }
+        if (cursorAt != null) {
+            sql.append(" AND (collected_at, raw_order_id) > (?, ?)");
+            params.add(cursorAt);
+            params.add(cursorId);
+        }
+        sql.append(" ORDER BY collected_at, raw_order_id LIMIT ?");
+        params.add(chunkSize);
         
-        return successCount;
+        return jdbc.query(sql.toString(), (rs, rowNum) -> new RawOrderRow(
+            rs.getObject("raw_order_id", UUID.class),
+            rs.getObject("channel_id", UUID.class),
+            rs.getString("channel_order_no"),
+            rs.getString("raw_data"),
+            rs.getTimestamp("collected_at")
+        ), params.toArray());
+    }
+    
+    /**
+     * 청크를 워커 수만큼 나누어 병렬 파싱/정규화 (주문번호는 저장 시 할당)
+     */
+    private List<NormalizedOrder> normalizeChunk(List<RawOrderRow> rows, Map<UUID, String> failures) {
+        int sliceSize = Math.max(1, (rows.size() + normalizeThreads - 1) / normalizeThreads);
+        String tenant = TenantContext.getCurrentTenant();
+        
+        List<Future<List<NormalizeOutcome>>> futures = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += sliceSize) {
+            List<RawOrderRow> slice = rows.subList(from, Math.min(rows.size(), from + sliceSize));
+            futures.add(normalizeExecutor.submit(() -> {
+                String previous = TenantContext.getCurrentTenant();
+                TenantContext.setCurrentTenant(tenant);
+                try {
+                    return slice.stream().map(this::normalizeRow).toList();
+                } finally {
+                    TenantContext.setCurrentTenant(previous);
+                }
+            }));
+        }
+        
+        List<NormalizedOrder> normalized = new ArrayList<>(rows.size());
+        for (Future<List<NormalizeOutcome>> future : futures) {
+            try {
+                for (NormalizeOutcome outcome : future.get()) {
+                    if (outcome.error() != null) {
+                        failures.put(outcome.rawOrderId(), outcome.error());
+                    } else {
+                        normalized.add(outcome.normalized());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("주문 정규화 중단", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("주문 정규화 실패: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return normalized;
+    }
+    
+    private NormalizeOutcome normalizeRow(RawOrderRow row) {
+        try {
+            CollectedOrder collectedOrder = objectMapper.readValue(row.rawData(), CollectedOrder.class);
+            Order order = orderNormalizer.normalize(collectedOrder, null, null, null);
+            String missing = missingRequiredField(order);
+            if (missing != null) {
+                return NormalizeOutcome.failed(row.rawOrderId(), "주문 처리 실패: 필수값 누락 (" + missing + ")");
+            }
+            return NormalizeOutcome.ok(new NormalizedOrder(UUID.randomUUID(), row.rawOrderId(), row.channelId(), order));
+        } catch (Exception e) {
+            log.error("❌ 주문 처리 실패: {}", row.channelOrderNo(), e);
+            return NormalizeOutcome.failed(row.rawOrderId(), "주문 처리 실패: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * orders / order_items NOT NULL 컬럼 사전 검증 — 배치 INSERT 전체가 실패하는 것을 방지
+     */
+    private String missingRequiredField(Order order) {
+        if (order.getCustomerName() == null) return "customer_name";
+        if (order.getRecipientName() == null) return "recipient_name";
+        if (order.getRecipientPhone() == null) return "recipient_phone";
+        if (order.getAddress() == null) return "address";
+        if (order.getTotalAmount() == null) return "total_amount";
+        if (order.getPaymentAmount() == null) return "payment_amount";
+        if (order.getOrderedAt() == null) return "ordered_at";
+        for (OrderItem item : order.getItems()) {
+            if (item.getProductName() == null) return "product_name";
+            if (item.getQuantity() == null) return "quantity";
+            if (item.getUnitPrice() == null) return "unit_price";
+            if (item.getTotalPrice() == null) return "total_price";
+        }
+        return null;
+    }
+    
+    /**
+     * 청크 일괄 저장, 실패 시 단건 저장으로 실패 행만 분리
+     */
+    private int writeChunk(List<NormalizedOrder> normalized, Map<UUID, String> failures) {
+        if (normalized.isEmpty()) {
+            return 0;
+        }
+        try {
+            return orderWriter.writeChunk(normalized);
+        } catch (Exception chunkError) {
+            log.warn("⚠️ 청크 저장 실패 → 단건 저장으로 재시도: {}", chunkError.getMessage());
+        }
+        
+        int saved = 0;
+        for (NormalizedOrder order : normalized) {
+            try {
+                orderWriter.writeOne(order);
+                saved++;
+            } catch (Exception e) {
+                log.error("❌ 주문 처리 실패: {}", order.order().getChannelOrderNo(), e);
+                failures.put(order.rawOrderId(), "주문 처리 실패: " + e.getMessage());
+            }
+        }
+        return saved;
     }
     
     /**
@@ -150,7 +350,7 @@ public class OrderProcessingService {
     public ProcessingStats getStats() {
         long totalOrders = orderRepository.count();
         long todayOrders = orderRepository.countTodayOrders();
-        long unprocessedOrders = rawOrderService.getUnprocessedOrders().size();
+        long unprocessedOrders = rawOrderService.countUnprocessedOrders();
         
         // 판매처별 통계
         List<ChannelStat> channelStats = getChannelStats();
@@ -216,6 +416,34 @@ public class OrderProcessingService {
         List<ChannelStat> channelStats
     ) {}
     
+    /**
+     * 백로그 처리 결과
+     */
+    public record BacklogResult(
+        int successCount,
+        int errorCount,
+        int chunkCount,
+        long elapsedMillis
+    ) {}
+    
+    private record RawOrderRow(
+        UUID rawOrderId,
+        UUID channelId,
+        String channelOrderNo,
+        String rawData,
+        Timestamp collectedAt
+    ) {}
+    
+    private record NormalizeOutcome(UUID rawOrderId, NormalizedOrder normalized, String error) {
+        static NormalizeOutcome ok(NormalizedOrder normalized) {
+            return new NormalizeOutcome(normalized.rawOrderId(), normalized, null);
+        }
+        
+        static NormalizeOutcome failed(UUID rawOrderId, String error) {
+            return new NormalizeOutcome(rawOrderId, null, error);
+        }
+    }
+    
     /**
      * 판매처별 통계 DTO
      */
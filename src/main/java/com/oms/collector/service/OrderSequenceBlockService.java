@@ -0,0 +1,67 @@
+package com.oms.collector.service;
+
+import com.oms.collector.config.TenantTables;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 주문번호 블록 예약 (hi/lo)
+ *
+ * 테넌트 스키마별 order_sequences(seq_date, last_value) 카운터를 blockSize 만큼 한 번에 증가시키고
+ * 예약된 구간의 마지막 값(hi)을 반환합니다. 노드는 (hi - blockSize, hi] 구간을 메모리에서 발급합니다.
+ *
+ * REQUIRES_NEW — 호출한 트랜잭션이 길어도 카운터 행 잠금은 예약 즉시 해제됩니다.
+ * (롤백된 주문의 번호는 재사용하지 않으므로 번호에 빈 구간이 생길 수 있음)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderSequenceBlockService {
+
+    private final JdbcTemplate jdbc;
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long reserveBlock(LocalDate date, int blockSize) {
+        String table = TenantTables.qualify("order_sequences");
+
+        // 1. 이미 오늘 카운터가 있으면 원자적 증가
+        List<Long> updated = jdbc.queryForList(
+            "UPDATE " + table + " SET last_value = last_value + ?, updated_at = NOW() " +
+            "WHERE seq_date = ? RETURNING last_value",
+            Long.class, blockSize, Date.valueOf(date));
+        if (!updated.isEmpty()) {
+            return updated.get(0);
+        }
+
+        // 2. 오늘 첫 예약 - 기존 주문번호(이전 방식으로 발급된 번호 포함) 이후부터 시작
+        long seed = lastIssuedSequence(date);
+        Long reserved = jdbc.queryForObject(
+            "INSERT INTO " + table + " (seq_date, last_value, updated_at) VALUES (?, ?, NOW()) " +
+            "ON CONFLICT (seq_date) DO UPDATE SET last_value = " + table + ".last_value + ?, updated_at = NOW() " +
+            "RETURNING last_value",
+            Long.class, Date.valueOf(date), seed + blockSize, blockSize);
+        log.debug("🔢 주문번호 카운터 시작: {} (seed={})", date, seed);
+        return reserved;
+    }
+
+    /**
+     * 해당 일자에 이미 발급된 주문번호의 최대 시퀀스 (하루 한 번만 조회)
+     */
+    private long lastIssuedSequence(LocalDate date) {
+        String prefix = "OMS-" + date.format(OrderSequenceService.DATE_FORMATTER) + "-";
+        Long last = jdbc.queryForObject(
+            "SELECT COALESCE(MAX(CAST(SUBSTRING(order_no FROM ?) AS BIGINT)), 0) FROM " + TenantTables.qualify("orders") +
+            " WHERE order_no LIKE ? AND SUBSTRING(order_no FROM ?) ~ '^[0-9]+$'",
+            Long.class, prefix.length() + 1, prefix + "%", prefix.length() + 1);
+        return last == null ? 0L : last;
+    }
+
+}
@@ -1,65 +1,114 @@
 package com.oms.collector.service;
 
-import com.oms.collector.repository.OrderRepository;
+import com.oms.collector.config.TenantTables;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * OMS 주문번호 생성 서비스
- * 
+ *
  * 형식: OMS-YYYYMMDD-XXXX
  * 예시: OMS-20260204-0001
- * 
- * 데이터베이스 기반으로 마지막 번호를 확인하여 중복 방지
+ *
+ * 테넌트·일자별 DB 카운터(order_sequences)에서 blockSize 단위로 번호 구간을 예약(hi/lo)하고,
+ * 예약된 구간 안에서는 AtomicLong 으로 잠금 없이 발급합니다.
+ * 여러 노드가 동시에 실행되어도 구간이 겹치지 않으므로 중복이 발생하지 않습니다.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OrderSequenceService {
-    
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
-    private final OrderRepository orderRepository;
-    
+
+    static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private final OrderSequenceBlockService blockService;
+
+    @Value("${collector.order-sequence.block-size:100}")
+    private int blockSize;
+
+    /** 테넌트:일자 → 현재 예약 구간 */
+    private final Map<String, SequenceBlock> blocks = new ConcurrentHashMap<>();
+
     /**
      * 다음 주문번호 생성
      */
-    public synchronized String generateOrderNo() {
-        String today = getCurrentDateString();
-        
-        // 오늘 날짜의 마지막 주문번호 조회
-        String lastOrderNo = orderRepository.findLastOrderNoByDate(today);
-        
-        int nextSeq = 1;
-        
-        if (lastOrderNo != null && !lastOrderNo.isEmpty()) {
-            // OMS-20260209-0001 → 0001 추출
-            String[] parts = lastOrderNo.split("-");
-            if (parts.length == 3) {
-                try {
-                    int lastSeq = Integer.parseInt(parts[2]);
-                    nextSeq = lastSeq + 1;
-                    log.debug("📊 오늘의 마지막 주문번호: {}, 다음 시퀀스: {}", lastOrderNo, nextSeq);
-                } catch (NumberFormatException e) {
-                    log.warn("⚠️ 주문번호 파싱 실패: {}", lastOrderNo);
+    public String generateOrderNo() {
+        LocalDate today = LocalDate.now();
+        String orderNo = format(today, nextSequence(today));
+
+        log.debug("🔢 주문번호 생성: {}", orderNo);
+
+        return orderNo;
+    }
+
+    /**
+     * 주문번호 count 개 생성 (청크 정규화용)
+     */
+    public List<String> generateOrderNos(int count) {
+        LocalDate today = LocalDate.now();
+        List<String> orderNos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orderNos.add(format(today, nextSequence(today)));
+        }
+
+        log.debug("🔢 주문번호 {} 개 생성: {} ~", count, orderNos.isEmpty() ? "-" : orderNos.get(0));
+
+        return orderNos;
+    }
+
+    /**
+     * 현재 구간에서 잠금 없이 발급, 구간 소진 시에만 키 단위로 동기화하여 새 구간 예약
+     */
+    private long nextSequence(LocalDate date) {
+        String key = TenantTables.currentSchema() + ":" + date;
+        SequenceBlock block = blocks.computeIfAbsent(key, k -> new SequenceBlock());
+        while (true) {
+            SequenceRange range = block.current;
+            long value = range.next().getAndIncrement();
+            if (value <= range.max()) {
+                return value;
+            }
+            synchronized (block) {
+                // 다른 스레드가 이미 새 구간을 받아왔으면 다시 시도
+                if (block.current == range) {
+                    int size = Math.max(1, blockSize);
+                    long hi = blockService.reserveBlock(date, size);
+                    block.current = new SequenceRange(new AtomicLong(hi - size + 1), hi);
+                    log.debug("📦 주문번호 구간 예약: {} → {} ~ {}", key, hi - size + 1, hi);
                 }
             }
+            evictPastDays(date);
         }
-        
-        String orderNo = String.format("OMS-%s-%04d", today, nextSeq);
-        
-        log.debug("🔢 주문번호 생성: {}", orderNo);
-        
-        return orderNo;
     }
-    
+
+    /** 지난 날짜의 구간 정리 */
+    private void evictPastDays(LocalDate today) {
+        String suffix = ":" + today;
+        blocks.keySet().removeIf(key -> !key.endsWith(suffix));
+    }
+
+    private String format(LocalDate date, long sequence) {
+        return String.format("OMS-%s-%04d", date.format(DATE_FORMATTER), sequence);
+    }
+
     /**
-     * 현재 날짜 문자열 반환 (YYYYMMDD)
+     * 테넌트·일자별 현재 구간 보관. 구간 교체만 동기화 블록 안에서 수행
      */
-    private String getCurrentDateString() {
-        return LocalDate.now().format(DATE_FORMATTER);
+    private static final class SequenceBlock {
+        private volatile SequenceRange current = new SequenceRange(new AtomicLong(1), 0);
     }
+
+    /**
+     * 예약 구간 (next ~ max) - 구간마다 별도 카운터를 두어 이전 구간의 값이 섞이지 않음
+     */
+    private record SequenceRange(AtomicLong next, long max) {}
 }
@@ -0,0 +1,294 @@
+package com.oms.collector.service;
+
+import com.oms.collector.config.TenantTables;
+import com.oms.collector.entity.Product;
+import com.oms.collector.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 테넌트별 상품 카탈로그 인덱스
+ *
+ * 요청마다 productRepository.findAll() 후 SKU/바코드 맵을 다시 만들던 것을
+ * 테넌트당 1개의 불변 스냅샷(sku / barcode / barcode2 / optionCode → 상품)으로 대체합니다.
+ *
+ * - 최초 조회 시 1회 전체 로딩
+ * - 상품 저장/삭제는 ProductCatalogListener 가 기록하고, 트랜잭션 커밋 후 변경분만 새 스냅샷에 반영 (copy-on-write)
+ * - 조회 측은 잠금 없이 현재 스냅샷을 그대로 사용
+ * - 스키마 복구처럼 JPA 를 거치지 않는 일괄 변경은 invalidate(schema) 로 폐기
+ * - 만료 시간(ttl-seconds)이 지나면 전체 재로딩 — 다른 노드의 변경 등 기록되지 않은 변경에 대한 안전장치
+ *
+ * 스냅샷의 Product 는 영속성 컨텍스트와 분리된 복사본입니다. 수정은 반드시 리포지토리에서 다시 조회한 엔티티로 하세요.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductCatalogIndex {
+
+    private final ProductRepository productRepository;
+
+    @Value("${collector.product-catalog.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    /** 테넌트 스키마 → 현재 스냅샷 */
+    private final Map<String, CatalogSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * 현재 테넌트의 카탈로그 스냅샷 (없으면 로딩)
+     */
+    public CatalogSnapshot snapshot() {
+        String tenant = TenantTables.currentSchema();
+        CatalogSnapshot snapshot = snapshots.get(tenant);
+        if (isFresh(snapshot)) {
+            return snapshot;
+        }
+        synchronized (this) {
+            snapshot = snapshots.get(tenant);
+            if (!isFresh(snapshot)) {
+                long t0 = System.currentTimeMillis();
+                snapshot = CatalogSnapshot.of(productRepository.findAll().stream().map(ProductCatalogIndex::detach).toList());
+                snapshots.put(tenant, snapshot);
+                log.info("📚 상품 카탈로그 로딩: {} - {}건 ({}ms)", tenant, snapshot.size(), System.currentTimeMillis() - t0);
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * 현재 테넌트 인덱스 폐기 (다음 조회 시 전체 재로딩)
+     */
+    public void invalidate() {
+        invalidate(TenantTables.currentSchema());
+    }
+
+    /**
+     * 지정 스키마 인덱스 폐기 — 스키마 복구 등 JDBC 일괄 변경 후 호출
+     */
+    public void invalidate(String schema) {
+        afterCommit(schema, changes -> changes.invalidate = true);
+    }
+
+    private boolean isFresh(CatalogSnapshot snapshot) {
+        return snapshot != null
+            && snapshot.loadedAt().plus(Duration.ofSeconds(ttlSeconds)).isAfter(Instant.now());
+    }
+
+    /** 상품 저장 기록 — 커밋 후 반영 */
+    void recordSaved(Product product) {
+        if (product == null || product.getProductId() == null) {
+            return;
+        }
+        Product copy = detach(product);
+        afterCommit(TenantTables.currentSchema(), changes -> {
+            changes.removed.remove(copy.getProductId());
+            changes.saved.put(copy.getProductId(), copy);
+        });
+    }
+
+    /**
+     * JDBC 로 직접 바꾼 상품 기록 — 현재 스냅샷 복사본에 update 를 적용해 커밋 후 반영
+     * (스냅샷이 아직 로딩 전이면 다음 로딩에서 최신 값을 읽으므로 기록하지 않음)
+     */
+    void recordUpdated(UUID productId, Consumer<Product> update) {
+        CatalogSnapshot current = productId == null ? null : snapshots.get(TenantTables.currentSchema());
+        Product product = current == null ? null : current.byId(productId);
+        if (product == null) {
+            return;
+        }
+        Product copy = detach(product);
+        update.accept(copy);
+        afterCommit(TenantTables.currentSchema(), changes -> {
+            changes.removed.remove(copy.getProductId());
+            changes.saved.put(copy.getProductId(), copy);
+        });
+    }
+
+    /** 상품 삭제 기록 — 커밋 후 반영 */
+    void recordDeleted(UUID productId) {
+        if (productId == null) {
+            return;
+        }
+        afterCommit(TenantTables.currentSchema(), changes -> {
+            changes.saved.remove(productId);
+            changes.removed.add(productId);
+        });
+    }
+
+    /**
+     * 트랜잭션 안이면 변경분을 모아 두었다가 커밋 후 한 번에 반영, 밖이면 즉시 반영
+     */
+    private void afterCommit(String tenant, Consumer<PendingChanges> recorder) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            PendingChanges changes = new PendingChanges(tenant);
+            recorder.accept(changes);
+            apply(changes);
+            return;
+        }
+
+        String key = ProductCatalogIndex.class.getName() + ":" + tenant;
+        PendingChanges changes = (PendingChanges) TransactionSynchronizationManager.getResource(key);
+        if (changes == null) {
+            PendingChanges pending = new PendingChanges(tenant);
+            TransactionSynchronizationManager.bindResource(key, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(key);
+                    if (status == STATUS_COMMITTED) {
+                        apply(pending);
+                    }
+                }
+            });
+            changes = pending;
+        }
+        recorder.accept(changes);
+    }
+
+    /**
+     * 로딩과 같은 잠금 안에서 반영 — 로딩 중 커밋된 변경분이 로딩 결과에 덮어써지지 않도록
+     */
+    private synchronized void apply(PendingChanges changes) {
+        if (changes.invalidate) {
+            snapshots.remove(changes.tenant);
+            log.debug("📚 상품 카탈로그 폐기: {}", changes.tenant);
+            return;
+        }
+        if (changes.saved.isEmpty() && changes.removed.isEmpty()) {
+            return;
+        }
+        // 아직 로딩 전이면 반영할 필요 없음 (다음 조회 시 최신 상태로 로딩)
+        snapshots.computeIfPresent(changes.tenant,
+            (tenant, current) -> current.with(changes.saved.values(), changes.removed));
+        log.debug("📚 상품 카탈로그 반영: {} - 저장 {}건, 삭제 {}건",
+            changes.tenant, changes.saved.size(), changes.removed.size());
+    }
+
+    /** 영속성 컨텍스트와 분리된 복사본 */
+    private static Product detach(Product p) {
+        return new Product(
+            p.getProductId(), p.getSku(), p.getProductName(), p.getBarcode(), p.getBarcode2(),
+            p.getColor(), p.getOptionCode(), p.getOptionName(), p.getVendorName(), p.getNote(),
+            p.getCategory(), p.getCostPrice(), p.getSellingPrice(),
+            p.getTotalStock(), p.getAvailableStock(), p.getReservedStock(), p.getWarehouseLocation(),
+            p.getIsActive(), p.getDescription(), p.getCreatedAt(), p.getUpdatedAt());
+    }
+
+    /**
+     * 트랜잭션 하나에서 발생한 상품 변경분
+     */
+    private static final class PendingChanges {
+        private final String tenant;
+        private final Map<UUID, Product> saved = new LinkedHashMap<>();
+        private final Set<UUID> removed = new LinkedHashSet<>();
+        private boolean invalidate;
+
+        private PendingChanges(String tenant) {
+            this.tenant = tenant;
+        }
+    }
+
+    /**
+     * 불변 카탈로그 스냅샷 — 모든 키는 소문자
+     */
+    public static final class CatalogSnapshot {
+        private final Instant loadedAt;
+        private final Map<UUID, Product> byId;
+        private final List<Product> products;
+        private final Map<String, Product> bySku;
+        private final Map<String, Product> byBarcode;
+        private final Map<String, Product> byBarcode2;
+        private final Map<String, Product> byOptionCode;
+        private final Map<String, Product> byCode;
+
+        private CatalogSnapshot(Instant loadedAt, Map<UUID, Product> byId) {
+            this.loadedAt = loadedAt;
+            this.byId = Collections.unmodifiableMap(byId);
+            this.products = List.copyOf(byId.values());
+
+            Map<String, Product> sku = new HashMap<>();
+            Map<String, Product> barcode = new HashMap<>();
+            Map<String, Product> barcode2 = new HashMap<>();
+            Map<String, Product> optionCode = new HashMap<>();
+            for (Product p : products) {
+                put(sku, p.getSku(), p);
+                put(barcode, p.getBarcode(), p);
+                put(barcode2, p.getBarcode2(), p);
+                put(optionCode, p.getOptionCode(), p);
+            }
+            // 코드 통합 조회: SKU 우선, 없으면 바코드
+            Map<String, Product> code = new HashMap<>(barcode);
+            code.putAll(sku);
+
+            this.bySku = Collections.unmodifiableMap(sku);
+            this.byBarcode = Collections.unmodifiableMap(barcode);
+            this.byBarcode2 = Collections.unmodifiableMap(barcode2);
+            this.byOptionCode = Collections.unmodifiableMap(optionCode);
+            this.byCode = Collections.unmodifiableMap(code);
+        }
+
+        static CatalogSnapshot of(List<Product> products) {
+            Map<UUID, Product> byId = new LinkedHashMap<>();
+            products.forEach(p -> byId.put(p.getProductId(), p));
+            return new CatalogSnapshot(Instant.now(), byId);
+        }
+
+        CatalogSnapshot with(Collection<Product> saved, Collection<UUID> removed) {
+            Map<UUID, Product> next = new LinkedHashMap<>(byId);
+            removed.forEach(next::remove);
+            saved.forEach(p -> next.put(p.getProductId(), p));
+            // 변경분 반영은 전체 로딩이 아니므로 만료 시각을 늘리지 않음
+            return new CatalogSnapshot(loadedAt, next);
+        }
+
+        private static void put(Map<String, Product> map, String key, Product product) {
+            if (key != null && !key.isBlank()) {
+                map.put(key.toLowerCase(), product);
+            }
+        }
+
+        private static Product lookup(Map<String, Product> map, String key) {
+            return key == null ? null : map.get(key.toLowerCase());
+        }
+
+        /** 전체 로딩 시각 (변경분 반영 시 유지) */
+        Instant loadedAt()                              { return loadedAt; }
+
+        public List<Product> products()                { return products; }
+        public int size()                               { return products.size(); }
+        public Product byId(UUID productId)             { return productId == null ? null : byId.get(productId); }
+        public Product bySku(String sku)                { return lookup(bySku, sku); }
+        public Product byBarcode(String barcode)        { return lookup(byBarcode, barcode); }
+        public Product byBarcode2(String barcode2)      { return lookup(byBarcode2, barcode2); }
+        public Product byOptionCode(String optionCode)  { return lookup(byOptionCode, optionCode); }
+
+        /** SKU → 바코드 순 조회 */
+        public Product byCode(String code)              { return lookup(byCode, code); }
+
+        /** 소문자 SKU → 상품 (읽기 전용) */
+        public Map<String, Product> skuMap()            { return bySku; }
+
+        /** 소문자 바코드 → 상품 (읽기 전용) */
+        public Map<String, Product> barcodeMap()        { return byBarcode; }
+
+        /** 소문자 SKU/바코드 → 상품, SKU 우선 (읽기 전용) */
+        public Map<String, Product> codeMap()           { return byCode; }
+    }
+}
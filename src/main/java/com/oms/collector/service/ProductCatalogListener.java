@@ -0,0 +1,33 @@
+package com.oms.collector.service;
+
+import com.oms.collector.entity.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * 상품 엔티티 리스너 — ProductRepository 저장/삭제(입고·출고·CSV 업로드·위치 변경 등)를
+ * ProductCatalogIndex 에 전달합니다.
+ *
+ * 인덱스가 ProductRepository 에 의존하므로 순환 생성을 피하기 위해 ObjectProvider 로 지연 조회합니다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductCatalogListener {
+
+    private final ObjectProvider<ProductCatalogIndex> catalogIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Product product) {
+        catalogIndex.ifAvailable(index -> index.recordSaved(product));
+    }
+
+    @PostRemove
+    public void onRemoved(Product product) {
+        catalogIndex.ifAvailable(index -> index.recordDeleted(product.getProductId()));
+    }
+}
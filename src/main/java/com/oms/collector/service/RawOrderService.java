@@ -2,30 +2,66 @@ package com.oms.collector.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oms.collector.config.TenantTables;
 import com.oms.collector.dto.CollectedOrder;
 import com.oms.collector.entity.RawOrder;
 import com.oms.collector.entity.SalesChannel;
 import com.oms.collector.repository.RawOrderRepository;
 import com.oms.collector.repository.SalesChannelRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * 원본 주문 저장 서비스
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class RawOrderService {
     
     private final RawOrderRepository rawOrderRepository;
     private final SalesChannelRepository salesChannelRepository;
     private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate requiresNew;
+
+    /** JDBC 배치 1회당 최대 행 수 (배치 하나가 트랜잭션 하나) */
+    private static final int BULK_BATCH_SIZE = 1000;
+
+    private static final String INSERT_SQL =
+        "INSERT INTO %s (raw_order_id, channel_id, channel_order_no, raw_data, collected_at, batch_id, processed, created_at) " +
+        "VALUES (?, ?, ?, CAST(? AS jsonb), ?, ?, FALSE, NOW()) " +
+        "ON CONFLICT (channel_id, channel_order_no) DO NOTHING";
+
+    public RawOrderService(RawOrderRepository rawOrderRepository,
+                           SalesChannelRepository salesChannelRepository,
+                           ObjectMapper objectMapper,
+                           JdbcTemplate jdbc,
+                           PlatformTransactionManager transactionManager) {
+        this.rawOrderRepository = rawOrderRepository;
+        this.salesChannelRepository = salesChannelRepository;
+        this.objectMapper = objectMapper;
+        this.jdbc = jdbc;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
     
     /**
      * 수집된 주문을 원본 테이블에 저장
@@ -47,10 +83,7 @@ public class RawOrderService {
             }
             
             // JSON 변환
-            String rawJson = collectedOrder.getRawJson();
-            if (rawJson == null || rawJson.isEmpty()) {
-                rawJson = objectMapper.writeValueAsString(collectedOrder);
-            }
+            String rawJson = toRawJson(collectedOrder);
             
             // RawOrder 생성
             RawOrder rawOrder = RawOrder.builder()
@@ -72,6 +105,127 @@ public class RawOrderService {
         }
     }
     
+    /**
+     * 한 판매처의 수집 주문을 일괄 저장
+     *
+     * - 판매처는 1회만 조회
+     * - INSERT ... ON CONFLICT (channel_id, channel_order_no) DO NOTHING 을 BULK_BATCH_SIZE 단위 JDBC 배치로 실행
+     * - 이미 존재하는 주문(및 같은 목록 내 중복)은 duplicate 로 집계
+     * - 배치마다 별도 트랜잭션(REQUIRES_NEW)으로 커밋하고, 배치가 실패하면 그 배치만 건별로 다시 저장해
+     *   문제 행(길이 초과·제약 위반 등)만 failures 로 남김 — 한 건 때문에 판매처 전체가 실패하지 않음
+     */
+    public BulkSaveResult saveRawOrders(String channelCode, List<CollectedOrder> collectedOrders) {
+        return saveRawOrders(channelCode, collectedOrders, null);
+    }
+
+    /**
+     * 수집 배치(collection_batches) 참조와 함께 일괄 저장
+     *
+     * @param batchId 원본 응답을 보관한 수집 배치 ID (없으면 null)
+     */
+    public BulkSaveResult saveRawOrders(String channelCode, List<CollectedOrder> collectedOrders, UUID batchId) {
+        if (collectedOrders == null || collectedOrders.isEmpty()) {
+            return new BulkSaveResult(0, 0, 0, 0, List.of());
+        }
+
+        SalesChannel channel = salesChannelRepository.findByChannelCode(channelCode)
+            .orElseThrow(() -> new RuntimeException("판매처를 찾을 수 없습니다: " + channelCode));
+
+        // 같은 목록 안의 중복 주문번호는 먼저 제거 (먼저 나온 주문 우선)
+        Map<String, CollectedOrder> unique = new LinkedHashMap<>();
+        List<FailedOrder> failures = new ArrayList<>();
+        int blank = 0;
+        for (CollectedOrder order : collectedOrders) {
+            String channelOrderNo = order.getChannelOrderNo();
+            if (channelOrderNo == null || channelOrderNo.isBlank()) {
+                blank++;
+                failures.add(new FailedOrder(channelOrderNo, "주문번호 없음"));
+                continue;
+            }
+            unique.putIfAbsent(channelOrderNo, order);
+        }
+        int inBatchDuplicates = collectedOrders.size() - blank - unique.size();
+
+        Timestamp collectedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(unique.size());
+        for (CollectedOrder order : unique.values()) {
+            try {
+                rows.add(new Object[] {
+                    UUID.randomUUID(),
+                    channel.getChannelId(),
+                    order.getChannelOrderNo(),
+                    toRawJson(order),
+                    collectedAt,
+                    batchId
+                });
+            } catch (JsonProcessingException e) {
+                log.error("❌ JSON 변환 실패: {}", order.getChannelOrderNo(), e);
+                failures.add(new FailedOrder(order.getChannelOrderNo(), "JSON 변환 실패: " + e.getOriginalMessage()));
+            }
+        }
+
+        int inserted = 0;
+        int rowFailures = 0;
+        for (int from = 0; from < rows.size(); from += BULK_BATCH_SIZE) {
+            List<Object[]> chunk = rows.subList(from, Math.min(from + BULK_BATCH_SIZE, rows.size()));
+            try {
+                Integer count = requiresNew.execute(status -> insertBatch(chunk));
+                inserted += count != null ? count : 0;
+            } catch (DataAccessException e) {
+                log.warn("⚠️ 원본 주문 배치 저장 실패 — 건별 재시도: {} {}건 ({})",
+                    channelCode, chunk.size(), e.getMostSpecificCause().getMessage());
+                for (Object[] row : chunk) {
+                    try {
+                        Integer count = requiresNew.execute(status -> insertBatch(List.<Object[]>of(row)));
+                        if (count != null && count > 0) {
+                            inserted++;
+                        }
+                    } catch (DataAccessException rowError) {
+                        rowFailures++;
+                        String reason = rowError.getMostSpecificCause().getMessage();
+                        failures.add(new FailedOrder((String) row[2], reason));
+                        log.error("❌ 원본 주문 저장 실패: {} {} - {}", channelCode, row[2], reason);
+                    }
+                }
+            }
+        }
+        int duplicates = inBatchDuplicates + (rows.size() - rowFailures - inserted);
+
+        log.info("✅ 원본 주문 일괄 저장: {} - 요청 {} / 신규 {} / 중복 {} / 실패 {}",
+            channelCode, collectedOrders.size(), inserted, duplicates, failures.size());
+
+        return new BulkSaveResult(collectedOrders.size(), inserted, duplicates, failures.size(), failures);
+    }
+
+    /** 한 배치 INSERT — 삽입된 행 수 */
+    private int insertBatch(List<Object[]> chunk) {
+        int[] counts = jdbc.batchUpdate(INSERT_SQL.formatted(TenantTables.qualify("raw_orders")), new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Object[] row = chunk.get(i);
+                ps.setObject(1, row[0]);
+                ps.setObject(2, row[1]);
+                ps.setString(3, (String) row[2]);
+                ps.setString(4, (String) row[3]);
+                ps.setTimestamp(5, (Timestamp) row[4]);
+                ps.setObject(6, row[5]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return chunk.size();
+            }
+        });
+        int inserted = 0;
+        for (int count : counts) {
+            // SUCCESS_NO_INFO(-2)는 드라이버가 행 수를 알려주지 않은 경우 → 삽입으로 간주
+            if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+    
     /**
      * 미처리 주문 조회
      */
@@ -80,6 +234,14 @@ public class RawOrderService {
         return rawOrderRepository.findByProcessedFalseOrderByCollectedAtAsc();
     }
     
+    /**
+     * 미처리 주문 수 (목록을 메모리에 올리지 않음)
+     */
+    @Transactional(readOnly = true)
+    public long countUnprocessedOrders() {
+        return rawOrderRepository.countByProcessedFalse();
+    }
+    
     /**
      * 판매처별 미처리 주문 조회
      */
@@ -129,6 +291,14 @@ public class RawOrderService {
         log.error("주문 처리 에러 표시: {} - {}", rawOrder.getChannelOrderNo(), errorMessage);
     }
 
+    /**
+     * raw_data 에는 정규화 단계가 바로 읽을 수 있는 CollectedOrder 직렬화 결과를 저장
+     * (rawJson 필드에는 해당 주문의 원본 조각만 담기며, 전체 응답은 collection_batches 에 1회 보관)
+     */
+    private String toRawJson(CollectedOrder order) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(order);
+    }
+
     private long toLong(Object value) {
         if (value instanceof Number number) {
             return number.longValue();
@@ -142,6 +312,20 @@ public class RawOrderService {
         List<ChannelSummary> channels
     ) {}
 
+    public record BulkSaveResult(
+        int requested,
+        int inserted,
+        int duplicates,
+        int failed,
+        List<FailedOrder> failures
+    ) {}
+
+    /** 저장하지 못한 주문 (주문번호가 없으면 channelOrderNo 는 null) */
+    public record FailedOrder(
+        String channelOrderNo,
+        String reason
+    ) {}
+
     public record ChannelSummary(
         String channelName,
         long totalCount,
@@ -1,7 +1,6 @@
 package com.oms.collector.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.oms.collector.dto.CollectedOrder;
 import com.oms.collector.dto.CollectedOrderItem;
 import com.oms.collector.entity.SabangnetIntegration;
@@ -11,47 +10,81 @@ import com.oms.collector.repository.SalesChannelRepository;
 import lombok.Builder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.StringReader;
-import java.math.BigDecimal;
+import org.w3c.dom.DOMException;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 사방넷 주문 수집
+ *
+ * 수집 메서드는 트랜잭션 없이(NOT_SUPPORTED) 실행합니다. 배치·원본 저장, 연동 커서 저장은 각각 짧은 트랜잭션으로
+ * 커밋하고, 정규화(청크별 REQUIRES_NEW)는 그 뒤에 열린 트랜잭션 없이 호출하여 커넥션을 겹쳐 잡지 않습니다.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class SabangnetOrderCollectionService {
 
+    /** 벌크 저장 청크 크기 */
+    private static final int SAVE_CHUNK_SIZE = 500;
+    /** 테스트 수집 미리보기 샘플 수 */
+    private static final int SAMPLE_LIMIT = 20;
+    /** 형식 판별에 사용하는 응답 앞부분 길이 */
+    private static final int RESPONSE_HEAD_LENGTH = 4096;
+
     private final SabangnetIntegrationRepository integrationRepository;
     private final SalesChannelRepository salesChannelRepository;
     private final RawOrderService rawOrderService;
     private final OrderProcessingService processingService;
-    private final ObjectMapper objectMapper;
+    private final CollectionCursorPolicy cursorPolicy;
+    private final SabangnetOrderParser orderParser;
+    private final CollectionBatchService collectionBatchService;
 
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public SabangnetCollectResult collect(LocalDateTime startDate, LocalDateTime endDate) {
         LocalDateTime end = endDate == null ? LocalDateTime.now() : endDate;
         LocalDateTime start = startDate == null ? end.minusDays(1) : startDate;
+        return collectIntegrations(integration -> new CollectionCursorPolicy.CollectionWindow(start, end), start, end);
+    }
+
+    /**
+     * 연동별 수집 커서(lastCollectedAt) 이후 구간만 증분 수집
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SabangnetCollectResult collectIncremental(LocalDateTime endDate) {
+        LocalDateTime end = endDate == null ? LocalDateTime.now() : endDate;
+        return collectIntegrations(
+            integration -> cursorPolicy.window(integration.getLastCollectedAt(), end), null, end);
+    }
 
+    private SabangnetCollectResult collectIntegrations(Function<SabangnetIntegration, CollectionCursorPolicy.CollectionWindow> windowOf,
+                                                       LocalDateTime start, LocalDateTime end) {
         List<SabangnetIntegration> integrations = integrationRepository.findByEnabledTrueOrderByCreatedAtDesc();
         if (integrations.isEmpty()) {
             return SabangnetCollectResult.builder()
@@ -68,9 +101,18 @@ public class SabangnetOrderCollectionService {
         List<String> errors = new ArrayList<>();
         List<Map<String, Object>> sampleOrders = new ArrayList<>();
         boolean testMode = false;
+        LocalDateTime earliestStart = start;
 
         for (SabangnetIntegration integration : integrations) {
-            SabangnetCollectResult result = collectIntegration(integration, start, end);
+            CollectionCursorPolicy.CollectionWindow window = windowOf.apply(integration);
+            if (earliestStart == null || window.start().isBefore(earliestStart)) {
+                earliestStart = window.start();
+            }
+            if (window.isCapped(end)) {
+                log.warn("사방넷 밀린 구간 분할 수집: mall={}, {} ~ {} (요청 끝 {})",
+                    mallLabel(integration), window.start(), window.end(), end);
+            }
+            SabangnetCollectResult result = collectIntegration(integration, window.start(), window.end());
             collected += result.collectedCount();
             saved += result.savedCount();
             processed += result.processedCount();
@@ -89,7 +131,7 @@ public class SabangnetOrderCollectionService {
         return SabangnetCollectResult.builder()
             .success(success)
             .message(message)
-            .startDate(start)
+            .startDate(earliestStart)
             .endDate(end)
             .integrationCount(integrations.size())
             .testMode(testMode)
@@ -101,7 +143,7 @@ public class SabangnetOrderCollectionService {
             .build();
     }
 
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public SabangnetCollectResult collect(UUID integrationId, LocalDateTime startDate, LocalDateTime endDate) {
         LocalDateTime end = endDate == null ? LocalDateTime.now() : endDate;
         LocalDateTime start = startDate == null ? end.minusDays(1) : startDate;
@@ -110,7 +152,7 @@ public class SabangnetOrderCollectionService {
         return collectIntegration(integration, start, end);
     }
 
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public SabangnetCollectResult collectByIntegrationKey(String integrationKey, LocalDateTime startDate, LocalDateTime endDate) {
         LocalDateTime end = endDate == null ? LocalDateTime.now() : endDate;
         LocalDateTime start = startDate == null ? end.minusDays(1) : startDate;
@@ -141,29 +183,34 @@ public class SabangnetOrderCollectionService {
         List<Map<String, Object>> sampleOrders = List.of();
 
         try {
-            String rawResponse = requestOrders(integration, start, end);
-            List<CollectedOrder> orders = parseOrders(rawResponse);
-            collected += orders.size();
-            if (testMode) {
-                sampleOrders = summarizeCollectedOrders(orders);
+            SabangnetResponse response = requestOrders(integration, start, end);
+            try {
+                // 원본 응답은 수집 배치로 1회만 보관하고, 주문별로는 자기 조각만 저장
+                UUID batchId = testMode ? null : collectionBatchService.saveBatch(
+                    channelCode, start, end, response.file(), response.charset().name());
+
+                // 응답 전체를 메모리에 올리지 않고 주문 단위로 파싱하여 청크 저장
+                OrderChunkWriter writer = new OrderChunkWriter(channelCode, testMode, batchId);
+                collected = parseOrders(response, writer);
+                writer.flush();
+                saved = writer.saved;
+                if (testMode) {
+                    sampleOrders = summarizeCollectedOrders(writer.samples);
+                } else {
+                    collectionBatchService.completeBatch(batchId, collected, saved);
+                }
+            } finally {
+                Files.deleteIfExists(response.file());
             }
 
             if (!testMode) {
-                for (CollectedOrder order : orders) {
-                    order.setChannelCode(channelCode);
-                    if (order.getRawJson() == null || order.getRawJson().isBlank()) {
-                        order.setRawJson(objectMapper.writeValueAsString(order));
-                    }
-                    rawOrderService.saveRawOrder(order);
-                    saved++;
-                }
-
-                integration.setLastCollectedAt(end);
+                // 저장이 끝난 구간까지만 커서 전진
+                integration.advanceCollectionCursor(end);
                 integrationRepository.save(integration);
                 processed = processingService.processUnprocessedOrdersByChannel(channelCode);
-                log.info("사방넷 주문 수집 완료: mall={}, channel={}, collected={}", mallLabel(integration), channelCode, orders.size());
+                log.info("사방넷 주문 수집 완료: mall={}, channel={}, collected={}", mallLabel(integration), channelCode, collected);
             } else {
-                log.info("사방넷 테스트 수집 완료: mall={}, channel={}, fetched={}", mallLabel(integration), channelCode, orders.size());
+                log.info("사방넷 테스트 수집 완료: mall={}, channel={}, fetched={}", mallLabel(integration), channelCode, collected);
             }
         } catch (Exception e) {
             String message = mallLabel(integration) + ": " + readableError(e);
@@ -191,25 +238,46 @@ public class SabangnetOrderCollectionService {
             .build();
     }
 
-    private String requestOrders(SabangnetIntegration integration, LocalDateTime start, LocalDateTime end) {
+    /**
+     * 주문 조회 API 호출 - 응답 본문을 임시 파일로 스트리밍 저장
+     *
+     * 수십 MB 응답도 String 으로 버퍼링하지 않으며, 응답 Content-Type 의 charset 을 함께 반환합니다.
+     * 호출한 쪽에서 파일을 삭제해야 합니다.
+     */
+    private SabangnetResponse requestOrders(SabangnetIntegration integration, LocalDateTime start, LocalDateTime end) throws IOException {
         String startText = start.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
         String endText = end.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        Path file = Files.createTempFile("sabangnet-orders-", ".tmp");
 
-        return WebClient.create()
-            .post()
-            .uri(integration.getApiBaseUrl())
-            .contentType(MediaType.APPLICATION_FORM_URLENCODED)
-            .accept(MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, MediaType.TEXT_XML, MediaType.TEXT_PLAIN)
-            .body(BodyInserters.fromFormData("sabangnetId", integration.getSabangnetId())
-                .with("apiKey", integration.getApiKey())
-                .with("mallCode", integration.getMallCode() == null ? "" : integration.getMallCode())
-                .with("shopCode", integration.getMallCode() == null ? "" : integration.getMallCode())
-                .with("startDate", startText)
-                .with("endDate", endText)
-                .with("logisticsPlaceId", integration.getLogisticsPlaceId() == null ? "" : integration.getLogisticsPlaceId()))
-            .retrieve()
-            .bodyToMono(String.class)
-            .block();
+        try {
+            Charset charset = WebClient.create()
+                .post()
+                .uri(integration.getApiBaseUrl())
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .accept(MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, MediaType.TEXT_XML, MediaType.TEXT_PLAIN)
+                .body(BodyInserters.fromFormData("sabangnetId", integration.getSabangnetId())
+                    .with("apiKey", integration.getApiKey())
+                    .with("mallCode", integration.getMallCode() == null ? "" : integration.getMallCode())
+                    .with("shopCode", integration.getMallCode() == null ? "" : integration.getMallCode())
+                    .with("startDate", startText)
+                    .with("endDate", endText)
+                    .with("logisticsPlaceId", integration.getLogisticsPlaceId() == null ? "" : integration.getLogisticsPlaceId()))
+                .exchangeToMono(response -> {
+                    if (response.statusCode().isError()) {
+                        return response.<Charset>createError();
+                    }
+                    Charset responseCharset = response.headers().contentType()
+                        .map(MediaType::getCharset)
+                        .orElse(StandardCharsets.UTF_8);
+                    return DataBufferUtils.write(response.bodyToFlux(DataBuffer.class), file)
+                        .thenReturn(responseCharset);
+                })
+                .block();
+            return new SabangnetResponse(file, charset == null ? StandardCharsets.UTF_8 : charset);
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
     }
 
     private String readableError(Exception e) {
@@ -225,161 +293,50 @@ public class SabangnetOrderCollectionService {
         return message.isBlank() ? e.getClass().getSimpleName() : message;
     }
 
-    private List<CollectedOrder> parseOrders(String rawResponse) throws Exception {
-        if (rawResponse == null || rawResponse.isBlank()) {
-            return List.of();
+    /**
+     * 응답 앞부분으로 형식(HTML/XML/JSON)을 판별한 뒤 주문 단위로 스트리밍 파싱
+     *
+     * @return 파싱된(유효한) 주문 수
+     */
+    private int parseOrders(SabangnetResponse response, Consumer<CollectedOrder> sink) throws Exception {
+        String text = readHead(response).replace("\uFEFF", "").trim();
+        if (text.isEmpty()) {
+            return 0;
         }
-        String text = rawResponse.replace("\uFEFF", "").trim();
         if (looksLikeHtmlPage(text)) {
             throw new IllegalArgumentException("주문 API가 아니라 웹 페이지 HTML이 응답했습니다. API URL에 무신사/사방넷 로그인 페이지가 아닌 주문조회 API 엔드포인트를 등록해야 합니다. / 응답 제목: " + htmlTitle(text));
         }
-        if (text.startsWith("<") || text.contains("<?xml") || looksLikeXmlFragment(text)) {
-            try {
-                return parseXmlOrders(text);
-            } catch (Exception e) {
-                throw new IllegalArgumentException("XML 응답 파싱 실패: " + readableParseError(e) + " / 응답 앞부분: " + responsePreview(text));
-            }
-        }
-        try {
-            return parseJsonOrders(text);
-        } catch (Exception e) {
-            throw new IllegalArgumentException("JSON 응답 파싱 실패: " + readableParseError(e) + " / 응답 앞부분: " + responsePreview(text));
-        }
-    }
-
-    private List<CollectedOrder> parseJsonOrders(String rawResponse) throws Exception {
-        JsonNode root = objectMapper.readTree(rawResponse);
-        List<JsonNode> nodes = new ArrayList<>();
-        collectOrderNodes(root, nodes);
-
-        List<CollectedOrder> orders = new ArrayList<>();
-        for (JsonNode node : nodes) {
-            CollectedOrder order = mapJsonOrder(node);
-            if (order != null && order.isValid()) {
-                order.setRawJson(node.toString());
-                orders.add(order);
+        try (Reader reader = openReader(response)) {
+            if (text.startsWith("<") || text.contains("<?xml") || looksLikeXmlFragment(text)) {
+                try {
+                    return orderParser.parseXml(reader, sink);
+                } catch (XMLStreamException | DOMException e) {
+                    throw new IllegalArgumentException("XML 응답 파싱 실패: " + readableParseError(e) + " / 응답 앞부분: " + responsePreview(text));
+                }
             }
-        }
-        return orders;
-    }
-
-    private void collectOrderNodes(JsonNode node, List<JsonNode> nodes) {
-        if (node == null || node.isNull()) return;
-        if (node.isArray()) {
-            node.forEach(child -> collectOrderNodes(child, nodes));
-            return;
-        }
-        if (!node.isObject()) return;
-
-        JsonNode array = firstArray(node, "orders", "orderList", "list", "data", "items", "result");
-        if (array != null) {
-            array.forEach(child -> collectOrderNodes(child, nodes));
-            return;
-        }
-        if (text(node, "orderNo", "order_no", "ordNo", "mallOrderNo", "channelOrderNo", "order_id") != null) {
-            nodes.add(node);
-        }
-    }
-
-    private CollectedOrder mapJsonOrder(JsonNode node) {
-        String orderNo = text(node, "channelOrderNo", "orderNo", "order_no", "ordNo", "mallOrderNo", "order_id");
-        if (orderNo == null) return null;
-
-        List<CollectedOrderItem> items = new ArrayList<>();
-        JsonNode itemArray = firstArray(node, "orderItems", "items", "products", "productList", "goods");
-        if (itemArray != null) {
-            itemArray.forEach(item -> items.add(mapJsonItem(item, node)));
-        } else {
-            items.add(mapJsonItem(node, node));
-        }
-
-        return CollectedOrder.builder()
-            .channelCode("SABANGNET")
-            .channelOrderNo(orderNo)
-            .customerName(text(node, "customerName", "buyerName", "orderName", "ordName"))
-            .customerPhone(text(node, "customerPhone", "buyerPhone", "orderTel", "ordTel"))
-            .recipientName(text(node, "recipientName", "receiverName", "recvName", "rcvName", "name"))
-            .recipientPhone(text(node, "recipientPhone", "receiverPhone", "recvTel", "rcvTel", "phone"))
-            .postalCode(text(node, "postalCode", "zip", "zipcode", "recvZip"))
-            .address(text(node, "address", "receiverAddress", "recvAddr", "addr"))
-            .addressDetail(text(node, "addressDetail", "receiverAddressDetail", "recvAddrDetail", "addrDetail"))
-            .deliveryMemo(text(node, "deliveryMemo", "memo", "deliveryMessage", "shipMemo"))
-            .totalAmount(decimal(node, "totalAmount", "orderAmount", "payAmount", "amount"))
-            .paymentAmount(decimal(node, "paymentAmount", "payAmount", "settleAmount"))
-            .status(text(node, "status", "orderStatus", "ordStatus"))
-            .paymentStatus(text(node, "paymentStatus", "payStatus"))
-            .orderedAt(dateTime(node, "orderedAt", "orderDate", "ordDate", "regDate"))
-            .paidAt(dateTime(node, "paidAt", "payDate"))
-            .items(items)
-            .build();
-    }
-
-    private CollectedOrderItem mapJsonItem(JsonNode item, JsonNode order) {
-        BigDecimal unitPrice = decimal(item, "unitPrice", "price", "salePrice", "goodsPrice");
-        Integer quantity = integer(item, "quantity", "qty", "orderQty", "count");
-        return CollectedOrderItem.builder()
-            .channelProductCode(text(item, "channelProductCode", "productCode", "goodsNo", "goodsCode", "sku"))
-            .productName(text(item, "productName", "goodsName", "itemName", "name"))
-            .optionName(text(item, "optionName", "option", "optionValue"))
-            .quantity(quantity == null ? 1 : quantity)
-            .unitPrice(unitPrice == null ? BigDecimal.ZERO : unitPrice)
-            .totalPrice(decimal(item, "totalPrice", "amount"))
-            .barcode(text(item, "barcode", "barCode"))
-            .sku(text(item, "sku", "optionCode"))
-            .build();
-    }
-
-    private List<CollectedOrder> parseXmlOrders(String rawResponse) throws Exception {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-        Document document = parseXmlDocument(factory, rawResponse);
-        document.getDocumentElement().normalize();
-
-        List<Element> orderElements = elementsByName(document, "order");
-        if (orderElements.isEmpty()) {
-            orderElements = elementsByName(document, "Order");
-        }
-        if (orderElements.isEmpty()) {
-            orderElements = List.of(document.getDocumentElement());
-        }
-
-        List<CollectedOrder> orders = new ArrayList<>();
-        for (Element element : orderElements) {
-            CollectedOrder order = mapXmlOrder(element);
-            if (order != null && order.isValid()) {
-                order.setRawJson(rawResponse);
-                orders.add(order);
+            try {
+                return orderParser.parseJson(reader, sink);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("JSON 응답 파싱 실패: " + readableParseError(e) + " / 응답 앞부분: " + responsePreview(text));
             }
         }
-        return orders;
     }
 
-    private Document parseXmlDocument(DocumentBuilderFactory factory, String rawResponse) throws Exception {
-        String xml = normalizeXmlText(rawResponse);
-        try {
-            return factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
-        } catch (SAXException first) {
-            String wrapped = "<root>" + stripXmlDeclaration(xml) + "</root>";
-            return factory.newDocumentBuilder().parse(new InputSource(new StringReader(wrapped)));
-        }
+    private Reader openReader(SabangnetResponse response) throws IOException {
+        // 잘못된 바이트는 예외 대신 대체 문자로 읽음 (기존 String 디코딩과 동일)
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(response.file()), response.charset()));
     }
 
-    private String normalizeXmlText(String rawResponse) {
-        String text = rawResponse == null ? "" : rawResponse.replace("\uFEFF", "").trim();
-        int declarationIndex = text.indexOf("<?xml");
-        if (declarationIndex > 0) {
-            text = text.substring(declarationIndex);
-        } else {
-            int firstMarkup = text.indexOf('<');
-            if (firstMarkup > 0) {
-                text = text.substring(firstMarkup);
+    private String readHead(SabangnetResponse response) throws IOException {
+        try (Reader reader = openReader(response)) {
+            char[] buffer = new char[RESPONSE_HEAD_LENGTH];
+            int length = 0;
+            int read;
+            while (length < buffer.length && (read = reader.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
             }
+            return new String(buffer, 0, length);
         }
-        return text.trim();
-    }
-
-    private String stripXmlDeclaration(String xml) {
-        return xml.replaceFirst("^\\s*<\\?xml[^>]*>\\s*", "");
     }
 
     private boolean looksLikeXmlFragment(String text) {
@@ -422,51 +379,6 @@ public class SabangnetOrderCollectionService {
         return preview.length() > 500 ? preview.substring(0, 500) + "..." : preview;
     }
 
-    private CollectedOrder mapXmlOrder(Element element) {
-        String orderNo = xmlText(element, "channelOrderNo", "orderNo", "ordNo", "mallOrderNo", "order_id");
-        if (orderNo == null) return null;
-
-        List<CollectedOrderItem> items = new ArrayList<>();
-        List<Element> itemElements = childElementsByName(element, "item");
-        if (itemElements.isEmpty()) itemElements = childElementsByName(element, "goods");
-        if (itemElements.isEmpty()) {
-            items.add(mapXmlItem(element));
-        } else {
-            itemElements.forEach(item -> items.add(mapXmlItem(item)));
-        }
-
-        return CollectedOrder.builder()
-            .channelCode("SABANGNET")
-            .channelOrderNo(orderNo)
-            .customerName(xmlText(element, "customerName", "buyerName", "orderName", "ordName"))
-            .customerPhone(xmlText(element, "customerPhone", "buyerPhone", "orderTel", "ordTel"))
-            .recipientName(xmlText(element, "recipientName", "receiverName", "recvName", "rcvName", "name"))
-            .recipientPhone(xmlText(element, "recipientPhone", "receiverPhone", "recvTel", "rcvTel", "phone"))
-            .postalCode(xmlText(element, "postalCode", "zip", "zipcode", "recvZip"))
-            .address(xmlText(element, "address", "receiverAddress", "recvAddr", "addr"))
-            .addressDetail(xmlText(element, "addressDetail", "receiverAddressDetail", "recvAddrDetail", "addrDetail"))
-            .deliveryMemo(xmlText(element, "deliveryMemo", "memo", "deliveryMessage", "shipMemo"))
-            .status(xmlText(element, "status", "orderStatus", "ordStatus"))
-            .paymentStatus(xmlText(element, "paymentStatus", "payStatus"))
-            .orderedAt(parseDateTime(xmlText(element, "orderedAt", "orderDate", "ordDate", "regDate")))
-            .paidAt(parseDateTime(xmlText(element, "paidAt", "payDate")))
-            .items(items)
-            .build();
-    }
-
-    private CollectedOrderItem mapXmlItem(Element element) {
-        Integer quantity = parseInteger(xmlText(element, "quantity", "qty", "orderQty", "count"));
-        BigDecimal unitPrice = parseDecimal(xmlText(element, "unitPrice", "price", "salePrice", "goodsPrice"));
-        return CollectedOrderItem.builder()
-            .channelProductCode(xmlText(element, "channelProductCode", "productCode", "goodsNo", "goodsCode", "sku"))
-            .productName(xmlText(element, "productName", "goodsName", "itemName", "name"))
-            .optionName(xmlText(element, "optionName", "option", "optionValue"))
-            .quantity(quantity == null ? 1 : quantity)
-            .unitPrice(unitPrice == null ? BigDecimal.ZERO : unitPrice)
-            .barcode(xmlText(element, "barcode", "barCode"))
-            .sku(xmlText(element, "sku", "optionCode"))
-            .build();
-    }
 
     private SalesChannel ensureSabangnetChannel(SabangnetIntegration integration, String channelCode) {
         return salesChannelRepository.findByChannelCode(channelCode).orElseGet(() ->
@@ -512,126 +424,6 @@ public class SabangnetOrderCollectionService {
         return left != null && right != null && left.trim().equalsIgnoreCase(right.trim());
     }
 
-    private JsonNode firstArray(JsonNode node, String... names) {
-        for (String name : names) {
-            JsonNode found = findField(node, name);
-            if (found != null && found.isArray()) return found;
-        }
-        return null;
-    }
-
-    private String text(JsonNode node, String... names) {
-        JsonNode found = null;
-        for (String name : names) {
-            found = findField(node, name);
-            if (found != null && !found.isNull() && !found.asText().isBlank()) {
-                return found.asText().trim();
-            }
-        }
-        return null;
-    }
-
-    private JsonNode findField(JsonNode node, String name) {
-        if (node == null || !node.isObject()) return null;
-        String target = normalizeKey(name);
-        Iterator<String> names = node.fieldNames();
-        while (names.hasNext()) {
-            String current = names.next();
-            if (normalizeKey(current).equals(target)) {
-                return node.get(current);
-            }
-        }
-        return null;
-    }
-
-    private BigDecimal decimal(JsonNode node, String... names) {
-        return parseDecimal(text(node, names));
-    }
-
-    private Integer integer(JsonNode node, String... names) {
-        return parseInteger(text(node, names));
-    }
-
-    private LocalDateTime dateTime(JsonNode node, String... names) {
-        return parseDateTime(text(node, names));
-    }
-
-    private String xmlText(Element element, String... names) {
-        for (String name : names) {
-            String target = normalizeKey(name);
-            NodeList children = element.getChildNodes();
-            for (int i = 0; i < children.getLength(); i++) {
-                Node child = children.item(i);
-                if (child instanceof Element childElement && normalizeKey(childElement.getTagName()).equals(target)) {
-                    String value = childElement.getTextContent();
-                    if (value != null && !value.isBlank()) return value.trim();
-                }
-            }
-        }
-        return null;
-    }
-
-    private List<Element> elementsByName(Document document, String name) {
-        NodeList nodes = document.getElementsByTagName(name);
-        List<Element> elements = new ArrayList<>();
-        for (int i = 0; i < nodes.getLength(); i++) {
-            if (nodes.item(i) instanceof Element element) elements.add(element);
-        }
-        return elements;
-    }
-
-    private List<Element> childElementsByName(Element element, String name) {
-        String target = normalizeKey(name);
-        List<Element> elements = new ArrayList<>();
-        NodeList children = element.getChildNodes();
-        for (int i = 0; i < children.getLength(); i++) {
-            Node child = children.item(i);
-            if (child instanceof Element childElement && normalizeKey(childElement.getTagName()).equals(target)) {
-                elements.add(childElement);
-            }
-        }
-        return elements;
-    }
-
-    private String normalizeKey(String value) {
-        return value == null ? "" : value.replaceAll("[^A-Za-z0-9]", "").toLowerCase();
-    }
-
-    private BigDecimal parseDecimal(String value) {
-        if (value == null || value.isBlank()) return null;
-        try {
-            return new BigDecimal(value.replaceAll("[^0-9.-]", ""));
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    private Integer parseInteger(String value) {
-        if (value == null || value.isBlank()) return null;
-        try {
-            return Integer.parseInt(value.replaceAll("[^0-9-]", ""));
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    private LocalDateTime parseDateTime(String value) {
-        if (value == null || value.isBlank()) return null;
-        List<DateTimeFormatter> formatters = List.of(
-            DateTimeFormatter.ISO_LOCAL_DATE_TIME,
-            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
-            DateTimeFormatter.ofPattern("yyyyMMddHHmmss"),
-            DateTimeFormatter.ofPattern("yyyyMMddHHmm")
-        );
-        for (DateTimeFormatter formatter : formatters) {
-            try {
-                return LocalDateTime.parse(value.trim(), formatter);
-            } catch (Exception ignored) {
-            }
-        }
-        return null;
-    }
-
     private List<Map<String, Object>> summarizeCollectedOrders(List<CollectedOrder> orders) {
         if (orders == null || orders.isEmpty()) {
             return List.of();
@@ -683,6 +475,50 @@ public class SabangnetOrderCollectionService {
         return value == null ? "" : value.trim();
     }
 
+    private record SabangnetResponse(Path file, Charset charset) {}
+
+    /**
+     * 파싱된 주문을 SAVE_CHUNK_SIZE 단위로 모아 벌크 저장
+     * 테스트 모드에서는 저장하지 않고 미리보기용 샘플만 보관합니다.
+     */
+    private final class OrderChunkWriter implements Consumer<CollectedOrder> {
+        private final String channelCode;
+        private final boolean testMode;
+        private final UUID batchId;
+        private final List<CollectedOrder> samples = new ArrayList<>();
+        private List<CollectedOrder> chunk = new ArrayList<>();
+        private int saved;
+
+        private OrderChunkWriter(String channelCode, boolean testMode, UUID batchId) {
+            this.channelCode = channelCode;
+            this.testMode = testMode;
+            this.batchId = batchId;
+        }
+
+        @Override
+        public void accept(CollectedOrder order) {
+            if (testMode) {
+                if (samples.size() < SAMPLE_LIMIT) {
+                    samples.add(order);
+                }
+                return;
+            }
+            order.setChannelCode(channelCode);
+            chunk.add(order);
+            if (chunk.size() >= SAVE_CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (testMode || chunk.isEmpty()) {
+                return;
+            }
+            saved += rawOrderService.saveRawOrders(channelCode, chunk, batchId).inserted();
+            chunk = new ArrayList<>();
+        }
+    }
+
     @Builder
     public record SabangnetCollectResult(
         boolean success,
@@ -0,0 +1,516 @@
+package com.oms.collector.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.oms.collector.dto.CollectedOrder;
+import com.oms.collector.dto.CollectedOrderItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 사방넷 주문 응답 스트리밍 파서
+ *
+ * 응답 전체를 DOM/트리로 만들지 않고 주문 단위로 읽어 sink 에 넘깁니다.
+ * - XML: StAX 로 읽으면서 주문(order/Order) 요소 하나만 작은 DOM 으로 만들어 매핑.
+ *   order 와 Order 를 똑같이 주문으로 보고, 주문 요소 안에 다시 나오는 order 요소는 별도 주문이 아니라
+ *   바깥 주문의 하위 요소로 취급 (가장 바깥 주문 요소 우선 — 예전 DOM 방식은 order 가 있으면 Order 를 무시)
+ * - JSON: Jackson JsonParser 로 컨테이너 배열(orders, list, data ...)을 원소 단위로 읽어 매핑
+ * 필드 별칭 규칙(text, xmlText)은 기존 파싱 로직과 동일합니다.
+ * 각 주문의 rawJson 에는 응답 전체가 아니라 해당 주문의 원본 조각(JSON 객체 / XML 요소)만 담깁니다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SabangnetOrderParser {
+
+    private static final Set<String> CONTAINER_KEYS = Set.of("orders", "orderlist", "list", "data", "items", "result");
+    private static final String[] ORDER_NO_KEYS = {"orderNo", "order_no", "ordNo", "mallOrderNo", "channelOrderNo", "order_id"};
+    private static final List<DateTimeFormatter> DATE_TIME_FORMATTERS = List.of(
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME,
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
+        DateTimeFormatter.ofPattern("yyyyMMddHHmmss"),
+        DateTimeFormatter.ofPattern("yyyyMMddHHmm")
+    );
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * JSON 응답을 주문 단위로 읽어 sink 에 전달
+     *
+     * @return 전달한(유효한) 주문 수
+     */
+    public int parseJson(Reader reader, Consumer<CollectedOrder> sink) throws IOException {
+        OrderSink orders = new OrderSink(sink);
+        try (JsonParser parser = objectMapper.getFactory().createParser(reader)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                streamJsonArray(parser, orders);
+            } else if (token == JsonToken.START_OBJECT) {
+                streamJsonObject(parser, orders);
+            }
+        }
+        return orders.count;
+    }
+
+    /**
+     * XML 응답을 주문 단위로 읽어 sink 에 전달
+     *
+     * 루트가 여러 개인 조각 응답도 처리할 수 있도록 항상 가상의 &lt;root&gt; 로 감싸서 읽습니다.
+     * 주문 요소가 하나도 없으면 (단건 응답) 최상위 요소 자체를 주문으로 매핑합니다.
+     *
+     * @return 전달한(유효한) 주문 수
+     */
+    public int parseXml(Reader reader, Consumer<CollectedOrder> sink) throws Exception {
+        OrderSink orders = new OrderSink(sink);
+        Document document = newDocument();
+        Document orderDocument = newDocument();
+        Transformer fragmentWriter = newFragmentWriter();
+        XMLStreamReader xml = XML_INPUT_FACTORY.createXMLStreamReader(wrapXmlFragment(reader));
+        try {
+            // 주문 바깥 요소는 뼈대만 유지 (주문 요소는 붙이지 않으므로 크기가 응답 크기에 비례하지 않음)
+            Deque<Element> stack = new ArrayDeque<>();
+            Element orderRoot = null;
+            int depth = 0;
+            int orderDepth = -1;
+
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String name = xml.getLocalName();
+                    Element element;
+                    if (orderRoot == null && isOrderElement(name)) {
+                        element = orderDocument.createElement(name);
+                        orderRoot = element;
+                        orderDepth = depth;
+                    } else if (orderRoot != null) {
+                        element = orderDocument.createElement(name);
+                        stack.peek().appendChild(element);
+                    } else {
+                        element = document.createElement(name);
+                        if (stack.isEmpty()) {
+                            document.appendChild(element);
+                        } else {
+                            stack.peek().appendChild(element);
+                        }
+                    }
+                    for (int i = 0; i < xml.getAttributeCount(); i++) {
+                        element.setAttribute(xml.getAttributeLocalName(i), xml.getAttributeValue(i));
+                    }
+                    stack.push(element);
+                } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                    if (!stack.isEmpty() && !xml.isWhiteSpace()) {
+                        Element current = stack.peek();
+                        current.appendChild(current.getOwnerDocument().createTextNode(xml.getText()));
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    Element finished = stack.pop();
+                    if (orderRoot != null && depth == orderDepth) {
+                        orders.accept(mapXmlOrder(finished), xmlFragment(fragmentWriter, finished));
+                        orderRoot = null;
+                        orderDepth = -1;
+                    }
+                    depth--;
+                }
+            }
+        } finally {
+            xml.close();
+        }
+
+        if (orders.count == 0 && document.getDocumentElement() != null) {
+            List<Element> topLevel = childElements(document.getDocumentElement());
+            Element single = topLevel.size() == 1 ? topLevel.get(0) : document.getDocumentElement();
+            orders.accept(mapXmlOrder(single), xmlFragment(fragmentWriter, single));
+        }
+        return orders.count;
+    }
+
+    // ─── JSON 스트리밍 ─────────────────────────────────────────
+
+    private void streamJsonArray(JsonParser parser, OrderSink orders) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+            if (token == JsonToken.START_OBJECT) {
+                streamJsonObject(parser, orders);
+            } else if (token == JsonToken.START_ARRAY) {
+                streamJsonArray(parser, orders);
+            }
+        }
+    }
+
+    /**
+     * 객체 하나를 읽습니다.
+     * 컨테이너 배열 필드(orders, list ...)가 있으면 그 배열을 원소 단위로 스트리밍하고,
+     * 없으면 버퍼링한 필드에 주문번호가 있을 때 객체 자체를 주문으로 봅니다.
+     */
+    private void streamJsonObject(JsonParser parser, OrderSink orders) throws IOException {
+        ObjectNode buffered = objectMapper.createObjectNode();
+        boolean streamedContainer = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (!streamedContainer && value == JsonToken.START_ARRAY && CONTAINER_KEYS.contains(normalizeKey(name))) {
+                streamedContainer = true;
+                streamJsonArray(parser, orders);
+            } else {
+                buffered.set(name, objectMapper.readTree(parser));
+            }
+        }
+        if (!streamedContainer && text(buffered, ORDER_NO_KEYS) != null) {
+            orders.accept(mapJsonOrder(buffered), buffered.toString());
+        }
+    }
+
+    // ─── 매핑 ─────────────────────────────────────────────────
+
+    private CollectedOrder mapJsonOrder(JsonNode node) {
+        String orderNo = text(node, "channelOrderNo", "orderNo", "order_no", "ordNo", "mallOrderNo", "order_id");
+        if (orderNo == null) return null;
+
+        List<CollectedOrderItem> items = new ArrayList<>();
+        JsonNode itemArray = firstArray(node, "orderItems", "items", "products", "productList", "goods");
+        if (itemArray != null) {
+            itemArray.forEach(item -> items.add(mapJsonItem(item, node)));
+        } else {
+            items.add(mapJsonItem(node, node));
+        }
+
+        return CollectedOrder.builder()
+            .channelCode("SABANGNET")
+            .channelOrderNo(orderNo)
+            .customerName(text(node, "customerName", "buyerName", "orderName", "ordName"))
+            .customerPhone(text(node, "customerPhone", "buyerPhone", "orderTel", "ordTel"))
+            .recipientName(text(node, "recipientName", "receiverName", "recvName", "rcvName", "name"))
+            .recipientPhone(text(node, "recipientPhone", "receiverPhone", "recvTel", "rcvTel", "phone"))
+            .postalCode(text(node, "postalCode", "zip", "zipcode", "recvZip"))
+            .address(text(node, "address", "receiverAddress", "recvAddr", "addr"))
+            .addressDetail(text(node, "addressDetail", "receiverAddressDetail", "recvAddrDetail", "addrDetail"))
+            .deliveryMemo(text(node, "deliveryMemo", "memo", "deliveryMessage", "shipMemo"))
+            .totalAmount(decimal(node, "totalAmount", "orderAmount", "payAmount", "amount"))
+            .paymentAmount(decimal(node, "paymentAmount", "payAmount", "settleAmount"))
+            .status(text(node, "status", "orderStatus", "ordStatus"))
+            .paymentStatus(text(node, "paymentStatus", "payStatus"))
+            .orderedAt(dateTime(node, "orderedAt", "orderDate", "ordDate", "regDate"))
+            .paidAt(dateTime(node, "paidAt", "payDate"))
+            .items(items)
+            .build();
+    }
+
+    private CollectedOrderItem mapJsonItem(JsonNode item, JsonNode order) {
+        BigDecimal unitPrice = decimal(item, "unitPrice", "price", "salePrice", "goodsPrice");
+        Integer quantity = integer(item, "quantity", "qty", "orderQty", "count");
+        return CollectedOrderItem.builder()
+            .channelProductCode(text(item, "channelProductCode", "productCode", "goodsNo", "goodsCode", "sku"))
+            .productName(text(item, "productName", "goodsName", "itemName", "name"))
+            .optionName(text(item, "optionName", "option", "optionValue"))
+            .quantity(quantity == null ? 1 : quantity)
+            .unitPrice(unitPrice == null ? BigDecimal.ZERO : unitPrice)
+            .totalPrice(decimal(item, "totalPrice", "amount"))
+            .barcode(text(item, "barcode", "barCode"))
+            .sku(text(item, "sku", "optionCode"))
+            .build();
+    }
+
+    private CollectedOrder mapXmlOrder(Element element) {
+        String orderNo = xmlText(element, "channelOrderNo", "orderNo", "ordNo", "mallOrderNo", "order_id");
+        if (orderNo == null) return null;
+
+        List<CollectedOrderItem> items = new ArrayList<>();
+        List<Element> itemElements = childElementsByName(element, "item");
+        if (itemElements.isEmpty()) itemElements = childElementsByName(element, "goods");
+        if (itemElements.isEmpty()) {
+            items.add(mapXmlItem(element));
+        } else {
+            itemElements.forEach(item -> items.add(mapXmlItem(item)));
+        }
+
+        return CollectedOrder.builder()
+            .channelCode("SABANGNET")
+            .channelOrderNo(orderNo)
+            .customerName(xmlText(element, "customerName", "buyerName", "orderName", "ordName"))
+            .customerPhone(xmlText(element, "customerPhone", "buyerPhone", "orderTel", "ordTel"))
+            .recipientName(xmlText(element, "recipientName", "receiverName", "recvName", "rcvName", "name"))
+            .recipientPhone(xmlText(element, "recipientPhone", "receiverPhone", "recvTel", "rcvTel", "phone"))
+            .postalCode(xmlText(element, "postalCode", "zip", "zipcode", "recvZip"))
+            .address(xmlText(element, "address", "receiverAddress", "recvAddr", "addr"))
+            .addressDetail(xmlText(element, "addressDetail", "receiverAddressDetail", "recvAddrDetail", "addrDetail"))
+            .deliveryMemo(xmlText(element, "deliveryMemo", "memo", "deliveryMessage", "shipMemo"))
+            .status(xmlText(element, "status", "orderStatus", "ordStatus"))
+            .paymentStatus(xmlText(element, "paymentStatus", "payStatus"))
+            .orderedAt(parseDateTime(xmlText(element, "orderedAt", "orderDate", "ordDate", "regDate")))
+            .paidAt(parseDateTime(xmlText(element, "paidAt", "payDate")))
+            .items(items)
+            .build();
+    }
+
+    private CollectedOrderItem mapXmlItem(Element element) {
+        Integer quantity = parseInteger(xmlText(element, "quantity", "qty", "orderQty", "count"));
+        BigDecimal unitPrice = parseDecimal(xmlText(element, "unitPrice", "price", "salePrice", "goodsPrice"));
+        return CollectedOrderItem.builder()
+            .channelProductCode(xmlText(element, "channelProductCode", "productCode", "goodsNo", "goodsCode", "sku"))
+            .productName(xmlText(element, "productName", "goodsName", "itemName", "name"))
+            .optionName(xmlText(element, "optionName", "option", "optionValue"))
+            .quantity(quantity == null ? 1 : quantity)
+            .unitPrice(unitPrice == null ? BigDecimal.ZERO : unitPrice)
+            .barcode(xmlText(element, "barcode", "barCode"))
+            .sku(xmlText(element, "sku", "optionCode"))
+            .build();
+    }
+
+    // ─── 필드 별칭 조회 ───────────────────────────────────────
+
+    private JsonNode firstArray(JsonNode node, String... names) {
+        for (String name : names) {
+            JsonNode found = findField(node, name);
+            if (found != null && found.isArray()) return found;
+        }
+        return null;
+    }
+
+    private String text(JsonNode node, String... names) {
+        JsonNode found = null;
+        for (String name : names) {
+            found = findField(node, name);
+            if (found != null && !found.isNull() && !found.asText().isBlank()) {
+                return found.asText().trim();
+            }
+        }
+        return null;
+    }
+
+    private JsonNode findField(JsonNode node, String name) {
+        if (node == null || !node.isObject()) return null;
+        String target = normalizeKey(name);
+        Iterator<String> names = node.fieldNames();
+        while (names.hasNext()) {
+            String current = names.next();
+            if (normalizeKey(current).equals(target)) {
+                return node.get(current);
+            }
+        }
+        return null;
+    }
+
+    private BigDecimal decimal(JsonNode node, String... names) {
+        return parseDecimal(text(node, names));
+    }
+
+    private Integer integer(JsonNode node, String... names) {
+        return parseInteger(text(node, names));
+    }
+
+    private LocalDateTime dateTime(JsonNode node, String... names) {
+        return parseDateTime(text(node, names));
+    }
+
+    private String xmlText(Element element, String... names) {
+        for (String name : names) {
+            String target = normalizeKey(name);
+            NodeList children = element.getChildNodes();
+            for (int i = 0; i < children.getLength(); i++) {
+                Node child = children.item(i);
+                if (child instanceof Element childElement && normalizeKey(childElement.getTagName()).equals(target)) {
+                    String value = childElement.getTextContent();
+                    if (value != null && !value.isBlank()) return value.trim();
+                }
+            }
+        }
+        return null;
+    }
+
+    private List<Element> childElementsByName(Element element, String name) {
+        String target = normalizeKey(name);
+        List<Element> elements = new ArrayList<>();
+        for (Element child : childElements(element)) {
+            if (normalizeKey(child.getTagName()).equals(target)) {
+                elements.add(child);
+            }
+        }
+        return elements;
+    }
+
+    private List<Element> childElements(Element element) {
+        List<Element> elements = new ArrayList<>();
+        NodeList children = element.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            if (children.item(i) instanceof Element child) {
+                elements.add(child);
+            }
+        }
+        return elements;
+    }
+
+    private String normalizeKey(String value) {
+        return value == null ? "" : value.replaceAll("[^A-Za-z0-9]", "").toLowerCase();
+    }
+
+    private BigDecimal parseDecimal(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return new BigDecimal(value.replaceAll("[^0-9.-]", ""));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private Integer parseInteger(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return Integer.parseInt(value.replaceAll("[^0-9-]", ""));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private LocalDateTime parseDateTime(String value) {
+        if (value == null || value.isBlank()) return null;
+        for (DateTimeFormatter formatter : DATE_TIME_FORMATTERS) {
+            try {
+                return LocalDateTime.parse(value.trim(), formatter);
+            } catch (Exception ignored) {
+            }
+        }
+        return null;
+    }
+
+    // ─── XML 입력 준비 ─────────────────────────────────────────
+
+    private boolean isOrderElement(String name) {
+        return "order".equals(name) || "Order".equals(name);
+    }
+
+    private Document newDocument() throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        return factory.newDocumentBuilder().newDocument();
+    }
+
+    /**
+     * 첫 '&lt;' 이전의 BOM/잡음과 XML 선언을 건너뛰고 &lt;root&gt;...&lt;/root&gt; 로 감싼 Reader 반환
+     */
+    private Reader wrapXmlFragment(Reader reader) throws IOException {
+        PushbackReader input = new PushbackReader(reader, 8);
+        int ch;
+        while ((ch = input.read()) != -1 && ch != '<') {
+            // 선행 BOM/공백/잡음 skip
+        }
+        if (ch == '<') {
+            char[] head = new char[5];
+            int read = input.read(head, 0, 4);
+            if (read == 4 && head[0] == '?' && head[1] == 'x' && head[2] == 'm' && head[3] == 'l') {
+                int previous = 0;
+                while ((ch = input.read()) != -1 && !(previous == '?' && ch == '>')) {
+                    previous = ch;
+                }
+            } else {
+                if (read > 0) input.unread(head, 0, read);
+                input.unread('<');
+            }
+        }
+        return new ConcatReader(new StringReader("<root>"), input, new StringReader("</root>"));
+    }
+
+    private Transformer newFragmentWriter() throws TransformerException {
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+        return transformer;
+    }
+
+    /** 주문 요소 하나만 XML 문자열로 직렬화 */
+    private String xmlFragment(Transformer transformer, Element element) throws TransformerException {
+        StringWriter writer = new StringWriter();
+        transformer.transform(new DOMSource(element), new StreamResult(writer));
+        return writer.toString();
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    /** 유효한 주문만 sink 로 넘기고 개수를 셈 */
+    private static final class OrderSink {
+        private final Consumer<CollectedOrder> sink;
+        private int count;
+
+        private OrderSink(Consumer<CollectedOrder> sink) {
+            this.sink = sink;
+        }
+
+        void accept(CollectedOrder order, String rawJson) {
+            if (order != null && order.isValid()) {
+                if (rawJson != null) {
+                    order.setRawJson(rawJson);
+                }
+                sink.accept(order);
+                count++;
+            }
+        }
+    }
+
+    /** 여러 Reader 를 순서대로 이어 읽는 Reader */
+    private static final class ConcatReader extends Reader {
+        private final Reader[] readers;
+        private int index;
+
+        private ConcatReader(Reader... readers) {
+            this.readers = readers;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            while (index < readers.length) {
+                int read = readers[index].read(buffer, offset, length);
+                if (read != -1) {
+                    return read;
+                }
+                index++;
+            }
+            return -1;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (Reader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.oms.collector.service;
+
+import com.oms.collector.config.TenantTables;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 재고 매칭 결과 스냅샷 캐시 (테넌트·창고별)
+ *
+ * 버전 = 테넌트 스키마의 stock_matching_version 행 값.
+ * orders / order_items / products / product_warehouse_stock 변경이 커밋될 때마다 증가하므로,
+ * 버전이 같으면 이전 계산 결과를 그대로 페이지 단위로 잘라 제공합니다.
+ * 버전은 계산 전에 읽습니다 — 행 값은 커밋 후에만 보이므로 계산 결과는 항상 그 버전 이후의 데이터입니다.
+ *
+ * 카운터를 읽을 수 없으면(마이그레이션 전 등) 캐시하지 않고 매번 계산합니다.
+ * 만료 시간은 카운터가 놓칠 수 있는 변경(트리거 없는 테이블 등)에 대한 안전장치이며,
+ * 보관 개수(max-snapshots)를 넘으면 가장 오래 계산된 스냅샷부터 버립니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockMatchingSnapshotCache {
+
+    private final JdbcTemplate jdbc;
+
+    @Value("${collector.stock-matching.snapshot-ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${collector.stock-matching.max-snapshots:64}")
+    private int maxSnapshots;
+
+    /** 테넌트:키 → 스냅샷 */
+    private final Map<String, Snapshot<?>> snapshots = new ConcurrentHashMap<>();
+
+    /** 테넌트:키 → 계산 잠금 (같은 키는 동시에 한 번만 계산) */
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    /**
+     * 현재 버전의 스냅샷 반환, 없거나 오래됐으면 computer 로 한 번만 다시 계산
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Snapshot<T> getOrCompute(String key, Supplier<T> computer) {
+        String cacheKey = TenantTables.currentSchema() + ":" + key;
+        Long version = currentVersion();
+        if (version == null) {
+            return new Snapshot<>(-1L, Instant.now(), computer.get());
+        }
+
+        Snapshot<T> cached = (Snapshot<T>) snapshots.get(cacheKey);
+        if (isFresh(cached, version)) {
+            return cached;
+        }
+
+        synchronized (locks.computeIfAbsent(cacheKey, k -> new Object())) {
+            cached = (Snapshot<T>) snapshots.get(cacheKey);
+            if (isFresh(cached, version)) {
+                return cached;
+            }
+            long t0 = System.currentTimeMillis();
+            Snapshot<T> snapshot = new Snapshot<>(version, Instant.now(), computer.get());
+            snapshots.put(cacheKey, snapshot);
+            evictOverflow();
+            log.debug("📸 재고 매칭 스냅샷 계산: {} v{} ({}ms)", cacheKey, version, System.currentTimeMillis() - t0);
+            return snapshot;
+        }
+    }
+
+    /**
+     * 현재 테넌트 스냅샷 전체 폐기
+     */
+    public void invalidate() {
+        invalidate(TenantTables.currentSchema());
+    }
+
+    /**
+     * 지정 스키마 스냅샷 전체 폐기 — 스키마 복구 등 일괄 변경 후 호출
+     */
+    public void invalidate(String schema) {
+        String prefix = schema + ":";
+        snapshots.keySet().removeIf(key -> key.startsWith(prefix));
+        locks.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * 만료된 스냅샷을 먼저 버리고, 그래도 보관 개수를 넘으면 가장 오래 계산된 것부터 버림
+     */
+    private void evictOverflow() {
+        Instant expiredBefore = Instant.now().minus(Duration.ofSeconds(ttlSeconds));
+        snapshots.entrySet().removeIf(entry -> entry.getValue().computedAt().isBefore(expiredBefore));
+        while (snapshots.size() > Math.max(1, maxSnapshots)) {
+            snapshots.entrySet().stream()
+                .min(Comparator.comparing(entry -> entry.getValue().computedAt()))
+                .map(Map.Entry::getKey)
+                .ifPresent(key -> {
+                    snapshots.remove(key);
+                    locks.remove(key);
+                });
+        }
+    }
+
+    private boolean isFresh(Snapshot<?> snapshot, long version) {
+        return snapshot != null
+            && snapshot.version() == version
+            && snapshot.computedAt().plus(Duration.ofSeconds(ttlSeconds)).isAfter(Instant.now());
+    }
+
+    /**
+     * 변경 카운터 — 커밋된 값만 읽음
+     */
+    private Long currentVersion() {
+        String table = TenantTables.qualify("stock_matching_version");
+        try {
+            // 없는 테이블을 바로 조회하면 호출한 트랜잭션이 중단되므로 존재 여부 먼저 확인
+            Boolean exists = jdbc.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table);
+            if (!Boolean.TRUE.equals(exists)) {
+                return null;
+            }
+            return jdbc.queryForObject("SELECT version FROM " + table + " WHERE id = 1", Long.class);
+        } catch (DataAccessException e) {
+            log.debug("재고 매칭 변경 카운터 조회 실패 — 캐시 없이 계산: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 계산 결과와 계산 당시 버전
+     */
+    public record Snapshot<T>(long version, Instant computedAt, T value) {}
+}
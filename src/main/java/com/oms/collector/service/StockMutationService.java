@@ -0,0 +1,323 @@
+package com.oms.collector.service;
+
+import com.oms.collector.config.TenantTables;
+import com.oms.collector.entity.Product;
+import com.oms.collector.entity.ProductWarehouseStock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 재고 증감 (원자적 SQL)
+ *
+ * 상품을 읽어 Java 에서 계산한 뒤 저장하던 방식 대신
+ * UPDATE ... SET col = col + ? WHERE ... AND col + ? >= 0 RETURNING ... 한 문장으로 증감합니다.
+ * 조건을 만족하지 못하면 행이 갱신되지 않으므로 동시 출고에도 재고가 음수로 내려가거나 덮어써지지 않고,
+ * 거래 내역의 이전/이후 재고는 RETURNING 값(이후)과 증감량(이전 = 이후 - 증감)으로 기록합니다.
+ * 창고별 재고는 모든 창고가 product_warehouse_stock 한 경로(applyWarehouse)로 증감합니다.
+ *
+ * 같은 JVM 안의 같은 상품 요청은 스트라이프 잠금으로 트랜잭션 종료까지 한 줄로 세웁니다
+ * (DB 행 잠금 대기 대신 JVM 안에서 대기, 대기 시간 초과 시 잠금 없이 진행 — 정합성은 SQL 조건이 보장).
+ * 스트라이프는 번호 오름차순으로만 기다립니다. 이미 쥔 것보다 낮은 번호는 즉시 시도만 하고 실패하면
+ * DB 행 잠금으로 진행하므로 여러 상품을 다루는 트랜잭션끼리 서로 기다리며 멈추지 않습니다.
+ * 상품 목록을 미리 알면 lockStripes 로 한 번에 정렬된 순서로 잡아 두세요.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockMutationService {
+
+    private final JdbcTemplate jdbc;
+    private final ProductCatalogIndex productCatalogIndex;
+
+    private static final int STRIPES = 256;
+    private static final long STRIPE_WAIT_MS = 3_000;
+
+    private final ReentrantLock[] stripes = createStripes();
+
+    /** 현재 트랜잭션이 쥔 스트라이프 번호 (TransactionSynchronizationManager 리소스 키) */
+    private static final String HELD_STRIPES_KEY = StockMutationService.class.getName() + ".heldStripes";
+
+    private static final String RETURNING = " RETURNING total_stock, available_stock, reserved_stock";
+
+    /**
+     * 상품 재고 증감 — 감소하는 컬럼만 0 이상 조건을 검사
+     *
+     * @return 변경 후 재고, 조건 불충족(재고 부족)이면 empty
+     * @throws IllegalArgumentException 상품이 없을 때
+     */
+    public Optional<StockLevels> apply(UUID productId, StockDelta delta) {
+        return update(productId, delta, Mode.GUARDED);
+    }
+
+    /**
+     * 상품 재고 증감 — 조건 없이 그대로 적용 (기존에 음수를 허용하던 창고 이동용)
+     */
+    public StockLevels applyUnchecked(UUID productId, StockDelta delta) {
+        return update(productId, delta, Mode.UNCHECKED).orElseThrow();
+    }
+
+    /**
+     * 상품 재고 증감 — 조건 없이 적용하되 0 아래로는 내려가지 않음 (반품 취소 강제 출고용)
+     */
+    public StockLevels applyClamped(UUID productId, StockDelta delta) {
+        return update(productId, delta, Mode.CLAMPED).orElseThrow();
+    }
+
+    /**
+     * 현재 재고 (부족 메시지용)
+     */
+    public Optional<StockLevels> current(UUID productId) {
+        return select(productId, "");
+    }
+
+    /**
+     * 현재 재고 + 행 잠금 — 0 에서 멈추는 차감처럼 변경 전 값이 필요한 경우
+     */
+    public Optional<StockLevels> lock(UUID productId) {
+        lockStripe(productId);
+        return select(productId, " FOR UPDATE");
+    }
+
+    private Optional<StockLevels> select(UUID productId, String suffix) {
+        List<StockLevels> rows = jdbc.query(
+            "SELECT total_stock, available_stock, reserved_stock FROM " + TenantTables.qualify("products") +
+            " WHERE product_id = ?" + suffix,
+            (rs, rowNum) -> StockLevels.of(rs), productId);
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * product_warehouse_stock 창고 재고 증감 (창고 코드는 ProductWarehouseStock.stockCode 로 정규화)
+     *
+     * @param guarded true 면 0 미만이 되는 차감은 거부 (empty), false 면 그대로 적용
+     * @return 변경 후 창고 재고
+     */
+    public Optional<Integer> applyWarehouse(UUID productId, String warehouseCode, String warehouseName,
+                                            int delta, boolean guarded) {
+        String code = ProductWarehouseStock.stockCode(warehouseCode);
+        lockStripe(productId);
+        List<Integer> rows;
+        if (delta < 0 && guarded) {
+            rows = jdbc.query("UPDATE " + TenantTables.qualify("product_warehouse_stock") +
+                    " SET stock = stock + ?, updated_at = NOW()" +
+                    " WHERE product_id = ? AND warehouse_code = ? AND stock + ? >= 0 RETURNING stock",
+                (rs, rowNum) -> rs.getInt(1), delta, productId, code, delta);
+        } else {
+            rows = jdbc.query("INSERT INTO " + TenantTables.qualify("product_warehouse_stock") +
+                    " AS ws (id, product_id, warehouse_code, warehouse_name, stock, updated_at)" +
+                    " VALUES (gen_random_uuid(), ?, ?, ?, ?, NOW())" +
+                    " ON CONFLICT (product_id, warehouse_code) DO UPDATE" +
+                    " SET stock = ws.stock + EXCLUDED.stock, updated_at = NOW() RETURNING stock",
+                (rs, rowNum) -> rs.getInt(1), productId, code, warehouseName, delta);
+        }
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * product_warehouse_stock 창고 재고 차감 — 0 아래로는 내려가지 않음
+     *
+     * @return 실제로 적용된 증감량 (원장 warehouse_delta 용, 행을 잠그고 변경 전 값을 먼저 읽음)
+     */
+    public int applyWarehouseClamped(UUID productId, String warehouseCode, String warehouseName, int delta) {
+        String code = ProductWarehouseStock.stockCode(warehouseCode);
+        lockStripe(productId);
+        List<Integer> before = jdbc.query("SELECT stock FROM " + TenantTables.qualify("product_warehouse_stock") +
+                " WHERE product_id = ? AND warehouse_code = ? FOR UPDATE",
+            (rs, rowNum) -> rs.getInt(1), productId, code);
+        int after = jdbc.queryForObject("INSERT INTO " + TenantTables.qualify("product_warehouse_stock") +
+                " AS ws (id, product_id, warehouse_code, warehouse_name, stock, updated_at)" +
+                " VALUES (gen_random_uuid(), ?, ?, ?, GREATEST(?, 0), NOW())" +
+                " ON CONFLICT (product_id, warehouse_code) DO UPDATE" +
+                " SET stock = GREATEST(ws.stock + ?, 0), updated_at = NOW() RETURNING stock",
+            Integer.class, productId, code, warehouseName, delta, delta);
+        return after - (before.isEmpty() ? 0 : before.get(0));
+    }
+
+    /**
+     * product_warehouse_stock 현재 창고 재고 + 행 잠금 — 목표 수량으로 맞추는 조정처럼 변경 전 값이 필요한 경우
+     */
+    public int lockWarehouse(UUID productId, String warehouseCode) {
+        lockStripe(productId);
+        List<Integer> rows = jdbc.query("SELECT stock FROM " + TenantTables.qualify("product_warehouse_stock") +
+                " WHERE product_id = ? AND warehouse_code = ? FOR UPDATE",
+            (rs, rowNum) -> rs.getInt(1), productId, ProductWarehouseStock.stockCode(warehouseCode));
+        return rows.isEmpty() ? 0 : rows.get(0);
+    }
+
+    /**
+     * product_warehouse_stock 현재 창고 재고 (부족 메시지용)
+     */
+    public int currentWarehouse(UUID productId, String warehouseCode) {
+        List<Integer> rows = jdbc.query("SELECT stock FROM " + TenantTables.qualify("product_warehouse_stock") +
+                " WHERE product_id = ? AND warehouse_code = ?",
+            (rs, rowNum) -> rs.getInt(1), productId, ProductWarehouseStock.stockCode(warehouseCode));
+        return rows.isEmpty() ? 0 : rows.get(0);
+    }
+
+    private Optional<StockLevels> update(UUID productId, StockDelta delta, Mode mode) {
+        List<String> sets = new ArrayList<>();
+        List<String> guards = new ArrayList<>();
+        List<Object> setArgs = new ArrayList<>();
+        List<Object> guardArgs = new ArrayList<>();
+
+        column("total_stock", delta.total(), mode, sets, guards, setArgs, guardArgs);
+        column("available_stock", delta.available(), mode, sets, guards, setArgs, guardArgs);
+        column("reserved_stock", delta.reserved(), mode, sets, guards, setArgs, guardArgs);
+        sets.add("updated_at = NOW()");
+
+        StringBuilder sql = new StringBuilder("UPDATE ").append(TenantTables.qualify("products"))
+            .append(" SET ").append(String.join(", ", sets))
+            .append(" WHERE product_id = ?");
+        for (String guard : guards) sql.append(" AND ").append(guard);
+        sql.append(RETURNING);
+
+        List<Object> args = new ArrayList<>(setArgs);
+        args.add(productId);
+        args.addAll(guardArgs);
+
+        lockStripe(productId);
+        List<StockLevels> rows = jdbc.query(sql.toString(), (rs, rowNum) -> StockLevels.of(rs), args.toArray());
+        if (rows.isEmpty()) {
+            if (current(productId).isEmpty()) {
+                throw new IllegalArgumentException("상품을 찾을 수 없습니다.");
+            }
+            return Optional.empty();
+        }
+
+        StockLevels after = rows.get(0);
+        productCatalogIndex.recordUpdated(productId, after::applyTo);
+        return Optional.of(after);
+    }
+
+    private static void column(String name, int delta, Mode mode,
+                               List<String> sets, List<String> guards,
+                               List<Object> setArgs, List<Object> guardArgs) {
+        if (delta == 0) return;
+        if (mode == Mode.CLAMPED) {
+            sets.add(name + " = GREATEST(COALESCE(" + name + ", 0) + ?, 0)");
+        } else {
+            sets.add(name + " = COALESCE(" + name + ", 0) + ?");
+            if (mode == Mode.GUARDED && delta < 0) {
+                guards.add("COALESCE(" + name + ", 0) + ? >= 0");
+                guardArgs.add(delta);
+            }
+        }
+        setArgs.add(delta);
+    }
+
+    private enum Mode { GUARDED, UNCHECKED, CLAMPED }
+
+    /**
+     * 여러 상품의 스트라이프를 번호 오름차순으로 미리 잠금 (주문 아이템 일괄 출고 등)
+     */
+    public void lockStripes(Collection<UUID> productIds) {
+        productIds.stream()
+            .filter(Objects::nonNull)
+            .map(StockMutationService::stripeOf)
+            .distinct()
+            .sorted()
+            .forEach(this::lockStripeIndex);
+    }
+
+    private void lockStripe(UUID productId) {
+        lockStripeIndex(stripeOf(productId));
+    }
+
+    /**
+     * 상품 스트라이프 잠금 — 트랜잭션 안이면 종료 시 해제, 밖이면 문장 단위라 잠그지 않음
+     */
+    private void lockStripeIndex(int index) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TreeSet<Integer> held = heldStripes();
+        if (held.contains(index)) {
+            return;
+        }
+        ReentrantLock lock = stripes[index];
+        try {
+            // 쥔 것보다 낮은 번호를 기다리면 순서가 뒤집혀 서로 기다릴 수 있으므로 즉시 시도만
+            boolean outOfOrder = !held.isEmpty() && index < held.last();
+            boolean acquired = outOfOrder ? lock.tryLock() : lock.tryLock(STRIPE_WAIT_MS, TimeUnit.MILLISECONDS);
+            if (!acquired) {
+                log.debug("재고 스트라이프 잠금 {} — DB 행 잠금으로 진행: {}", outOfOrder ? "순서 역행" : "대기 초과", index);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        held.add(index);
+    }
+
+    private TreeSet<Integer> heldStripes() {
+        @SuppressWarnings("unchecked")
+        TreeSet<Integer> held = (TreeSet<Integer>) TransactionSynchronizationManager.getResource(HELD_STRIPES_KEY);
+        if (held != null) {
+            return held;
+        }
+        TreeSet<Integer> acquired = new TreeSet<>();
+        TransactionSynchronizationManager.bindResource(HELD_STRIPES_KEY, acquired);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(HELD_STRIPES_KEY);
+                acquired.forEach(index -> stripes[index].unlock());
+            }
+        });
+        return acquired;
+    }
+
+    private static int stripeOf(UUID productId) {
+        return Math.floorMod(productId.hashCode(), STRIPES);
+    }
+
+    private static ReentrantLock[] createStripes() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) locks[i] = new ReentrantLock();
+        return locks;
+    }
+
+    /**
+     * 상품 재고 증감량 (0 인 컬럼은 건드리지 않음)
+     */
+    public record StockDelta(int total, int available, int reserved) {
+
+        public static StockDelta of(int total, int available, int reserved) {
+            return new StockDelta(total, available, reserved);
+        }
+    }
+
+    /**
+     * 변경 후 상품 재고 (RETURNING)
+     */
+    public record StockLevels(int totalStock, int availableStock, int reservedStock) {
+
+        static StockLevels of(ResultSet rs) throws SQLException {
+            return new StockLevels(rs.getInt(1), rs.getInt(2), rs.getInt(3));
+        }
+
+        /** JPA 엔티티·카탈로그 복사본에 반영 */
+        public void applyTo(Product product) {
+            product.setTotalStock(totalStock);
+            product.setAvailableStock(availableStock);
+            product.setReservedStock(reservedStock);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.oms.collector.service;
+
+import com.oms.collector.config.TenantTables;
+import com.oms.collector.service.matching.StockAllocationEngine.ReservationPlan;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 재고 일괄 예약 (재고 매칭 → 할당)
+ *
+ * 주문·상품 건수와 무관하게 SQL 몇 번으로 처리합니다.
+ * 1. 대상 주문 잠금 + 상태 확인       — SELECT ... ORDER BY order_no FOR UPDATE 1회
+ * 2. 상품 잠금 + 가용 재고 조회       — SELECT ... ORDER BY product_id FOR UPDATE 1회
+ * 3. 할당 우선순위 순으로 가용 재고 안에 들어가는 주문만 선택 (메모리)
+ * 4. 상품별 합계 예약                 — UPDATE products ... FROM unnest(...) 1회
+ * 5. 주문 상태 CONFIRMED              — UPDATE orders ... = ANY(?) 1회
+ *
+ * 잠금은 항상 키 순서(order_no, product_id)로 잡으므로 겹치는 주문·상품을 동시에 예약해도 교착되지 않습니다.
+ * 매칭 이후 재고가 줄어 모자란 상품은, 그 상품이 든 주문 중 우선순위가 앞선 주문부터 남은 재고만큼 예약하고
+ * 나머지 주문만 제외합니다.
+ *
+ * 상품 재고는 JPA 를 거치지 않으므로 변경분을 ProductCatalogIndex 에 직접 기록합니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockReservationService {
+
+    /** PostgreSQL uuid 정렬과 같은 순서 (부호 없는 바이트 순 = 소문자 16진 문자열 순) */
+    private static final Comparator<UUID> PG_UUID_ORDER = Comparator.comparing(UUID::toString);
+
+    private final JdbcTemplate jdbc;
+    private final ProductCatalogIndex productCatalogIndex;
+
+    /**
+     * 예약 계획 중 선택한 주문만 예약
+     */
+    @Transactional
+    public Result reserveOrders(ReservationPlan plan, Collection<String> orderNos) {
+        Set<String> requested = new LinkedHashSet<>(orderNos);
+
+        // 1. 계획에 있고 아직 PENDING 인 주문만, 계획(할당 우선순위) 순서로 (동시 예약과 겹치지 않도록 잠금)
+        List<String> planned = plan.orders().keySet().stream().filter(requested::contains).toList();
+        Set<String> pending = planned.isEmpty() ? Set.of() : lockPendingOrders(planned);
+        List<String> candidates = planned.stream().filter(pending::contains).toList();
+
+        // 2~3. 상품 잠금 후 가용 재고 안에서 우선순위 순으로 선택
+        Map<UUID, Integer> remaining = lockProducts(plan.totalsFor(candidates).keySet());
+        List<String> reservable = new ArrayList<>(candidates.size());
+        Set<UUID> shortage = new HashSet<>();
+        for (String orderNo : candidates) {
+            Map<UUID, Integer> quantities = plan.quantitiesOf(orderNo);
+            List<UUID> missing = quantities.entrySet().stream()
+                .filter(entry -> remaining.getOrDefault(entry.getKey(), 0) < entry.getValue())
+                .map(Map.Entry::getKey)
+                .toList();
+            if (!missing.isEmpty()) {
+                shortage.addAll(missing);
+                continue;
+            }
+            quantities.forEach((productId, qty) -> remaining.merge(productId, -qty, Integer::sum));
+            reservable.add(orderNo);
+        }
+        if (!shortage.isEmpty()) {
+            log.warn("⚠️ 가용 재고 부족 상품 {}종 — 남은 재고를 넘는 주문 예약 제외", shortage.size());
+        }
+
+        // 4. 상품별 합계 예약 (잠금을 쥐고 확인했으므로 모두 반영되어야 함)
+        Map<UUID, Integer> totals = plan.totalsFor(reservable);
+        Set<UUID> unexpected = reserve(totals);
+        if (!unexpected.isEmpty()) {
+            throw new IllegalStateException("재고 예약 중 가용 재고가 바뀌었습니다: " + unexpected);
+        }
+
+        // 5. 주문 상태 일괄 변경
+        confirmOrders(reservable);
+
+        List<String> failed = new ArrayList<>(requested);
+        failed.removeAll(new HashSet<>(reservable));
+        log.info("🔒 재고 일괄 예약: 주문 {}건, 상품 {}종, 실패 {}건",
+            reservable.size(), totals.size(), failed.size());
+        return new Result(reservable, failed, shortage);
+    }
+
+    /**
+     * 상품별 수량 예약 (가용 → 예약) — 가용 재고가 모자란 상품은 변경하지 않고 반환
+     */
+    @Transactional
+    public Set<UUID> reserve(Map<UUID, Integer> quantities) {
+        if (quantities.isEmpty()) return Set.of();
+        Set<UUID> updated = applyDelta(quantities, """
+            UPDATE %s p
+               SET available_stock = p.available_stock - v.qty,
+                   reserved_stock  = COALESCE(p.reserved_stock, 0) + v.qty,
+                   updated_at      = NOW()
+              FROM unnest(?::uuid[], ?::int[]) AS v(product_id, qty)
+             WHERE p.product_id = v.product_id
+               AND p.available_stock >= v.qty
+            RETURNING p.product_id, p.available_stock, p.reserved_stock
+            """);
+        Set<UUID> shortage = new HashSet<>(quantities.keySet());
+        shortage.removeAll(updated);
+        return shortage;
+    }
+
+    /**
+     * 상품별 수량 예약 해제 (예약 → 가용) — 예약 재고가 모자란 상품은 변경하지 않고 반환
+     */
+    @Transactional
+    public Set<UUID> release(Map<UUID, Integer> quantities) {
+        if (quantities.isEmpty()) return Set.of();
+        Set<UUID> updated = applyDelta(quantities, """
+            UPDATE %s p
+               SET available_stock = COALESCE(p.available_stock, 0) + v.qty,
+                   reserved_stock  = p.reserved_stock - v.qty,
+                   updated_at      = NOW()
+              FROM unnest(?::uuid[], ?::int[]) AS v(product_id, qty)
+             WHERE p.product_id = v.product_id
+               AND p.reserved_stock >= v.qty
+            RETURNING p.product_id, p.available_stock, p.reserved_stock
+            """);
+        Set<UUID> shortage = new HashSet<>(quantities.keySet());
+        shortage.removeAll(updated);
+        return shortage;
+    }
+
+    /**
+     * 상품 id 순으로 행을 잠근 뒤 UPDATE — UPDATE ... FROM unnest 의 잠금 순서는 실행 계획에 따라 달라지므로
+     * 먼저 정렬된 순서로 잠가 교착을 막습니다.
+     */
+    private Set<UUID> applyDelta(Map<UUID, Integer> quantities, String sql) {
+        List<UUID> sorted = quantities.keySet().stream().sorted(PG_UUID_ORDER).toList();
+        lockProducts(sorted);
+
+        UUID[] ids = new UUID[sorted.size()];
+        Integer[] qty = new Integer[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            ids[i] = sorted.get(i);
+            qty[i] = quantities.get(ids[i]);
+        }
+
+        Set<UUID> updated = new HashSet<>();
+        jdbc.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.formatted(TenantTables.qualify("products")));
+            ps.setArray(1, connection.createArrayOf("uuid", ids));
+            ps.setArray(2, connection.createArrayOf("int4", qty));
+            return ps;
+        }, rs -> {
+            UUID productId = rs.getObject("product_id", UUID.class);
+            int available = rs.getInt("available_stock");
+            int reserved = rs.getInt("reserved_stock");
+            updated.add(productId);
+            productCatalogIndex.recordUpdated(productId, product -> {
+                product.setAvailableStock(available);
+                product.setReservedStock(reserved);
+            });
+        });
+        return updated;
+    }
+
+    /**
+     * 상품 행을 product_id 순으로 잠그고 가용 재고 반환 (없는 상품은 빠짐)
+     */
+    private Map<UUID, Integer> lockProducts(Collection<UUID> productIds) {
+        Map<UUID, Integer> available = new HashMap<>();
+        if (productIds.isEmpty()) return available;
+        jdbc.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement("SELECT product_id, available_stock FROM " +
+                TenantTables.qualify("products") + " WHERE product_id = ANY(?) ORDER BY product_id FOR UPDATE");
+            ps.setArray(1, connection.createArrayOf("uuid", productIds.toArray()));
+            return ps;
+        }, rs -> {
+            available.put(rs.getObject("product_id", UUID.class), rs.getInt("available_stock"));
+        });
+        return available;
+    }
+
+    private Set<String> lockPendingOrders(List<String> orderNos) {
+        return new LinkedHashSet<>(jdbc.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement("SELECT order_no FROM " + TenantTables.qualify("orders") +
+                " WHERE order_no = ANY(?) AND order_status = 'PENDING'" +
+                " AND COALESCE(allocation_excluded, false) = false ORDER BY order_no FOR UPDATE");
+            ps.setArray(1, connection.createArrayOf("varchar", orderNos.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getString(1)));
+    }
+
+    private void confirmOrders(List<String> orderNos) {
+        if (orderNos.isEmpty()) return;
+        jdbc.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement("UPDATE " + TenantTables.qualify("orders") +
+                " SET order_status = 'CONFIRMED', updated_at = NOW() WHERE order_no = ANY(?)");
+            ps.setArray(1, connection.createArrayOf("varchar", orderNos.toArray()));
+            return ps;
+        });
+    }
+
+    /**
+     * 일괄 예약 결과
+     *
+     * @param reserved  CONFIRMED 로 바뀐 주문번호
+     * @param failed    계획에 없거나 PENDING 이 아니거나 재고가 부족해 제외된 주문번호
+     * @param shortage  가용 재고가 모자라 일부 주문을 제외한 상품
+     */
+    public record Result(List<String> reserved, List<String> failed, Set<UUID> shortage) {}
+}
@@ -0,0 +1,337 @@
+package com.oms.collector.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 시간 컬럼 기준 월별 범위 파티션 관리
+ *
+ * 기존 단일 테이블은 데이터를 옮기지 않고 "이전 분(_p_before_YYYYMM)" 파티션으로 붙인 뒤
+ * 이후 데이터만 월별 파티션(_pYYYYMM)에 쌓습니다. 비어 있는 테이블(신규 테넌트)은 바로 월별로 시작합니다.
+ * - 미래 파티션은 months-ahead 개월 앞까지 미리 생성 (범위 밖 행은 _p_default 로)
+ * - 보관 기간이 지난 파티션은 분리(DETACH) 후 archive_ 접두어로 이름만 바꿔 남김
+ *
+ * 파티션 테이블의 PK/UNIQUE 에는 파티션 컬럼이 포함되어야 하므로,
+ * 다른 테이블이 FK 로 참조하는 테이블(orders, raw_orders 등)은 변환하지 않습니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TablePartitionService {
+
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern MONTHLY = Pattern.compile(".*_p(\\d{6})$");
+    private static final Pattern BEFORE = Pattern.compile(".*_p_before_(\\d{6})$");
+
+    private final JdbcTemplate jdbc;
+    private final DataSource dataSource;
+
+    @Value("${collector.partitioning.enabled:true}")
+    private boolean enabled;
+
+    @Value("${collector.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${collector.partitioning.invoice-api-logs-retention-months:12}")
+    private int invoiceApiLogsRetentionMonths;
+
+    @Value("${collector.partitioning.inventory-ledger-retention-months:0}")
+    private int inventoryLedgerRetentionMonths;
+
+    /**
+     * 월별 파티션 대상 테이블
+     *
+     * @param retentionMonths 보관 개월 수 (0 이면 분리하지 않음)
+     * @param archiveGuard    분리 전 확인 조건 (%1$s = 스키마 접두어, %2$s = 파티션) — null 이면 항상 분리
+     */
+    public record PartitionSpec(String table, String column, int retentionMonths, String archiveGuard) {}
+
+    public List<PartitionSpec> specs() {
+        return List.of(
+            new PartitionSpec("invoice_api_logs", "created_at", invoiceApiLogsRetentionMonths, null),
+            // 스냅샷으로 압축되지 않은 원장 구간은 시점 조회에 필요하므로 분리하지 않음
+            new PartitionSpec("inventory_transactions", "created_at", inventoryLedgerRetentionMonths, """
+                NOT EXISTS (SELECT 1 FROM %2$s p
+                             WHERE p.ledger_seq > (SELECT COALESCE(MAX(s.ledger_seq), 0)
+                                                     FROM %1$sinventory_ledger_snapshots s))
+                """)
+        );
+    }
+
+    public PartitionSpec spec(String table) {
+        return specs().stream()
+            .filter(s -> s.table().equals(table))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("파티션 대상이 아닌 테이블: " + table));
+    }
+
+    public boolean isPartitioned(String schema, String table) {
+        String relkind = relkind(schema, table);
+        return "p".equals(relkind);
+    }
+
+    /**
+     * 테이블을 월별 범위 파티션 테이블로 변환 (이미 파티션 테이블이면 미래 파티션만 보충)
+     *
+     * 사용자 트리거는 기존 테이블에서 제거되므로, 호출한 마이그레이션이 이후 부모 테이블에 다시 만들어야 합니다.
+     * 인덱스는 기존 테이블 쪽 이름에 _legacy 를 붙여 두어, 같은 이름의 부모 인덱스가 생성될 때 그대로 연결됩니다.
+     *
+     * @return 파티션 테이블 여부 (변환하지 못한 경우 false)
+     */
+    public boolean ensurePartitioned(String schema, String table) {
+        if (!enabled || !validSchema(schema)) return false;
+        PartitionSpec spec = spec(table);
+        String relkind = relkind(schema, table);
+        if (relkind == null) return false;
+        if ("r".equals(relkind)) {
+            Integer referencedBy = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM pg_constraint WHERE contype = 'f' AND confrelid = to_regclass(?)",
+                Integer.class, qualified(schema, table));
+            if (referencedBy != null && referencedBy > 0) {
+                log.warn("🗂️ {}.{} 는 FK 로 참조되고 있어 파티션 변환을 건너뜁니다", schema, table);
+                return false;
+            }
+            try {
+                convert(schema, spec);
+            } catch (Exception e) {
+                log.warn("🗂️ {}.{} 파티션 변환 실패 (단일 테이블 유지): {}", schema, table, e.getMessage());
+                return false;
+            }
+        }
+        createFuturePartitions(schema, spec);
+        return true;
+    }
+
+    /**
+     * 스키마의 파티션 유지보수 — 미래 파티션 생성 + 보관 기간 지난 파티션 분리
+     *
+     * @return 생성·분리한 파티션 수
+     */
+    public int maintain(String schema) {
+        if (!enabled || !validSchema(schema)) return 0;
+        int changed = 0;
+        for (PartitionSpec spec : specs()) {
+            if (!isPartitioned(schema, spec.table())) continue;
+            changed += createFuturePartitions(schema, spec);
+            changed += archiveExpiredPartitions(schema, spec);
+        }
+        return changed;
+    }
+
+    // ── private ──────────────────────────────────────────────────────────────
+
+    private void convert(String schema, PartitionSpec spec) throws Exception {
+        String table = spec.table();
+        String column = spec.column();
+        String target = qualified(schema, table);
+
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            try {
+                stmt.execute("LOCK TABLE " + target + " IN ACCESS EXCLUSIVE MODE");
+                stmt.execute("ALTER TABLE " + target + " ALTER COLUMN " + column + " SET NOT NULL");
+
+                List<String> pkColumns = queryStrings(stmt, """
+                    SELECT a.attname FROM pg_index x
+                      JOIN pg_attribute a ON a.attrelid = x.indrelid AND a.attnum = ANY (x.indkey)
+                     WHERE x.indrelid = '%s'::regclass AND x.indisprimary
+                     ORDER BY array_position(x.indkey::int2[], a.attnum)
+                    """.formatted(target));
+                if (!pkColumns.contains(column)) pkColumns.add(column);
+
+                List<String[]> foreignKeys = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery("""
+                        SELECT conname, pg_get_constraintdef(oid) FROM pg_constraint
+                         WHERE conrelid = '%s'::regclass AND contype = 'f'
+                        """.formatted(target))) {
+                    while (rs.next()) foreignKeys.add(new String[]{rs.getString(1), rs.getString(2)});
+                }
+
+                for (String index : queryStrings(stmt,
+                        "SELECT i.relname FROM pg_index x JOIN pg_class i ON i.oid = x.indexrelid WHERE x.indrelid = '%s'::regclass"
+                            .formatted(target))) {
+                    String renamed = index.length() > 55 ? index.substring(0, 55) + "_legacy" : index + "_legacy";
+                    stmt.execute("ALTER INDEX " + qualified(schema, index) + " RENAME TO \"" + renamed + "\"");
+                }
+                for (String trigger : queryStrings(stmt,
+                        "SELECT tgname FROM pg_trigger WHERE tgrelid = '%s'::regclass AND NOT tgisinternal".formatted(target))) {
+                    stmt.execute("DROP TRIGGER \"" + trigger + "\" ON " + target);
+                }
+
+                String before;
+                boolean empty;
+                try (ResultSet rs = stmt.executeQuery("""
+                        SELECT to_char(date_trunc('month', GREATEST(MAX(%1$s), LOCALTIMESTAMP)) + INTERVAL '1 month', 'YYYYMM'),
+                               NOT EXISTS (SELECT 1 FROM %2$s)
+                          FROM %2$s
+                        """.formatted(column, target))) {
+                    rs.next();
+                    before = rs.getString(1);
+                    empty = rs.getBoolean(2);
+                }
+
+                String legacy = table + "_p_before_" + before;
+                stmt.execute("ALTER TABLE " + target + " RENAME TO \"" + legacy + "\"");
+                stmt.execute("""
+                    CREATE TABLE %1$s (LIKE %2$s INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING STORAGE INCLUDING COMMENTS)
+                    PARTITION BY RANGE (%3$s)
+                    """.formatted(target, qualified(schema, legacy), column));
+                stmt.execute("ALTER TABLE " + target + " ADD PRIMARY KEY (" + String.join(", ", pkColumns) + ")");
+                for (String[] fk : foreignKeys) {
+                    stmt.execute("ALTER TABLE " + target + " ADD CONSTRAINT \"" + fk[0] + "\" " + fk[1]);
+                }
+
+                if (empty) {
+                    stmt.execute("DROP TABLE " + qualified(schema, legacy));
+                } else {
+                    // 기존 행은 옮기지 않고 통째로 "이전 분" 파티션으로 연결 (제약 검증을 위한 1회 스캔만 발생)
+                    stmt.execute("ALTER TABLE %s ATTACH PARTITION %s FOR VALUES FROM (MINVALUE) TO ('%s')"
+                        .formatted(target, qualified(schema, legacy), monthStart(before)));
+                }
+                // 기본 파티션보다 먼저 월별 파티션을 만들어 커밋 직후 들어오는 행이 기본 파티션에 쌓이지 않도록
+                YearMonth first = empty ? YearMonth.now() : YearMonth.parse(before, MONTH_SUFFIX);
+                for (YearMonth month = first; !month.isAfter(lastMonth()); month = month.plusMonths(1)) {
+                    stmt.execute(monthlyPartitionDdl(schema, table, month));
+                }
+                stmt.execute("CREATE TABLE %s PARTITION OF %s DEFAULT"
+                    .formatted(qualified(schema, table + "_p_default"), target));
+                conn.commit();
+                log.info("🗂️ 월별 파티션 변환 완료: {}.{} ({} 기준, 이전 데이터 {})",
+                    schema, table, column, empty ? "없음" : legacy);
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private int createFuturePartitions(String schema, PartitionSpec spec) {
+        List<String> partitions = partitions(schema, spec.table());
+        YearMonth first = YearMonth.now();
+        for (String name : partitions) {
+            Matcher before = BEFORE.matcher(name);
+            if (before.matches()) {
+                YearMonth bound = YearMonth.parse(before.group(1), MONTH_SUFFIX);
+                if (bound.isAfter(first)) first = bound;
+            }
+        }
+
+        int created = 0;
+        for (YearMonth month = first; !month.isAfter(lastMonth()); month = month.plusMonths(1)) {
+            String name = spec.table() + "_p" + month.format(MONTH_SUFFIX);
+            if (partitions.contains(name)) continue;
+            try {
+                jdbc.execute(monthlyPartitionDdl(schema, spec.table(), month));
+                created++;
+                log.info("🗂️ 파티션 생성: {}.{}", schema, name);
+            } catch (Exception e) {
+                // 기본 파티션에 같은 기간 행이 이미 들어간 경우 등
+                log.warn("🗂️ 파티션 생성 실패: {}.{} — {}", schema, name, e.getMessage());
+            }
+        }
+        return created;
+    }
+
+    private int archiveExpiredPartitions(String schema, PartitionSpec spec) {
+        if (spec.retentionMonths() <= 0) return 0;
+        YearMonth cutoff = YearMonth.now().minusMonths(spec.retentionMonths());
+        String prefix = "\"%s\".".formatted(schema);
+
+        int archived = 0;
+        for (String name : partitions(schema, spec.table())) {
+            YearMonth end = partitionEnd(name);
+            if (end == null || end.isAfter(cutoff)) continue;
+            String partition = qualified(schema, name);
+            if (spec.archiveGuard() != null) {
+                Boolean allowed = jdbc.queryForObject(
+                    "SELECT " + spec.archiveGuard().formatted(prefix, partition), Boolean.class);
+                if (!Boolean.TRUE.equals(allowed)) {
+                    log.info("🗂️ 파티션 분리 보류 (조건 미충족): {}.{}", schema, name);
+                    continue;
+                }
+            }
+            try {
+                jdbc.execute("ALTER TABLE %s DETACH PARTITION %s".formatted(qualified(schema, spec.table()), partition));
+                jdbc.execute("ALTER TABLE %s RENAME TO \"archive_%s\"".formatted(partition, name));
+                archived++;
+                log.info("🗂️ 파티션 분리·보관: {}.{} → archive_{}", schema, name, name);
+            } catch (Exception e) {
+                log.warn("🗂️ 파티션 분리 실패: {}.{} — {}", schema, name, e.getMessage());
+            }
+        }
+        return archived;
+    }
+
+    private String monthlyPartitionDdl(String schema, String table, YearMonth month) {
+        return "CREATE TABLE %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')".formatted(
+            qualified(schema, table + "_p" + month.format(MONTH_SUFFIX)), qualified(schema, table),
+            month.atDay(1), month.plusMonths(1).atDay(1));
+    }
+
+    private YearMonth lastMonth() {
+        return YearMonth.now().plusMonths(Math.max(0, monthsAhead));
+    }
+
+    /** 파티션이 덮는 마지막 달의 다음 달 (월별: 그 달 + 1, 이전 분: 경계 달) */
+    private YearMonth partitionEnd(String name) {
+        Matcher monthly = MONTHLY.matcher(name);
+        if (monthly.matches()) return YearMonth.parse(monthly.group(1), MONTH_SUFFIX).plusMonths(1);
+        Matcher before = BEFORE.matcher(name);
+        if (before.matches()) return YearMonth.parse(before.group(1), MONTH_SUFFIX);
+        return null;
+    }
+
+    private List<String> partitions(String schema, String table) {
+        return jdbc.queryForList("""
+            SELECT c.relname FROM pg_inherits i
+              JOIN pg_class c ON c.oid = i.inhrelid
+             WHERE i.inhparent = to_regclass(?)
+            """, String.class, qualified(schema, table));
+    }
+
+    private String relkind(String schema, String table) {
+        List<String> kinds = jdbc.queryForList("""
+            SELECT c.relkind::text FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace
+             WHERE n.nspname = ? AND c.relname = ?
+            """, String.class, schema, table);
+        return kinds.isEmpty() ? null : kinds.get(0);
+    }
+
+    private List<String> queryStrings(Statement stmt, String sql) throws Exception {
+        List<String> values = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) values.add(rs.getString(1));
+        }
+        return values;
+    }
+
+    private LocalDate monthStart(String yyyymm) {
+        return YearMonth.parse(yyyymm, MONTH_SUFFIX).atDay(1);
+    }
+
+    private String qualified(String schema, String name) {
+        return "\"" + schema + "\".\"" + name + "\"";
+    }
+
+    private boolean validSchema(String schema) {
+        return schema != null && schema.matches("[a-zA-Z_][a-zA-Z0-9_]{0,62}");
+    }
+}
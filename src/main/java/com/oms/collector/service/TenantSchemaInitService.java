@@ -1,15 +1,23 @@
 package com.oms.collector.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oms.collector.service.job.JobCancelledException;
+import com.oms.collector.service.job.JobContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -43,8 +51,19 @@ public class TenantSchemaInitService {
     private final JdbcTemplate jdbc;
     private final DataSource   dataSource;
     private final ObjectMapper objectMapper;
+    private final TablePartitionService tablePartitionService;
+    private final ProductCatalogIndex productCatalogIndex;
+    private final StockMatchingSnapshotCache matchingSnapshotCache;
 
-    private static final Set<String> BACKUP_EXCLUDED_TABLES = Set.of("work_locks");
+    private static final Set<String> BACKUP_EXCLUDED_TABLES = Set.of("work_locks", "jobs", "stock_matching_version",
+        "inventory_ledger_snapshots", "inventory_ledger_watermark");
+
+    /** 스키마의 테이블 목록 — 파티션 자식 테이블은 부모 테이블로 함께 다루므로 제외 */
+    private static final String SCHEMA_TABLES_SQL = """
+        SELECT c.relname FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace
+         WHERE n.nspname = ? AND c.relkind IN ('r', 'p') AND NOT c.relispartition
+         ORDER BY c.relname
+        """;
 
     public void initSchema(String schemaName) {
         validateSchemaName(schemaName);
@@ -88,54 +107,69 @@ public class TenantSchemaInitService {
             String.class);
     }
 
-    public Map<String, Object> exportSchemaBackup(String schemaName) {
+    /**
+     * 스키마 백업을 JSON 파일로 기록 — 테이블 단위로 진행률을 남기고, 행은 메모리에 모으지 않고 바로 씀
+     * 형식: { "data": { 테이블: [행...] }, "meta": { schema, companyCode, generatedAt, tableCount, tables } }
+     */
+    public Map<String, Object> exportSchemaBackup(String schemaName, Path target, JobContext job) throws IOException {
         validateSchemaName(schemaName);
         if (!schemaExists(schemaName)) {
             throw new IllegalArgumentException("존재하지 않는 스키마입니다: " + schemaName);
         }
 
-        List<String> tables = jdbc.queryForList(
-            "SELECT tablename FROM pg_tables WHERE schemaname = ? ORDER BY tablename",
-            String.class,
-            schemaName
-        );
-
-        Map<String, Object> meta = new LinkedHashMap<>();
-        meta.put("schema", schemaName);
-        meta.put("companyCode", "public".equals(schemaName) ? "C00" : schemaName.toUpperCase());
-        meta.put("generatedAt", LocalDateTime.now().toString());
-        meta.put("tableCount", tables.size());
-
+        List<String> tables = jdbc.queryForList(SCHEMA_TABLES_SQL, String.class, schemaName);
         List<Map<String, Object>> tableSummaries = new ArrayList<>();
-        Map<String, Object> data = new LinkedHashMap<>();
-
-        for (String table : tables) {
-            List<Map<String, Object>> rows = jdbc.queryForList(
-                "SELECT * FROM \"" + schemaName + "\".\"" + table + "\""
-            );
-            data.put(table, rows);
-
-            Map<String, Object> summary = new LinkedHashMap<>();
-            summary.put("table", table);
-            summary.put("rows", rows.size());
-            tableSummaries.add(summary);
+        ColumnMapRowMapper rowMapper = new ColumnMapRowMapper();
+
+        try (OutputStream out = Files.newOutputStream(target);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("data");
+            int done = 0;
+            for (String table : tables) {
+                job.checkCancelled();
+                generator.writeArrayFieldStart(table);
+                int[] rows = {0};
+                jdbc.query("SELECT * FROM \"" + schemaName + "\".\"" + table + "\"", rs -> {
+                    try {
+                        generator.writeObject(rowMapper.mapRow(rs, rows[0]++));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("table", table);
+                summary.put("rows", rows[0]);
+                tableSummaries.add(summary);
+                job.progress(++done, tables.size(), table);
+            }
+            generator.writeEndObject();
+
+            Map<String, Object> meta = new LinkedHashMap<>();
+            meta.put("schema", schemaName);
+            meta.put("companyCode", "public".equals(schemaName) ? "C00" : schemaName.toUpperCase());
+            meta.put("generatedAt", LocalDateTime.now().toString());
+            meta.put("tableCount", tables.size());
+            meta.put("tables", tableSummaries);
+            generator.writeObjectField("meta", meta);
+            generator.writeEndObject();
+            return meta;
         }
-
-        meta.put("tables", tableSummaries);
-
-        Map<String, Object> backup = new LinkedHashMap<>();
-        backup.put("meta", meta);
-        backup.put("data", data);
-        return backup;
     }
 
-    public Map<String, Object> restoreSchemaBackup(String schemaName, MultipartFile file) {
+    /**
+     * 백업 파일(JSON, gzip 가능)로 스키마 복구 — 테이블 단위로 진행률·취소를 확인하며 한 트랜잭션으로 반영
+     * (취소·실패 시 전체 롤백)
+     */
+    public Map<String, Object> restoreSchemaBackup(String schemaName, Path file, JobContext job) {
         validateSchemaName(schemaName);
         try {
-            Map<String, Object> backup = objectMapper.readValue(
-                openBackupInputStream(file),
-                new TypeReference<>() {}
-            );
+            Map<String, Object> backup;
+            try (InputStream in = openBackupInputStream(file)) {
+                backup = objectMapper.readValue(in, new TypeReference<>() {});
+            }
 
             @SuppressWarnings("unchecked")
             Map<String, Object> data = (Map<String, Object>) backup.get("data");
@@ -149,11 +183,7 @@ public class TenantSchemaInitService {
 
             List<String> candidateTables = new ArrayList<>(data.keySet());
             candidateTables.removeIf(BACKUP_EXCLUDED_TABLES::contains);
-            List<String> existingTables = jdbc.queryForList(
-                "SELECT tablename FROM pg_tables WHERE schemaname = ? ORDER BY tablename",
-                String.class,
-                schemaName
-            );
+            List<String> existingTables = jdbc.queryForList(SCHEMA_TABLES_SQL, String.class, schemaName);
             Set<String> existingTableSet = new HashSet<>(existingTables);
             candidateTables.removeIf(table -> !existingTableSet.contains(table));
 
@@ -164,7 +194,10 @@ public class TenantSchemaInitService {
                 conn.setAutoCommit(false);
                 try {
                     truncateTables(conn, schemaName, orderedTables);
+                    int done = 0;
                     for (String table : orderedTables) {
+                        job.checkCancelled();
+                        job.progress(done++, orderedTables.size(), table);
                         Object rowsObj = data.get(table);
                         if (!(rowsObj instanceof Collection<?> rowsCollection)) {
                             restoredSummary.put(table, 0);
@@ -173,7 +206,15 @@ public class TenantSchemaInitService {
                         int inserted = restoreTableRows(conn, schemaName, table, rowsCollection);
                         restoredSummary.put(table, inserted);
                     }
+                    if (existingTableSet.contains("inventory_ledger_snapshots")) {
+                        resetInventoryLedger(conn, schemaName);
+                    }
+                    job.checkCancelled();
                     conn.commit();
+                    // JPA 를 거치지 않고 테이블을 통째로 바꿨으므로 메모리 인덱스 폐기
+                    productCatalogIndex.invalidate(schemaName);
+                    matchingSnapshotCache.invalidate(schemaName);
+                    job.progress(orderedTables.size(), orderedTables.size());
                 } catch (Exception e) {
                     conn.rollback();
                     throw e;
@@ -188,17 +229,23 @@ public class TenantSchemaInitService {
                 "restoredTables", restoredSummary,
                 "message", "복구 완료: " + schemaName
             );
+        } catch (JobCancelledException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("복구 실패: " + e.getMessage(), e);
         }
     }
 
-    private InputStream openBackupInputStream(MultipartFile file) throws Exception {
-        byte[] bytes = file.getBytes();
-        if (bytes.length >= 2 && (bytes[0] == (byte) 0x1f) && (bytes[1] == (byte) 0x8b)) {
-            return new GZIPInputStream(new ByteArrayInputStream(bytes));
+    private InputStream openBackupInputStream(Path file) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(file));
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        if (first == 0x1f && second == 0x8b) {
+            return new GZIPInputStream(in);
         }
-        return new ByteArrayInputStream(bytes);
+        return in;
     }
 
     // ── private ──────────────────────────────────────────────────────────────
@@ -215,15 +262,13 @@ public class TenantSchemaInitService {
     }
 
     private void copyTables(String schema) {
-        List<String> tables = jdbc.queryForList(
-            "SELECT tablename FROM pg_tables WHERE schemaname = 'public' ORDER BY tablename",
-            String.class);
+        List<String> tables = jdbc.queryForList(SCHEMA_TABLES_SQL, String.class, "public");
 
         log.info("[TenantInit] 복사 대상 테이블 수: {}", tables.size());
 
         for (String table : tables) {
             String sql = "CREATE TABLE IF NOT EXISTS \"" + schema + "\".\"" + table + "\" " +
-                         "(LIKE public.\"" + table + "\" INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING INDEXES)";
+                         "(LIKE public.\"" + table + "\" INCLUDING DEFAULTS INCLUDING GENERATED INCLUDING CONSTRAINTS INCLUDING INDEXES)";
             try (Connection conn = dataSource.getConnection();
                  Statement  stmt = conn.createStatement()) {
                 stmt.execute(sql);
@@ -301,6 +346,7 @@ public class TenantSchemaInitService {
         exec(s, "orders", "ALTER TABLE \"%s\".orders ADD COLUMN IF NOT EXISTS market_synced_at TIMESTAMP");
         exec(s, "orders", "ALTER TABLE \"%s\".orders ADD COLUMN IF NOT EXISTS merged_into_order_no VARCHAR(100)");
         exec(s, "orders", "ALTER TABLE \"%s\".orders ADD COLUMN IF NOT EXISTS split_from_order_no VARCHAR(100)");
+        execRaw(s, String.format("CREATE INDEX IF NOT EXISTS idx_%s_orders_status_updated_at ON \"%s\".orders(order_status, updated_at)", s, s));
 
         // order_items
         exec(s, "order_items", "ALTER TABLE \"%s\".order_items ADD COLUMN IF NOT EXISTS cancelled_quantity INTEGER DEFAULT 0");
@@ -378,6 +424,7 @@ public class TenantSchemaInitService {
                 raw_response TEXT,
                 created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
             )""", s));
+        tablePartitionService.ensurePartitioned(s, "invoice_api_logs");
         execRaw(s, String.format("CREATE INDEX IF NOT EXISTS idx_%s_invoice_api_logs_order_no ON \"%s\".invoice_api_logs(order_no)", s, s));
         execRaw(s, String.format("CREATE INDEX IF NOT EXISTS idx_%s_invoice_api_logs_tracking_no ON \"%s\".invoice_api_logs(tracking_no)", s, s));
         execRaw(s, String.format("CREATE INDEX IF NOT EXISTS idx_%s_invoice_api_logs_created_at ON \"%s\".invoice_api_logs(created_at)", s, s));
@@ -422,6 +469,333 @@ public class TenantSchemaInitService {
             )""", s));
         execRaw(s, String.format("CREATE INDEX IF NOT EXISTS idx_%s_work_locks_expires_at ON \"%s\".work_locks(expires_at)", s, s));
 
+        // collection_batches (수집 1회분 원본 응답 보관) + raw_orders.batch_id
+        execRaw(s, String.format("""
+            CREATE TABLE IF NOT EXISTS "%s".collection_batches (
+                batch_id         UUID PRIMARY KEY,
+                channel_code     VARCHAR(100) NOT NULL,
+                window_start     TIMESTAMP,
+                window_end       TIMESTAMP,
+                response_charset VARCHAR(50),
+                response_bytes   BIGINT       NOT NULL DEFAULT 0,
+                response_gzip    BYTEA,
+                order_count      INTEGER      NOT NULL DEFAULT 0,
+                saved_count      INTEGER      NOT NULL DEFAULT 0,
+                created_at       TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+            )""", s));
+        execRaw(s, String.format("CREATE INDEX IF NOT EXISTS idx_%s_collection_batches_channel_created ON \"%s\".collection_batches(channel_code, created_at)", s, s));
+        exec(s, "raw_orders", "ALTER TABLE \"%s\".raw_orders ADD COLUMN IF NOT EXISTS batch_id UUID");
+        execRaw(s, String.format("CREATE INDEX IF NOT EXISTS idx_%s_raw_orders_batch_id ON \"%s\".raw_orders(batch_id)", s, s));
+        execRaw(s, String.format("""
+            DO $$
+            BEGIN
+                IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                                WHERE conrelid = '"%1$s".raw_orders'::regclass AND contype = 'f'
+                                  AND confrelid = '"%1$s".collection_batches'::regclass) THEN
+                    UPDATE "%1$s".raw_orders r SET batch_id = NULL
+                     WHERE r.batch_id IS NOT NULL
+                       AND NOT EXISTS (SELECT 1 FROM "%1$s".collection_batches b WHERE b.batch_id = r.batch_id);
+                    ALTER TABLE "%1$s".raw_orders
+                        ADD CONSTRAINT fk_raw_orders_batch FOREIGN KEY (batch_id)
+                        REFERENCES "%1$s".collection_batches(batch_id) ON DELETE SET NULL;
+                END IF;
+            END $$""", s));
+
+        // order_sequences (일자별 주문번호 카운터)
+        execRaw(s, String.format("""
+            CREATE TABLE IF NOT EXISTS "%s".order_sequences (
+                seq_date   DATE      PRIMARY KEY,
+                last_value BIGINT    NOT NULL,
+                updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+            )""", s));
+
+        // product_codes (상품 코드 소문자 정규화 조회 테이블, products 트리거로 유지)
+        execRaw(s, String.format("""
+            CREATE TABLE IF NOT EXISTS "%s".product_codes (
+                code_normalized VARCHAR(255) NOT NULL,
+                code_type       VARCHAR(20)  NOT NULL,
+                product_id      UUID         NOT NULL REFERENCES "%s".products(product_id) ON DELETE CASCADE,
+                PRIMARY KEY (code_normalized, code_type, product_id)
+            )""", s, s));
+        execRaw(s, String.format("CREATE INDEX IF NOT EXISTS idx_%s_product_codes_product ON \"%s\".product_codes(product_id)", s, s));
+        execRaw(s, String.format("""
+            CREATE OR REPLACE FUNCTION "%s".sync_product_codes() RETURNS trigger AS $$
+            BEGIN
+                IF TG_OP = 'UPDATE' THEN
+                    DELETE FROM "%s".product_codes WHERE product_id = OLD.product_id;
+                END IF;
+                INSERT INTO "%s".product_codes (code_normalized, code_type, product_id)
+                SELECT LOWER(c.code), c.code_type, NEW.product_id
+                FROM (VALUES (NEW.sku, 'SKU'), (NEW.barcode, 'BARCODE'),
+                             (NEW.barcode2, 'BARCODE2'), (NEW.option_code, 'OPTION_CODE')) AS c(code, code_type)
+                WHERE c.code IS NOT NULL AND c.code <> ''
+                ON CONFLICT DO NOTHING;
+                RETURN NULL;
+            END
+            $$ LANGUAGE plpgsql""", s, s, s));
+        execRaw(s, String.format("DROP TRIGGER IF EXISTS trg_products_codes_insert ON \"%s\".products", s));
+        execRaw(s, String.format("""
+            CREATE TRIGGER trg_products_codes_insert AFTER INSERT ON "%s".products
+            FOR EACH ROW EXECUTE FUNCTION "%s".sync_product_codes()""", s, s));
+        execRaw(s, String.format("DROP TRIGGER IF EXISTS trg_products_codes_update ON \"%s\".products", s));
+        execRaw(s, String.format("""
+            CREATE TRIGGER trg_products_codes_update AFTER UPDATE ON "%s".products
+            FOR EACH ROW WHEN (OLD.sku IS DISTINCT FROM NEW.sku
+                            OR OLD.barcode IS DISTINCT FROM NEW.barcode
+                            OR OLD.barcode2 IS DISTINCT FROM NEW.barcode2
+                            OR OLD.option_code IS DISTINCT FROM NEW.option_code)
+            EXECUTE FUNCTION "%s".sync_product_codes()""", s, s));
+
+        // product_warehouse_stock (창고 재고 단일 원장 — 레거시 창고 컬럼 이관)
+        execRaw(s, String.format("""
+            CREATE UNIQUE INDEX IF NOT EXISTS ux_product_warehouse_stock_lookup
+                ON "%s".product_warehouse_stock (product_id, warehouse_code) INCLUDE (stock)""", s));
+        execRaw(s, String.format("""
+            CREATE INDEX IF NOT EXISTS ix_product_warehouse_stock_warehouse
+                ON "%s".product_warehouse_stock (warehouse_code, product_id) INCLUDE (stock)""", s));
+        execRaw(s, String.format("""
+            DO $$
+            BEGIN
+                IF EXISTS (SELECT 1 FROM information_schema.columns
+                            WHERE table_schema = '%1$s' AND table_name = 'products'
+                              AND column_name = 'warehouse_stock_anyang') THEN
+                    LOCK TABLE "%1$s".products IN ACCESS EXCLUSIVE MODE;
+                    INSERT INTO "%1$s".product_warehouse_stock AS ws
+                           (id, product_id, warehouse_code, warehouse_name, stock, updated_at)
+                    SELECT gen_random_uuid(), p.product_id, l.code,
+                           COALESCE((SELECT w.name FROM "%1$s".warehouses w WHERE w.code = l.code), l.code),
+                           l.stock, NOW()
+                      FROM "%1$s".products p
+                     CROSS JOIN LATERAL (VALUES ('ANYANG',     COALESCE(p.warehouse_stock_anyang, 0)),
+                                                ('ICHEON_BOX', COALESCE(p.warehouse_stock_icheon, 0)),
+                                                ('BUCHEON',    COALESCE(p.warehouse_stock_bucheon, 0))) AS l(code, stock)
+                     WHERE l.stock <> 0
+                        OR EXISTS (SELECT 1 FROM "%1$s".product_warehouse_stock e
+                                    WHERE e.product_id = p.product_id AND e.warehouse_code = l.code)
+                    ON CONFLICT (product_id, warehouse_code) DO UPDATE
+                       SET stock = EXCLUDED.stock, updated_at = NOW();
+                    DELETE FROM "%1$s".product_warehouse_stock WHERE warehouse_code = 'ICHEON_PCS';
+                    ALTER TABLE "%1$s".products RENAME COLUMN warehouse_stock_anyang  TO migrated_warehouse_stock_anyang;
+                    ALTER TABLE "%1$s".products RENAME COLUMN warehouse_stock_icheon  TO migrated_warehouse_stock_icheon;
+                    ALTER TABLE "%1$s".products RENAME COLUMN warehouse_stock_bucheon TO migrated_warehouse_stock_bucheon;
+                END IF;
+            END
+            $$""", s));
+
+        // inventory_transactions (추가만 가능한 재고 원장 + 스냅샷)
+        execRaw(s, String.format("CREATE SEQUENCE IF NOT EXISTS \"%s\".inventory_ledger_seq", s));
+        execRaw(s, String.format("""
+            ALTER TABLE "%s".inventory_transactions
+                ADD COLUMN IF NOT EXISTS ledger_seq BIGINT,
+                ADD COLUMN IF NOT EXISTS warehouse_code VARCHAR(100),
+                ADD COLUMN IF NOT EXISTS warehouse_delta INTEGER""", s));
+        execRaw(s, String.format("""
+            DO $$
+            BEGIN
+                IF EXISTS (SELECT 1 FROM "%1$s".inventory_transactions WHERE ledger_seq IS NULL) THEN
+                    DROP TRIGGER IF EXISTS trg_inventory_ledger_append_only ON "%1$s".inventory_transactions;
+                    UPDATE "%1$s".inventory_transactions t
+                       SET ledger_seq = o.seq
+                      FROM (SELECT transaction_id,
+                                   (SELECT COALESCE(MAX(ledger_seq), 0) FROM "%1$s".inventory_transactions)
+                                   + ROW_NUMBER() OVER (ORDER BY created_at, transaction_id) AS seq
+                              FROM "%1$s".inventory_transactions
+                             WHERE ledger_seq IS NULL) o
+                     WHERE t.transaction_id = o.transaction_id;
+                    PERFORM setval('"%1$s".inventory_ledger_seq',
+                                   COALESCE((SELECT MAX(ledger_seq) FROM "%1$s".inventory_transactions), 0) + 1, false);
+                END IF;
+            END
+            $$""", s));
+        // 공용 스키마에서 복사된 기본값은 public 시퀀스를 가리키므로 테넌트 시퀀스로 교체
+        execRaw(s, String.format("""
+            ALTER TABLE "%1$s".inventory_transactions
+                ALTER COLUMN ledger_seq SET DEFAULT nextval('"%1$s".inventory_ledger_seq'),
+                ALTER COLUMN ledger_seq SET NOT NULL""", s));
+        if (tablePartitionService.ensurePartitioned(s, "inventory_transactions")) {
+            execRaw(s, String.format("CREATE INDEX IF NOT EXISTS ix_inventory_transactions_ledger_seq ON \"%s\".inventory_transactions (ledger_seq)", s));
+        } else {
+            execRaw(s, String.format("CREATE UNIQUE INDEX IF NOT EXISTS ux_inventory_transactions_ledger_seq ON \"%s\".inventory_transactions (ledger_seq)", s));
+        }
+        execRaw(s, String.format("CREATE INDEX IF NOT EXISTS ix_inventory_transactions_product_seq ON \"%s\".inventory_transactions (product_id, ledger_seq)", s));
+        execRaw(s, String.format("""
+            CREATE INDEX IF NOT EXISTS ix_inventory_transactions_product_warehouse_seq
+                ON "%s".inventory_transactions (product_id, warehouse_code, ledger_seq) WHERE warehouse_code IS NOT NULL""", s));
+        execRaw(s, String.format("CREATE INDEX IF NOT EXISTS ix_inventory_transactions_product_created ON \"%s\".inventory_transactions (product_id, created_at)", s));
+        execRaw(s, String.format("""
+            CREATE OR REPLACE FUNCTION "%s".inventory_ledger_append_only() RETURNS trigger AS $$
+            BEGIN
+                RAISE EXCEPTION 'inventory_transactions 는 추가만 가능합니다 (%%)', TG_OP;
+            END
+            $$ LANGUAGE plpgsql""", s));
+        execRaw(s, String.format("DROP TRIGGER IF EXISTS trg_inventory_ledger_append_only ON \"%s\".inventory_transactions", s));
+        execRaw(s, String.format("""
+            CREATE TRIGGER trg_inventory_ledger_append_only
+            BEFORE UPDATE OR DELETE ON "%1$s".inventory_transactions
+            FOR EACH ROW EXECUTE FUNCTION "%1$s".inventory_ledger_append_only()""", s));
+        execRaw(s, String.format("""
+            CREATE TABLE IF NOT EXISTS "%s".inventory_ledger_snapshots (
+                product_id     UUID         NOT NULL,
+                warehouse_code VARCHAR(100) NOT NULL,
+                ledger_seq     BIGINT       NOT NULL,
+                snapshot_at    TIMESTAMP    NOT NULL,
+                stock          INTEGER      NOT NULL,
+                PRIMARY KEY (product_id, warehouse_code, ledger_seq)
+            )""", s));
+        execRaw(s, String.format("CREATE INDEX IF NOT EXISTS ix_inventory_ledger_snapshots_seq ON \"%s\".inventory_ledger_snapshots (ledger_seq)", s));
+        execRaw(s, String.format("""
+            CREATE TABLE IF NOT EXISTS "%s".inventory_ledger_watermark (
+                id            SMALLINT PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+                pending_seq   BIGINT   NOT NULL,
+                pending_xid   xid8     NOT NULL,
+                compacted_seq BIGINT   NOT NULL DEFAULT 0
+            )""", s));
+        execRaw(s, String.format("ALTER TABLE \"%s\".inventory_ledger_watermark ADD COLUMN IF NOT EXISTS compacted_seq BIGINT NOT NULL DEFAULT 0", s));
+
+        // stock_matching_version (재고 매칭 스냅샷 무효화용 변경 카운터 — 커밋된 값만 보이도록 1행 테이블 사용)
+        execRaw(s, String.format("""
+            CREATE TABLE IF NOT EXISTS "%s".stock_matching_version (
+                id      SMALLINT PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+                version BIGINT   NOT NULL DEFAULT 0
+            )""", s));
+        execRaw(s, String.format("INSERT INTO \"%s\".stock_matching_version (id, version) VALUES (1, 0) ON CONFLICT (id) DO NOTHING", s));
+        execRaw(s, String.format("""
+            CREATE OR REPLACE FUNCTION "%1$s".bump_stock_matching_changes() RETURNS trigger AS $$
+            BEGIN
+                IF current_setting('oms_matching_bumped.' || TG_TABLE_SCHEMA, true) IS DISTINCT FROM 'on' THEN
+                    UPDATE "%1$s".stock_matching_version SET version = version + 1 WHERE id = 1;
+                    PERFORM set_config('oms_matching_bumped.' || TG_TABLE_SCHEMA, 'on', true);
+                END IF;
+                RETURN NULL;
+            END
+            $$ LANGUAGE plpgsql""", s));
+        for (String table : List.of("order_items", "products", "product_warehouse_stock")) {
+            execRaw(s, String.format("DROP TRIGGER IF EXISTS trg_%s_matching_changes ON \"%s\".%s", table, s, table));
+            execRaw(s, String.format("""
+                CREATE CONSTRAINT TRIGGER trg_%s_matching_changes
+                AFTER INSERT OR UPDATE OR DELETE ON "%s".%s
+                DEFERRABLE INITIALLY DEFERRED
+                FOR EACH ROW EXECUTE FUNCTION "%s".bump_stock_matching_changes()""", table, s, table, s));
+        }
+        execRaw(s, String.format("DROP TRIGGER IF EXISTS trg_orders_matching_changes ON \"%s\".orders", s));
+        execRaw(s, String.format("""
+            CREATE CONSTRAINT TRIGGER trg_orders_matching_changes
+            AFTER INSERT OR DELETE ON "%s".orders
+            DEFERRABLE INITIALLY DEFERRED
+            FOR EACH ROW EXECUTE FUNCTION "%s".bump_stock_matching_changes()""", s, s));
+        execRaw(s, String.format("DROP TRIGGER IF EXISTS trg_orders_matching_changes_update ON \"%s\".orders", s));
+        execRaw(s, String.format("""
+            CREATE CONSTRAINT TRIGGER trg_orders_matching_changes_update
+            AFTER UPDATE ON "%s".orders
+            DEFERRABLE INITIALLY DEFERRED
+            FOR EACH ROW
+            WHEN (OLD.order_status IS DISTINCT FROM NEW.order_status
+               OR OLD.allocation_excluded IS DISTINCT FROM NEW.allocation_excluded
+               OR OLD.priority_allocation IS DISTINCT FROM NEW.priority_allocation
+               OR OLD.recipient_name IS DISTINCT FROM NEW.recipient_name
+               OR OLD.address IS DISTINCT FROM NEW.address
+               OR OLD.channel_id IS DISTINCT FROM NEW.channel_id
+               OR OLD.ordered_at IS DISTINCT FROM NEW.ordered_at)
+            EXECUTE FUNCTION "%s".bump_stock_matching_changes()""", s, s));
+
+        // market_sync_outbox (판매처 발송완료 전송 대기열)
+        execRaw(s, String.format("""
+            CREATE TABLE IF NOT EXISTS "%s".market_sync_outbox (
+                outbox_id       UUID         PRIMARY KEY,
+                order_id        UUID         NOT NULL,
+                order_no        VARCHAR(100) NOT NULL,
+                channel_code    VARCHAR(100),
+                carrier_code    VARCHAR(50),
+                carrier_name    VARCHAR(100),
+                tracking_no     VARCHAR(100),
+                status          VARCHAR(20)  NOT NULL DEFAULT 'PENDING',
+                attempts        INTEGER      NOT NULL DEFAULT 0,
+                next_attempt_at TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                locked_until    TIMESTAMP,
+                last_error      TEXT,
+                created_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                updated_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+            )""", s));
+        execRaw(s, String.format("""
+            CREATE UNIQUE INDEX IF NOT EXISTS ux_market_sync_outbox_active_order
+                ON "%s".market_sync_outbox (order_id) WHERE status IN ('PENDING', 'PROCESSING')""", s));
+        execRaw(s, String.format("CREATE INDEX IF NOT EXISTS ix_market_sync_outbox_pending ON \"%s\".market_sync_outbox (next_attempt_at) WHERE status = 'PENDING'", s));
+        execRaw(s, String.format("CREATE INDEX IF NOT EXISTS ix_market_sync_outbox_processing ON \"%s\".market_sync_outbox (locked_until) WHERE status = 'PROCESSING'", s));
+        execRaw(s, String.format("CREATE INDEX IF NOT EXISTS ix_market_sync_outbox_done ON \"%s\".market_sync_outbox (updated_at) WHERE status = 'DONE'", s));
+
+        // order_invoices (주문 송장, 송장번호 유니크)
+        execRaw(s, String.format("""
+            CREATE TABLE IF NOT EXISTS "%1$s".order_invoices (
+                order_id     UUID         PRIMARY KEY REFERENCES "%1$s".orders(order_id) ON DELETE CASCADE,
+                carrier_code VARCHAR(50),
+                carrier_name VARCHAR(100),
+                tracking_no  VARCHAR(100) NOT NULL,
+                issued_at    TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                printed_at   TIMESTAMP,
+                status       VARCHAR(20)  NOT NULL DEFAULT 'ISSUED',
+                updated_at   TIMESTAMP
+            )""", s));
+        execRaw(s, String.format("CREATE UNIQUE INDEX IF NOT EXISTS ux_order_invoices_tracking_no ON \"%s\".order_invoices (tracking_no)", s));
+        execRaw(s, String.format("CREATE INDEX IF NOT EXISTS ix_order_invoices_tracking_no_pattern ON \"%s\".order_invoices (tracking_no text_pattern_ops)", s));
+
+        // 키워드 검색 (검색식 / 컬럼 pg_trgm GIN 인덱스, KeywordSearchService) — 새 스키마는 비어 있으므로 일반 CREATE INDEX
+        execRaw(s, String.format("ALTER TABLE \"%s\".orders DROP COLUMN IF EXISTS search_text", s));
+        execRaw(s, String.format("ALTER TABLE \"%s\".product_returns DROP COLUMN IF EXISTS search_text", s));
+        execRaw(s, String.format("CREATE INDEX IF NOT EXISTS ix_orders_search_trgm ON \"%s\".orders USING gin ((%s) gin_trgm_ops)",
+            s, KeywordSearchService.ORDER_SEARCH_TEXT_SQL));
+        execRaw(s, String.format("CREATE INDEX IF NOT EXISTS ix_order_items_product_name_trgm ON \"%s\".order_items USING gin (product_name gin_trgm_ops)", s));
+        execRaw(s, String.format("CREATE INDEX IF NOT EXISTS ix_order_invoices_tracking_no_trgm ON \"%s\".order_invoices USING gin (tracking_no gin_trgm_ops)", s));
+        execRaw(s, String.format("CREATE INDEX IF NOT EXISTS ix_product_returns_search_trgm ON \"%s\".product_returns USING gin ((%s) gin_trgm_ops)",
+            s, KeywordSearchService.RETURN_SEARCH_TEXT_SQL));
+
+        // invoice_issue_items (송장 일괄 발급 진행 기록)
+        execRaw(s, String.format("""
+            CREATE TABLE IF NOT EXISTS "%s".invoice_issue_items (
+                order_id                  UUID         PRIMARY KEY,
+                run_id                    UUID         NOT NULL,
+                order_no                  VARCHAR(100) NOT NULL,
+                carrier_code              VARCHAR(50),
+                carrier_name              VARCHAR(100),
+                status                    VARCHAR(20)  NOT NULL,
+                tracking_no               VARCHAR(100),
+                po_req_no                 VARCHAR(50),
+                reservation_no            VARCHAR(50),
+                req_ymd                   VARCHAR(8),
+                delivery_area_code        VARCHAR(50),
+                arrival_center_name       VARCHAR(100),
+                delivery_post_office_name VARCHAR(100),
+                delivery_course_no        VARCHAR(50),
+                message                   TEXT,
+                updated_at                TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+            )""", s));
+        execRaw(s, String.format("CREATE INDEX IF NOT EXISTS ix_invoice_issue_items_run ON \"%s\".invoice_issue_items (run_id)", s));
+        execRaw(s, String.format("CREATE INDEX IF NOT EXISTS ix_invoice_issue_items_issued ON \"%s\".invoice_issue_items (order_id) WHERE status = 'ISSUED'", s));
+
+        // jobs (백그라운드 작업)
+        execRaw(s, String.format("""
+            CREATE TABLE IF NOT EXISTS "%s".jobs (
+                job_id              UUID         PRIMARY KEY,
+                job_type            VARCHAR(50)  NOT NULL,
+                status              VARCHAR(20)  NOT NULL,
+                requested_by        VARCHAR(100),
+                progress_done       BIGINT       NOT NULL DEFAULT 0,
+                progress_total      BIGINT       NOT NULL DEFAULT 0,
+                message             TEXT,
+                cancel_requested    BOOLEAN      NOT NULL DEFAULT FALSE,
+                result_json         TEXT,
+                result_path         TEXT,
+                result_file_name    VARCHAR(255),
+                result_content_type VARCHAR(100),
+                error               TEXT,
+                created_at          TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                started_at          TIMESTAMP,
+                finished_at         TIMESTAMP,
+                updated_at          TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+            )""", s));
+        execRaw(s, String.format("ALTER TABLE \"%s\".jobs ADD COLUMN IF NOT EXISTS result_node VARCHAR(100)", s));
+        execRaw(s, String.format("CREATE INDEX IF NOT EXISTS ix_jobs_created ON \"%s\".jobs (created_at DESC)", s));
+        execRaw(s, String.format("CREATE INDEX IF NOT EXISTS ix_jobs_active ON \"%s\".jobs (updated_at) WHERE status IN ('QUEUED', 'RUNNING')", s));
+
         log.info("[TenantInit] 운영 마이그레이션 완료: {}", s);
     }
 
@@ -447,6 +821,31 @@ public class TenantSchemaInitService {
             throw new IllegalArgumentException("유효하지 않은 스키마명: " + name);
     }
 
+    /**
+     * 복구한 원장 기준으로 스냅샷·압축 기준점·순번을 다시 만듦
+     * (이전 스냅샷은 복구 전 원장의 순번을 가리키므로 버리고, 복구된 현재 재고를 기준 스냅샷으로 남김)
+     */
+    private void resetInventoryLedger(Connection conn, String schemaName) throws Exception {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(String.format(
+                "TRUNCATE TABLE \"%1$s\".inventory_ledger_snapshots, \"%1$s\".inventory_ledger_watermark", schemaName));
+            stmt.execute(String.format("""
+                INSERT INTO "%1$s".inventory_ledger_snapshots (product_id, warehouse_code, ledger_seq, snapshot_at, stock)
+                WITH h AS (
+                    SELECT COALESCE(MAX(ledger_seq), 0) AS seq, COALESCE(MAX(created_at), NOW()) AS at
+                      FROM "%1$s".inventory_transactions
+                )
+                SELECT p.product_id, '*', h.seq, h.at, COALESCE(p.total_stock, 0) FROM "%1$s".products p CROSS JOIN h
+                UNION ALL
+                SELECT ws.product_id, ws.warehouse_code, h.seq, h.at, ws.stock FROM "%1$s".product_warehouse_stock ws CROSS JOIN h
+                """, schemaName));
+            stmt.execute(String.format("""
+                SELECT setval('"%1$s".inventory_ledger_seq',
+                              COALESCE((SELECT MAX(ledger_seq) FROM "%1$s".inventory_transactions), 0) + 1, false)
+                """, schemaName));
+        }
+    }
+
     private void truncateTables(Connection conn, String schemaName, List<String> orderedTables) throws Exception {
         if (orderedTables.isEmpty()) return;
         String joined = orderedTables.stream()
@@ -498,6 +897,7 @@ public class TenantSchemaInitService {
             SELECT column_name, data_type, udt_name, ordinal_position
             FROM information_schema.columns
             WHERE table_schema = ? AND table_name = ?
+              AND is_generated = 'NEVER'
             ORDER BY ordinal_position
             """,
             rs -> {
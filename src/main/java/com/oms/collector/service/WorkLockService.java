@@ -1,6 +1,6 @@
 package com.oms.collector.service;
 
-import com.oms.collector.config.TenantContext;
+import com.oms.collector.config.TenantTables;
 import com.oms.collector.exception.LockConflictException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,11 +25,8 @@ public class WorkLockService {
 
     private final JdbcTemplate jdbc;
 
-    /** 현재 테넌트 스키마를 포함한 완전 한정 테이블명 */
     private String table() {
-        String schema = TenantContext.getCurrentTenant();
-        if (schema == null || schema.isBlank()) schema = "public";
-        return "\"" + schema + "\".work_locks";
+        return TenantTables.qualify("work_locks");
     }
 
     /**
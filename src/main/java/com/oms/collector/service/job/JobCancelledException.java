@@ -0,0 +1,11 @@
+package com.oms.collector.service.job;
+
+/**
+ * 취소 요청된 작업이 다음 확인 지점에서 던지는 예외 — 트랜잭션 작업이면 그대로 롤백됩니다
+ */
+public class JobCancelledException extends RuntimeException {
+
+    public JobCancelledException() {
+        super("사용자 요청으로 취소되었습니다");
+    }
+}
@@ -0,0 +1,112 @@
+package com.oms.collector.service.job;
+
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 실행 중인 작업이 진행률을 알리고 취소 여부를 확인하는 창구
+ *
+ * 진행률은 매번 DB 에 쓰지 않고 최소 간격마다 한 번(마지막 건은 즉시) 기록하며, 기록할 때 다른 노드에서
+ * 들어온 취소 요청도 함께 읽어 옵니다. 작업은 청크·건 단위 사이에서 checkCancelled() 를 호출해야 멈출 수 있습니다.
+ * 청크마다 inChunk() 로 커밋하면 취소·실패해도 이미 끝난 청크는 남습니다.
+ */
+public class JobContext {
+
+    private static final long FLUSH_INTERVAL_MS = 1000L;
+
+    private final UUID jobId;
+    private final JobStore jobStore;
+    private final AtomicBoolean cancelled;
+    private final Path workDir;
+    private final TransactionTemplate transactionTemplate;
+
+    private long done;
+    private long total;
+    private String message;
+    private long lastFlushAt;
+    private long lastCancelCheckAt;
+
+    JobContext(UUID jobId, JobStore jobStore, AtomicBoolean cancelled, Path workDir,
+               TransactionTemplate transactionTemplate) {
+        this.jobId = jobId;
+        this.jobStore = jobStore;
+        this.cancelled = cancelled;
+        this.workDir = workDir;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public void progress(long done, long total) {
+        progress(done, total, null);
+    }
+
+    public synchronized void progress(long done, long total, String message) {
+        this.done = done;
+        this.total = total;
+        if (message != null) {
+            this.message = message;
+        }
+        long now = System.currentTimeMillis();
+        if (done >= total || now - lastFlushAt >= FLUSH_INTERVAL_MS) {
+            if (jobStore.updateProgress(jobId, done, total, message)) {
+                cancelled.set(true);
+            }
+            lastFlushAt = now;
+            lastCancelCheckAt = now;
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        if (cancelled.get()) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastCancelCheckAt >= FLUSH_INTERVAL_MS) {
+            lastCancelCheckAt = now;
+            if (jobStore.isCancelRequested(jobId)) {
+                cancelled.set(true);
+            }
+        }
+        return cancelled.get();
+    }
+
+    /**
+     * @throws JobCancelledException 취소 요청이 들어온 경우
+     */
+    public void checkCancelled() {
+        if (isCancelled()) {
+            throw new JobCancelledException();
+        }
+    }
+
+    /**
+     * 청크 하나를 자체 트랜잭션으로 실행하고 바로 커밋 (submit 으로 제출한 작업에서 사용)
+     */
+    public void inChunk(Runnable chunk) {
+        transactionTemplate.executeWithoutResult(status -> chunk.run());
+    }
+
+    /**
+     * 이 작업 전용 결과 디렉터리 안의 파일 경로 (디렉터리는 만들어 둠)
+     */
+    public Path resultFile(String fileName) throws IOException {
+        Files.createDirectories(workDir);
+        return workDir.resolve(fileName);
+    }
+
+    synchronized long getDone() {
+        return done;
+    }
+
+    synchronized long getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,20 @@
+package com.oms.collector.service.job;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * 작업 결과 — 요약(JSON 으로 저장) + 선택적으로 내려받을 파일
+ *
+ * @param file 결과 파일 (JobContext.resultFile 로 만든 경로, 없으면 null)
+ */
+public record JobResult(Map<String, Object> summary, Path file, String fileName, String contentType) {
+
+    public static JobResult of(Map<String, Object> summary) {
+        return new JobResult(summary, null, null, null);
+    }
+
+    public static JobResult file(Path file, String fileName, String contentType, Map<String, Object> summary) {
+        return new JobResult(summary, file, fileName, contentType);
+    }
+}
@@ -0,0 +1,377 @@
+package com.oms.collector.service.job;
+
+import com.oms.collector.config.TenantContext;
+import com.oms.collector.exception.JobConflictException;
+import com.oms.collector.exception.JobRejectedException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 백그라운드 작업 실행기
+ *
+ * 오래 걸리는 요청(일괄 송장 발급, 자동매칭, 묶음 확정, 백업/복구, CSV 업로드, 엑셀 내보내기)을 요청 스레드에서
+ * 떼어 제한된 워커 풀에서 실행하고, 상태·진행률·결과를 테넌트 스키마의 jobs 테이블에 남깁니다.
+ * - 워커 수·대기열 길이 고정 — 동시에 잡는 DB 커넥션은 워커 수만큼, 대기열이 차면 제출을 거절(503)
+ * - 제출 시점의 테넌트·사용자를 워커 스레드에 그대로 설정
+ * - 호출 쪽 트랜잭션 안에서 제출하면 커밋된 뒤에 실행 시작
+ * - 결과 파일은 collector.jobs.result-dir/{스키마}/{jobId}/ 아래에 두고 보관 기간이 지나면 행과 함께 삭제
+ *   result-dir 가 노드마다 따로면(기본: 임시 디렉터리) 파일을 만든 노드(result_node)를 기록해 두고,
+ *   다른 노드에서 받으려 하면 삭제(410)가 아니라 다른 노드에 있다고 응답합니다. 여러 노드가 같은 저장소를
+ *   마운트하면 result-dir-shared 를 켭니다. 정리는 노드마다 자기 result-dir 의 오래된 디렉터리도 함께 지웁니다.
+ */
+@Slf4j
+@Service
+public class JobService {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String SUCCEEDED = "SUCCEEDED";
+    public static final String FAILED = "FAILED";
+    public static final String CANCELLED = "CANCELLED";
+
+    private final JobStore jobStore;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${collector.jobs.threads:2}")
+    private int threads;
+
+    @Value("${collector.jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${collector.jobs.result-dir:}")
+    private String configuredResultDir;
+
+    @Value("${collector.jobs.stale-minutes:60}")
+    private int staleMinutes;
+
+    @Value("${collector.jobs.result-dir-shared:false}")
+    private boolean resultDirShared;
+
+    @Value("${collector.jobs.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${collector.jobs.retention-days:7}")
+    private int retentionDays;
+
+    private ThreadPoolExecutor executor;
+    private Path resultRoot;
+    private String nodeId;
+    private final Map<UUID, AtomicBoolean> localJobs = new ConcurrentHashMap<>();
+
+    public JobService(JobStore jobStore, PlatformTransactionManager transactionManager) {
+        this.jobStore = jobStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void initExecutor() {
+        int size = Math.max(1, threads);
+        AtomicInteger sequence = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+            size, size, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+            runnable -> {
+                Thread thread = new Thread(runnable, "job-worker-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        executor.allowCoreThreadTimeOut(true);
+
+        String configured = configuredResultDir != null ? configuredResultDir.trim() : "";
+        resultRoot = configured.isEmpty()
+            ? Path.of(System.getProperty("java.io.tmpdir"), "oms-jobs")
+            : Path.of(configured);
+        nodeId = configuredNodeId != null && !configuredNodeId.isBlank() ? configuredNodeId.trim() : localHostName();
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "node-" + UUID.randomUUID();
+        }
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 작업 제출 — 트랜잭션 없이 실행 (작업 안에서 필요한 만큼 짧은 트랜잭션을 직접 사용, 청크 단위는 JobContext.inChunk)
+     *
+     * @throws JobRejectedException 대기열이 가득 찬 경우
+     */
+    public JobView submit(String jobType, JobTask task) {
+        return submit(jobType, false, false, task);
+    }
+
+    /**
+     * 작업 제출 — 작업 전체를 트랜잭션 하나로 실행 (취소·실패 시 모두 롤백)
+     */
+    public JobView submitInTransaction(String jobType, JobTask task) {
+        return submit(jobType, true, false, task);
+    }
+
+    /**
+     * 작업 제출 — 현재 테넌트에 같은 종류의 작업이 대기/실행 중이면 제출하지 않음 (같은 대상을 두 작업이 나눠 잡지 않도록)
+     *
+     * @throws JobConflictException 같은 종류의 작업이 이미 대기/실행 중인 경우 (진행 중인 작업 ID 포함)
+     */
+    public JobView submitExclusive(String jobType, JobTask task) {
+        return submit(jobType, false, true, task);
+    }
+
+    public Optional<JobView> find(UUID jobId) {
+        return jobStore.find(jobId);
+    }
+
+    public List<JobView> list(String jobType, int limit) {
+        return jobStore.list(jobType, Math.max(1, Math.min(limit, 200)));
+    }
+
+    /**
+     * 취소 요청 — 이 노드에서 실행 중이면 토큰도 바로 세움
+     */
+    public Optional<JobView> cancel(UUID jobId) {
+        if (jobStore.requestCancel(jobId)) {
+            AtomicBoolean token = localJobs.get(jobId);
+            if (token != null) {
+                token.set(true);
+            }
+            log.info("[Job] 취소 요청: {}", jobId);
+        }
+        return jobStore.find(jobId);
+    }
+
+    /**
+     * 끝난 작업의 결과 파일 (이 노드에 파일이 없으면 empty — 삭제됐는지는 isResultOnOtherNode 로 구분)
+     */
+    public Optional<Path> resultFile(JobView job) {
+        if (!SUCCEEDED.equals(job.status()) || job.resultPath() == null) {
+            return Optional.empty();
+        }
+        Path path = Path.of(job.resultPath()).normalize();
+        if (!path.startsWith(resultRoot.normalize()) || !Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        return Optional.of(path);
+    }
+
+    /**
+     * 결과 파일을 다른 노드의 로컬 result-dir 에 만든 작업인지 (공유 저장소면 항상 false)
+     */
+    public boolean isResultOnOtherNode(JobView job) {
+        return !resultDirShared && job.resultNode() != null && !nodeId.equals(job.resultNode());
+    }
+
+    /**
+     * 현재 테넌트에서 진행 기록이 오래 없는 작업 실패 처리 (노드 재시작으로 끊긴 작업)
+     */
+    public int failStaleJobs() {
+        int failed = jobStore.failStale(staleMinutes, localJobs.keySet());
+        if (failed > 0) {
+            log.warn("[Job] {} 중단된 작업 {}건 실패 처리", TenantContext.getCurrentTenant(), failed);
+        }
+        return failed;
+    }
+
+    /**
+     * 현재 테넌트의 보관 기간 지난 작업·결과 파일 삭제
+     */
+    public int purgeExpired() {
+        List<String> resultPaths = jobStore.purgeFinished(retentionDays);
+        for (String resultPath : resultPaths) {
+            if (resultPath != null) {
+                deleteQuietly(Path.of(resultPath).getParent());
+            }
+        }
+        sweepLocalResults();
+        return resultPaths.size();
+    }
+
+    /**
+     * 이 노드 result-dir 의 현재 테넌트 디렉터리 중 보관 기간이 지난 작업 디렉터리 삭제
+     * (행은 먼저 정리를 돈 노드가 지우므로, 다른 노드에 남은 파일은 각 노드가 직접 지움)
+     */
+    private void sweepLocalResults() {
+        Path tenantDir = resultRoot.resolve(tenantDirName(TenantContext.getCurrentTenant()));
+        if (!Files.isDirectory(tenantDir)) {
+            return;
+        }
+        FileTime cutoff = FileTime.from(Instant.now().minus(Duration.ofDays(Math.max(1, retentionDays))));
+        try (Stream<Path> dirs = Files.list(tenantDir)) {
+            dirs.filter(Files::isDirectory)
+                .filter(dir -> !isLocalJob(dir))
+                .filter(dir -> {
+                    try {
+                        return Files.getLastModifiedTime(dir).compareTo(cutoff) < 0;
+                    } catch (IOException e) {
+                        return false;
+                    }
+                })
+                .forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("[Job] 결과 디렉터리 정리 실패: {} - {}", tenantDir, e.getMessage());
+        }
+    }
+
+    private boolean isLocalJob(Path dir) {
+        try {
+            return localJobs.containsKey(UUID.fromString(dir.getFileName().toString()));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private JobView submit(String jobType, boolean transactional, boolean exclusive, JobTask task) {
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw new JobRejectedException("대기 중인 작업이 많습니다. 잠시 후 다시 시도해 주세요.");
+        }
+
+        UUID jobId = UUID.randomUUID();
+        String tenant = TenantContext.getCurrentTenant();
+        String user = TenantContext.getCurrentUser();
+        if (exclusive) {
+            jobStore.insertIfIdle(jobId, jobType, user).ifPresent(activeJobId -> {
+                throw new JobConflictException("같은 작업이 이미 진행 중입니다. 끝난 뒤 다시 시도해 주세요.", activeJobId);
+            });
+        } else {
+            jobStore.insert(jobId, jobType, user);
+        }
+
+        AtomicBoolean token = new AtomicBoolean();
+        Runnable worker = () -> run(jobId, jobType, tenant, user, transactional, task, token);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(jobId, worker, token, false);
+                }
+            });
+        } else {
+            dispatch(jobId, worker, token, true);
+        }
+
+        log.info("[Job] 제출: {} {} ({}, {})", jobType, jobId, tenant, user);
+        return jobStore.find(jobId).orElseThrow();
+    }
+
+    private void dispatch(UUID jobId, Runnable worker, AtomicBoolean token, boolean throwOnReject) {
+        localJobs.put(jobId, token);
+        try {
+            executor.execute(worker);
+        } catch (RejectedExecutionException e) {
+            localJobs.remove(jobId);
+            jobStore.markFinished(jobId, QUEUED, FAILED, "대기열이 가득 차 실행하지 못했습니다");
+            if (throwOnReject) {
+                throw new JobRejectedException("대기 중인 작업이 많습니다. 잠시 후 다시 시도해 주세요.");
+            }
+            log.warn("[Job] 대기열 초과로 실행 거절: {}", jobId);
+        }
+    }
+
+    private void run(UUID jobId, String jobType, String tenant, String user,
+                     boolean transactional, JobTask task, AtomicBoolean token) {
+        TenantContext.setCurrentTenant(tenant);
+        TenantContext.setCurrentUser(user);
+        Path workDir = resultRoot.resolve(tenantDirName(tenant)).resolve(jobId.toString());
+        JobContext context = new JobContext(jobId, jobStore, token, workDir, transactionTemplate);
+        long startedAt = System.currentTimeMillis();
+        try {
+            if (!jobStore.markRunning(jobId)) {
+                log.info("[Job] 실행 전 취소/중단된 작업 건너뜀: {} {}", jobType, jobId);
+                return;
+            }
+            JobResult result = transactional ? runInTransaction(task, context) : task.run(context);
+            if (result == null) {
+                result = JobResult.of(null);
+            }
+            if (!jobStore.markSucceeded(jobId, context.getDone(), context.getTotal(), result, nodeId)) {
+                // 진행 기록이 늦어 다른 노드가 중단 처리한 작업 — 결과를 가리킬 행이 없으므로 파일도 버림
+                log.warn("[Job] 끝났지만 이미 다른 상태로 처리된 작업: {} {}", jobType, jobId);
+                deleteQuietly(workDir);
+                return;
+            }
+            log.info("[Job] 완료: {} {} ({}ms)", jobType, jobId, System.currentTimeMillis() - startedAt);
+        } catch (JobCancelledException e) {
+            jobStore.markFinished(jobId, RUNNING, CANCELLED, e.getMessage());
+            deleteQuietly(workDir);
+            log.info("[Job] 취소됨: {} {} ({}/{})", jobType, jobId, context.getDone(), context.getTotal());
+        } catch (Exception e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.error("[Job] 실패: {} {} - {}", jobType, jobId, cause.getMessage(), cause);
+            jobStore.markFinished(jobId, RUNNING, FAILED,
+                cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName());
+            deleteQuietly(workDir);
+        } finally {
+            localJobs.remove(jobId);
+            TenantContext.clear();
+        }
+    }
+
+    private static String tenantDirName(String tenant) {
+        return tenant != null && !tenant.isBlank() ? tenant : "public";
+    }
+
+    /** 작업 본문의 checked 예외는 CompletionException 으로 감싸 트랜잭션을 롤백시킨 뒤 run() 에서 풀어 기록 */
+    private JobResult runInTransaction(JobTask task, JobContext context) {
+        return transactionTemplate.execute(status -> {
+            try {
+                return task.run(context);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private void deleteQuietly(Path dir) {
+        if (dir == null || !dir.normalize().startsWith(resultRoot.normalize()) || !Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    log.warn("[Job] 결과 파일 삭제 실패: {} - {}", path, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.warn("[Job] 결과 디렉터리 삭제 실패: {} - {}", dir, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.oms.collector.service.job;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oms.collector.config.TenantTables;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * jobs 테이블 접근 (테넌트 스키마별)
+ *
+ * 상태·진행 기록은 REQUIRES_NEW 로 바로 커밋합니다 — 트랜잭션 작업(submitInTransaction) 안에서 불려도
+ * 진행률이 작업 커밋 전에 보이고, 작업이 롤백돼도 실패/취소 기록은 남습니다.
+ * 작업 등록(insert)만 호출한 쪽 트랜잭션에 참여해 호출 트랜잭션이 롤백되면 작업도 남지 않습니다.
+ */
+@Slf4j
+@Component
+public class JobStore {
+
+    private static final String COLUMNS = """
+        job_id, job_type, status, requested_by, progress_done, progress_total, message, cancel_requested,
+        result_json, result_path, result_file_name, result_content_type, result_node, error,
+        created_at, started_at, finished_at""";
+
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate requiresNew;
+    private final TransactionTemplate required;
+
+    public JobStore(JdbcTemplate jdbc, ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.jdbc = jdbc;
+        this.objectMapper = objectMapper;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.required = new TransactionTemplate(transactionManager);
+    }
+
+    void insert(UUID jobId, String jobType, String requestedBy) {
+        jdbc.update("INSERT INTO " + table() + " (job_id, job_type, status, requested_by) VALUES (?, ?, ?, ?)",
+            jobId, jobType, JobService.QUEUED, requestedBy);
+    }
+
+    /**
+     * 같은 종류의 대기/실행 중 작업이 없을 때만 등록 — 있으면 그 작업 ID 를 돌려주고 등록하지 않음
+     *
+     * 테넌트·작업 종류별 advisory 잠금으로 동시 제출을 줄 세웁니다. 잠금은 등록한 트랜잭션(호출 쪽 트랜잭션이
+     * 있으면 그 트랜잭션)이 끝날 때 풀리므로, 다음 제출은 앞 제출이 커밋한 행을 보고 판단합니다.
+     */
+    Optional<UUID> insertIfIdle(UUID jobId, String jobType, String requestedBy) {
+        return required.execute(status -> {
+            jdbc.queryForList("SELECT pg_advisory_xact_lock(hashtext(?))", table() + ":" + jobType);
+            List<UUID> active = jdbc.queryForList(
+                "SELECT job_id FROM " + table() + " WHERE job_type = ? AND status IN ('QUEUED', 'RUNNING') LIMIT 1",
+                UUID.class, jobType);
+            if (!active.isEmpty()) {
+                return Optional.of(active.get(0));
+            }
+            insert(jobId, jobType, requestedBy);
+            return Optional.<UUID>empty();
+        });
+    }
+
+    /** QUEUED → RUNNING (대기 중 취소·중단 처리된 작업이면 false) */
+    boolean markRunning(UUID jobId) {
+        Integer updated = requiresNew.execute(status -> jdbc.update(
+            "UPDATE " + table() + " SET status = ?, started_at = NOW(), updated_at = NOW() WHERE job_id = ? AND status = ?",
+            JobService.RUNNING, jobId, JobService.QUEUED));
+        return updated != null && updated > 0;
+    }
+
+    /**
+     * 진행률 기록 — 함께 취소 요청 여부를 돌려줌
+     */
+    boolean updateProgress(UUID jobId, long done, long total, String message) {
+        List<Boolean> cancelRequested = requiresNew.execute(status -> jdbc.queryForList("""
+            UPDATE %s SET progress_done = ?, progress_total = ?, message = COALESCE(?, message), updated_at = NOW()
+             WHERE job_id = ?
+            RETURNING cancel_requested
+            """.formatted(table()), Boolean.class, done, total, message, jobId));
+        return cancelRequested != null && !cancelRequested.isEmpty() && Boolean.TRUE.equals(cancelRequested.get(0));
+    }
+
+    boolean isCancelRequested(UUID jobId) {
+        List<Boolean> flags = jdbc.queryForList(
+            "SELECT cancel_requested FROM " + table() + " WHERE job_id = ?", Boolean.class, jobId);
+        return !flags.isEmpty() && Boolean.TRUE.equals(flags.get(0));
+    }
+
+    /**
+     * RUNNING → SUCCEEDED (결과 파일은 만든 노드를 함께 기록)
+     *
+     * @return 그 사이 다른 노드가 중단 처리(failStale)해 RUNNING 이 아니면 false
+     */
+    boolean markSucceeded(UUID jobId, long done, long total, JobResult result, String node) {
+        String resultJson = toJson(result.summary());
+        String resultPath = result.file() != null ? result.file().toString() : null;
+        Integer updated = requiresNew.execute(status -> jdbc.update("""
+            UPDATE %s SET status = ?, progress_done = ?, progress_total = ?, result_json = ?, result_path = ?,
+                          result_file_name = ?, result_content_type = ?, result_node = ?, error = NULL,
+                          finished_at = NOW(), updated_at = NOW()
+             WHERE job_id = ? AND status = ?
+            """.formatted(table()),
+            JobService.SUCCEEDED, done, total, resultJson, resultPath,
+            result.fileName(), result.contentType(), result.file() != null ? node : null, jobId, JobService.RUNNING));
+        return updated != null && updated > 0;
+    }
+
+    /**
+     * fromStatus → finalStatus (이미 다른 상태로 끝난 작업은 덮어쓰지 않음)
+     *
+     * @return 반영됐으면 true
+     */
+    boolean markFinished(UUID jobId, String fromStatus, String finalStatus, String error) {
+        Integer updated = requiresNew.execute(status -> jdbc.update(
+            "UPDATE " + table() + " SET status = ?, error = ?, finished_at = NOW(), updated_at = NOW()" +
+            " WHERE job_id = ? AND status = ?",
+            finalStatus, error, jobId, fromStatus));
+        return updated != null && updated > 0;
+    }
+
+    /**
+     * 취소 요청 — 대기 중이면 바로 CANCELLED, 실행 중이면 플래그만 세워 작업이 다음 확인 지점에서 멈춤
+     *
+     * @return 요청이 반영됐으면 true (이미 끝난 작업이면 false)
+     */
+    boolean requestCancel(UUID jobId) {
+        Integer updated = requiresNew.execute(status -> jdbc.update("""
+            UPDATE %s SET cancel_requested = TRUE,
+                          status = CASE WHEN status = 'QUEUED' THEN 'CANCELLED' ELSE status END,
+                          finished_at = CASE WHEN status = 'QUEUED' THEN NOW() ELSE finished_at END,
+                          updated_at = NOW()
+             WHERE job_id = ? AND status IN ('QUEUED', 'RUNNING')
+            """.formatted(table()), jobId));
+        return updated != null && updated > 0;
+    }
+
+    Optional<JobView> find(UUID jobId) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM " + table() + " WHERE job_id = ?", this::mapRow, jobId)
+            .stream().findFirst();
+    }
+
+    List<JobView> list(String jobType, int limit) {
+        if (jobType != null && !jobType.isBlank()) {
+            return jdbc.query("SELECT " + COLUMNS + " FROM " + table() + " WHERE job_type = ? ORDER BY created_at DESC LIMIT ?",
+                this::mapRow, jobType, limit);
+        }
+        return jdbc.query("SELECT " + COLUMNS + " FROM " + table() + " ORDER BY created_at DESC LIMIT ?", this::mapRow, limit);
+    }
+
+    /**
+     * 진행 기록이 오래 없는 대기/실행 작업을 실패 처리 (이 노드에서 실행 중인 작업 제외)
+     */
+    int failStale(int staleMinutes, Collection<UUID> localJobIds) {
+        return jdbc.update("""
+            UPDATE %s SET status = 'FAILED', error = '작업이 중단되었습니다 (서버 재시작 등)', finished_at = NOW(), updated_at = NOW()
+             WHERE status IN ('QUEUED', 'RUNNING')
+               AND updated_at < NOW() - make_interval(mins => ?)
+               AND NOT (job_id = ANY (?))
+            """.formatted(table()),
+            ps -> {
+                ps.setInt(1, staleMinutes);
+                ps.setArray(2, ps.getConnection().createArrayOf("uuid", localJobIds.toArray()));
+            });
+    }
+
+    /**
+     * 보관 기간이 지난 끝난 작업 삭제 — 지울 결과 파일 경로 반환 (파일 없는 작업은 null)
+     */
+    List<String> purgeFinished(int retentionDays) {
+        return jdbc.queryForList("""
+            DELETE FROM %s
+             WHERE status IN ('SUCCEEDED', 'FAILED', 'CANCELLED')
+               AND finished_at < NOW() - make_interval(days => ?)
+            RETURNING result_path
+            """.formatted(table()), String.class, retentionDays);
+    }
+
+    private JobView mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new JobView(
+            rs.getObject("job_id", UUID.class),
+            rs.getString("job_type"),
+            rs.getString("status"),
+            rs.getString("requested_by"),
+            rs.getLong("progress_done"),
+            rs.getLong("progress_total"),
+            rs.getString("message"),
+            rs.getBoolean("cancel_requested"),
+            fromJson(rs.getString("result_json")),
+            rs.getString("result_file_name"),
+            rs.getString("error"),
+            toLocalDateTime(rs.getTimestamp("created_at")),
+            toLocalDateTime(rs.getTimestamp("started_at")),
+            toLocalDateTime(rs.getTimestamp("finished_at")),
+            rs.getString("result_path"),
+            rs.getString("result_content_type"),
+            rs.getString("result_node")
+        );
+    }
+
+    private String toJson(Map<String, Object> summary) {
+        if (summary == null) return null;
+        try {
+            return objectMapper.writeValueAsString(summary);
+        } catch (Exception e) {
+            log.warn("[Job] 결과 요약 직렬화 실패: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Map<String, Object> fromJson(String json) {
+        if (json == null || json.isBlank()) return null;
+        try {
+            return objectMapper.readValue(json, new TypeReference<>() {});
+        } catch (Exception e) {
+            log.warn("[Job] 결과 요약 읽기 실패: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private String table() {
+        return TenantTables.qualify("jobs");
+    }
+}
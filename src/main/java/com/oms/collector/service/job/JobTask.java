@@ -0,0 +1,10 @@
+package com.oms.collector.service.job;
+
+/**
+ * 백그라운드 작업 본문 — 워커 스레드에서 제출 시점의 테넌트·사용자로 실행
+ */
+@FunctionalInterface
+public interface JobTask {
+
+    JobResult run(JobContext context) throws Exception;
+}
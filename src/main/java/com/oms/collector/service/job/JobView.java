@@ -0,0 +1,39 @@
+package com.oms.collector.service.job;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * jobs 행 조회 결과 (API 응답용 — 결과 파일 경로는 노출하지 않음)
+ */
+public record JobView(UUID jobId, String jobType, String status, String requestedBy,
+                      long progressDone, long progressTotal, String message, boolean cancelRequested,
+                      Map<String, Object> result, String resultFileName, String error,
+                      LocalDateTime createdAt, LocalDateTime startedAt, LocalDateTime finishedAt,
+                      @JsonIgnore String resultPath, @JsonIgnore String resultContentType,
+                      @JsonIgnore String resultNode) {
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return JobService.SUCCEEDED.equals(status) || JobService.FAILED.equals(status) || JobService.CANCELLED.equals(status);
+    }
+
+    /**
+     * 작업 제출 응답 본문 (202 Accepted) — 이후 statusUrl 로 진행 상황을, resultUrl 로 결과를 조회
+     */
+    public Map<String, Object> acceptedBody(String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", true);
+        body.put("jobId", jobId.toString());
+        body.put("jobType", jobType);
+        body.put("status", status);
+        body.put("statusUrl", "/api/jobs/" + jobId);
+        body.put("resultUrl", "/api/jobs/" + jobId + "/result");
+        body.put("message", message);
+        return body;
+    }
+}
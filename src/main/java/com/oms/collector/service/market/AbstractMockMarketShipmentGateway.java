@@ -3,6 +3,8 @@ package com.oms.collector.service.market;
 import com.oms.collector.entity.Order;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.List;
+
 @Slf4j
 public abstract class AbstractMockMarketShipmentGateway implements MarketShipmentGateway {
     @Override
@@ -24,6 +26,24 @@ public abstract class AbstractMockMarketShipmentGateway implements MarketShipmen
         );
     }
 
+    @Override
+    public List<MarketShipmentSyncService.MarketShipmentSyncResult> sendShipments(List<ShipmentRequest> shipments) {
+        log.info("[Mock Market Sync] channel={} batch={} orderNos={}",
+            getChannelCode(),
+            shipments.size(),
+            shipments.stream().map(it -> it.order().getOrderNo()).toList()
+        );
+        MarketShipmentSyncService.MarketShipmentSyncResult result = MarketShipmentSyncService.MarketShipmentSyncResult.failed(
+            getChannelName() + " 판매처 발송 API 미연동(mock)"
+        );
+        return shipments.stream().map(it -> result).toList();
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return getBatchLimit();
+    }
+
     @Override
     public boolean supports(String channelCode) {
         if (channelCode == null || channelCode.isBlank()) {
@@ -41,4 +61,7 @@ public abstract class AbstractMockMarketShipmentGateway implements MarketShipmen
     protected abstract String getChannelCode();
 
     protected abstract String getChannelName();
+
+    /** 판매처 일괄 발송처리 API 의 1회 최대 주문 수 */
+    protected abstract int getBatchLimit();
 }
@@ -2,8 +2,32 @@ package com.oms.collector.service.market;
 
 import com.oms.collector.entity.Order;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public interface MarketShipmentGateway {
     boolean supports(String channelCode);
 
     MarketShipmentSyncService.MarketShipmentSyncResult sendShipment(Order order, String carrierCode, String carrierName, String trackingNo);
+
+    /**
+     * 여러 주문 발송완료 일괄 전송 — 결과는 요청과 같은 순서
+     *
+     * 일괄 등록 API 가 없는 판매처는 기본 구현대로 한 건씩 호출합니다.
+     * 호출 자체가 실패하면(네트워크 등) 예외를 던지고, 주문별 거절은 결과로 돌려줍니다.
+     */
+    default List<MarketShipmentSyncService.MarketShipmentSyncResult> sendShipments(List<ShipmentRequest> shipments) {
+        List<MarketShipmentSyncService.MarketShipmentSyncResult> results = new ArrayList<>(shipments.size());
+        for (ShipmentRequest shipment : shipments) {
+            results.add(sendShipment(shipment.order(), shipment.carrierCode(), shipment.carrierName(), shipment.trackingNo()));
+        }
+        return results;
+    }
+
+    /** 한 번의 일괄 전송에 담을 수 있는 최대 주문 수 (일괄 API 가 없으면 1) */
+    default int maxBatchSize() {
+        return 1;
+    }
+
+    record ShipmentRequest(Order order, String carrierCode, String carrierName, String trackingNo) {}
 }
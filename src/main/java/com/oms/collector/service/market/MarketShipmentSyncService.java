@@ -28,22 +28,46 @@ public class MarketShipmentSyncService {
 
     public MarketShipmentSyncResult syncShipment(Order order, String carrierCode, String carrierName, String trackingNo) {
         order.setMarketSyncAttemptedAt(LocalDateTime.now());
+        Preparation preparation = prepare(order);
+        if (preparation.gateway() == null) {
+            orderRepository.save(order);
+            return preparation.result();
+        }
+
+        String channelCode = order.getChannel().getChannelCode();
+        try {
+            MarketShipmentSyncResult result = send(preparation.gateway(), order, carrierCode, carrierName, trackingNo);
+            orderRepository.save(order);
+            return result;
+        } catch (Exception e) {
+            log.error("판매처 발송완료 전송 실패: orderNo={} channel={}", order.getOrderNo(), channelCode, e);
+            order.setMarketSyncStatus(Order.MarketSyncStatus.FAILED);
+            order.setMarketSyncMessage(e.getMessage() != null ? e.getMessage() : "판매처 발송완료 전송 중 예외 발생");
+            order.setMarketSyncedAt(null);
+            orderRepository.save(order);
+            return MarketShipmentSyncResult.failed(order.getMarketSyncMessage());
+        }
+    }
+
+    /**
+     * 전송 전 확인 — 판매처/판매처 주문번호/발송 API 가 없으면 결과를 주문에 기록하고 gateway 없이 반환
+     * (주문 저장은 호출한 쪽에서)
+     */
+    public Preparation prepare(Order order) {
         String resolvedChannelOrderNo = resolveChannelOrderNo(order);
 
         if (order.getChannel() == null || order.getChannel().getChannelCode() == null || order.getChannel().getChannelCode().isBlank()) {
             order.setMarketSyncStatus(Order.MarketSyncStatus.NOT_REQUIRED);
             order.setMarketSyncMessage("판매처 정보가 없는 주문");
             order.setMarketSyncedAt(null);
-            orderRepository.save(order);
-            return MarketShipmentSyncResult.success("판매처 연동 대상이 아닌 주문");
+            return Preparation.done(MarketShipmentSyncResult.success("판매처 연동 대상이 아닌 주문"));
         }
 
         if (resolvedChannelOrderNo == null || resolvedChannelOrderNo.isBlank()) {
             order.setMarketSyncStatus(Order.MarketSyncStatus.FAILED);
             order.setMarketSyncMessage("판매처 주문번호(channelOrderNo)가 없어 발송완료 전송 불가");
             order.setMarketSyncedAt(null);
-            orderRepository.save(order);
-            return MarketShipmentSyncResult.failed(order.getMarketSyncMessage());
+            return Preparation.done(MarketShipmentSyncResult.failed(order.getMarketSyncMessage()));
         }
         if (order.getChannelOrderNo() == null || order.getChannelOrderNo().isBlank()) {
             order.setChannelOrderNo(resolvedChannelOrderNo);
@@ -59,30 +83,61 @@ public class MarketShipmentSyncService {
             order.setMarketSyncStatus(Order.MarketSyncStatus.FAILED);
             order.setMarketSyncMessage(channelCode + " 판매처 발송 API 미구현");
             order.setMarketSyncedAt(null);
-            orderRepository.save(order);
-            return MarketShipmentSyncResult.failed(order.getMarketSyncMessage());
+            return Preparation.done(MarketShipmentSyncResult.failed(order.getMarketSyncMessage()));
         }
+        return new Preparation(gateway, null);
+    }
 
-        try {
-            MarketShipmentSyncResult result = gateway.sendShipment(order, carrierCode, carrierName, trackingNo);
-            if (result.success()) {
-                order.setMarketSyncStatus(Order.MarketSyncStatus.SUCCESS);
-                order.setMarketSyncMessage(result.message());
-                order.setMarketSyncedAt(LocalDateTime.now());
-            } else {
-                order.setMarketSyncStatus(Order.MarketSyncStatus.FAILED);
-                order.setMarketSyncMessage(result.message());
-                order.setMarketSyncedAt(null);
-            }
-            orderRepository.save(order);
-            return result;
-        } catch (Exception e) {
-            log.error("판매처 발송완료 전송 실패: orderNo={} channel={}", order.getOrderNo(), channelCode, e);
+    /**
+     * 판매처 발송완료 API 호출 후 결과를 주문 필드에 반영 (저장하지 않음)
+     *
+     * @throws RuntimeException 판매처 호출 중 예외 (일시 장애 — 아웃박스는 재시도)
+     */
+    public MarketShipmentSyncResult send(MarketShipmentGateway gateway, Order order,
+                                         String carrierCode, String carrierName, String trackingNo) {
+        MarketShipmentSyncResult result = gateway.sendShipment(order, carrierCode, carrierName, trackingNo);
+        apply(order, result);
+        return result;
+    }
+
+    /**
+     * 판매처 발송완료 일괄 API 호출 후 주문별 결과를 각 주문 필드에 반영 (저장하지 않음)
+     *
+     * @throws RuntimeException 판매처 호출 중 예외 또는 결과 수가 요청 수와 다를 때 (묶음 전체 재시도)
+     */
+    public List<MarketShipmentSyncResult> sendAll(MarketShipmentGateway gateway,
+                                                  List<MarketShipmentGateway.ShipmentRequest> shipments) {
+        List<MarketShipmentSyncResult> results = gateway.sendShipments(shipments);
+        if (results == null || results.size() != shipments.size()) {
+            throw new IllegalStateException("판매처 일괄 전송 결과 수가 요청과 다릅니다: 요청 %d건, 결과 %d건"
+                .formatted(shipments.size(), results == null ? 0 : results.size()));
+        }
+        for (int i = 0; i < shipments.size(); i++) {
+            apply(shipments.get(i).order(), results.get(i));
+        }
+        return results;
+    }
+
+    private void apply(Order order, MarketShipmentSyncResult result) {
+        if (result.success()) {
+            order.setMarketSyncStatus(Order.MarketSyncStatus.SUCCESS);
+            order.setMarketSyncMessage(result.message());
+            order.setMarketSyncedAt(LocalDateTime.now());
+        } else {
             order.setMarketSyncStatus(Order.MarketSyncStatus.FAILED);
-            order.setMarketSyncMessage(e.getMessage() != null ? e.getMessage() : "판매처 발송완료 전송 중 예외 발생");
+            order.setMarketSyncMessage(result.message());
             order.setMarketSyncedAt(null);
-            orderRepository.save(order);
-            return MarketShipmentSyncResult.failed(order.getMarketSyncMessage());
+        }
+    }
+
+    /**
+     * 전송 준비 결과
+     *
+     * @param gateway 전송할 판매처 API (null 이면 전송 불필요/불가 — result 가 최종 결과)
+     */
+    public record Preparation(MarketShipmentGateway gateway, MarketShipmentSyncResult result) {
+        static Preparation done(MarketShipmentSyncResult result) {
+            return new Preparation(null, result);
         }
     }
 
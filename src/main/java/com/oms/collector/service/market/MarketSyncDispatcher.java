@@ -0,0 +1,184 @@
+package com.oms.collector.service.market;
+
+import com.oms.collector.config.TenantContext;
+import com.oms.collector.entity.Order;
+import com.oms.collector.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 판매처 발송완료 아웃박스 전송기
+ *
+ * 테넌트 단위로 아웃박스 행을 가져가 판매처(채널 코드)별로 묶고, 판매처 일괄 API 1회 최대 건수와
+ * flush-size 중 작은 크기로 나눠 제한된 스레드 풀에서 호출합니다. 판매처별 대기 행이 flush-size 만큼
+ * 모이거나 가장 오래된 행이 flush-max-wait-seconds 를 넘겨야 가져가므로(MarketSyncOutboxService.claim)
+ * 묶음이 잘게 쪼개지지 않습니다. 판매처마다 per-channel-concurrency 크기의 전용 스레드 풀에서 호출하므로
+ * 느린 판매처의 묶음은 그 판매처 큐에서만 기다리고(공용 스레드를 점유하지 않음) 다른 판매처 전송을 막지 않으며,
+ * 판매처 호출 제한도 넘지 않습니다. 유휴 스레드는 60초 뒤 정리됩니다. 주문 조회와 결과 기록은
+ * 각각 짧은 트랜잭션이며, 판매처 호출 동안에는 DB 트랜잭션·커넥션을 잡고 있지 않습니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MarketSyncDispatcher {
+
+    private final MarketSyncOutboxService outboxService;
+    private final MarketShipmentSyncService marketShipmentSyncService;
+    private final OrderRepository orderRepository;
+
+    @Value("${collector.market-sync.per-channel-concurrency:2}")
+    private int perChannelConcurrency;
+
+    @Value("${collector.market-sync.batch-size:100}")
+    private int batchSize;
+
+    @Value("${collector.market-sync.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${collector.market-sync.flush-size:50}")
+    private int flushSize;
+
+    @Value("${collector.market-sync.flush-max-wait-seconds:10}")
+    private long flushMaxWaitSeconds;
+
+    private final Map<String, ThreadPoolExecutor> channelExecutors = new ConcurrentHashMap<>();
+
+    @PreDestroy
+    void shutdownExecutors() {
+        channelExecutors.values().forEach(ThreadPoolExecutor::shutdownNow);
+    }
+
+    /** 판매처 전용 스레드 풀 — 스레드 수가 곧 판매처별 동시 호출 수 */
+    private ThreadPoolExecutor executorFor(String channel) {
+        return channelExecutors.computeIfAbsent(channel, key -> {
+            int size = Math.max(1, perChannelConcurrency);
+            AtomicInteger sequence = new AtomicInteger();
+            ThreadPoolExecutor channelExecutor = new ThreadPoolExecutor(
+                size, size, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "market-sync-" + key + "-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            );
+            channelExecutor.allowCoreThreadTimeOut(true);
+            return channelExecutor;
+        });
+    }
+
+    /**
+     * 현재 테넌트의 전송 대기 행 처리 (TenantTaskRunner 가 TenantContext 를 설정한 스레드에서 실행)
+     *
+     * @return 가져간 행 수
+     */
+    public int dispatch(String tenant) {
+        List<MarketSyncOutboxService.OutboxEntry> claimed =
+            outboxService.claim(batchSize, leaseSeconds, flushSize, flushMaxWaitSeconds);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Order> orders = new HashMap<>();
+        for (Order order : orderRepository.findWithChannelByOrderNoIn(
+                claimed.stream().map(MarketSyncOutboxService.OutboxEntry::orderNo).collect(Collectors.toSet()))) {
+            orders.put(order.getOrderNo(), order);
+        }
+
+        List<MarketSyncOutboxService.Delivery> settled = new ArrayList<>();
+        Map<MarketShipmentGateway, List<MarketSyncOutboxService.Delivery>> byGateway = new LinkedHashMap<>();
+        for (MarketSyncOutboxService.OutboxEntry entry : claimed) {
+            Order order = orders.get(entry.orderNo());
+            if (order == null) {
+                outboxService.abandon(entry, "주문을 찾을 수 없습니다: " + entry.orderNo());
+                continue;
+            }
+            order.setMarketSyncAttemptedAt(LocalDateTime.now());
+            MarketShipmentSyncService.Preparation preparation = marketShipmentSyncService.prepare(order);
+            MarketSyncOutboxService.Delivery delivery = new MarketSyncOutboxService.Delivery(entry, order);
+            if (preparation.gateway() == null) {
+                settled.add(delivery);
+            } else {
+                byGateway.computeIfAbsent(preparation.gateway(), key -> new ArrayList<>()).add(delivery);
+            }
+        }
+        outboxService.completeAll(settled);
+
+        List<Future<?>> futures = new ArrayList<>();
+        byGateway.forEach((gateway, deliveries) -> {
+            int chunkSize = Math.max(1, Math.min(gateway.maxBatchSize(), flushSize));
+            for (int from = 0; from < deliveries.size(); from += chunkSize) {
+                List<MarketSyncOutboxService.Delivery> chunk =
+                    deliveries.subList(from, Math.min(from + chunkSize, deliveries.size()));
+                futures.add(executorFor(channelKey(chunk.get(0).entry()))
+                    .submit(() -> deliverInTenant(tenant, gateway, chunk)));
+            }
+        });
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.error("[MarketSync] {} 전송 작업 실패", tenant, e.getCause());
+            }
+        }
+        log.info("[MarketSync] {} 판매처 발송완료 {}건 처리 (일괄 호출 {}회)", tenant, claimed.size(), futures.size());
+        return claimed.size();
+    }
+
+    private void deliverInTenant(String tenant, MarketShipmentGateway gateway,
+                                 List<MarketSyncOutboxService.Delivery> chunk) {
+        TenantContext.setCurrentTenant(tenant);
+        try {
+            deliver(gateway, chunk);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    /**
+     * 한 묶음 전송 — 판매처가 주문별로 거절한 건은 FAILED, 호출 자체가 실패하면 묶음 전체를 재시도
+     */
+    private void deliver(MarketShipmentGateway gateway, List<MarketSyncOutboxService.Delivery> chunk) {
+        List<MarketShipmentGateway.ShipmentRequest> requests = chunk.stream()
+            .map(it -> new MarketShipmentGateway.ShipmentRequest(it.order(),
+                it.entry().carrierCode(), it.entry().carrierName(), it.entry().trackingNo()))
+            .toList();
+        try {
+            marketShipmentSyncService.sendAll(gateway, requests);
+        } catch (Exception e) {
+            log.warn("[MarketSync] 판매처 발송완료 전송 오류: channel={} orders={} — {}",
+                channelKey(chunk.get(0).entry()), chunk.size(), e.getMessage());
+            String error = e.getMessage() != null ? e.getMessage() : "판매처 발송완료 전송 중 예외 발생";
+            for (MarketSyncOutboxService.Delivery delivery : chunk) {
+                outboxService.retryOrFail(delivery.entry(), delivery.order(), error);
+            }
+            return;
+        }
+        outboxService.completeAll(chunk);
+    }
+
+    private String channelKey(MarketSyncOutboxService.OutboxEntry entry) {
+        return entry.channelCode() != null ? entry.channelCode().toUpperCase() : "";
+    }
+}
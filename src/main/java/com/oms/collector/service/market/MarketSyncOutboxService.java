@@ -0,0 +1,277 @@
+package com.oms.collector.service.market;
+
+import com.oms.collector.config.TenantTables;
+import com.oms.collector.entity.Order;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 판매처 발송완료 전송 아웃박스 (market_sync_outbox)
+ *
+ * 검수발송은 출고 처리와 같은 트랜잭션에서 아웃박스 행만 남기고 바로 응답하며,
+ * 실제 판매처 API 호출은 MarketSyncDispatcher 가 트랜잭션 밖에서 처리합니다.
+ * - claim: FOR UPDATE SKIP LOCKED 로 가져가며 즉시 커밋 (여러 노드가 같은 행을 집지 않음)
+ * - 판매처 일괄 API 로 묶어 보내도록, 판매처별 대기 행이 묶음 크기만큼 모였거나 가장 오래된 행이
+ *   최대 대기 시간을 넘긴 판매처의 행만 가져감
+ * - 가져간 뒤 lease 시간 안에 끝내지 못한 행(노드 중단 등)은 시도 1회로 세어 다음 claim 에서 다시 가져가고,
+ *   최대 횟수에 이르면 다시 가져가지 않고 FAILED
+ * - 일시 오류는 지수 백오프로 재시도, 최대 횟수 초과 시 FAILED
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MarketSyncOutboxService {
+
+    public static final String PENDING = "PENDING";
+    public static final String PROCESSING = "PROCESSING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    private final JdbcTemplate jdbc;
+    private final MarketShipmentSyncService marketShipmentSyncService;
+
+    @Value("${collector.market-sync.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${collector.market-sync.retry-base-seconds:30}")
+    private long retryBaseSeconds;
+
+    @Value("${collector.market-sync.retry-max-seconds:3600}")
+    private long retryMaxSeconds;
+
+    /**
+     * 아웃박스 1건 (claim 결과)
+     *
+     * @param attempts 이전까지 시도한 횟수
+     */
+    public record OutboxEntry(UUID outboxId, UUID orderId, String orderNo, String channelCode,
+                              String carrierCode, String carrierName, String trackingNo, int attempts) {}
+
+    /**
+     * 전송 결과를 기록할 아웃박스 행과 결과가 반영된 주문
+     */
+    public record Delivery(OutboxEntry entry, Order order) {}
+
+    /**
+     * 발송완료 전송 예약 — 호출한 트랜잭션에 함께 커밋됨
+     *
+     * 판매처/판매처 주문번호/발송 API 가 없어 보낼 수 없는 주문은 행을 남기지 않고 결과만 주문에 기록합니다.
+     * 같은 주문의 대기(PENDING) 행이 이미 있으면 새로 만들지 않고 송장 정보만 최신 값으로 바꿉니다.
+     * 이미 전송 중(PROCESSING)인 행은 그대로 둡니다.
+     */
+    @Transactional
+    public MarketShipmentSyncService.MarketShipmentSyncResult enqueue(
+            Order order, String carrierCode, String carrierName, String trackingNo) {
+        MarketShipmentSyncService.Preparation preparation = marketShipmentSyncService.prepare(order);
+        if (preparation.gateway() == null) {
+            order.setMarketSyncAttemptedAt(LocalDateTime.now());
+            return preparation.result();
+        }
+
+        jdbc.update("""
+            INSERT INTO %s AS o (outbox_id, order_id, order_no, channel_code, carrier_code, carrier_name, tracking_no)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (order_id) WHERE status IN ('PENDING', 'PROCESSING') DO UPDATE
+               SET carrier_code = EXCLUDED.carrier_code, carrier_name = EXCLUDED.carrier_name,
+                   tracking_no = EXCLUDED.tracking_no, updated_at = NOW()
+             WHERE o.status = 'PENDING'
+            """.formatted(table()),
+            UUID.randomUUID(), order.getOrderId(), order.getOrderNo(), order.getChannel().getChannelCode(),
+            carrierCode, carrierName, trackingNo);
+
+        order.setMarketSyncStatus(Order.MarketSyncStatus.PENDING);
+        order.setMarketSyncMessage("판매처 발송완료 전송 대기");
+        order.setMarketSyncedAt(null);
+        return MarketShipmentSyncService.MarketShipmentSyncResult.success(order.getMarketSyncMessage());
+    }
+
+    /**
+     * 전송할 행을 가져감 (트랜잭션 없이 호출 — 문장 단위로 커밋)
+     *
+     * @param flushSize         판매처별 대기 행이 이 수 이상이면 바로 가져감
+     * @param flushWaitSeconds  그보다 적어도 가장 오래된 대기 행이 이 시간을 넘기면 가져감
+     */
+    public List<OutboxEntry> claim(int limit, long leaseSeconds, int flushSize, long flushWaitSeconds) {
+        failExpiredLeases();
+        // lease 가 만료된 PROCESSING 행은 끝나지 못한 시도 1회로 셈
+        return jdbc.query("""
+            UPDATE %1$s o
+               SET status = 'PROCESSING', locked_until = NOW() + make_interval(secs => ?), updated_at = NOW(),
+                   attempts = CASE WHEN o.status = 'PROCESSING' THEN o.attempts + 1 ELSE o.attempts END
+             WHERE o.outbox_id IN (
+                   SELECT outbox_id FROM %1$s
+                    WHERE (status = 'PENDING' AND next_attempt_at <= NOW()
+                           AND channel_code IN (
+                               SELECT channel_code FROM %1$s
+                                WHERE status = 'PENDING' AND next_attempt_at <= NOW()
+                                GROUP BY channel_code
+                               HAVING COUNT(*) >= ? OR MIN(next_attempt_at) <= NOW() - make_interval(secs => ?)))
+                       OR (status = 'PROCESSING' AND locked_until < NOW())
+                    ORDER BY next_attempt_at
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED)
+            RETURNING o.outbox_id, o.order_id, o.order_no, o.channel_code,
+                      o.carrier_code, o.carrier_name, o.tracking_no, o.attempts
+            """.formatted(table()),
+            (rs, rowNum) -> new OutboxEntry(
+                rs.getObject("outbox_id", UUID.class),
+                rs.getObject("order_id", UUID.class),
+                rs.getString("order_no"),
+                rs.getString("channel_code"),
+                rs.getString("carrier_code"),
+                rs.getString("carrier_name"),
+                rs.getString("tracking_no"),
+                rs.getInt("attempts")),
+            (double) leaseSeconds, Math.max(1, flushSize), (double) flushWaitSeconds, limit);
+    }
+
+    /**
+     * lease 가 만료된 행 중 이번 재수거로 최대 시도 횟수에 이르는 행은 다시 가져가지 않고 주문과 함께 FAILED 로 닫음
+     * (전송 도중 노드가 계속 중단되는 행이 무한히 재수거되지 않도록)
+     */
+    private void failExpiredLeases() {
+        String error = "판매처 발송완료 전송이 처리 시간(lease) 안에 끝나지 않아 최대 시도 횟수(%d)를 넘김"
+            .formatted(maxAttempts);
+        int failed = jdbc.update("""
+            WITH expired AS (
+                UPDATE %1$s
+                   SET status = 'FAILED', attempts = attempts + 1, last_error = ?, locked_until = NULL, updated_at = NOW()
+                 WHERE outbox_id IN (
+                       SELECT outbox_id FROM %1$s
+                        WHERE status = 'PROCESSING' AND locked_until < NOW() AND attempts + 1 >= ?
+                          FOR UPDATE SKIP LOCKED)
+                RETURNING order_id
+            )
+            UPDATE %2$s SET market_sync_status = 'FAILED', market_sync_message = ?, market_synced_at = NULL
+             WHERE order_id IN (SELECT order_id FROM expired)
+            """.formatted(table(), TenantTables.qualify("orders")),
+            error, Math.max(1, maxAttempts), error);
+        if (failed > 0) {
+            log.warn("판매처 발송완료 전송 포기 (lease 만료 반복): {} 건", failed);
+        }
+    }
+
+    /**
+     * 최종 결과 기록 — 주문의 판매처 연동 필드(전송 결과가 반영된 order)와 아웃박스 상태를 함께 갱신
+     *
+     * 주문 엔티티 전체를 병합하지 않고 연동 컬럼만 갱신하므로, 전송 중에 바뀐 다른 주문 필드를 덮어쓰지 않습니다.
+     */
+    @Transactional
+    public void complete(OutboxEntry entry, Order order) {
+        writeOrderSync(order);
+        boolean failed = order.getMarketSyncStatus() == Order.MarketSyncStatus.FAILED;
+        jdbc.update("""
+            UPDATE %s SET status = ?, attempts = attempts + 1, last_error = ?, locked_until = NULL, updated_at = NOW()
+             WHERE outbox_id = ?
+            """.formatted(table()),
+            failed ? FAILED : DONE, failed ? order.getMarketSyncMessage() : null, entry.outboxId());
+    }
+
+    /**
+     * 최종 결과 일괄 기록 — 일괄 전송 한 묶음의 주문 연동 필드와 아웃박스 상태를 한 트랜잭션으로 갱신
+     */
+    @Transactional
+    public void completeAll(List<Delivery> deliveries) {
+        if (deliveries.isEmpty()) {
+            return;
+        }
+        jdbc.batchUpdate(ORDER_SYNC_SQL.formatted(TenantTables.qualify("orders")), deliveries, deliveries.size(),
+            (ps, delivery) -> {
+                Order order = delivery.order();
+                ps.setString(1, order.getMarketSyncStatus().name());
+                ps.setString(2, order.getMarketSyncMessage());
+                ps.setTimestamp(3, toTimestamp(order.getMarketSyncAttemptedAt()));
+                ps.setTimestamp(4, toTimestamp(order.getMarketSyncedAt()));
+                ps.setString(5, order.getChannelOrderNo());
+                ps.setObject(6, order.getOrderId());
+            });
+        jdbc.batchUpdate("""
+            UPDATE %s SET status = ?, attempts = attempts + 1, last_error = ?, locked_until = NULL, updated_at = NOW()
+             WHERE outbox_id = ?
+            """.formatted(table()), deliveries, deliveries.size(),
+            (ps, delivery) -> {
+                boolean failed = delivery.order().getMarketSyncStatus() == Order.MarketSyncStatus.FAILED;
+                ps.setString(1, failed ? FAILED : DONE);
+                ps.setString(2, failed ? delivery.order().getMarketSyncMessage() : null);
+                ps.setObject(3, delivery.entry().outboxId());
+            });
+    }
+
+    /**
+     * 일시 오류 — 백오프 후 재시도, 최대 횟수를 넘으면 주문과 아웃박스를 FAILED 로
+     */
+    @Transactional
+    public void retryOrFail(OutboxEntry entry, Order order, String error) {
+        int attempts = entry.attempts() + 1;
+        if (attempts >= Math.max(1, maxAttempts)) {
+            order.setMarketSyncStatus(Order.MarketSyncStatus.FAILED);
+            order.setMarketSyncMessage(error);
+            order.setMarketSyncedAt(null);
+            complete(entry, order);
+            log.warn("판매처 발송완료 전송 포기: orderNo={} attempts={} — {}", entry.orderNo(), attempts, error);
+            return;
+        }
+
+        long delay = Math.min(retryMaxSeconds, retryBaseSeconds * (1L << Math.min(attempts - 1, 20)));
+        order.setMarketSyncStatus(Order.MarketSyncStatus.PENDING);
+        order.setMarketSyncMessage("재시도 대기 (%d/%d): %s".formatted(attempts, maxAttempts, error));
+        writeOrderSync(order);
+        jdbc.update("""
+            UPDATE %s SET status = 'PENDING', attempts = ?, last_error = ?, locked_until = NULL,
+                          next_attempt_at = NOW() + make_interval(secs => ?), updated_at = NOW()
+             WHERE outbox_id = ?
+            """.formatted(table()),
+            attempts, error, (double) delay, entry.outboxId());
+    }
+
+    /**
+     * 주문이 사라진 행 등 전송 대상이 없는 행을 FAILED 로 닫음
+     */
+    public void abandon(OutboxEntry entry, String reason) {
+        jdbc.update("""
+            UPDATE %s SET status = 'FAILED', attempts = attempts + 1, last_error = ?, locked_until = NULL, updated_at = NOW()
+             WHERE outbox_id = ?
+            """.formatted(table()), reason, entry.outboxId());
+    }
+
+    /**
+     * 보관 기간이 지난 완료 행 삭제
+     */
+    public int purgeDone(int retentionDays) {
+        return jdbc.update(
+            "DELETE FROM " + table() + " WHERE status = 'DONE' AND updated_at < NOW() - make_interval(days => ?)",
+            retentionDays);
+    }
+
+    private static final String ORDER_SYNC_SQL = """
+        UPDATE %s
+           SET market_sync_status = ?, market_sync_message = ?,
+               market_sync_attempted_at = ?, market_synced_at = ?,
+               channel_order_no = COALESCE(NULLIF(channel_order_no, ''), ?)
+         WHERE order_id = ?
+        """;
+
+    private void writeOrderSync(Order order) {
+        jdbc.update(ORDER_SYNC_SQL.formatted(TenantTables.qualify("orders")),
+            order.getMarketSyncStatus().name(), order.getMarketSyncMessage(),
+            toTimestamp(order.getMarketSyncAttemptedAt()), toTimestamp(order.getMarketSyncedAt()),
+            order.getChannelOrderNo(), order.getOrderId());
+    }
+
+    private Timestamp toTimestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    private String table() {
+        return TenantTables.qualify("market_sync_outbox");
+    }
+}
@@ -13,4 +13,9 @@ public class Mock11StMarketShipmentGateway extends AbstractMockMarketShipmentGat
     protected String getChannelName() {
         return "11번가";
     }
+
+    @Override
+    protected int getBatchLimit() {
+        return 100;
+    }
 }
@@ -13,4 +13,9 @@ public class MockCoupangMarketShipmentGateway extends AbstractMockMarketShipment
     protected String getChannelName() {
         return "쿠팡";
     }
+
+    @Override
+    protected int getBatchLimit() {
+        return 50;
+    }
 }
@@ -13,4 +13,9 @@ public class MockNaverMarketShipmentGateway extends AbstractMockMarketShipmentGa
     protected String getChannelName() {
         return "네이버 스마트스토어";
     }
+
+    @Override
+    protected int getBatchLimit() {
+        return 30;
+    }
 }
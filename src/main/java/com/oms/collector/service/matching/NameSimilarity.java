@@ -0,0 +1,33 @@
+package com.oms.collector.service.matching;
+
+import com.oms.collector.entity.Product;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 상품명 유사도 (0.0 ~ 1.0)
+ *
+ * ProductNameMatcher 는 트라이그램 인덱스로 상위 후보만 뽑은 뒤 이 점수로 최종 상품을 고릅니다.
+ */
+@FunctionalInterface
+public interface NameSimilarity {
+
+    double score(String query, Product candidate);
+
+    /** 정규화 토큰 Jaccard — 기존 매칭 화면의 기준 (재고 매칭 0.3, 자동매칭 0.4) */
+    NameSimilarity TOKEN_JACCARD = (query, candidate) ->
+        jaccard(ProductNameNormalizer.tokens(query), ProductNameNormalizer.tokens(candidate.getProductName()));
+
+    /** 트라이그램 Jaccard — 띄어쓰기·오타에 덜 민감 */
+    NameSimilarity TRIGRAM_JACCARD = (query, candidate) ->
+        jaccard(ProductNameNormalizer.trigrams(query), ProductNameNormalizer.trigrams(candidate.getProductName()));
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) return 0.0;
+        Set<String> inter = new HashSet<>(a);
+        inter.retainAll(b);
+        if (inter.isEmpty()) return 0.0;
+        return (double) inter.size() / (a.size() + b.size() - inter.size());
+    }
+}
@@ -0,0 +1,110 @@
+package com.oms.collector.service.matching;
+
+import com.oms.collector.config.TenantTables;
+import com.oms.collector.entity.Product;
+import com.oms.collector.service.ProductCatalogIndex;
+import com.oms.collector.service.ProductCatalogIndex.CatalogSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 상품명 매칭 엔진 (테넌트별 1개, 재고 매칭·자동매칭 공용)
+ *
+ * 1. 트라이그램 역색인으로 상위 후보 CANDIDATE_LIMIT 건만 조회 (전체 상품 스캔 없음)
+ * 2. 후보마다 NameSimilarity 점수를 한 번만 계산해 최고점 선택
+ *
+ * 색인은 ProductCatalogIndex 스냅샷에서 만들며, 스냅샷이 바뀌어도 상품명/옵션명/SKU 가
+ * 그대로면(재고 변경 등) 기존 색인을 재사용합니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductNameMatcher {
+
+    /** 최종 점수를 계산할 트라이그램 상위 후보 수 */
+    private static final int CANDIDATE_LIMIT = 20;
+
+    private final ProductCatalogIndex catalogIndex;
+
+    /** 테넌트 스키마 → 색인 */
+    private final Map<String, TenantEngine> engines = new ConcurrentHashMap<>();
+
+    /**
+     * 기본 점수(토큰 Jaccard)로 최적 상품 조회
+     */
+    public Optional<Product> bestMatch(String productName, double threshold) {
+        return bestMatch(productName, threshold, NameSimilarity.TOKEN_JACCARD);
+    }
+
+    /**
+     * 지정한 점수로 최적 상품 조회 — threshold 미만이면 empty
+     */
+    public Optional<Product> bestMatch(String productName, double threshold, NameSimilarity similarity) {
+        return topMatches(productName, CANDIDATE_LIMIT, similarity).stream()
+            .findFirst()
+            .filter(match -> match.score() >= threshold)
+            .map(Match::product);
+    }
+
+    /**
+     * 트라이그램 상위 k 후보를 similarity 점수 내림차순으로 반환
+     */
+    public List<Match> topMatches(String productName, int limit, NameSimilarity similarity) {
+        if (productName == null || productName.isBlank()) {
+            return List.of();
+        }
+        TenantEngine engine = engine();
+        List<Match> matches = new ArrayList<>();
+        for (TrigramIndex.Candidate candidate : engine.index().topK(productName, limit)) {
+            Product product = engine.catalog().byId(candidate.productId());
+            if (product != null) {
+                matches.add(new Match(product, similarity.score(productName, product)));
+            }
+        }
+        matches.sort((a, b) -> Double.compare(b.score(), a.score()));
+        return matches;
+    }
+
+    /**
+     * 현재 카탈로그 스냅샷 기준 색인 — 색인 대상 필드가 바뀐 경우에만 재구축
+     */
+    private TenantEngine engine() {
+        CatalogSnapshot catalog = catalogIndex.snapshot();
+        String tenant = TenantTables.currentSchema();
+        TenantEngine current = engines.get(tenant);
+        if (current != null && current.catalog() == catalog) {
+            return current;
+        }
+        synchronized (this) {
+            current = engines.get(tenant);
+            if (current != null && current.catalog() == catalog) {
+                return current;
+            }
+            TrigramIndex index;
+            if (current != null && current.index().indexes(catalog.products())) {
+                index = current.index();
+            } else {
+                long t0 = System.currentTimeMillis();
+                index = TrigramIndex.build(catalog.products());
+                log.info("🔤 상품명 색인 구축: {} - {}건 ({}ms)", tenant, index.size(), System.currentTimeMillis() - t0);
+            }
+            current = new TenantEngine(catalog, index);
+            engines.put(tenant, current);
+            return current;
+        }
+    }
+
+    private record TenantEngine(CatalogSnapshot catalog, TrigramIndex index) {}
+
+    /**
+     * 매칭 후보와 점수
+     */
+    public record Match(Product product, double score) {}
+}
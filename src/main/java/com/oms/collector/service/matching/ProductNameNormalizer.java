@@ -0,0 +1,69 @@
+package com.oms.collector.service.matching;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 상품명 정규화 / 토큰·트라이그램 추출
+ *
+ * - NFKC 정규화 (전각 영숫자 → 반각) + 소문자
+ * - 문자/숫자 외 기호는 공백으로 치환 ("M(55반~66)" → "m 55 반 66")
+ * - 한글과 영숫자가 붙어 있으면 경계에서 분리 ("블랙M" → "블랙 m")
+ * - 트라이그램은 토큰 단위로 앞 2칸·뒤 1칸 공백을 채워 생성 (pg_trgm 방식) — 2글자 한글 토큰도 색인됨
+ */
+public final class ProductNameNormalizer {
+
+    private ProductNameNormalizer() {
+    }
+
+    public static String normalize(String text) {
+        if (text == null || text.isBlank()) {
+            return "";
+        }
+        String lower = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(lower.length());
+        int prevType = 0;
+        for (int i = 0; i < lower.length(); ) {
+            int cp = lower.codePointAt(i);
+            i += Character.charCount(cp);
+
+            int type = charType(cp);
+            if (type == 0) {
+                if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ' ') sb.append(' ');
+            } else {
+                if (prevType != 0 && prevType != type) sb.append(' ');
+                sb.appendCodePoint(cp);
+            }
+            prevType = type;
+        }
+        return sb.toString().trim();
+    }
+
+    public static Set<String> tokens(String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return Set.of();
+        }
+        return new LinkedHashSet<>(Arrays.asList(normalized.split(" ")));
+    }
+
+    public static Set<String> trigrams(String text) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (String token : tokens(text)) {
+            String padded = "  " + token + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    /** 0: 구분자, 1: 한글, 2: 그 외 문자·숫자 */
+    private static int charType(int cp) {
+        if (!Character.isLetterOrDigit(cp)) return 0;
+        return Character.UnicodeScript.of(cp) == Character.UnicodeScript.HANGUL ? 1 : 2;
+    }
+}
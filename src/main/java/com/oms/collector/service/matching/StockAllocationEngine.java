@@ -0,0 +1,172 @@
+package com.oms.collector.service.matching;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+/**
+ * 가상 재고 순차 할당 엔진 (재고 매칭·예약 공용)
+ *
+ * 할당 우선순위 순(priority_allocation DESC, ordered_at ASC)으로 정렬된 주문 아이템을 한 번만 훑으면서
+ * 상품별 남은 재고(int 배열)를 차감합니다. 같은 상품을 주문한 10건이 재고 3개를 각자 전체 재고와
+ * 비교해 모두 FULL 로 보이던 문제를 없애고, 예약도 이 결과(ReservationPlan)를 그대로 적용합니다.
+ *
+ * 주문 단위 규칙 (기존 예약 규칙과 동일)
+ * - 모든 아이템을 주문 수량만큼 할당 → FULL
+ * - 모든 아이템에 1개 이상 할당, 일부 부족 → PARTIAL
+ * - 할당 0개인 아이템이 있으면 → IMPOSSIBLE, 미매칭 아이템이 있으면 → NOT_MATCHED
+ *   (두 경우 모두 예약 대상이 아니므로 임시 할당한 재고를 되돌려 다음 주문이 사용)
+ *
+ * 주문이 IMPOSSIBLE / NOT_MATCHED 이면 매칭된 나머지 아이템도 자기 재고가 충분한지와 무관하게
+ * IMPOSSIBLE (할당 0) 로 표시됩니다. 주문은 통째로 예약하거나 하지 않으므로 아이템 상태는 "예약 여부"를 뜻하며,
+ * 해당 아이템의 재고 자체는 Line.available 로 확인합니다.
+ */
+public final class StockAllocationEngine {
+
+    public enum Status { FULL, PARTIAL, IMPOSSIBLE, NOT_MATCHED }
+
+    private StockAllocationEngine() {
+    }
+
+    /**
+     * @param demands      할당 우선순위 순 주문 아이템
+     * @param initialStock 상품별 시작 재고 (상품마다 한 번만 호출)
+     */
+    public static Result allocate(List<Demand> demands, ToIntFunction<UUID> initialStock) {
+        int n = demands.size();
+
+        // 상품 → 배열 인덱스, 주문번호 → 아이템 인덱스 목록 (우선순위 순 첫 등장 기준)
+        Map<UUID, Integer> productIndex = new HashMap<>();
+        int[] slots = new int[n];
+        Map<String, List<Integer>> orders = new LinkedHashMap<>();
+        int[] remaining = new int[Math.max(n, 1)];
+
+        for (int i = 0; i < n; i++) {
+            Demand demand = demands.get(i);
+            UUID productId = demand.productId();
+            if (productId == null) {
+                slots[i] = -1;
+            } else {
+                Integer slot = productIndex.get(productId);
+                if (slot == null) {
+                    slot = productIndex.size();
+                    productIndex.put(productId, slot);
+                    remaining[slot] = Math.max(initialStock.applyAsInt(productId), 0);
+                }
+                slots[i] = slot;
+            }
+            orders.computeIfAbsent(demand.orderNo(), k -> new ArrayList<>(2)).add(i);
+        }
+
+        int[] available = new int[n];
+        int[] allocated = new int[n];
+        Status[] lineStatus = new Status[n];
+        Map<String, Status> orderStatus = new LinkedHashMap<>(orders.size() * 2);
+        Map<String, Map<UUID, Integer>> reservations = new LinkedHashMap<>();
+
+        for (Map.Entry<String, List<Integer>> order : orders.entrySet()) {
+            boolean unmatched = false, empty = false, shortage = false;
+            for (int i : order.getValue()) {
+                int slot = slots[i];
+                int qty = Math.max(demands.get(i).quantity(), 0);
+                if (slot < 0) {
+                    unmatched = true;
+                    lineStatus[i] = Status.NOT_MATCHED;
+                    continue;
+                }
+                int take = Math.min(qty, remaining[slot]);
+                available[i] = remaining[slot];
+                allocated[i] = take;
+                remaining[slot] -= take;
+                if (take <= 0) {
+                    empty = true;
+                    lineStatus[i] = Status.IMPOSSIBLE;
+                } else if (take < qty) {
+                    shortage = true;
+                    lineStatus[i] = Status.PARTIAL;
+                } else {
+                    lineStatus[i] = Status.FULL;
+                }
+            }
+
+            Status status = unmatched ? Status.NOT_MATCHED
+                : empty ? Status.IMPOSSIBLE
+                : shortage ? Status.PARTIAL
+                : Status.FULL;
+            orderStatus.put(order.getKey(), status);
+
+            if (status == Status.FULL || status == Status.PARTIAL) {
+                Map<UUID, Integer> quantities = new LinkedHashMap<>();
+                for (int i : order.getValue()) {
+                    quantities.merge(demands.get(i).productId(), allocated[i], Integer::sum);
+                }
+                reservations.put(order.getKey(), Collections.unmodifiableMap(quantities));
+            } else {
+                // 예약되지 않을 주문 — 임시 할당 반납
+                for (int i : order.getValue()) {
+                    if (slots[i] < 0) continue;
+                    remaining[slots[i]] += allocated[i];
+                    allocated[i] = 0;
+                    if (lineStatus[i] != Status.NOT_MATCHED) lineStatus[i] = Status.IMPOSSIBLE;
+                }
+            }
+        }
+
+        List<Line> lines = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            lines.add(new Line(demands.get(i), available[i], allocated[i], lineStatus[i]));
+        }
+        return new Result(Collections.unmodifiableList(lines), Collections.unmodifiableMap(orderStatus),
+            new ReservationPlan(Collections.unmodifiableMap(reservations)));
+    }
+
+    /**
+     * 주문 아이템 1건의 할당 요청 — productId 가 null 이면 상품 미매칭
+     */
+    public record Demand(String orderNo, UUID productId, int quantity) {}
+
+    /**
+     * 아이템별 할당 결과
+     *
+     * @param available 이 아이템 차례에 남아 있던 재고 (앞선 주문 차감 후)
+     * @param allocated 할당 수량 (예약 대상이 아닌 주문은 0)
+     * @param status    예약 대상이 아닌 주문의 매칭 아이템은 재고가 있어도 IMPOSSIBLE
+     */
+    public record Line(Demand demand, int available, int allocated, Status status) {}
+
+    /**
+     * 전체 할당 결과 — 아이템은 입력 순서 그대로
+     */
+    public record Result(List<Line> lines, Map<String, Status> orderStatus, ReservationPlan plan) {}
+
+    /**
+     * 예약 계획 (FULL / PARTIAL 주문만) — 주문번호 → 상품별 예약 수량
+     */
+    public record ReservationPlan(Map<String, Map<UUID, Integer>> orders) {
+
+        public boolean contains(String orderNo) {
+            return orders.containsKey(orderNo);
+        }
+
+        public Map<UUID, Integer> quantitiesOf(String orderNo) {
+            return orders.getOrDefault(orderNo, Map.of());
+        }
+
+        /**
+         * 선택한 주문만의 상품별 합계 (일괄 예약용)
+         */
+        public Map<UUID, Integer> totalsFor(Collection<String> orderNos) {
+            Map<UUID, Integer> totals = new LinkedHashMap<>();
+            for (String orderNo : orderNos) {
+                quantitiesOf(orderNo).forEach((productId, qty) -> totals.merge(productId, qty, Integer::sum));
+            }
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.oms.collector.service.matching;
+
+import com.oms.collector.entity.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * 상품명 트라이그램 역색인 (불변)
+ *
+ * 문서 = 상품 1건 (상품명 + 옵션명 + SKU), 트라이그램 → 문서 번호 목록.
+ * 조회 시 질의 트라이그램의 게시 목록만 훑어 공유 트라이그램 수를 세고,
+ * Dice 계수 상위 k 건만 크기 k 의 최소 힙으로 유지합니다.
+ *
+ * 공유 트라이그램 카운터 배열은 색인 인스턴스가 가진 작은 풀에서 빌려 쓰고 돌려줍니다.
+ * 색인이 교체되면 풀도 함께 버려지므로 스레드에 배열이 남지 않습니다.
+ */
+final class TrigramIndex {
+
+    /** 이 비율 이상 문서에 나오는 트라이그램은 후보 수집에서 제외 (최소 1개 목록은 항상 사용) */
+    private static final double STOP_RATIO = 0.2;
+    private static final int STOP_MIN_POSTINGS = 1_000;
+
+    /** 보관할 카운터 배열 수 — 초과분은 반환 시 버림 */
+    private static final int SCRATCH_POOL_SIZE = 8;
+
+    private final UUID[] productIds;
+    private final int[] trigramCounts;
+    private final Map<String, int[]> postings;
+    private final Map<UUID, IndexedFields> fields;
+
+    private final ArrayBlockingQueue<int[]> scratchPool = new ArrayBlockingQueue<>(SCRATCH_POOL_SIZE);
+
+    private TrigramIndex(UUID[] productIds, int[] trigramCounts, Map<String, int[]> postings,
+                         Map<UUID, IndexedFields> fields) {
+        this.productIds = productIds;
+        this.trigramCounts = trigramCounts;
+        this.postings = postings;
+        this.fields = fields;
+    }
+
+    static TrigramIndex build(List<Product> products) {
+        int size = products.size();
+        UUID[] ids = new UUID[size];
+        int[] counts = new int[size];
+        Map<String, IntList> lists = new HashMap<>();
+        Map<UUID, IndexedFields> fields = new HashMap<>(size * 2);
+
+        for (int doc = 0; doc < size; doc++) {
+            Product product = products.get(doc);
+            IndexedFields indexed = IndexedFields.of(product);
+            ids[doc] = product.getProductId();
+            fields.put(product.getProductId(), indexed);
+
+            Set<String> trigrams = ProductNameNormalizer.trigrams(indexed.text());
+            counts[doc] = trigrams.size();
+            for (String trigram : trigrams) {
+                lists.computeIfAbsent(trigram, k -> new IntList()).add(doc);
+            }
+        }
+
+        Map<String, int[]> postings = new HashMap<>(lists.size() * 2);
+        lists.forEach((trigram, list) -> postings.put(trigram, list.toArray()));
+        return new TrigramIndex(ids, counts, postings, fields);
+    }
+
+    /**
+     * 색인 대상 필드(상품명/옵션명/SKU)가 하나도 바뀌지 않았는지 — 재고만 바뀐 경우 재색인 생략
+     */
+    boolean indexes(List<Product> products) {
+        if (products.size() != fields.size()) return false;
+        for (Product product : products) {
+            IndexedFields indexed = fields.get(product.getProductId());
+            if (indexed == null || !indexed.sameAs(product)) return false;
+        }
+        return true;
+    }
+
+    int size() {
+        return productIds.length;
+    }
+
+    /**
+     * 트라이그램 Dice 계수 상위 k 건 (점수 내림차순)
+     */
+    List<Candidate> topK(String query, int k) {
+        Set<String> queryTrigrams = ProductNameNormalizer.trigrams(query);
+        if (queryTrigrams.isEmpty() || productIds.length == 0 || k <= 0) {
+            return List.of();
+        }
+
+        List<int[]> lists = new ArrayList<>(queryTrigrams.size());
+        for (String trigram : queryTrigrams) {
+            int[] list = postings.get(trigram);
+            if (list != null) lists.add(list);
+        }
+        if (lists.isEmpty()) {
+            return List.of();
+        }
+        lists.sort(Comparator.comparingInt(list -> list.length));
+
+        int[] shared = borrowScratch();
+        IntList touched = new IntList();
+        int stopLimit = Math.max(STOP_MIN_POSTINGS, (int) (productIds.length * STOP_RATIO));
+        try {
+            for (int i = 0; i < lists.size(); i++) {
+                int[] list = lists.get(i);
+                if (i > 0 && list.length > stopLimit) break;
+                for (int doc : list) {
+                    if (shared[doc]++ == 0) touched.add(doc);
+                }
+            }
+
+            PriorityQueue<Candidate> heap = new PriorityQueue<>(k + 1, Comparator.comparingDouble(Candidate::score));
+            int querySize = queryTrigrams.size();
+            for (int i = 0; i < touched.size(); i++) {
+                int doc = touched.get(i);
+                double dice = 2.0 * shared[doc] / (querySize + trigramCounts[doc]);
+                if (heap.size() < k) {
+                    heap.add(new Candidate(productIds[doc], dice));
+                } else if (dice > heap.peek().score()) {
+                    heap.poll();
+                    heap.add(new Candidate(productIds[doc], dice));
+                }
+            }
+
+            List<Candidate> result = new ArrayList<>(heap);
+            result.sort(Comparator.comparingDouble(Candidate::score).reversed());
+            return result;
+        } finally {
+            for (int i = 0; i < touched.size(); i++) {
+                shared[touched.get(i)] = 0;
+            }
+            scratchPool.offer(shared);
+        }
+    }
+
+    /** 0 으로 초기화된 카운터 배열 (풀이 비어 있으면 새로 할당) */
+    private int[] borrowScratch() {
+        int[] shared = scratchPool.poll();
+        return shared != null ? shared : new int[productIds.length];
+    }
+
+    record Candidate(UUID productId, double score) {}
+
+    /**
+     * 색인에 사용한 원본 필드
+     */
+    private record IndexedFields(String sku, String productName, String optionName) {
+
+        static IndexedFields of(Product product) {
+            return new IndexedFields(product.getSku(), product.getProductName(), product.getOptionName());
+        }
+
+        boolean sameAs(Product product) {
+            return Objects.equals(sku, product.getSku())
+                && Objects.equals(productName, product.getProductName())
+                && Objects.equals(optionName, product.getOptionName());
+        }
+
+        String text() {
+            StringBuilder sb = new StringBuilder();
+            if (productName != null) sb.append(productName).append(' ');
+            if (optionName != null) sb.append(optionName).append(' ');
+            if (sku != null) sb.append(sku);
+            return sb.toString();
+        }
+    }
+
+    /** int 가변 배열 (게시 목록 구축용) */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.oms.collector.service.tracking;
+
+import kr.re.etri.security.SEED128;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import jakarta.annotation.PostConstruct;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 우체국 계약소포 OpenAPI 클라이언트
+ *
+ * - 커넥션을 재사용하는 공용 java.net.http.HttpClient 하나로 모든 호출 (호출마다 연결·핸드셰이크 생략)
+ * - 계약승인번호(apprNo)·공급지 일련번호(officeSer)는 고객번호(계약)별로 TTL 동안 캐시,
+ *   캐시된 값으로 호출했다가 API 오류가 나면 한 번만 새로 받아 재시도 (승인번호 변경 대비)
+ * - 응답 XML 은 StAX 로 한 번만 읽어 태그값 맵으로 보관 (태그마다 DOM 을 다시 만들지 않음)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tracking.provider", havingValue = "post-office")
+public class PostOfficeApiClient {
+
+    static final String APPROVAL_API_PATH = "/api.GetApprNo.jparcel";
+    static final String OFFICE_INFO_API_PATH = "/api.GetOfficeInfo.jparcel";
+
+    private static final String DEFAULT_BASE_URL = "http://ship.epost.go.kr";
+    private static final String DEFAULT_USER_AGENT = "Apache-HttpClient/4.5.1 (Java/17)";
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+    /** 오류 메시지에 이 단어가 있으면 세션(승인번호/공급지/고객번호) 문제로 보고 갱신 후 재시도 */
+    private static final List<String> SESSION_ERROR_HINTS =
+        List.of("apprno", "custno", "officeser", "승인번호", "고객번호", "공급지");
+
+    private final SEED128 seed128 = new SEED128();
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Object sessionLock = new Object();
+
+    @Value("${tracking.post-office.base-url:" + DEFAULT_BASE_URL + "}")
+    private String baseUrl;
+
+    @Value("${tracking.post-office.auth-key:}")
+    private String authKey;
+
+    @Value("${tracking.post-office.seed-key:}")
+    private String seedKey;
+
+    @Value("${tracking.post-office.customer-no:}")
+    private String customerNo;
+
+    @Value("${tracking.post-office.contract-approval-no:}")
+    private String contractApprovalNo;
+
+    @Value("${tracking.post-office.office-ser:}")
+    private String officeSer;
+
+    @Value("${tracking.post-office.session-ttl-minutes:60}")
+    private long sessionTtlMinutes;
+
+    @Value("${tracking.post-office.session-retry-age-seconds:300}")
+    private long sessionRetryAgeSeconds;
+
+    private HttpClient httpClient;
+
+    /**
+     * 계약별 세션 값 — 설정에 고정값이 있으면 그 값을 그대로 사용 (API 조회 안 함)
+     */
+    public record Session(String apprNo, String officeSer, Instant fetchedAt) {}
+
+    /**
+     * 파싱된 응답 — 원문과 태그(로컬명)별 첫 번째 값
+     */
+    public record ApiResponse(String xml, Map<String, String> values) {
+
+        public String optional(String tagName) {
+            String value = values.get(tagName);
+            return StringUtils.hasText(value) ? value.trim() : null;
+        }
+
+        public String required(String tagName) {
+            String value = optional(tagName);
+            if (value == null) {
+                throw new IllegalStateException("우체국 API 응답에 필수 항목이 없습니다: " + tagName);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * 우체국 API 가 error_code 로 응답한 경우 (HTTP/네트워크 오류와 구분 — 세션 문제로 보이면 갱신 후 재시도)
+     */
+    public static class ApiErrorException extends IllegalStateException {
+        private final String errorCode;
+        private final String apiMessage;
+
+        public ApiErrorException(String errorCode, String message) {
+            super("우체국 API 오류 [" + errorCode + "] " + Objects.toString(message, ""));
+            this.errorCode = errorCode;
+            this.apiMessage = message;
+        }
+
+        public String getErrorCode() { return errorCode; }
+
+        public String getApiMessage() { return apiMessage; }
+    }
+
+    @PostConstruct
+    void initHttpClient() {
+        httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    }
+
+    public String getCustomerNo() {
+        return customerNo;
+    }
+
+    /**
+     * 세션 값이 필요한 호출 — 세션 문제로 보이는 오류면 세션을 새로 받아 한 번 더 호출
+     *
+     * 오류 메시지가 승인번호/고객번호/공급지를 언급하거나 세션이 session-retry-age-seconds 보다 오래된 경우만 재시도하고,
+     * 새로 받은 세션 값이 실패한 것과 같으면 재시도해도 같은 오류라 그대로 던집니다.
+     *
+     * @param plainQuery 세션 → 암호화 전 regData 평문
+     */
+    public ApiResponse callWithSession(String apiPath, Function<Session, String> plainQuery) {
+        Session session = session(null);
+        try {
+            return call(apiPath, plainQuery.apply(session));
+        } catch (ApiErrorException e) {
+            if (isFixedSession() || !mayBeStaleSession(session, e)) {
+                throw e;
+            }
+            Session renewed = session(session);
+            if (sameValues(renewed, session)) {
+                throw e;
+            }
+            log.warn("[우체국 API] 캐시된 승인번호/공급지로 호출 실패 [{}] — 세션 갱신 후 재시도", e.getErrorCode());
+            return call(apiPath, plainQuery.apply(renewed));
+        }
+    }
+
+    /**
+     * regData 평문을 암호화해 호출하고 오류 응답이면 ApiErrorException
+     */
+    public ApiResponse call(String apiPath, String plainQuery) {
+        String xml = invoke(apiPath, seed128.getEncryptData(seedKey, plainQuery));
+        ApiResponse response = new ApiResponse(xml, parse(xml));
+        String errorCode = response.optional("error_code");
+        if (errorCode != null) {
+            throw new ApiErrorException(errorCode, response.optional("message"));
+        }
+        return response;
+    }
+
+    /**
+     * 현재 계약 세션 (TTL 안이면 캐시) — 동시에 여러 스레드가 만료를 만나도 조회는 한 번만
+     *
+     * @param failed 이 세션으로 호출이 실패했으면 새로 조회 (그사이 다른 스레드가 갱신했으면 그 값 사용)
+     */
+    Session session(Session failed) {
+        if (isFixedSession()) {
+            return new Session(contractApprovalNo, officeSer, null);
+        }
+        Session cached = sessions.get(customerNo);
+        if (isFresh(cached) && cached != failed) {
+            return cached;
+        }
+        synchronized (sessionLock) {
+            Session current = sessions.get(customerNo);
+            if (isFresh(current) && current != failed) {
+                return current;
+            }
+            Session fetched = fetchSession();
+            sessions.put(customerNo, fetched);
+            return fetched;
+        }
+    }
+
+    /** 캐시된 세션 폐기 (계약 설정 변경 시) */
+    public void invalidateSession() {
+        sessions.remove(customerNo);
+    }
+
+    private Session fetchSession() {
+        String custQuery = "custNo=" + customerNo;
+        String apprNo = StringUtils.hasText(contractApprovalNo)
+            ? contractApprovalNo
+            : call(APPROVAL_API_PATH, custQuery).required("apprNo");
+        String office = StringUtils.hasText(officeSer)
+            ? officeSer
+            : call(OFFICE_INFO_API_PATH, custQuery).required("officeSer");
+        log.info("[우체국 API] 계약 세션 조회: custNo={}, apprNo={}, officeSer={}", customerNo, apprNo, office);
+        return new Session(apprNo, office, Instant.now());
+    }
+
+    private boolean mayBeStaleSession(Session session, ApiErrorException e) {
+        String message = Objects.toString(e.getApiMessage(), "").toLowerCase(Locale.ROOT);
+        if (SESSION_ERROR_HINTS.stream().anyMatch(message::contains)) {
+            return true;
+        }
+        return session.fetchedAt() == null
+            || session.fetchedAt().plusSeconds(Math.max(0, sessionRetryAgeSeconds)).isBefore(Instant.now());
+    }
+
+    private static boolean sameValues(Session a, Session b) {
+        return Objects.equals(a.apprNo(), b.apprNo()) && Objects.equals(a.officeSer(), b.officeSer());
+    }
+
+    private boolean isFixedSession() {
+        return StringUtils.hasText(contractApprovalNo) && StringUtils.hasText(officeSer);
+    }
+
+    private boolean isFresh(Session session) {
+        return session != null && session.fetchedAt() != null
+            && session.fetchedAt().plus(Duration.ofMinutes(Math.max(1, sessionTtlMinutes))).isAfter(Instant.now());
+    }
+
+    private String invoke(String apiPath, String regData) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(baseUrl)
+            .path(apiPath)
+            .queryParam("key", authKey)
+            .queryParam("regData", regData)
+            .build(true)
+            .toUri();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+            .GET()
+            .timeout(Duration.ofSeconds(20))
+            .header("User-Agent", DEFAULT_USER_AGENT)
+            .header("Accept-Charset", StandardCharsets.UTF_8.name())
+            .build();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            if (response.statusCode() >= 400) {
+                throw new IllegalStateException("우체국 API 호출 실패: HTTP " + response.statusCode() + " " + response.body());
+            }
+            return response.body();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("우체국 API 호출이 중단되었습니다", e);
+        } catch (IOException e) {
+            throw new IllegalStateException("우체국 API 호출 중 오류가 발생했습니다: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 응답 XML → 태그별 첫 번째 텍스트 값 (중첩 태그도 로컬명으로 평탄화)
+     */
+    static Map<String, String> parse(String xml) {
+        Map<String, String> values = new HashMap<>();
+        if (!StringUtils.hasText(xml)) {
+            return values;
+        }
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(xml));
+            String currentTag = null;
+            StringBuilder text = new StringBuilder();
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        currentTag = reader.getLocalName();
+                        text.setLength(0);
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                        if (currentTag != null) {
+                            text.append(reader.getText());
+                        }
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        if (currentTag != null && currentTag.equals(reader.getLocalName())) {
+                            values.putIfAbsent(currentTag, text.toString().trim());
+                        }
+                        currentTag = null;
+                    }
+                    default -> {
+                    }
+                }
+            }
+            return values;
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("우체국 API XML 파싱 실패: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                    // StringReader — 닫을 자원 없음
+                }
+            }
+        }
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
@@ -2,32 +2,15 @@ package com.oms.collector.service.tracking;
 
 import com.oms.collector.entity.Order;
 import com.oms.collector.repository.OrderRepository;
-import kr.re.etri.security.SEED128;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
-import org.springframework.web.util.UriComponentsBuilder;
-import org.w3c.dom.Document;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-
-import javax.xml.XMLConstants;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.StringReader;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URL;
+
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -36,7 +19,7 @@ import java.util.stream.Collectors;
  * 우체국 택배 OpenAPI 송장번호 발급 구현체
  *
  * 우체국 계약소포 OpenAPI 연동 구현체.
- * 계약승인번호/공급지코드를 조회한 뒤 소포신청 API를 호출하고,
+ * 계약승인번호/공급지코드(PostOfficeApiClient 가 계약별로 캐시)로 소포신청 API를 호출하고,
  * 응답 XML 의 regiNo 를 송장번호로 사용한다.
  */
 @Slf4j
@@ -45,18 +28,11 @@ import java.util.stream.Collectors;
 @ConditionalOnProperty(name = "tracking.provider", havingValue = "post-office")
 public class PostOfficeTrackingNumberProvider implements TrackingNumberProvider {
 
-    private static final String DEFAULT_BASE_URL = "http://ship.epost.go.kr";
-    private static final String APPROVAL_API_PATH = "/api.GetApprNo.jparcel";
-    private static final String OFFICE_INFO_API_PATH = "/api.GetOfficeInfo.jparcel";
-    private static final String INSERT_ORDER_API_PATH = "/api.InsertOrder.jparcel";
-    private static final String CANCEL_ORDER_API_PATH = "/api.GetResCancelCmd.jparcel";
-    private static final String DEFAULT_USER_AGENT = "Apache-HttpClient/4.5.1 (Java/17)";
+    static final String INSERT_ORDER_API_PATH = "/api.InsertOrder.jparcel";
+    static final String CANCEL_ORDER_API_PATH = "/api.GetResCancelCmd.jparcel";
 
     private final OrderRepository orderRepository;
-    private final SEED128 seed128 = new SEED128();
-
-    @Value("${tracking.post-office.base-url:" + DEFAULT_BASE_URL + "}")
-    private String baseUrl;
+    private final PostOfficeApiClient apiClient;
 
     @Value("${tracking.post-office.auth-key:}")
     private String authKey;
@@ -67,12 +43,6 @@ public class PostOfficeTrackingNumberProvider implements TrackingNumberProvider
     @Value("${tracking.post-office.customer-no:}")
     private String customerNo;
 
-    @Value("${tracking.post-office.contract-approval-no:}")
-    private String contractApprovalNo;
-
-    @Value("${tracking.post-office.office-ser:}")
-    private String officeSer;
-
     @Value("${tracking.post-office.order-company-name:OMS}")
     private String orderCompanyName;
 
@@ -128,25 +98,24 @@ public class PostOfficeTrackingNumberProvider implements TrackingNumberProvider
         requireText(trackingNo, "trackingNo");
         requireText(poReqNo, "poReqNo (우체국 18자리 소포신청번호) — 신규 발급된 송장만 취소 가능합니다");
 
-        String resolvedApprNo = StringUtils.hasText(contractApprovalNo) ? contractApprovalNo : fetchApprovalNumber();
-        Map<String, String> fields = new LinkedHashMap<>();
-        fields.put("custNo", customerNo);
-        fields.put("apprNo", resolvedApprNo);
-        fields.put("reqType", "1");
-        fields.put("reqNo", poReqNo);
-        if (StringUtils.hasText(reservationNo)) {
-            fields.put("resNo", reservationNo);
-        }
-        if (StringUtils.hasText(reqYmd)) {
-            fields.put("reqYmd", reqYmd);
-        }
-        fields.put("delYn", "Y");
-        fields.put("regiNo", trackingNo);
-
-        String xml = invokeApi(CANCEL_ORDER_API_PATH, encrypt(buildQueryString(fields)));
-        ensureNoApiError(xml);
+        PostOfficeApiClient.ApiResponse response = apiClient.callWithSession(CANCEL_ORDER_API_PATH, session -> {
+            Map<String, String> fields = new LinkedHashMap<>();
+            fields.put("custNo", customerNo);
+            fields.put("apprNo", session.apprNo());
+            fields.put("reqType", "1");
+            fields.put("reqNo", poReqNo);
+            if (StringUtils.hasText(reservationNo)) {
+                fields.put("resNo", reservationNo);
+            }
+            if (StringUtils.hasText(reqYmd)) {
+                fields.put("reqYmd", reqYmd);
+            }
+            fields.put("delYn", "Y");
+            fields.put("regiNo", trackingNo);
+            return buildQueryString(fields);
+        });
         log.info("[우체국 API] 송장번호 취소 완료: poReqNo={}, trackingNo={}", poReqNo, trackingNo);
-        return new CancelResult(true, "POST_OFFICE", "CANCEL", "SUCCESS", "우체국 송장취소 성공", xml);
+        return new CancelResult(true, "POST_OFFICE", "CANCEL", "SUCCESS", "우체국 송장취소 성공", response.xml());
     }
 
     private IssueResult issueFromApi(String orderNo) {
@@ -155,19 +124,17 @@ public class PostOfficeTrackingNumberProvider implements TrackingNumberProvider
         Order order = orderRepository.findWithItemsByOrderNo(orderNo)
             .orElseThrow(() -> new IllegalArgumentException("주문을 찾을 수 없습니다: " + orderNo));
 
-        String resolvedApprNo = StringUtils.hasText(contractApprovalNo) ? contractApprovalNo : fetchApprovalNumber();
-        String resolvedOfficeSer = StringUtils.hasText(officeSer) ? officeSer : fetchOfficeSer();
-        String regData = encrypt(buildInsertOrderPayload(order, resolvedApprNo, resolvedOfficeSer));
-        String xml = invokeApi(INSERT_ORDER_API_PATH, regData);
-        ensureNoApiError(xml);
-
-        String trackingNo = getRequiredTagValue(xml, "regiNo");
-        String poReqNo = getOptionalTagValue(xml, "reqNo");
-        String reservationNo = getOptionalTagValue(xml, "resNo");
-        String deliveryAreaCode = getOptionalTagValue(xml, "delivAreaCd");
-        String arrivalCenterName = getOptionalTagValue(xml, "arrCnpoNm");
-        String deliveryPostOfficeName = getOptionalTagValue(xml, "delivPoNm");
-        String deliveryCourseNo = getOptionalTagValue(xml, "courseNo");
+        PostOfficeApiClient.ApiResponse response = apiClient.callWithSession(INSERT_ORDER_API_PATH,
+            session -> buildInsertOrderPayload(order, session.apprNo(), session.officeSer()));
+        String xml = response.xml();
+
+        String trackingNo = response.required("regiNo");
+        String poReqNo = response.optional("reqNo");
+        String reservationNo = response.optional("resNo");
+        String deliveryAreaCode = response.optional("delivAreaCd");
+        String arrivalCenterName = response.optional("arrCnpoNm");
+        String deliveryPostOfficeName = response.optional("delivPoNm");
+        String deliveryCourseNo = response.optional("courseNo");
         String reqYmd = java.time.LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd"));
         log.info("[우체국 API] 송장번호 발급 완료: orderNo={}, trackingNo={}, reqNo={}, resNo={}, reqYmd={}", orderNo, trackingNo, poReqNo, reservationNo, reqYmd);
         return new IssueResult(trackingNo, poReqNo, reservationNo, reqYmd,
@@ -183,20 +150,6 @@ public class PostOfficeTrackingNumberProvider implements TrackingNumberProvider
         requireText(contentCode, "tracking.post-office.content-code");
     }
 
-    private String fetchApprovalNumber() {
-        String regData = encrypt(buildQueryString(Map.of("custNo", customerNo)));
-        String xml = invokeApi(APPROVAL_API_PATH, regData);
-        ensureNoApiError(xml);
-        return getRequiredTagValue(xml, "apprNo");
-    }
-
-    private String fetchOfficeSer() {
-        String regData = encrypt(buildQueryString(Map.of("custNo", customerNo)));
-        String xml = invokeApi(OFFICE_INFO_API_PATH, regData);
-        ensureNoApiError(xml);
-        return getRequiredTagValue(xml, "officeSer");
-    }
-
     private String buildInsertOrderPayload(Order order, String apprNo, String officeSerValue) {
         Map<String, String> fields = new LinkedHashMap<>();
         fields.put("custNo", customerNo);
@@ -232,95 +185,6 @@ public class PostOfficeTrackingNumberProvider implements TrackingNumberProvider
         return buildQueryString(fields);
     }
 
-    private String invokeApi(String apiPath, String regData) {
-        URI uri = UriComponentsBuilder.fromHttpUrl(baseUrl)
-            .path(apiPath)
-            .queryParam("key", authKey)
-            .queryParam("regData", regData)
-            .build(true)
-            .toUri();
-
-        HttpURLConnection connection = null;
-        try {
-            URL url = uri.toURL();
-            connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setConnectTimeout((int) Duration.ofSeconds(10).toMillis());
-            connection.setReadTimeout((int) Duration.ofSeconds(20).toMillis());
-            connection.setUseCaches(false);
-            connection.setDoInput(true);
-            connection.setRequestProperty("User-Agent", DEFAULT_USER_AGENT);
-            connection.setRequestProperty("Accept-Charset", StandardCharsets.UTF_8.name());
-
-            int statusCode = connection.getResponseCode();
-            InputStream stream = statusCode >= 400 ? connection.getErrorStream() : connection.getInputStream();
-            String responseBody = readResponse(stream);
-            if (statusCode >= 400) {
-                throw new IllegalStateException("우체국 API 호출 실패: HTTP " + statusCode + " " + responseBody);
-            }
-            return responseBody;
-        } catch (Exception e) {
-            throw new IllegalStateException("우체국 API 호출 중 오류가 발생했습니다: " + e.getMessage(), e);
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
-        }
-    }
-
-    private String readResponse(InputStream stream) throws Exception {
-        if (stream == null) {
-            return "";
-        }
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
-            StringBuilder builder = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                builder.append(line);
-            }
-            return builder.toString();
-        }
-    }
-
-    private String encrypt(String plainText) {
-        return seed128.getEncryptData(seedKey, plainText);
-    }
-
-    private void ensureNoApiError(String xml) {
-        String errorCode = getOptionalTagValue(xml, "error_code");
-        if (StringUtils.hasText(errorCode)) {
-            String message = getOptionalTagValue(xml, "message");
-            throw new IllegalStateException("우체국 API 오류 [" + errorCode + "] " + Objects.toString(message, ""));
-        }
-    }
-
-    private String getRequiredTagValue(String xml, String tagName) {
-        String value = getOptionalTagValue(xml, tagName);
-        if (!StringUtils.hasText(value)) {
-            throw new IllegalStateException("우체국 API 응답에 필수 항목이 없습니다: " + tagName);
-        }
-        return value;
-    }
-
-    private String getOptionalTagValue(String xml, String tagName) {
-        try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-            factory.setExpandEntityReferences(false);
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document document = builder.parse(new InputSource(new StringReader(xml)));
-            NodeList nodes = document.getElementsByTagName(tagName);
-            if (nodes.getLength() == 0) {
-                return null;
-            }
-            String value = nodes.item(0).getTextContent();
-            return StringUtils.hasText(value) ? value.trim() : null;
-        } catch (Exception e) {
-            throw new IllegalStateException("우체국 API XML 파싱 실패: " + e.getMessage(), e);
-        }
-    }
-
     private String buildQueryString(Map<String, String> fields) {
         return fields.entrySet().stream()
             .filter(entry -> entry.getValue() != null)
@@ -0,0 +1,258 @@
+package com.oms.collector.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import com.oms.collector.config.OperationalSchemaMigration;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 재고 매칭 네이티브 쿼리 실행계획 검증
+ *
+ * 실제 PostgreSQL 이 필요하므로 PLAN_TEST_DATABASE_URL 이 설정된 경우에만 실행합니다.
+ * 예) PLAN_TEST_DATABASE_URL=jdbc:postgresql://localhost:5437/collector_db
+ *
+ * 임시 스키마에 대량 카탈로그를 만든 뒤 OrderRepository 의 @Query 원문을 그대로 EXPLAIN 하여
+ * product_codes / products 를 순차 스캔하지 않는지(인덱스 조인인지) 확인합니다.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfEnvironmentVariable(named = "PLAN_TEST_DATABASE_URL", matches = ".+")
+class OrderRepositoryMatchingPlanTest {
+
+    private static final String SCHEMA = "plan_test_matching";
+    private static final int PRODUCT_COUNT = 50_000;
+    private static final int PENDING_ITEM_COUNT = 300;
+
+    private Connection connection;
+
+    @BeforeAll
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+            System.getenv("PLAN_TEST_DATABASE_URL"),
+            envOrDefault("PLAN_TEST_DATABASE_USERNAME", "postgres"),
+            envOrDefault("PLAN_TEST_DATABASE_PASSWORD", "postgres"));
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            stmt.execute("CREATE SCHEMA " + SCHEMA);
+            stmt.execute("SET search_path TO " + SCHEMA);
+
+            stmt.execute("""
+                CREATE TABLE sales_channels (
+                    channel_id   UUID PRIMARY KEY,
+                    channel_name VARCHAR(100)
+                )""");
+            stmt.execute("""
+                CREATE TABLE products (
+                    product_id              UUID PRIMARY KEY,
+                    sku                     VARCHAR(100) NOT NULL UNIQUE,
+                    barcode                 VARCHAR(100),
+                    barcode2                VARCHAR(100),
+                    option_code             VARCHAR(100)
+                )""");
+            stmt.execute("""
+                CREATE TABLE orders (
+                    order_id            UUID PRIMARY KEY,
+                    order_no            VARCHAR(50),
+                    channel_id          UUID,
+                    recipient_name      VARCHAR(100),
+                    address             TEXT,
+                    ordered_at          TIMESTAMP,
+                    order_status        VARCHAR(20),
+                    allocation_excluded BOOLEAN,
+                    priority_allocation BOOLEAN
+                )""");
+            stmt.execute("""
+                CREATE TABLE order_items (
+                    item_id            UUID PRIMARY KEY,
+                    order_id           UUID REFERENCES orders(order_id),
+                    product_name       VARCHAR(500),
+                    option_name        VARCHAR(500),
+                    product_code       VARCHAR(100),
+                    quantity           INTEGER,
+                    cancelled_quantity INTEGER
+                )""");
+        }
+        // product_codes 테이블·동기화 트리거는 운영 마이그레이션 DDL 그대로 생성
+        new OperationalSchemaMigration(new JdbcTemplate(new SingleConnectionDataSource(connection, true)), null)
+            .migrateProductCodesForSchema(SCHEMA);
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("SET search_path TO " + SCHEMA);
+            // product_codes 는 INSERT 트리거로 채워짐
+            stmt.execute("""
+                INSERT INTO products (product_id, sku, barcode, barcode2, option_code)
+                SELECT gen_random_uuid(), 'SKU-' || g, '880' || LPAD(g::text, 10, '0'),
+                       CASE WHEN g %% 3 = 0 THEN 'B2-' || g END, 'OPT-' || g
+                FROM generate_series(1, %d) g""".formatted(PRODUCT_COUNT));
+
+            // 주문 아이템: 1/3 은 SKU(대소문자 다름), 1/3 은 바코드, 나머지는 미매칭 코드
+            stmt.execute("""
+                INSERT INTO orders (order_id, order_no, recipient_name, address, ordered_at,
+                                    order_status, allocation_excluded, priority_allocation)
+                SELECT gen_random_uuid(), 'OMS-20260101-' || LPAD(g::text, 4, '0'), '수취인' || g, '주소',
+                       NOW() - (g || ' minutes')::interval,
+                       CASE WHEN g %% 10 = 0 THEN 'CONFIRMED' ELSE 'PENDING' END, FALSE, FALSE
+                FROM generate_series(1, %d) g""".formatted(PENDING_ITEM_COUNT));
+            stmt.execute("""
+                INSERT INTO order_items (item_id, order_id, product_name, product_code, quantity, cancelled_quantity)
+                SELECT gen_random_uuid(), o.order_id, '상품 ' || o.order_no,
+                       CASE WHEN rn % 3 = 0 THEN 'sku-' || (rn * 7)
+                            WHEN rn % 3 = 1 THEN '880' || LPAD((rn * 11)::text, 10, '0')
+                            ELSE 'UNKNOWN-' || rn END,
+                       1, 0
+                FROM (SELECT order_id, order_no, ROW_NUMBER() OVER () AS rn FROM orders) o""");
+
+            stmt.execute("ANALYZE sales_channels");
+            stmt.execute("ANALYZE products");
+            stmt.execute("ANALYZE product_codes");
+            stmt.execute("ANALYZE orders");
+            stmt.execute("ANALYZE order_items");
+        }
+    }
+
+    @AfterAll
+    void tearDown() throws SQLException {
+        if (connection == null) {
+            return;
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    @DisplayName("코드 매칭 목록은 product_codes 인덱스 조인으로 실행된다")
+    void pendingMatchedUsesCodeIndex() throws Exception {
+        assertIndexDriven(explain("findPendingMatchedByCode"));
+    }
+
+    @Test
+    @DisplayName("미매칭 목록은 product_codes 인덱스로 존재 여부를 확인한다")
+    void pendingUnmatchedUsesCodeIndex() throws Exception {
+        assertIndexDriven(explain("findPendingUnmatchedByCode"));
+    }
+
+    @Test
+    @DisplayName("미매칭 건수 조회는 product_codes 인덱스로 존재 여부를 확인한다")
+    void pendingUnmatchedCountUsesCodeIndex() throws Exception {
+        assertIndexDriven(explain("countPendingUnmatched"));
+    }
+
+    @Test
+    @DisplayName("할당 완료 목록은 product_codes 인덱스 조인으로 실행된다")
+    void confirmedUsesCodeIndex() throws Exception {
+        assertIndexDriven(explain("findConfirmedWithProducts"));
+    }
+
+    @Test
+    @DisplayName("SKU 와 바코드가 같은 상품도 한 번만 매칭된다")
+    void sameSkuAndBarcodeMatchesOnce() throws Exception {
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("SET search_path TO " + SCHEMA);
+            try {
+                stmt.execute("""
+                    INSERT INTO products (product_id, sku, barcode)
+                    VALUES ('00000000-0000-0000-0000-000000000001', 'DUP-1', 'dup-1')""");
+                stmt.execute("""
+                    INSERT INTO orders (order_id, order_no, ordered_at, order_status, allocation_excluded, priority_allocation)
+                    VALUES ('00000000-0000-0000-0000-0000000000aa', 'OMS-DUP', NOW(), 'PENDING', FALSE, FALSE)""");
+                stmt.execute("""
+                    INSERT INTO order_items (item_id, order_id, product_code, quantity, cancelled_quantity)
+                    VALUES (gen_random_uuid(), '00000000-0000-0000-0000-0000000000aa', 'DUP-1', 1, 0)""");
+
+                int rows = 0;
+                try (ResultSet rs = stmt.executeQuery(
+                        "SELECT * FROM (" + query("findPendingMatchedByCode") + ") q WHERE q.orderNo = 'OMS-DUP'")) {
+                    while (rs.next()) rows++;
+                }
+                assertThat(rows).isEqualTo(1);
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("상품 INSERT / 코드 UPDATE 시 트리거가 product_codes 를 동기화한다")
+    void productCodesFollowProductChanges() throws Exception {
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("SET search_path TO " + SCHEMA);
+            try {
+                stmt.execute("""
+                    INSERT INTO products (product_id, sku, barcode, option_code)
+                    VALUES ('00000000-0000-0000-0000-000000000002', 'Sync-SKU', '8801234', 'Opt-A')""");
+                assertThat(codes(stmt, "00000000-0000-0000-0000-000000000002"))
+                    .containsExactlyInAnyOrder("SKU:sync-sku", "BARCODE:8801234", "OPTION_CODE:opt-a");
+
+                stmt.execute("""
+                    UPDATE products SET barcode = '8809999', barcode2 = 'B2-New', option_code = NULL
+                    WHERE product_id = '00000000-0000-0000-0000-000000000002'""");
+                assertThat(codes(stmt, "00000000-0000-0000-0000-000000000002"))
+                    .containsExactlyInAnyOrder("SKU:sync-sku", "BARCODE:8809999", "BARCODE2:b2-new");
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private List<String> codes(Statement stmt, String productId) throws SQLException {
+        List<String> codes = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT code_type || ':' || code_normalized FROM product_codes WHERE product_id = '" + productId + "'")) {
+            while (rs.next()) codes.add(rs.getString(1));
+        }
+        return codes;
+    }
+
+    private String explain(String methodName) throws Exception {
+        StringBuilder plan = new StringBuilder();
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("SET search_path TO " + SCHEMA);
+            try (ResultSet rs = stmt.executeQuery("EXPLAIN " + query(methodName))) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+
+    private void assertIndexDriven(String plan) {
+        assertThat(plan)
+            .as("실행계획:%n%s", plan)
+            .containsPattern("Index (Only )?Scan using \\w+ on product_codes")
+            .doesNotContain("Seq Scan on product_codes")
+            .doesNotContain("Seq Scan on products");
+    }
+
+    private static String query(String methodName) throws NoSuchMethodException {
+        return OrderRepository.class.getMethod(methodName).getAnnotation(Query.class).value();
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
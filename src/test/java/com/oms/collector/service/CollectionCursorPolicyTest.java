@@ -0,0 +1,70 @@
+package com.oms.collector.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CollectionCursorPolicyTest {
+
+    private static final LocalDateTime END = LocalDateTime.of(2026, 3, 30, 12, 0);
+
+    private CollectionCursorPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        policy = new CollectionCursorPolicy();
+        ReflectionTestUtils.setField(policy, "overlapMinutes", 5L);
+        ReflectionTestUtils.setField(policy, "initialLookbackMinutes", 15L);
+        ReflectionTestUtils.setField(policy, "maxLookbackHours", 72L);
+    }
+
+    @Test
+    @DisplayName("커서가 없으면 initial-lookback 만큼 과거부터 요청 끝까지 수집한다")
+    void nullCursorUsesInitialLookback() {
+        CollectionCursorPolicy.CollectionWindow window = policy.window(null, END);
+
+        assertThat(window.start()).isEqualTo(END.minusMinutes(15));
+        assertThat(window.end()).isEqualTo(END);
+        assertThat(window.isCapped(END)).isFalse();
+    }
+
+    @Test
+    @DisplayName("커서가 있으면 overlap 만큼 겹쳐서 수집한다")
+    void cursorOverlaps() {
+        CollectionCursorPolicy.CollectionWindow window = policy.window(END.minusMinutes(10), END);
+
+        assertThat(window.start()).isEqualTo(END.minusMinutes(15));
+        assertThat(window.end()).isEqualTo(END);
+    }
+
+    @Test
+    @DisplayName("오래 멈춘 커서는 구간 끝을 잘라 커서부터 빈틈 없이 이어서 수집한다")
+    void staleCursorCapsWindowEndInsteadOfSkipping() {
+        LocalDateTime cursor = END.minusDays(10);
+
+        CollectionCursorPolicy.CollectionWindow first = policy.window(cursor, END);
+
+        assertThat(first.start()).isEqualTo(cursor.minusMinutes(5));
+        assertThat(first.end()).isEqualTo(cursor.minusMinutes(5).plusHours(72));
+        assertThat(first.isCapped(END)).isTrue();
+
+        // 다음 수집은 저장된 커서(first.end) 바로 앞에서 이어짐
+        CollectionCursorPolicy.CollectionWindow next = policy.window(first.end(), END);
+        assertThat(next.start()).isBefore(first.end());
+        assertThat(next.end()).isAfter(first.end());
+    }
+
+    @Test
+    @DisplayName("커서가 요청 끝보다 뒤면 빈 구간을 돌려준다")
+    void cursorAfterEndYieldsEmptyWindow() {
+        CollectionCursorPolicy.CollectionWindow window = policy.window(END.plusHours(1), END);
+
+        assertThat(window.start()).isEqualTo(END);
+        assertThat(window.end()).isEqualTo(END);
+    }
+}
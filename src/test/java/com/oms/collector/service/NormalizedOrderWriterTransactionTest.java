@@ -0,0 +1,176 @@
+package com.oms.collector.service;
+
+import com.oms.collector.entity.Order;
+import com.oms.collector.service.NormalizedOrderWriter.NormalizedOrder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 수집 경로(@Transactional collect → processUnprocessedOrdersByChannel)처럼 바깥 트랜잭션 안에서
+ * NormalizedOrderWriter 를 호출할 때의 전파 검증
+ *
+ * JpaTransactionManager 와 같이 NESTED 를 허용하지 않는 트랜잭션 매니저와 실제 @Transactional 프록시를 사용합니다.
+ */
+class NormalizedOrderWriterTransactionTest {
+
+    private RecordingTransactionManager transactionManager;
+    private JdbcTemplate jdbc;
+    private NormalizedOrderWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = new RecordingTransactionManager();
+        jdbc = mock(JdbcTemplate.class);
+        OrderSequenceService sequenceService = mock(OrderSequenceService.class);
+        when(sequenceService.generateOrderNos(anyInt())).thenAnswer(invocation -> {
+            int count = invocation.getArgument(0);
+            return IntStream.rangeClosed(1, count)
+                .mapToObj(i -> "OMS-20260330-%04d".formatted(i))
+                .toList();
+        });
+
+        ProxyFactory proxyFactory = new ProxyFactory(new NormalizedOrderWriter(jdbc, sequenceService));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        writer = (NormalizedOrderWriter) proxyFactory.getProxy();
+    }
+
+    @Test
+    @DisplayName("바깥 트랜잭션 안에서도 청크는 자체 트랜잭션으로 커밋된다")
+    void chunkCommitsIndependentlyInsideOuterTransaction() {
+        TransactionTemplate outer = new TransactionTemplate(transactionManager);
+
+        Integer saved = outer.execute(status -> {
+            int count = writer.writeChunk(List.of(normalizedOrder("A-1"), normalizedOrder("A-2")));
+            assertThat(transactionManager.committed).isEqualTo(1);
+            assertThat(transactionManager.suspended).isEqualTo(1);
+            return count;
+        });
+
+        assertThat(saved).isEqualTo(2);
+        assertThat(transactionManager.begun).isEqualTo(2);
+        assertThat(transactionManager.committed).isEqualTo(2);
+        assertThat(transactionManager.rolledBack).isZero();
+    }
+
+    @Test
+    @DisplayName("청크 저장이 실패해도 해당 청크만 롤백되고 단건 재시도와 바깥 트랜잭션은 커밋된다")
+    void failedChunkRollsBackOnlyItself() {
+        when(jdbc.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+            .thenThrow(new DataIntegrityViolationException("duplicate key"))
+            .thenReturn(new int[][] {{1}});
+        TransactionTemplate outer = new TransactionTemplate(transactionManager);
+
+        outer.executeWithoutResult(status -> {
+            assertThatThrownBy(() -> writer.writeChunk(List.of(normalizedOrder("B-1"))))
+                .isInstanceOf(DataIntegrityViolationException.class);
+            assertThat(transactionManager.rolledBack).isEqualTo(1);
+
+            writer.writeOne(normalizedOrder("B-1"));
+            writer.markErrors(Map.of(UUID.randomUUID(), "주문 처리 실패: 필수값 누락 (address)"));
+            assertThat(status.isRollbackOnly()).isFalse();
+        });
+
+        assertThat(transactionManager.begun).isEqualTo(4);
+        assertThat(transactionManager.rolledBack).isEqualTo(1);
+        assertThat(transactionManager.committed).isEqualTo(3);
+    }
+
+    private NormalizedOrder normalizedOrder(String channelOrderNo) {
+        Order order = Order.builder()
+            .channelOrderNo(channelOrderNo)
+            .customerName("홍길동")
+            .recipientName("홍길동")
+            .recipientPhone("010-0000-0000")
+            .address("서울시 중구")
+            .totalAmount(BigDecimal.valueOf(10000))
+            .paymentAmount(BigDecimal.valueOf(10000))
+            .orderedAt(LocalDateTime.of(2026, 3, 30, 12, 0))
+            .build();
+        return new NormalizedOrder(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), order);
+    }
+
+    /**
+     * JpaTransactionManager 처럼 NESTED 를 허용하지 않고 REQUIRES_NEW 는 일시정지로 처리하는 트랜잭션 매니저
+     */
+    private static class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+
+        private int active;
+        private int begun;
+        private int committed;
+        private int rolledBack;
+        private int suspended;
+
+        RecordingTransactionManager() {
+            setNestedTransactionAllowed(false);
+        }
+
+        @Override
+        protected Object doGetTransaction() {
+            return new boolean[] {active > 0};
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return ((boolean[]) transaction)[0];
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            begun++;
+            active++;
+        }
+
+        @Override
+        protected Object doSuspend(Object transaction) {
+            suspended++;
+            int previous = active;
+            active = 0;
+            return previous;
+        }
+
+        @Override
+        protected void doResume(Object transaction, Object suspendedResources) {
+            active = (Integer) suspendedResources;
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            committed++;
+            active--;
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rolledBack++;
+            active--;
+        }
+    }
+}
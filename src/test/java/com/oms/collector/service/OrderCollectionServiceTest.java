@@ -0,0 +1,84 @@
+package com.oms.collector.service;
+
+import com.oms.collector.collector.OrderCollector;
+import com.oms.collector.dto.CollectedOrder;
+import com.oms.collector.entity.SalesChannel;
+import com.oms.collector.repository.SalesChannelRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderCollectionServiceTest {
+
+    private static final LocalDateTime END = LocalDateTime.of(2026, 3, 30, 12, 0);
+
+    private SalesChannelRepository salesChannelRepository;
+    private RawOrderService rawOrderService;
+    private OrderCollectionService service;
+
+    @BeforeEach
+    void setUp() {
+        salesChannelRepository = mock(SalesChannelRepository.class);
+        rawOrderService = mock(RawOrderService.class);
+        when(salesChannelRepository.findByIsActiveTrue()).thenReturn(List.of(channel("SLOW_SAVE"), channel("FAST")));
+
+        service = new OrderCollectionService(
+            List.of(collector("SLOW_SAVE"), collector("FAST")),
+            salesChannelRepository, rawOrderService, new CollectionCursorPolicy());
+        ReflectionTestUtils.setField(service, "maxThreads", 2);
+        ReflectionTestUtils.setField(service, "channelTimeoutSeconds", 1L);
+        service.initExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdownExecutor();
+    }
+
+    @Test
+    @DisplayName("앞 판매처 저장이 타임아웃보다 오래 걸려도 제시간에 끝난 다음 판매처는 SUCCESS")
+    void slowSaveDoesNotTimeOutFinishedChannel() {
+        when(rawOrderService.saveRawOrders(eq("SLOW_SAVE"), anyList())).thenAnswer(invocation -> {
+            Thread.sleep(1_500);
+            return new RawOrderService.BulkSaveResult(1, 1, 0, 0, List.of());
+        });
+        when(rawOrderService.saveRawOrders(eq("FAST"), anyList()))
+            .thenReturn(new RawOrderService.BulkSaveResult(1, 1, 0, 0, List.of()));
+
+        OrderCollectionService.CollectionRunSummary summary = service.collectAllChannels(END.minusHours(1), END);
+
+        assertThat(summary.channels())
+            .extracting(OrderCollectionService.ChannelCollectionResult::status)
+            .containsExactly(OrderCollectionService.ChannelCollectionStatus.SUCCESS,
+                             OrderCollectionService.ChannelCollectionStatus.SUCCESS);
+        assertThat(summary.channels().get(1).savedCount()).isEqualTo(1);
+    }
+
+    private SalesChannel channel(String code) {
+        return SalesChannel.builder()
+            .channelCode(code)
+            .channelName(code)
+            .isActive(true)
+            .build();
+    }
+
+    private OrderCollector collector(String code) {
+        OrderCollector collector = mock(OrderCollector.class);
+        when(collector.getChannelCode()).thenReturn(code);
+        when(collector.collectOrders(any(), any()))
+            .thenReturn(List.of(CollectedOrder.builder().channelOrderNo(code + "-1").build()));
+        return collector;
+    }
+}
@@ -0,0 +1,73 @@
+package com.oms.collector.service;
+
+import com.oms.collector.entity.Product;
+import com.oms.collector.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductCatalogIndexTest {
+
+    private ProductRepository productRepository;
+    private ProductCatalogIndex index;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        when(productRepository.findAll())
+            .thenReturn(List.of(product("SKU-1")))
+            .thenReturn(List.of(product("SKU-1"), product("SKU-2")));
+        index = new ProductCatalogIndex(productRepository);
+        ReflectionTestUtils.setField(index, "ttlSeconds", 300L);
+    }
+
+    @Test
+    @DisplayName("만료 전에는 같은 스냅샷을 재사용한다")
+    void reusesSnapshotUntilExpired() {
+        ProductCatalogIndex.CatalogSnapshot first = index.snapshot();
+
+        assertThat(index.snapshot()).isSameAs(first);
+        verify(productRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("스키마 단위로 폐기하면 다음 조회에서 DB 상태를 다시 읽는다")
+    void invalidateBySchemaReloads() {
+        assertThat(index.snapshot().bySku("SKU-2")).isNull();
+
+        index.invalidate("public");
+
+        assertThat(index.snapshot().bySku("sku-2")).isNotNull();
+        verify(productRepository, times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("만료 시간이 지나면 기록되지 않은 변경도 재로딩으로 반영된다")
+    void reloadsAfterTtl() {
+        ReflectionTestUtils.setField(index, "ttlSeconds", 0L);
+
+        index.snapshot();
+        ProductCatalogIndex.CatalogSnapshot reloaded = index.snapshot();
+
+        assertThat(reloaded.size()).isEqualTo(2);
+        verify(productRepository, times(2)).findAll();
+    }
+
+    private Product product(String sku) {
+        return Product.builder()
+            .productId(UUID.nameUUIDFromBytes(sku.getBytes()))
+            .sku(sku)
+            .productName(sku + " 상품")
+            .build();
+    }
+}
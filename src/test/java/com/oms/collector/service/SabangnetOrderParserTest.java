@@ -0,0 +1,133 @@
+package com.oms.collector.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oms.collector.dto.CollectedOrder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SabangnetOrderParserTest {
+
+    private final SabangnetOrderParser parser = new SabangnetOrderParser(new ObjectMapper());
+
+    @Test
+    @DisplayName("XML 응답은 BOM·선언을 건너뛰고 order 요소마다 주문 하나로 읽는다")
+    void xmlOrdersWithItems() throws Exception {
+        String xml = "\uFEFF<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<response><header><code>200</code></header><orders>\n"
+            + "  <order><orderNo>S-1</orderNo><recvName>홍길동</recvName><recvTel>010-1111-2222</recvTel>"
+            + "<recvAddr>서울시 강남구</recvAddr><ordDate>20260330101500</ordDate>\n"
+            + "    <item><goodsName>티셔츠</goodsName><qty>2</qty><price>12,000</price></item>\n"
+            + "    <item><goodsName>양말</goodsName><qty>1</qty><price>3000</price></item>\n"
+            + "  </order>\n"
+            + "  <order><orderNo>S-2</orderNo><recvName>김철수</recvName><recvTel>010-3333-4444</recvTel>"
+            + "<recvAddr><![CDATA[부산시 해운대구 & 1층]]></recvAddr><goodsName>모자</goodsName></order>\n"
+            + "</orders></response>";
+
+        List<CollectedOrder> orders = new ArrayList<>();
+        int count = parser.parseXml(new StringReader(xml), orders::add);
+
+        assertThat(count).isEqualTo(2);
+        CollectedOrder first = orders.get(0);
+        assertThat(first.getChannelOrderNo()).isEqualTo("S-1");
+        assertThat(first.getRecipientName()).isEqualTo("홍길동");
+        assertThat(first.getOrderedAt()).isEqualTo(LocalDateTime.of(2026, 3, 30, 10, 15));
+        assertThat(first.getItems()).hasSize(2);
+        assertThat(first.getItems().get(0).getQuantity()).isEqualTo(2);
+        assertThat(first.getItems().get(0).getUnitPrice()).isEqualByComparingTo(new BigDecimal("12000"));
+        assertThat(first.getRawJson()).contains("S-1").doesNotContain("S-2");
+
+        CollectedOrder second = orders.get(1);
+        assertThat(second.getAddress()).isEqualTo("부산시 해운대구 & 1층");
+        assertThat(second.getItems()).singleElement()
+            .satisfies(item -> {
+                assertThat(item.getProductName()).isEqualTo("모자");
+                assertThat(item.getQuantity()).isEqualTo(1);
+            });
+    }
+
+    @Test
+    @DisplayName("루트 없는 조각 응답의 Order 요소도 주문으로 읽는다")
+    void xmlFragmentWithCapitalizedOrders() throws Exception {
+        String xml = "<Order><ordNo>A-1</ordNo><rcvName>이영희</rcvName><rcvTel>010-5555-6666</rcvTel>"
+            + "<addr>대구시</addr><productName>컵</productName></Order>"
+            + "<Order><ordNo>A-2</ordNo><rcvName>박민수</rcvName><rcvTel>010-7777-8888</rcvTel>"
+            + "<addr>광주시</addr><productName>접시</productName></Order>";
+
+        List<CollectedOrder> orders = new ArrayList<>();
+        int count = parser.parseXml(new StringReader(xml), orders::add);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(orders).extracting(CollectedOrder::getChannelOrderNo).containsExactly("A-1", "A-2");
+    }
+
+    @Test
+    @DisplayName("주문 안에 다시 나오는 order 요소는 별도 주문이 아니다 (가장 바깥 요소 우선)")
+    void nestedOrderElementBelongsToOuterOrder() throws Exception {
+        String xml = "<orders><order><orderNo>N-1</orderNo><recvName>홍길동</recvName><recvTel>010-1111-2222</recvTel>"
+            + "<recvAddr>서울시</recvAddr><goodsName>책</goodsName>"
+            + "<order><orderNo>N-1-SUB</orderNo></order></order></orders>";
+
+        List<CollectedOrder> orders = new ArrayList<>();
+        int count = parser.parseXml(new StringReader(xml), orders::add);
+
+        assertThat(count).isEqualTo(1);
+        assertThat(orders.get(0).getChannelOrderNo()).isEqualTo("N-1");
+    }
+
+    @Test
+    @DisplayName("order 요소가 없는 단건 응답은 최상위 요소를 주문으로 읽고, 필수값 없는 주문은 건너뛴다")
+    void xmlSingleOrderAndInvalidOrders() throws Exception {
+        String single = "<result><orderNo>X-1</orderNo><receiverName>최지원</receiverName>"
+            + "<receiverPhone>010-9999-0000</receiverPhone><address>인천시</address><goodsName>가방</goodsName></result>";
+        String invalid = "<orders><order><orderNo>X-2</orderNo><goodsName>가방</goodsName></order></orders>";
+
+        List<CollectedOrder> orders = new ArrayList<>();
+        assertThat(parser.parseXml(new StringReader(single), orders::add)).isEqualTo(1);
+        assertThat(parser.parseXml(new StringReader(invalid), orders::add)).isZero();
+
+        assertThat(orders).singleElement().extracting(CollectedOrder::getChannelOrderNo).isEqualTo("X-1");
+    }
+
+    @Test
+    @DisplayName("JSON 응답은 컨테이너 배열 원소마다 주문 하나로 읽고 원본 조각만 보관한다")
+    void jsonContainerOrders() throws Exception {
+        String json = "{\"code\":\"0\",\"orders\":["
+            + "{\"orderNo\":\"J-1\",\"receiverName\":\"홍길동\",\"receiverPhone\":\"010-1111-2222\",\"address\":\"서울시\","
+            + "\"payAmount\":\"15,000\",\"orderItems\":[{\"productName\":\"컵\",\"quantity\":3,\"unitPrice\":\"5000\"}]},"
+            + "{\"orderNo\":\"J-2\"}"
+            + "]}";
+
+        List<CollectedOrder> orders = new ArrayList<>();
+        int count = parser.parseJson(new StringReader(json), orders::add);
+
+        assertThat(count).isEqualTo(1);
+        CollectedOrder order = orders.get(0);
+        assertThat(order.getChannelOrderNo()).isEqualTo("J-1");
+        assertThat(order.getTotalAmount()).isEqualByComparingTo(new BigDecimal("15000"));
+        assertThat(order.getItems()).singleElement()
+            .satisfies(item -> assertThat(item.getQuantity()).isEqualTo(3));
+        assertThat(order.getRawJson()).contains("J-1").doesNotContain("J-2").doesNotContain("\"code\"");
+    }
+
+    @Test
+    @DisplayName("최상위 JSON 배열도 주문 목록으로 읽는다")
+    void jsonTopLevelArray() throws Exception {
+        String json = "[{\"order_no\":\"J-3\",\"recvName\":\"김철수\",\"recvTel\":\"010-3333-4444\",\"recvAddr\":\"부산시\","
+            + "\"goodsName\":\"모자\",\"qty\":\"2\"}]";
+
+        List<CollectedOrder> orders = new ArrayList<>();
+        int count = parser.parseJson(new StringReader(json), orders::add);
+
+        assertThat(count).isEqualTo(1);
+        assertThat(orders.get(0).getChannelOrderNo()).isEqualTo("J-3");
+        assertThat(orders.get(0).getItems().get(0).getQuantity()).isEqualTo(2);
+    }
+}
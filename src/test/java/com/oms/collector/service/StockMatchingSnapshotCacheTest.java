@@ -0,0 +1,74 @@
+package com.oms.collector.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StockMatchingSnapshotCacheTest {
+
+    private final AtomicLong version = new AtomicLong(1);
+    private final AtomicInteger computations = new AtomicInteger();
+    private StockMatchingSnapshotCache cache;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.queryForObject(anyString(), eq(Boolean.class), anyString())).thenReturn(true);
+        when(jdbc.queryForObject(anyString(), eq(Long.class))).thenAnswer(invocation -> version.get());
+
+        cache = new StockMatchingSnapshotCache(jdbc);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+        ReflectionTestUtils.setField(cache, "maxSnapshots", 2);
+    }
+
+    @Test
+    @DisplayName("버전이 같으면 재사용하고, 커밋으로 버전이 바뀌면 다시 계산한다")
+    void recomputesOnlyWhenVersionChanges() {
+        assertThat(cache.getOrCompute("match:A", computations::incrementAndGet).value()).isEqualTo(1);
+        assertThat(cache.getOrCompute("match:A", computations::incrementAndGet).value()).isEqualTo(1);
+
+        version.incrementAndGet();
+
+        assertThat(cache.getOrCompute("match:A", computations::incrementAndGet).value()).isEqualTo(2);
+        assertThat(cache.getOrCompute("match:A", computations::incrementAndGet).version()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("보관 개수를 넘으면 가장 오래 계산된 스냅샷부터 버린다")
+    void evictsOldestBeyondLimit() throws InterruptedException {
+        cache.getOrCompute("match:A", computations::incrementAndGet);
+        Thread.sleep(5);
+        cache.getOrCompute("match:B", computations::incrementAndGet);
+        Thread.sleep(5);
+        cache.getOrCompute("match:C", computations::incrementAndGet);
+
+        cache.getOrCompute("match:B", computations::incrementAndGet);
+        cache.getOrCompute("match:C", computations::incrementAndGet);
+        assertThat(computations.get()).isEqualTo(3);
+
+        cache.getOrCompute("match:A", computations::incrementAndGet);
+        assertThat(computations.get()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("스키마 단위 폐기 후에는 같은 버전이어도 다시 계산한다")
+    void invalidateBySchemaForcesRecompute() {
+        cache.getOrCompute("match:A", computations::incrementAndGet);
+
+        cache.invalidate("public");
+        cache.getOrCompute("match:A", computations::incrementAndGet);
+
+        assertThat(computations.get()).isEqualTo(2);
+    }
+}
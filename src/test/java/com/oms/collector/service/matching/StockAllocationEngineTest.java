@@ -0,0 +1,88 @@
+package com.oms.collector.service.matching;
+
+import com.oms.collector.service.matching.StockAllocationEngine.Demand;
+import com.oms.collector.service.matching.StockAllocationEngine.Line;
+import com.oms.collector.service.matching.StockAllocationEngine.Result;
+import com.oms.collector.service.matching.StockAllocationEngine.Status;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockAllocationEngineTest {
+
+    private static final UUID SHIRT = UUID.randomUUID();
+    private static final UUID PANTS = UUID.randomUUID();
+
+    @Test
+    @DisplayName("재고가 일부만 있으면 남은 만큼 할당해 PARTIAL, 다음 주문은 IMPOSSIBLE")
+    void partialCoverage() {
+        Result result = StockAllocationEngine.allocate(List.of(
+            new Demand("A", SHIRT, 5),
+            new Demand("B", SHIRT, 1)
+        ), stock(Map.of(SHIRT, 3)));
+
+        assertThat(result.orderStatus()).containsEntry("A", Status.PARTIAL).containsEntry("B", Status.IMPOSSIBLE);
+        assertThat(result.lines().get(0).allocated()).isEqualTo(3);
+        assertThat(result.lines().get(1).available()).isZero();
+        assertThat(result.plan().quantitiesOf("A")).containsEntry(SHIRT, 3);
+        assertThat(result.plan().contains("B")).isFalse();
+    }
+
+    @Test
+    @DisplayName("입력 순서(할당 우선순위)대로 앞선 주문이 먼저 재고를 가져간다")
+    void priorityOrder() {
+        Result first = StockAllocationEngine.allocate(List.of(
+            new Demand("A", SHIRT, 2),
+            new Demand("B", SHIRT, 2)
+        ), stock(Map.of(SHIRT, 3)));
+        Result swapped = StockAllocationEngine.allocate(List.of(
+            new Demand("B", SHIRT, 2),
+            new Demand("A", SHIRT, 2)
+        ), stock(Map.of(SHIRT, 3)));
+
+        assertThat(first.orderStatus()).containsEntry("A", Status.FULL).containsEntry("B", Status.PARTIAL);
+        assertThat(swapped.orderStatus()).containsEntry("B", Status.FULL).containsEntry("A", Status.PARTIAL);
+    }
+
+    @Test
+    @DisplayName("IMPOSSIBLE 주문은 재고가 있는 아이템도 IMPOSSIBLE 로 표시하고 재고를 다음 주문에 넘긴다")
+    void impossibleOrderReleasesStock() {
+        Result result = StockAllocationEngine.allocate(List.of(
+            new Demand("A", SHIRT, 1),
+            new Demand("A", PANTS, 1),
+            new Demand("B", SHIRT, 5)
+        ), stock(Map.of(SHIRT, 5, PANTS, 0)));
+
+        Line shirtOfA = result.lines().get(0);
+        assertThat(result.orderStatus()).containsEntry("A", Status.IMPOSSIBLE).containsEntry("B", Status.FULL);
+        assertThat(shirtOfA.status()).isEqualTo(Status.IMPOSSIBLE);
+        assertThat(shirtOfA.available()).isEqualTo(5);
+        assertThat(shirtOfA.allocated()).isZero();
+        assertThat(result.plan().quantitiesOf("B")).containsEntry(SHIRT, 5);
+    }
+
+    @Test
+    @DisplayName("미매칭 아이템이 있는 주문은 NOT_MATCHED 이고 예약 계획에서 빠진다")
+    void notMatchedOrderIsNotReserved() {
+        Result result = StockAllocationEngine.allocate(List.of(
+            new Demand("A", null, 1),
+            new Demand("A", SHIRT, 1),
+            new Demand("B", SHIRT, 1)
+        ), stock(Map.of(SHIRT, 1)));
+
+        assertThat(result.orderStatus()).containsEntry("A", Status.NOT_MATCHED).containsEntry("B", Status.FULL);
+        assertThat(result.lines()).extracting(Line::status)
+            .containsExactly(Status.NOT_MATCHED, Status.IMPOSSIBLE, Status.FULL);
+        assertThat(result.plan().totalsFor(List.of("A", "B"))).containsExactly(Map.entry(SHIRT, 1));
+    }
+
+    private static ToIntFunction<UUID> stock(Map<UUID, Integer> stock) {
+        return productId -> stock.getOrDefault(productId, 0);
+    }
+}
@@ -0,0 +1,75 @@
+package com.oms.collector.service.matching;
+
+import com.oms.collector.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+
+    private static final UUID BLACK_TEE = UUID.randomUUID();
+    private static final UUID WHITE_TEE = UUID.randomUUID();
+    private static final UUID DENIM = UUID.randomUUID();
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = TrigramIndex.build(List.of(
+            product(BLACK_TEE, "오버핏 반팔 티셔츠", "블랙 M", "TS-100-BK"),
+            product(WHITE_TEE, "오버핏 반팔 티셔츠", "화이트 L", "TS-100-WH"),
+            product(DENIM, "와이드 데님 팬츠", "연청 28", "PT-200")
+        ));
+    }
+
+    @Test
+    @DisplayName("색인 문자열과 같은 질의는 Dice 1.0 으로 맨 앞에 온다")
+    void exactMatchRanksFirst() {
+        List<TrigramIndex.Candidate> result = index.topK("오버핏 반팔 티셔츠 블랙 M TS-100-BK", 3);
+
+        assertThat(result).isNotEmpty();
+        assertThat(result.get(0).productId()).isEqualTo(BLACK_TEE);
+        assertThat(result.get(0).score()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("일부만 겹치는 질의는 공유 트라이그램이 많은 순으로 정렬된다")
+    void partialMatchOrdersByScore() {
+        List<TrigramIndex.Candidate> result = index.topK("반팔 티셔츠 블랙", 3);
+
+        assertThat(result).extracting(TrigramIndex.Candidate::productId)
+            .containsExactly(BLACK_TEE, WHITE_TEE);
+        assertThat(result.get(0).score()).isGreaterThan(result.get(1).score()).isLessThan(1.0);
+    }
+
+    @Test
+    @DisplayName("공유 트라이그램이 없으면 빈 결과")
+    void noMatchReturnsEmpty() {
+        assertThat(index.topK("가죽 부츠", 3)).isEmpty();
+        assertThat(index.topK("   ", 3)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("k 건으로 잘리고, 반복 조회해도 이전 조회의 카운트가 남지 않는다")
+    void topKIsBoundedAndRepeatable() {
+        List<TrigramIndex.Candidate> first = index.topK("오버핏 반팔 티셔츠", 1);
+        List<TrigramIndex.Candidate> second = index.topK("오버핏 반팔 티셔츠", 1);
+
+        assertThat(first).hasSize(1);
+        assertThat(second).isEqualTo(first);
+    }
+
+    private Product product(UUID productId, String productName, String optionName, String sku) {
+        return Product.builder()
+            .productId(productId)
+            .productName(productName)
+            .optionName(optionName)
+            .sku(sku)
+            .build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.oms.collector.service.tracking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PostOfficeApiClientTest {
+
+    private static final String CUSTOMER_NO = "C0001";
+
+    private PostOfficeStubServer stub;
+    private PostOfficeApiClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = PostOfficeStubServer.start(0);
+        client = new PostOfficeApiClient();
+        ReflectionTestUtils.setField(client, "baseUrl", stub.baseUrl());
+        ReflectionTestUtils.setField(client, "authKey", "test-auth-key");
+        ReflectionTestUtils.setField(client, "seedKey", PostOfficeStubServer.SEED_KEY);
+        ReflectionTestUtils.setField(client, "customerNo", CUSTOMER_NO);
+        ReflectionTestUtils.setField(client, "contractApprovalNo", "");
+        ReflectionTestUtils.setField(client, "officeSer", "");
+        ReflectionTestUtils.setField(client, "sessionTtlMinutes", 60L);
+        ReflectionTestUtils.setField(client, "sessionRetryAgeSeconds", 300L);
+        client.initHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    @DisplayName("연속 소포신청은 계약 세션을 한 번만 조회하고 연결 하나를 재사용한다")
+    void sessionIsFetchedOnceAndConnectionReused() {
+        for (int i = 0; i < 50; i++) {
+            PostOfficeApiClient.ApiResponse response =
+                client.callWithSession(PostOfficeTrackingNumberProvider.INSERT_ORDER_API_PATH, insertOrderQuery());
+            assertThat(response.required("regiNo")).hasSize(13);
+        }
+
+        assertThat(stub.calls(PostOfficeApiClient.APPROVAL_API_PATH)).isEqualTo(1);
+        assertThat(stub.calls(PostOfficeApiClient.OFFICE_INFO_API_PATH)).isEqualTo(1);
+        assertThat(stub.calls(PostOfficeTrackingNumberProvider.INSERT_ORDER_API_PATH)).isEqualTo(50);
+        assertThat(stub.connections()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("승인번호가 바뀌면 세션을 한 번 갱신한 뒤 재시도해 성공한다")
+    void rotatedApprovalNoRefreshesSessionOnce() {
+        client.callWithSession(PostOfficeTrackingNumberProvider.INSERT_ORDER_API_PATH, insertOrderQuery());
+        stub.rotateApprovalNo("APPR-2");
+
+        PostOfficeApiClient.ApiResponse response =
+            client.callWithSession(PostOfficeTrackingNumberProvider.INSERT_ORDER_API_PATH, insertOrderQuery());
+
+        assertThat(response.required("regiNo")).isNotBlank();
+        assertThat(client.session(null).apprNo()).isEqualTo("APPR-2");
+        assertThat(stub.calls(PostOfficeApiClient.APPROVAL_API_PATH)).isEqualTo(2);
+        assertThat(stub.calls(PostOfficeTrackingNumberProvider.INSERT_ORDER_API_PATH)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("세션과 무관한 오류는 방금 받은 세션이면 재시도하지 않는다")
+    void unrelatedErrorIsNotRetried() {
+        assertThatThrownBy(() -> client.callWithSession("/api.Unknown.jparcel", insertOrderQuery()))
+            .isInstanceOf(PostOfficeApiClient.ApiErrorException.class);
+
+        assertThat(stub.calls("/api.Unknown.jparcel")).isEqualTo(1);
+        assertThat(stub.calls(PostOfficeApiClient.APPROVAL_API_PATH)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("오래된 세션이라 갱신했어도 값이 같으면 재시도하지 않는다")
+    void renewedSessionWithSameValuesIsNotRetried() {
+        ReflectionTestUtils.setField(client, "sessionRetryAgeSeconds", 0L);
+        client.session(null);
+
+        assertThatThrownBy(() -> client.callWithSession("/api.Unknown.jparcel", insertOrderQuery()))
+            .isInstanceOf(PostOfficeApiClient.ApiErrorException.class);
+
+        assertThat(stub.calls("/api.Unknown.jparcel")).isEqualTo(1);
+        assertThat(stub.calls(PostOfficeApiClient.APPROVAL_API_PATH)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("응답 XML 은 중첩·CDATA 태그까지 태그별 첫 값으로 읽는다")
+    void parseFlattensNestedTags() {
+        Map<String, String> values = PostOfficeApiClient.parse(
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<response><regiNo>6890000000001</regiNo>"
+                + "<area><delivAreaCd><![CDATA[1-0-1]]></delivAreaCd></area>"
+                + "<regiNo>ignored</regiNo></response>"
+        );
+
+        assertThat(values)
+            .containsEntry("regiNo", "6890000000001")
+            .containsEntry("delivAreaCd", "1-0-1");
+    }
+
+    private Function<PostOfficeApiClient.Session, String> insertOrderQuery() {
+        return session -> "custNo=" + CUSTOMER_NO
+            + "&apprNo=" + session.apprNo()
+            + "&officeSer=" + session.officeSer();
+    }
+}
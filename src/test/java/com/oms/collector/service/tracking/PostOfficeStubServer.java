@@ -0,0 +1,161 @@
+package com.oms.collector.service.tracking;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import kr.re.etri.security.SEED128;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 우체국 계약소포 OpenAPI 로컬 스텁 — 오프라인 테스트용 픽스처
+ *
+ * regData 를 SEED_KEY 로 복호화해 승인번호를 확인하고, API 경로별 호출 수와 클라이언트 연결 수를 셉니다.
+ * start(0) 으로 빈 포트에 띄우고 테스트가 끝나면 close 합니다.
+ */
+public class PostOfficeStubServer implements AutoCloseable {
+
+    public static final String SEED_KEY = "0123456789abcdef";
+    public static final String AUTH_ERROR_CODE = "ERR-APPR";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final SEED128 seed128 = new SEED128();
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final AtomicLong regiSequence = new AtomicLong(6890000000000L);
+
+    private volatile String approvalNo = "APPR-1";
+    private volatile String officeSer = "OFFICE-1";
+    private volatile long responseDelayMillis;
+
+    private PostOfficeStubServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        executor = Executors.newFixedThreadPool(16);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public static PostOfficeStubServer start(int port) throws IOException {
+        PostOfficeStubServer stub = new PostOfficeStubServer(port);
+        stub.server.start();
+        return stub;
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /** 계약승인번호 변경 — 이전 번호로 들어온 소포신청은 AUTH_ERROR_CODE 로 거절 */
+    public void rotateApprovalNo(String approvalNo) {
+        this.approvalNo = approvalNo;
+    }
+
+    /** 응답 지연 (실제 API 응답 시간 흉내) */
+    public void setResponseDelayMillis(long responseDelayMillis) {
+        this.responseDelayMillis = responseDelayMillis;
+    }
+
+    public int calls(String apiPath) {
+        AtomicInteger count = calls.get(apiPath);
+        return count != null ? count.get() : 0;
+    }
+
+    /** 지금까지 요청을 보낸 클라이언트 연결 수 (원격 포트 기준) */
+    public int connections() {
+        return clientPorts.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        calls.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+
+        Map<String, String> fields = decryptRegData(exchange.getRequestURI().getRawQuery());
+        String body = switch (path) {
+            case PostOfficeApiClient.APPROVAL_API_PATH -> "<response><apprNo>" + approvalNo + "</apprNo></response>";
+            case PostOfficeApiClient.OFFICE_INFO_API_PATH -> "<response><officeSer>" + officeSer + "</officeSer></response>";
+            case PostOfficeTrackingNumberProvider.INSERT_ORDER_API_PATH -> insertOrder(fields);
+            case PostOfficeTrackingNumberProvider.CANCEL_ORDER_API_PATH -> approvalNo.equals(fields.get("apprNo"))
+                ? "<response><canceledYn>Y</canceledYn></response>"
+                : error(AUTH_ERROR_CODE, "계약승인번호가 올바르지 않습니다");
+            default -> error("ERR-404", "알 수 없는 API: " + path);
+        };
+
+        if (responseDelayMillis > 0) {
+            try {
+                Thread.sleep(responseDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        byte[] bytes = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=UTF-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String insertOrder(Map<String, String> fields) {
+        if (!approvalNo.equals(fields.get("apprNo"))) {
+            return error(AUTH_ERROR_CODE, "계약승인번호가 올바르지 않습니다");
+        }
+        if (!officeSer.equals(fields.get("officeSer"))) {
+            return error("ERR-OFFICE", "공급지 일련번호가 올바르지 않습니다");
+        }
+        long regiNo = regiSequence.incrementAndGet();
+        return "<response>"
+            + "<reqNo>" + String.format("%018d", regiNo) + "</reqNo>"
+            + "<resNo>" + String.format("%010d", regiNo % 10_000_000_000L) + "</resNo>"
+            + "<regiNo>" + regiNo + "</regiNo>"
+            + "<delivAreaCd><![CDATA[1-0-1]]></delivAreaCd>"
+            + "<arrCnpoNm>스텁집중국</arrCnpoNm>"
+            + "<delivPoNm>스텁우체국</delivPoNm>"
+            + "<courseNo>101</courseNo>"
+            + "</response>";
+    }
+
+    private String error(String code, String message) {
+        return "<error><error_code>" + code + "</error_code><message>" + message + "</message></error>";
+    }
+
+    private Map<String, String> decryptRegData(String rawQuery) {
+        Map<String, String> fields = new HashMap<>();
+        if (rawQuery == null) {
+            return fields;
+        }
+        for (String param : rawQuery.split("&")) {
+            int eq = param.indexOf('=');
+            if (eq < 0 || !"regData".equals(param.substring(0, eq))) {
+                continue;
+            }
+            String encrypted = URLDecoder.decode(param.substring(eq + 1), StandardCharsets.UTF_8);
+            String plain = seed128.getDecryptData(SEED_KEY, encrypted).replace("\0", "");
+            for (String field : plain.split("&")) {
+                int sep = field.indexOf('=');
+                if (sep > 0) {
+                    fields.put(field.substring(0, sep), field.substring(sep + 1));
+                }
+            }
+        }
+        return fields;
+    }
+}